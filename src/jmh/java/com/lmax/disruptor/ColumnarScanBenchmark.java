@@ -0,0 +1,109 @@
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.dsl.ProducerType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sums a single field over every slot of a ring, held either in preallocated event objects
+ * or in a column of a {@link ColumnarRingBuffer}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(1)
+@State(Scope.Thread)
+public class ColumnarScanBenchmark
+{
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private RingBuffer<TradeEvent> ringBuffer;
+    private ColumnarRingBuffer columnarRingBuffer;
+    private ColumnarRingBuffer.DoubleColumn priceColumn;
+
+    @Setup
+    public void setup()
+    {
+        ringBuffer = RingBuffer.createSingleProducer(TradeEvent::new, BUFFER_SIZE, new BusySpinWaitStrategy());
+
+        final ColumnarRingBuffer.Builder builder = new ColumnarRingBuffer.Builder(BUFFER_SIZE);
+        final ColumnarRingBuffer.LongColumn idColumn = builder.addLongColumn();
+        final ColumnarRingBuffer.IntColumn quantityColumn = builder.addIntColumn();
+        priceColumn = builder.addDoubleColumn();
+        columnarRingBuffer = builder.build(ProducerType.SINGLE, new BusySpinWaitStrategy());
+
+        for (int i = 0; i < BUFFER_SIZE; i++)
+        {
+            final double price = i * 0.25;
+            ringBuffer.publishEvent((event, sequence) ->
+            {
+                event.id = sequence;
+                event.quantity = 100;
+                event.price = price;
+            });
+            columnarRingBuffer.publishEvent((event, sequence) ->
+            {
+                idColumn.set(sequence, sequence);
+                quantityColumn.set(sequence, 100);
+                priceColumn.set(sequence, price);
+            });
+        }
+    }
+
+    @Benchmark
+    public double objectScan()
+    {
+        final RingBuffer<TradeEvent> ringBuffer = this.ringBuffer;
+        double total = 0;
+        for (long sequence = 0; sequence < BUFFER_SIZE; sequence++)
+        {
+            total += ringBuffer.get(sequence).price;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double columnarScan()
+    {
+        final ColumnarRingBuffer.DoubleColumn priceColumn = this.priceColumn;
+        double total = 0;
+        for (long sequence = 0; sequence < BUFFER_SIZE; sequence++)
+        {
+            total += priceColumn.get(sequence);
+        }
+        return total;
+    }
+
+    public static class TradeEvent
+    {
+        long id;
+        int quantity;
+        double price;
+        final byte[] venue = new byte[16];
+    }
+
+    public static void main(final String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+                .include(ColumnarScanBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -5,10 +5,13 @@ import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.runner.Runner;
@@ -297,6 +300,99 @@ Space losses: 0 bytes internal + 4 bytes external = 4 bytes total
         s.writeOnly++;
     }
 
+    /*
+     * Two producers claiming and publishing interleaved sequences on a multi producer ring, so that without a
+     * slot stride they write to neighbouring events and availability flags.  Nothing gates the ring, so the
+     * producers never wait for a consumer.
+     */
+    @State(Scope.Group)
+    public static class StridedMultiProducerRingBuffer
+    {
+        @Param({"1", "4", "16"})
+        int slotStride;
+
+        RingBuffer<SimpleEvent> ringBuffer;
+
+        @Setup
+        public void setup()
+        {
+            ringBuffer = RingBuffer.createMultiProducer(SimpleEvent::new, 1024, new BusySpinWaitStrategy(), slotStride);
+        }
+    }
+
+    @Benchmark
+    @Group("strided")
+    @GroupThreads(2)
+    public void publisher(final StridedMultiProducerRingBuffer s)
+    {
+        final long sequence = s.ringBuffer.next();
+        s.ringBuffer.get(sequence).setValue(sequence);
+        s.ringBuffer.publish(sequence);
+    }
+
+    /*
+     * The cost of a stride: a consumer checking a batch of published sequences touches more cache lines.
+     */
+    @State(Scope.Thread)
+    public static class StridedPublishedSequencer
+    {
+        @Param({"1", "4", "16"})
+        int slotStride;
+
+        Sequencer sequencer;
+
+        @Setup
+        public void setup()
+        {
+            sequencer = new MultiProducerSequencer(1024, new BusySpinWaitStrategy(), slotStride);
+            sequencer.publish(sequencer.next(1024) - 1023, sequencer.getCursor());
+        }
+    }
+
+    @Benchmark
+    public long highestPublished(final StridedPublishedSequencer s)
+    {
+        return s.sequencer.getHighestPublishedSequence(0, 1023);
+    }
+
+    /*
+     * The cost of the stride option to everyone else: RingBuffer.get on a default ring against a plain masked
+     * array read.  The stride is applied when the events are allocated, so the two should match for every stride.
+     */
+    @State(Scope.Thread)
+    public static class IndexedRingBuffer
+    {
+        @Param({"1", "16"})
+        int slotStride;
+
+        RingBuffer<SimpleEvent> ringBuffer;
+        Object[] entries;
+        long sequence;
+
+        @Setup
+        public void setup()
+        {
+            ringBuffer = RingBuffer.createSingleProducer(SimpleEvent::new, 1024, new BusySpinWaitStrategy(), slotStride);
+            entries = new Object[1024];
+            for (int i = 0; i < entries.length; i++)
+            {
+                entries[i] = ringBuffer.get(i);
+            }
+        }
+    }
+
+    @Benchmark
+    public SimpleEvent ringBufferGet(final IndexedRingBuffer s)
+    {
+        return s.ringBuffer.get(s.sequence++);
+    }
+
+    @Benchmark
+    public Object maskedArrayGet(final IndexedRingBuffer s)
+    {
+        return s.entries[(int) (s.sequence++ & 1023)];
+    }
+
     public static void main(final String[] args) throws RunnerException
     {
         Options opt = new OptionsBuilder()
@@ -0,0 +1,58 @@
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.dsl.ProducerType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time taken to construct a large ring of heavy events with each {@link Preallocation}, measured from a cold
+ * start of each fork as a failover would see it.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 5, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class RingBufferStartupBenchmark
+{
+    @Param({"EAGER", "PARALLEL", "LAZY"})
+    Preallocation preallocation;
+
+    @Param({"4194304"})
+    int bufferSize;
+
+    public static class HeavyEvent
+    {
+        long[] values = new long[8];
+        long sequence;
+    }
+
+    @Benchmark
+    public RingBuffer<HeavyEvent> construct()
+    {
+        return RingBuffer.create(ProducerType.MULTI, HeavyEvent::new, bufferSize, new BusySpinWaitStrategy(), preallocation);
+    }
+
+    public static void main(final String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+                .include(RingBufferStartupBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
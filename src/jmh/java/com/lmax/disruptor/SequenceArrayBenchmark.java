@@ -0,0 +1,179 @@
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.util.Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link SequenceArray} layouts with individual {@link Sequence}s.
+ *
+ * <p>The adjacent groups have two threads each incrementing its own neighbouring value, which shows the cost of
+ * false sharing at each stride.  The minimum benchmarks scan many values, as a producer does over its gating
+ * sequences, which shows the benefit of density.  The views benchmark scans the same values through a
+ * {@link SequenceGroup} of {@link SequenceArray#sequence(int) views}, as a ring buffer gated on them does, which
+ * shows the cost of the extra indirection.
+ *
+ * <p>On footprint, each {@link Sequence} takes around 136 bytes.  A dense array takes 8 bytes per value, and each
+ * view adds around 24 bytes, so gating on 10,000 dense views takes about 320 KB rather than 1.3 MB.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(1)
+public class SequenceArrayBenchmark
+{
+    private static final int SCAN_COUNT = 10_000;
+
+    @State(Scope.Group)
+    public static class AdjacentArrayState
+    {
+        @Param({"1", "8", "16"})
+        int stride;
+
+        SequenceArray array;
+
+        @Setup
+        public void setup()
+        {
+            array = new SequenceArray(2, stride, 0L);
+        }
+    }
+
+    @State(Scope.Group)
+    public static class AdjacentSequenceState
+    {
+        Sequence value1 = new Sequence(0L);
+        Sequence value2 = new Sequence(0L);
+    }
+
+    @State(Scope.Thread)
+    public static class ScanArrayState
+    {
+        @Param({"1", "8", "16"})
+        int stride;
+
+        SequenceArray array;
+
+        @Setup
+        public void setup()
+        {
+            array = new SequenceArray(SCAN_COUNT, stride);
+            for (int i = 0; i < SCAN_COUNT; i++)
+            {
+                array.set(i, i);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ScanSequenceState
+    {
+        Sequence[] sequences;
+
+        @Setup
+        public void setup()
+        {
+            sequences = new Sequence[SCAN_COUNT];
+            for (int i = 0; i < SCAN_COUNT; i++)
+            {
+                sequences[i] = new Sequence(i);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ScanViewState
+    {
+        SequenceGroup group;
+
+        @Setup
+        public void setup()
+        {
+            final SequenceArray array = new SequenceArray(SCAN_COUNT, SequenceArray.DENSE);
+            group = new SequenceGroup();
+            for (int i = 0; i < SCAN_COUNT; i++)
+            {
+                array.set(i, i);
+                group.add(array.sequence(i));
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("sequenceArrayAdjacent")
+    @GroupThreads(1)
+    public long incrementFirstInArray(final AdjacentArrayState s)
+    {
+        return s.array.incrementAndGet(0);
+    }
+
+    @Benchmark
+    @Group("sequenceArrayAdjacent")
+    @GroupThreads(1)
+    public long incrementSecondInArray(final AdjacentArrayState s)
+    {
+        return s.array.incrementAndGet(1);
+    }
+
+    @Benchmark
+    @Group("sequenceAdjacent")
+    @GroupThreads(1)
+    public long incrementFirstSequence(final AdjacentSequenceState s)
+    {
+        return s.value1.incrementAndGet();
+    }
+
+    @Benchmark
+    @Group("sequenceAdjacent")
+    @GroupThreads(1)
+    public long incrementSecondSequence(final AdjacentSequenceState s)
+    {
+        return s.value2.incrementAndGet();
+    }
+
+    @Benchmark
+    public long minimumOfSequenceArray(final ScanArrayState s)
+    {
+        return s.array.getMinimum(Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public long minimumOfSequences(final ScanSequenceState s)
+    {
+        return Util.getMinimumSequence(s.sequences);
+    }
+
+    @Benchmark
+    public long minimumOfSequenceArrayViews(final ScanViewState s)
+    {
+        return s.group.get();
+    }
+
+    public static void main(final String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+                .include(SequenceArrayBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * The operations of a sequence, without the padding {@link Sequence} carries to avoid false sharing.
+ *
+ * <p>Implementations that keep their value elsewhere, such as the views of a {@link SequenceArray}, extend this
+ * class directly so that they only carry the fields they need.  They can be tracked with a {@link SequenceGroup},
+ * which is itself a {@link Sequence} and so can gate a ring buffer.
+ */
+public abstract class AbstractSequence
+{
+    /**
+     * Perform a volatile read of this sequence's value.
+     *
+     * @return The current value of the sequence.
+     */
+    public abstract long get();
+
+    /**
+     * Perform an ordered write of this sequence.  The intent is
+     * a Store/Store barrier between this write and any previous
+     * store.
+     *
+     * @param value The new value for the sequence.
+     */
+    public abstract void set(long value);
+
+    /**
+     * Performs a volatile write of this sequence.  The intent is
+     * a Store/Store barrier between this write and any previous
+     * write and a Store/Load barrier between this write and any
+     * subsequent volatile read.
+     *
+     * @param value The new value for the sequence.
+     */
+    public abstract void setVolatile(long value);
+
+    /**
+     * Perform a compare and set operation on the sequence.
+     *
+     * @param expectedValue The expected current value.
+     * @param newValue      The value to update to.
+     * @return true if the operation succeeds, false otherwise.
+     */
+    public abstract boolean compareAndSet(long expectedValue, long newValue);
+
+    /**
+     * Atomically add the supplied value.
+     *
+     * @param increment The value to add to the sequence.
+     * @return The value after the increment.
+     */
+    public abstract long addAndGet(long increment);
+
+    /**
+     * Perform an atomic getAndAdd operation on the sequence.
+     *
+     * @param increment The value to add to the sequence.
+     * @return the value before increment
+     */
+    public abstract long getAndAdd(long increment);
+
+    /**
+     * Atomically increment the sequence by one.
+     *
+     * @return The value after the increment
+     */
+    public long incrementAndGet()
+    {
+        return addAndGet(1);
+    }
+
+    @Override
+    public String toString()
+    {
+        return Long.toString(get());
+    }
+}
@@ -18,6 +18,8 @@ package com.lmax.disruptor;
 import com.lmax.disruptor.util.Util;
 
 import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
@@ -35,9 +37,13 @@ public abstract class AbstractSequencer implements Sequencer
     //等待策略
     protected final WaitStrategy waitStrategy;
     //游标
-    protected final Sequence cursor = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+    protected final Sequence cursor;
     //门闩序列数组
     protected volatile Sequence[] gatingSequences = new Sequence[0];
+    //屏障专用且需要唤醒的等待策略
+    private volatile WaitStrategy[] barrierWaitStrategies = new WaitStrategy[0];
+    //每个屏障专用等待策略的屏障数
+    private final Map<WaitStrategy, Integer> barrierWaitStrategyCounts = new IdentityHashMap<>();
 
     /**
      * Create with the specified buffer size and wait strategy.
@@ -46,6 +52,19 @@ public abstract class AbstractSequencer implements Sequencer
      * @param waitStrategy The wait strategy used by this sequencer
      */
     public AbstractSequencer(final int bufferSize, final WaitStrategy waitStrategy)
+    {
+        this(bufferSize, waitStrategy, new Sequence(Sequencer.INITIAL_CURSOR_VALUE));
+    }
+
+    /**
+     * Create with the specified buffer size and wait strategy, tracking progress in the supplied cursor rather
+     * than one of its own.
+     *
+     * @param bufferSize   The total number of entries, must be a positive power of 2.
+     * @param waitStrategy The wait strategy used by this sequencer
+     * @param cursor       The sequence holding the cursor.
+     */
+    protected AbstractSequencer(final int bufferSize, final WaitStrategy waitStrategy, final Sequence cursor)
     {
         if (bufferSize < 1)
         {
@@ -58,6 +77,7 @@ public abstract class AbstractSequencer implements Sequencer
 
         this.bufferSize = bufferSize;
         this.waitStrategy = waitStrategy;
+        this.cursor = cursor;
     }
 
     /**
@@ -87,6 +107,15 @@ public abstract class AbstractSequencer implements Sequencer
         SequenceGroups.addSequences(this, SEQUENCE_UPDATER, this, gatingSequences);
     }
 
+    /**
+     * @see Sequencer#tryAddGatingSequence(Sequence)
+     */
+    @Override
+    public boolean tryAddGatingSequence(final Sequence gatingSequence)
+    {
+        return SequenceGroups.tryAddSequence(this, SEQUENCE_UPDATER, this, gatingSequence);
+    }
+
     /**
      * @see Sequencer#removeGatingSequence(Sequence)
      */
@@ -114,6 +143,105 @@ public abstract class AbstractSequencer implements Sequencer
         return new ProcessingSequenceBarrier(this, waitStrategy, cursor, sequencesToTrack);
     }
 
+    /**
+     * @see Sequencer#newBarrier(WaitStrategy, Sequence...)
+     */
+    @Override
+    public SequenceBarrier newBarrier(final WaitStrategy waitStrategy, final Sequence... sequencesToTrack)
+    {
+        if (null == waitStrategy)
+        {
+            throw new NullPointerException("waitStrategy");
+        }
+
+        if (waitStrategy != this.waitStrategy && requiresSignal(waitStrategy))
+        {
+            retainBarrierWaitStrategy(waitStrategy);
+        }
+        return new ProcessingSequenceBarrier(this, waitStrategy, cursor, sequencesToTrack);
+    }
+
+    /**
+     * @see Sequencer#releaseBarrier(SequenceBarrier)
+     */
+    @Override
+    public void releaseBarrier(final SequenceBarrier barrier)
+    {
+        if (barrier instanceof ProcessingSequenceBarrier)
+        {
+            final WaitStrategy barrierWaitStrategy = ((ProcessingSequenceBarrier) barrier).getWaitStrategy();
+            if (barrierWaitStrategy != this.waitStrategy && requiresSignal(barrierWaitStrategy))
+            {
+                releaseBarrierWaitStrategy(barrierWaitStrategy);
+            }
+        }
+    }
+
+    /**
+     * Signal the sequencer's wait strategy, and any wait strategy given to
+     * {@link #newBarrier(WaitStrategy, Sequence...)} that blocks, that the cursor has advanced.
+     * Called by implementations after publishing.
+     */
+    protected final void signalAllWhenBlocking()
+    {
+        waitStrategy.signalAllWhenBlocking();
+
+        final WaitStrategy[] waitStrategies = barrierWaitStrategies;
+        for (int i = 0, n = waitStrategies.length; i < n; i++)
+        {
+            waitStrategies[i].signalAllWhenBlocking();
+        }
+    }
+
+    private synchronized void retainBarrierWaitStrategy(final WaitStrategy waitStrategy)
+    {
+        if (barrierWaitStrategyCounts.merge(waitStrategy, 1, Integer::sum) == 1)
+        {
+            final WaitStrategy[] current = barrierWaitStrategies;
+            final WaitStrategy[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = waitStrategy;
+            barrierWaitStrategies = updated;
+        }
+    }
+
+    private synchronized void releaseBarrierWaitStrategy(final WaitStrategy waitStrategy)
+    {
+        final Integer count = barrierWaitStrategyCounts.get(waitStrategy);
+        if (count == null)
+        {
+            return;
+        }
+
+        if (count > 1)
+        {
+            barrierWaitStrategyCounts.put(waitStrategy, count - 1);
+            return;
+        }
+
+        barrierWaitStrategyCounts.remove(waitStrategy);
+        final WaitStrategy[] current = barrierWaitStrategies;
+        final WaitStrategy[] updated = new WaitStrategy[current.length - 1];
+        int next = 0;
+        for (final WaitStrategy existing : current)
+        {
+            if (existing != waitStrategy)
+            {
+                updated[next++] = existing;
+            }
+        }
+        barrierWaitStrategies = updated;
+    }
+
+    /**
+     * The spinning strategies never block, so their signal is a no-op that publishers need not pay for.
+     */
+    static boolean requiresSignal(final WaitStrategy waitStrategy)
+    {
+        return !(waitStrategy instanceof BusySpinWaitStrategy ||
+            waitStrategy instanceof YieldingWaitStrategy ||
+            waitStrategy instanceof SleepingWaitStrategy);
+    }
+
     /**
      * Creates an event poller for this sequence that will use the supplied data provider and
      * gating sequences.
@@ -135,6 +263,7 @@ public abstract class AbstractSequencer implements Sequencer
             "waitStrategy=" + waitStrategy +
             ", cursor=" + cursor +
             ", gatingSequences=" + Arrays.toString(gatingSequences) +
+            ", barrierWaitStrategies=" + Arrays.toString(barrierWaitStrategies) +
             '}';
     }
 }
\ No newline at end of file
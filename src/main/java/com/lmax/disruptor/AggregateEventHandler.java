@@ -29,10 +29,19 @@ public final class AggregateEventHandler<T>
      * Construct an aggregate collection of {@link EventHandler}s to be called in sequence.
      *
      * @param eventHandlers to be called in sequence.
+     * @throws IllegalArgumentException if a handler {@link EventHandler#advancesOwnSequence() advances its own
+     *                                  sequence}, as the handlers share the sequence of a single processor.
      */
     @SafeVarargs
     public AggregateEventHandler(final EventHandler<T>... eventHandlers)
     {
+        for (final EventHandler<T> eventHandler : eventHandlers)
+        {
+            if (eventHandler.advancesOwnSequence())
+            {
+                throw new IllegalArgumentException("Cannot aggregate " + eventHandler + " as it advances its own sequence");
+            }
+        }
         this.eventHandlers = eventHandlers;
     }
 
@@ -63,4 +72,13 @@ public final class AggregateEventHandler<T>
             eventHandler.onShutdown();
         }
     }
+
+    @Override
+    public void onFlush(final long sequence) throws Exception
+    {
+        for (final EventHandler<T> eventHandler : eventHandlers)
+        {
+            eventHandler.onFlush(sequence);
+        }
+    }
 }
@@ -15,7 +15,9 @@
  */
 package com.lmax.disruptor;
 
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.lmax.disruptor.RewindAction.REWIND;
 
@@ -34,17 +36,24 @@ public final class BatchEventProcessor<T>
     private static final int RUNNING = HALTED + 1;
 
     private final AtomicInteger running = new AtomicInteger(IDLE);
+    private final AtomicReference<DrainRequest> drainRequest = new AtomicReference<>();
+    private volatile boolean stopped;
     private ExceptionHandler<? super T> exceptionHandler;
     private final DataProvider<T> dataProvider;
     private final SequenceBarrier sequenceBarrier;
     private final EventHandler<? super T> eventHandler;
-    private final Sequence sequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+    private final Sequence sequence;
+    private final boolean handlerAdvancesSequence;
     private BatchRewindStrategy batchRewindStrategy = new SimpleBatchRewindStrategy();
     private int retriesAttempted = 0;
+    private SequenceCheckpointer checkpointer;
+    private long checkpointInterval;
+    private long checkpointedSequence;
 
     /**
      * Construct a {@link EventProcessor} that will automatically track the progress by updating its sequence when
-     * the {@link EventHandler#onEvent(Object, long, boolean)} method returns.
+     * the {@link EventHandler#onEvent(Object, long, boolean)} method returns, unless the handler
+     * {@link EventHandler#advancesOwnSequence() advances its own sequence}.
      *
      * @param dataProvider    to which events are published.
      * @param sequenceBarrier on which it is waiting.
@@ -54,10 +63,30 @@ public final class BatchEventProcessor<T>
         final DataProvider<T> dataProvider,
         final SequenceBarrier sequenceBarrier,
         final EventHandler<? super T> eventHandler)
+    {
+        this(dataProvider, sequenceBarrier, eventHandler, new Sequence(Sequencer.INITIAL_CURSOR_VALUE));
+    }
+
+    /**
+     * Construct a {@link EventProcessor} that tracks its progress in a sequence it is given rather than one of its
+     * own, such as a sequence held in shared memory.  Processing resumes after the sequence's current value.
+     *
+     * @param dataProvider    to which events are published.
+     * @param sequenceBarrier on which it is waiting.
+     * @param eventHandler    is the delegate to which events are dispatched.
+     * @param sequence        in which to track progress.
+     */
+    BatchEventProcessor(
+        final DataProvider<T> dataProvider,
+        final SequenceBarrier sequenceBarrier,
+        final EventHandler<? super T> eventHandler,
+        final Sequence sequence)
     {
         this.dataProvider = dataProvider;
         this.sequenceBarrier = sequenceBarrier;
         this.eventHandler = eventHandler;
+        this.sequence = sequence;
+        this.handlerAdvancesSequence = eventHandler.advancesOwnSequence();
 
         eventHandler.setSequenceCallback(sequence);
     }
@@ -81,6 +110,30 @@ public final class BatchEventProcessor<T>
         return running.get() != IDLE;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The request is checked at the end of each batch, when {@link EventHandler#onFlush(long)} is called before
+     * the latch is counted down.  The sequence barrier is alerted so that a processor waiting for a later sequence,
+     * having already passed <code>sequence</code>, wakes up and does the same on its own thread.  That processor
+     * clears the alert again, so the barrier must not be shared with other processors.  A request made before the
+     * processor is started is served once it starts, but if the processor stops before reaching
+     * <code>sequence</code> the latch is counted down without flushing the handler.
+     */
+    @Override
+    public boolean drainTo(final long sequence, final CountDownLatch latch)
+    {
+        final DrainRequest request = new DrainRequest(sequence, latch);
+        drainRequest.set(request);
+        sequenceBarrier.alert();
+        if (stopped && drainRequest.compareAndSet(request, null))
+        {
+            // stopped, or stopping without having seen the request
+            latch.countDown();
+        }
+        return true;
+    }
+
     /**
      * Set a new {@link ExceptionHandler} for handling exceptions propagated out of the {@link BatchEventProcessor}.
      *
@@ -113,6 +166,36 @@ public final class BatchEventProcessor<T>
         this.batchRewindStrategy = batchRewindStrategy;
     }
 
+    /**
+     * Set a {@link SequenceCheckpointer} to record this processor's progress.  At the end of each batch, once
+     * <code>checkpointInterval</code> sequences have been processed since the last checkpoint, the last sequence
+     * processed is checkpointed, and it is checkpointed again when the processor is halted.  An interval of 1
+     * checkpoints every batch.  For a handler that {@link EventHandler#advancesOwnSequence() advances its own
+     * sequence}, the sequence it has advanced to is checkpointed.  Exceptions thrown by the checkpointer are
+     * passed to the {@link ExceptionHandler}.
+     *
+     * <p>This must be called before the processor is started.  It does not restore the sequence, which is done by
+     * setting the processor's sequence to {@link SequenceCheckpointer#restore()} before it is started.
+     *
+     * @param checkpointer       to record the processor's progress.
+     * @param checkpointInterval minimum number of sequences processed between checkpoints.
+     * @throws IllegalArgumentException if <code>checkpointInterval</code> is less than 1
+     */
+    public void setSequenceCheckpointer(final SequenceCheckpointer checkpointer, final long checkpointInterval)
+    {
+        if (null == checkpointer)
+        {
+            throw new NullPointerException();
+        }
+        if (checkpointInterval < 1)
+        {
+            throw new IllegalArgumentException("checkpointInterval must not be less than 1");
+        }
+
+        this.checkpointer = checkpointer;
+        this.checkpointInterval = checkpointInterval;
+    }
+
     /**
      * It is ok to have another thread rerun this method after a halt().
      *
@@ -124,9 +207,11 @@ public final class BatchEventProcessor<T>
         int witnessValue = running.compareAndExchange(IDLE, RUNNING);
         if (witnessValue == IDLE) // Successful CAS
         {
+            stopped = false;
             sequenceBarrier.clearAlert();
 
             notifyStart();
+            checkpointedSequence = sequence.get();
             try
             {
                 if (running.get() == RUNNING)
@@ -136,8 +221,14 @@ public final class BatchEventProcessor<T>
             }
             finally
             {
+                if (checkpointer != null && sequence.get() != checkpointedSequence)
+                {
+                    notifyCheckpoint(sequence.get());
+                }
                 notifyShutdown();
                 running.set(IDLE);
+                stopped = true;
+                abandonDrain();
             }
         }
         else
@@ -157,6 +248,11 @@ public final class BatchEventProcessor<T>
     {
         T event = null;
         long nextSequence = sequence.get() + 1L;
+        if (drainRequest.get() != null)
+        {
+            // a request made before the alert was cleared on starting
+            notifyDrain(nextSequence - 1L);
+        }
 
         while (true)
         {
@@ -180,7 +276,22 @@ public final class BatchEventProcessor<T>
                     }
 
                     retriesAttempted = 0;
-                    sequence.set(availableSequence);
+                    if (!handlerAdvancesSequence)
+                    {
+                        sequence.set(availableSequence);
+                    }
+                    if (checkpointer != null)
+                    {
+                        final long completedSequence = handlerAdvancesSequence ? sequence.get() : availableSequence;
+                        if (completedSequence - checkpointedSequence >= checkpointInterval)
+                        {
+                            notifyCheckpoint(completedSequence);
+                        }
+                    }
+                    if (drainRequest.get() != null)
+                    {
+                        notifyDrain(availableSequence);
+                    }
                 }
                 catch (final RewindableException e)
                 {
@@ -205,11 +316,29 @@ public final class BatchEventProcessor<T>
                 {
                     break;
                 }
+                if (drainRequest.get() != null)
+                {
+                    // woken by drainTo, if halted meanwhile restore the alert so the halt is not lost
+                    sequenceBarrier.clearAlert();
+                    if (running.get() != RUNNING)
+                    {
+                        sequenceBarrier.alert();
+                        break;
+                    }
+                    notifyDrain(nextSequence - 1L);
+                }
             }
             catch (final Throwable ex)
             {
                 handleEventException(ex, nextSequence, event);
-                sequence.set(nextSequence);
+                if (!handlerAdvancesSequence)
+                {
+                    sequence.set(nextSequence);
+                }
+                if (drainRequest.get() != null)
+                {
+                    notifyDrain(nextSequence);
+                }
                 nextSequence++;
             }
         }
@@ -219,6 +348,8 @@ public final class BatchEventProcessor<T>
     {
         notifyStart();
         notifyShutdown();
+        stopped = true;
+        abandonDrain();
     }
 
     private void notifyTimeout(final long availableSequence)
@@ -233,6 +364,57 @@ public final class BatchEventProcessor<T>
         }
     }
 
+    /**
+     * Records the processed sequence with the checkpointer.
+     */
+    private void notifyCheckpoint(final long processedSequence)
+    {
+        checkpointedSequence = processedSequence;
+        try
+        {
+            checkpointer.checkpoint(processedSequence);
+        }
+        catch (final Throwable e)
+        {
+            handleEventException(e, processedSequence, null);
+        }
+    }
+
+    /**
+     * Flushes the EventHandler and signals the pending drain request once it has been reached.
+     */
+    private void notifyDrain(final long processedSequence)
+    {
+        final DrainRequest request = drainRequest.get();
+        if (request != null && processedSequence >= request.sequence && drainRequest.compareAndSet(request, null))
+        {
+            try
+            {
+                eventHandler.onFlush(processedSequence);
+            }
+            catch (final Throwable e)
+            {
+                handleEventException(e, processedSequence, null);
+            }
+            finally
+            {
+                request.latch.countDown();
+            }
+        }
+    }
+
+    /**
+     * Releases a drain request this processor stopped before reaching, without flushing the EventHandler.
+     */
+    private void abandonDrain()
+    {
+        final DrainRequest request = drainRequest.getAndSet(null);
+        if (request != null)
+        {
+            request.latch.countDown();
+        }
+    }
+
     /**
      * Notifies the EventHandler when this processor is starting up.
      */
@@ -295,4 +477,16 @@ public final class BatchEventProcessor<T>
         ExceptionHandler<? super T> handler = exceptionHandler;
         return handler == null ? ExceptionHandlers.defaultHandler() : handler;
     }
-}
\ No newline at end of file
+
+    private static final class DrainRequest
+    {
+        private final long sequence;
+        private final CountDownLatch latch;
+
+        DrainRequest(final long sequence, final CountDownLatch latch)
+        {
+            this.sequence = sequence;
+            this.latch = latch;
+        }
+    }
+}
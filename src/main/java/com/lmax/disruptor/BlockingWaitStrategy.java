@@ -51,6 +51,7 @@ public final class BlockingWaitStrategy implements WaitStrategy
                 {
                     barrier.checkAlert();
                     //阻塞等待
+                    InstrumentedWaitStrategy.notifyPark(barrier);
                     mutex.wait();
                 }
             }
@@ -0,0 +1,496 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.dsl.ProducerType;
+
+import java.util.Objects;
+
+/**
+ * Ring buffer that stores events as columns (struct of arrays) rather than as one preallocated object per slot.
+ * Each field is declared up front as a column backed by its own contiguous primitive array indexed by sequence,
+ * so a consumer reading a single field scans that array sequentially instead of visiting whole events.
+ *
+ * <p>The ring buffer is its own {@link DataProvider}: producers and consumers are handed the ring buffer as the
+ * event and read or write fields through the typed column handles for the sequence being processed.
+ *
+ * <pre><code>
+ * ColumnarRingBuffer.Builder builder = new ColumnarRingBuffer.Builder(1024);
+ * ColumnarRingBuffer.LongColumn instrument = builder.addLongColumn();
+ * ColumnarRingBuffer.DoubleColumn price = builder.addDoubleColumn();
+ * ColumnarRingBuffer ringBuffer = builder.build(ProducerType.MULTI, new YieldingWaitStrategy());
+ *
+ * ringBuffer.publishEvent((event, sequence, trade) -&gt;
+ * {
+ *     instrument.set(sequence, trade.instrumentId);
+ *     price.set(sequence, trade.price);
+ * }, trade);
+ *
+ * BatchEventProcessor&lt;ColumnarRingBuffer&gt; processor = ringBuffer.newEventProcessor(
+ *     (event, sequence, endOfBatch) -&gt; total += price.get(sequence), ringBuffer.newBarrier());
+ * </code></pre>
+ */
+public final class ColumnarRingBuffer
+    extends PrimitiveRingBuffer<EventHandler<ColumnarRingBuffer>>
+    implements DataProvider<ColumnarRingBuffer>
+{
+    private final Column[] columns;
+
+    ColumnarRingBuffer(final Sequencer sequencer, final Column[] columns)
+    {
+        super(sequencer);
+        this.columns = columns;
+    }
+
+    /**
+     * Returns this ring buffer, which is the event for every sequence; fields are accessed through the columns.
+     *
+     * @param sequence of the event
+     * @return this ring buffer
+     */
+    @Override
+    public ColumnarRingBuffer get(final long sequence)
+    {
+        return this;
+    }
+
+    /**
+     * @return the number of columns declared for this ring buffer.
+     */
+    public int getColumnCount()
+    {
+        return columns.length;
+    }
+
+    /**
+     * Publish an event, setting its fields with a translator.
+     *
+     * @param translator The user specified translation for the event
+     */
+    public void publishEvent(final EventTranslator<ColumnarRingBuffer> translator)
+    {
+        final long sequence = sequencer.next();
+        try
+        {
+            translator.translateTo(this, sequence);
+        }
+        finally
+        {
+            sequencer.publish(sequence);
+        }
+    }
+
+    /**
+     * Attempts to publish an event.  Will return false if the required capacity is not available.
+     *
+     * @param translator The user specified translation for the event
+     * @return true if the value was published, false if there was insufficient capacity.
+     */
+    public boolean tryPublishEvent(final EventTranslator<ColumnarRingBuffer> translator)
+    {
+        final long sequence;
+        try
+        {
+            sequence = sequencer.tryNext();
+        }
+        catch (final InsufficientCapacityException e)
+        {
+            return false;
+        }
+
+        try
+        {
+            translator.translateTo(this, sequence);
+        }
+        finally
+        {
+            sequencer.publish(sequence);
+        }
+        return true;
+    }
+
+    /**
+     * Publish an event, setting its fields with a translator that takes one argument.
+     *
+     * @param <A>        Class of the user supplied argument.
+     * @param translator The user specified translation for the event
+     * @param arg0       A user supplied argument.
+     */
+    public <A> void publishEvent(final EventTranslatorOneArg<ColumnarRingBuffer, A> translator, final A arg0)
+    {
+        final long sequence = sequencer.next();
+        try
+        {
+            translator.translateTo(this, sequence, arg0);
+        }
+        finally
+        {
+            sequencer.publish(sequence);
+        }
+    }
+
+    /**
+     * Publish a batch of events, one for each argument, claiming and publishing the sequences together.
+     *
+     * @param <A>        Class of the user supplied argument.
+     * @param translator The user specified translation for each event
+     * @param arg0       An array of user supplied arguments, one element per event.
+     */
+    public <A> void publishEvents(final EventTranslatorOneArg<ColumnarRingBuffer, A> translator, final A[] arg0)
+    {
+        if (arg0.length == 0)
+        {
+            return;
+        }
+
+        final long finalSequence = sequencer.next(arg0.length);
+        final long initialSequence = finalSequence - (arg0.length - 1);
+        try
+        {
+            long sequence = initialSequence;
+            for (final A arg : arg0)
+            {
+                translator.translateTo(this, sequence++, arg);
+            }
+        }
+        finally
+        {
+            sequencer.publish(initialSequence, finalSequence);
+        }
+    }
+
+    @Override
+    public BatchEventProcessor<ColumnarRingBuffer> newEventProcessor(
+        final EventHandler<ColumnarRingBuffer> handler,
+        final SequenceBarrier barrier)
+    {
+        return new BatchEventProcessor<>(this, barrier, handler);
+    }
+
+    /**
+     * Declares the columns of a {@link ColumnarRingBuffer}.  Columns are allocated as they are added and may be
+     * used once the ring buffer has been built.
+     */
+    public static final class Builder
+    {
+        private final int bufferSize;
+        private Column[] columns = new Column[0];
+
+        /**
+         * @param bufferSize number of events held by the ring buffer, must be a power of 2.
+         * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+         */
+        public Builder(final int bufferSize)
+        {
+            if (bufferSize < 1)
+            {
+                throw new IllegalArgumentException("bufferSize must not be less than 1");
+            }
+            if (Integer.bitCount(bufferSize) != 1)
+            {
+                throw new IllegalArgumentException("bufferSize must be a power of 2");
+            }
+            this.bufferSize = bufferSize;
+        }
+
+        /**
+         * @return a new column of <code>long</code> values.
+         */
+        public LongColumn addLongColumn()
+        {
+            return add(new LongColumn(bufferSize));
+        }
+
+        /**
+         * @return a new column of <code>int</code> values.
+         */
+        public IntColumn addIntColumn()
+        {
+            return add(new IntColumn(bufferSize));
+        }
+
+        /**
+         * @return a new column of <code>double</code> values.
+         */
+        public DoubleColumn addDoubleColumn()
+        {
+            return add(new DoubleColumn(bufferSize));
+        }
+
+        /**
+         * @param maxLength the maximum number of bytes held by the column for each event.
+         * @return a new column of byte sequences of up to <code>maxLength</code> bytes.
+         */
+        public BytesColumn addBytesColumn(final int maxLength)
+        {
+            return add(new BytesColumn(bufferSize, maxLength));
+        }
+
+        /**
+         * Create the ring buffer.
+         *
+         * @param producerType producer type to use {@link ProducerType}.
+         * @param waitStrategy used to determine how to wait for new events to become available.
+         * @return a ring buffer holding the columns added to this builder.
+         */
+        public ColumnarRingBuffer build(final ProducerType producerType, final WaitStrategy waitStrategy)
+        {
+            final Sequencer sequencer;
+            switch (producerType)
+            {
+                case SINGLE:
+                    sequencer = new SingleProducerSequencer(bufferSize, waitStrategy);
+                    break;
+                case MULTI:
+                    sequencer = new MultiProducerSequencer(bufferSize, waitStrategy);
+                    break;
+                default:
+                    throw new IllegalStateException(producerType.toString());
+            }
+
+            return new ColumnarRingBuffer(sequencer, columns.clone());
+        }
+
+        private <C extends Column> C add(final C column)
+        {
+            final Column[] updated = new Column[columns.length + 1];
+            System.arraycopy(columns, 0, updated, 0, columns.length);
+            updated[columns.length] = column;
+            columns = updated;
+            return column;
+        }
+    }
+
+    /**
+     * Base class for the columns of a {@link ColumnarRingBuffer}.
+     */
+    public abstract static class Column
+    {
+        protected final int indexMask;
+
+        Column(final int bufferSize)
+        {
+            this.indexMask = bufferSize - 1;
+        }
+
+        /**
+         * @param sequence of the event.
+         * @return the index of the event within this column's array.
+         */
+        public final int index(final long sequence)
+        {
+            return (int) (sequence & indexMask);
+        }
+    }
+
+    /**
+     * Column of <code>long</code> values.
+     */
+    public static final class LongColumn extends Column
+    {
+        private final long[] values;
+
+        LongColumn(final int bufferSize)
+        {
+            super(bufferSize);
+            this.values = new long[bufferSize];
+        }
+
+        /**
+         * @param sequence of the event.
+         * @return the value of this field for the event.
+         */
+        public long get(final long sequence)
+        {
+            return values[(int) (sequence & indexMask)];
+        }
+
+        /**
+         * @param sequence of the event.
+         * @param value    of this field for the event.
+         */
+        public void set(final long sequence, final long value)
+        {
+            values[(int) (sequence & indexMask)] = value;
+        }
+    }
+
+    /**
+     * Column of <code>int</code> values.
+     */
+    public static final class IntColumn extends Column
+    {
+        private final int[] values;
+
+        IntColumn(final int bufferSize)
+        {
+            super(bufferSize);
+            this.values = new int[bufferSize];
+        }
+
+        /**
+         * @param sequence of the event.
+         * @return the value of this field for the event.
+         */
+        public int get(final long sequence)
+        {
+            return values[(int) (sequence & indexMask)];
+        }
+
+        /**
+         * @param sequence of the event.
+         * @param value    of this field for the event.
+         */
+        public void set(final long sequence, final int value)
+        {
+            values[(int) (sequence & indexMask)] = value;
+        }
+    }
+
+    /**
+     * Column of <code>double</code> values.
+     */
+    public static final class DoubleColumn extends Column
+    {
+        private final double[] values;
+
+        DoubleColumn(final int bufferSize)
+        {
+            super(bufferSize);
+            this.values = new double[bufferSize];
+        }
+
+        /**
+         * @param sequence of the event.
+         * @return the value of this field for the event.
+         */
+        public double get(final long sequence)
+        {
+            return values[(int) (sequence & indexMask)];
+        }
+
+        /**
+         * @param sequence of the event.
+         * @param value    of this field for the event.
+         */
+        public void set(final long sequence, final double value)
+        {
+            values[(int) (sequence & indexMask)] = value;
+        }
+    }
+
+    /**
+     * Column of byte sequences of up to a fixed maximum length, stored back to back in a single
+     * <code>byte[]</code> together with the length of each.
+     */
+    public static final class BytesColumn extends Column
+    {
+        private final int maxLength;
+        private final byte[] bytes;
+        private final int[] lengths;
+
+        BytesColumn(final int bufferSize, final int maxLength)
+        {
+            super(bufferSize);
+            if (maxLength < 1)
+            {
+                throw new IllegalArgumentException("maxLength must not be less than 1");
+            }
+            if ((long) bufferSize * maxLength > Integer.MAX_VALUE)
+            {
+                throw new IllegalArgumentException("bufferSize * maxLength must not exceed " + Integer.MAX_VALUE);
+            }
+            this.maxLength = maxLength;
+            this.bytes = new byte[bufferSize * maxLength];
+            this.lengths = new int[bufferSize];
+        }
+
+        /**
+         * @return the maximum number of bytes held for each event.
+         */
+        public int getMaxLength()
+        {
+            return maxLength;
+        }
+
+        /**
+         * Copy bytes into this field for an event.
+         *
+         * @param sequence of the event.
+         * @param src      source of the bytes.
+         * @param offset   within <code>src</code> of the first byte.
+         * @param length   number of bytes, no more than {@link #getMaxLength()}.
+         * @throws IndexOutOfBoundsException if the range is outside <code>src</code> or longer than the column allows.
+         */
+        public void set(final long sequence, final byte[] src, final int offset, final int length)
+        {
+            Objects.checkFromIndexSize(offset, length, src.length);
+            if (length > maxLength)
+            {
+                throw new IndexOutOfBoundsException("length " + length + " exceeds maxLength " + maxLength);
+            }
+
+            final int index = index(sequence);
+            System.arraycopy(src, offset, bytes, index * maxLength, length);
+            lengths[index] = length;
+        }
+
+        /**
+         * Copy this field for an event into <code>dst</code>.
+         *
+         * @param sequence  of the event.
+         * @param dst       destination of the bytes, with at least {@link #length(long)} bytes from <code>dstOffset</code>.
+         * @param dstOffset within <code>dst</code> of the first byte.
+         * @return the number of bytes copied.
+         */
+        public int get(final long sequence, final byte[] dst, final int dstOffset)
+        {
+            final int index = index(sequence);
+            final int length = lengths[index];
+            System.arraycopy(bytes, index * maxLength, dst, dstOffset, length);
+            return length;
+        }
+
+        /**
+         * @param sequence of the event.
+         * @return the number of bytes held in this field for the event.
+         */
+        public int length(final long sequence)
+        {
+            return lengths[index(sequence)];
+        }
+
+        /**
+         * The array backing this column, for reading fields in place from {@link #offset(long)}
+         * for {@link #length(long)} bytes.  The array must not be written to directly.
+         *
+         * @return the array backing this column.
+         */
+        public byte[] array()
+        {
+            return bytes;
+        }
+
+        /**
+         * @param sequence of the event.
+         * @return the offset within {@link #array()} at which the field for the event starts.
+         */
+        public int offset(final long sequence)
+        {
+            return index(sequence) * maxLength;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Ring buffer of keyed, latest-value-wins updates, such as prices per instrument.  When an update is put for a key
+ * whose previous update has not yet been consumed, the new value replaces the pending one in its slot instead of
+ * taking a new slot, so the consumer sees at most one pending update per key and never processes a superseded
+ * value that was replaced in time.
+ *
+ * <p>Values are published by reference, so they should be immutable.  The ring buffer has a single publishing
+ * thread, which keeps track of the slot holding the pending update for each key, and a single consumer, created
+ * with {@link #newEventProcessor(EventHandler, Sequence...)}, which takes each value out of its slot as it reads
+ * it.  A replacement and the consumer's take are both atomic on the slot, so either the consumer sees the new
+ * value in the old slot or the replacement fails and the new value is published to a new slot.
+ *
+ * <pre><code>
+ * ConflatingRingBuffer&lt;String, Quote&gt; ringBuffer = ConflatingRingBuffer.create(1024, new YieldingWaitStrategy());
+ * BatchEventProcessor&lt;Quote&gt; processor = ringBuffer.newEventProcessor(handler);
+ * new Thread(processor).start();
+ *
+ * ringBuffer.put(quote.getSymbol(), quote);
+ * </code></pre>
+ *
+ * @param <K> type of the keys updates are conflated on.
+ * @param <V> type of the values published by reference.
+ */
+public final class ConflatingRingBuffer<K, V> implements Cursored, DataProvider<V>
+{
+    private static final int BUFFER_PAD = 32;
+    private static final VarHandle ENTRIES = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    private final Sequencer sequencer;
+    private final Object[] entries;
+    private final int bufferSize;
+    private final int indexMask;
+    private final Map<K, PendingSlot> pendingSlots = new HashMap<>();
+    private final Sequence conflatedCount = new Sequence(0L);
+    private BatchEventProcessor<V> processor;
+
+    ConflatingRingBuffer(final Sequencer sequencer)
+    {
+        this.sequencer = sequencer;
+        this.bufferSize = sequencer.getBufferSize();
+        this.entries = new Object[bufferSize + 2 * BUFFER_PAD];
+        this.indexMask = bufferSize - 1;
+    }
+
+    /**
+     * Create a new ConflatingRingBuffer with the specified wait strategy.
+     *
+     * @param <K>          type of the keys updates are conflated on.
+     * @param <V>          type of the values published by reference.
+     * @param bufferSize   number of slots in the ring buffer.
+     * @param waitStrategy used to determine how to wait for new events to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     */
+    public static <K, V> ConflatingRingBuffer<K, V> create(final int bufferSize, final WaitStrategy waitStrategy)
+    {
+        return new ConflatingRingBuffer<>(new SingleProducerSequencer(bufferSize, waitStrategy));
+    }
+
+    /**
+     * Get the value pending at a given sequence without consuming it, or <code>null</code> if it has been consumed.
+     *
+     * @param sequence for the value
+     * @return the value pending at the given sequence
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public V get(final long sequence)
+    {
+        return (V) ENTRIES.getAcquire(entries, index(sequence));
+    }
+
+    /**
+     * Publish an update for a key, replacing the key's pending update if it has not been consumed yet, otherwise
+     * waiting for a slot if the ring buffer is full.
+     *
+     * @param key   the update is conflated on.
+     * @param value to publish, must not be null.
+     */
+    public void put(final K key, final V value)
+    {
+        Objects.requireNonNull(value);
+        final PendingSlot pending = pendingSlots.get(key);
+        if (!tryReplace(pending, value))
+        {
+            publish(key, pending, sequencer.next(), value);
+        }
+    }
+
+    /**
+     * Attempt to publish an update for a key, replacing the key's pending update if it has not been consumed yet.
+     *
+     * @param key   the update is conflated on.
+     * @param value to publish, must not be null.
+     * @return true if the update was published or replaced a pending one, false if there was insufficient capacity.
+     */
+    public boolean tryPut(final K key, final V value)
+    {
+        Objects.requireNonNull(value);
+        final PendingSlot pending = pendingSlots.get(key);
+        if (tryReplace(pending, value))
+        {
+            return true;
+        }
+
+        try
+        {
+            publish(key, pending, sequencer.tryNext(), value);
+            return true;
+        }
+        catch (final InsufficientCapacityException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Create the {@link BatchEventProcessor} that consumes this ring buffer, taking each value out of its slot as
+     * it is passed to <code>handler</code>.  The processor starts after the current cursor.
+     *
+     * @param handler          to receive the values.
+     * @param sequencesToTrack sequences the processor must follow, if any.
+     * @return the event processor.
+     * @throws IllegalStateException if a processor has already been created
+     */
+    public synchronized BatchEventProcessor<V> newEventProcessor(final EventHandler<? super V> handler, final Sequence... sequencesToTrack)
+    {
+        if (processor != null)
+        {
+            throw new IllegalStateException("A ConflatingRingBuffer has a single consumer");
+        }
+
+        processor = new BatchEventProcessor<>(this::take, sequencer.newBarrier(sequencesToTrack), handler);
+        sequencer.addGatingSequences(processor.getSequence());
+        return processor;
+    }
+
+    /**
+     * @return the number of updates that replaced a pending update instead of taking a new slot.
+     */
+    public long getConflatedCount()
+    {
+        return conflatedCount.get();
+    }
+
+    /**
+     * @return the number of slots in the ring buffer.
+     */
+    public int getBufferSize()
+    {
+        return bufferSize;
+    }
+
+    @Override
+    public long getCursor()
+    {
+        return sequencer.getCursor();
+    }
+
+    private boolean tryReplace(final PendingSlot pending, final V value)
+    {
+        if (pending == null || pending.sequence + bufferSize <= sequencer.getCursor())
+        {
+            return false;
+        }
+
+        final int index = index(pending.sequence);
+        final Object current = ENTRIES.getAcquire(entries, index);
+        if (current != null && ENTRIES.compareAndSet(entries, index, current, value))
+        {
+            conflatedCount.set(conflatedCount.get() + 1);
+            return true;
+        }
+        return false;
+    }
+
+    private void publish(final K key, final PendingSlot pending, final long sequence, final V value)
+    {
+        ENTRIES.setRelease(entries, index(sequence), value);
+        if (pending == null)
+        {
+            pendingSlots.put(key, new PendingSlot(sequence));
+        }
+        else
+        {
+            pending.sequence = sequence;
+        }
+        sequencer.publish(sequence);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V take(final long sequence)
+    {
+        return (V) ENTRIES.getAndSet(entries, index(sequence), null);
+    }
+
+    private int index(final long sequence)
+    {
+        return BUFFER_PAD + (int) (sequence & indexMask);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ConflatingRingBuffer{" +
+            "sequencer=" + sequencer +
+            ", conflated=" + conflatedCount.get() +
+            '}';
+    }
+
+    /**
+     * The sequence of the most recent slot published for a key, updated in place to avoid allocating per update.
+     */
+    private static final class PendingSlot
+    {
+        long sequence;
+
+        PendingSlot(final long sequence)
+        {
+            this.sequence = sequence;
+        }
+    }
+}
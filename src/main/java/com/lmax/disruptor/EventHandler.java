@@ -78,6 +78,21 @@ public interface EventHandler<T>
     {
     }
 
+    /**
+     * Whether this handler advances the sequence passed to {@link #setSequenceCallback(Sequence)} itself, in which
+     * case the {@link BatchEventProcessor} leaves it alone rather than advancing it at the end of every batch.
+     *
+     * <p>This lets a handler hold back dependent handlers until it has finished with events asynchronously, such as
+     * once they are durable.  A handler returning true must advance the sequence, at the latest before it goes idle,
+     * or the handlers that depend on it, and the producers gated on it, stop.
+     *
+     * @return true if the handler advances its own sequence.
+     */
+    default boolean advancesOwnSequence()
+    {
+        return false;
+    }
+
     /**
      * Invoked when a {@link BatchEventProcessor}'s {@link WaitStrategy} throws a {@link TimeoutException}.
      *
@@ -87,4 +102,20 @@ public interface EventHandler<T>
     default void onTimeout(long sequence) throws Exception
     {
     }
+
+    /**
+     * Invoked by a {@link BatchEventProcessor} draining for shutdown, at the end of the batch in which it reaches
+     * the drain target and before it reports itself drained.  Handlers that hold work across batches, such as
+     * buffered writes, should complete it here.
+     *
+     * <p>If the processor has already passed the drain target when the drain is requested, it is woken and this
+     * method is called with the last sequence it processed, even though the handler has already seen
+     * <code>endOfBatch</code> for that event.  It is not called if the processor stops before reaching the target.
+     *
+     * @param sequence - the last processed sequence.
+     * @throws Exception if the implementation is unable to flush.
+     */
+    default void onFlush(long sequence) throws Exception
+    {
+    }
 }
@@ -15,6 +15,8 @@
  */
 package com.lmax.disruptor;
 
+import java.util.concurrent.CountDownLatch;
+
 /**
  * An EventProcessor needs to be an implementation of a runnable that will poll for events from the {@link RingBuffer}
  * using the appropriate wait strategy.  It is unlikely that you will need to implement this interface yourself.
@@ -43,4 +45,20 @@ public interface EventProcessor extends Runnable
      * Implementations should ideally return false only when the associated thread is idle.
      */
     boolean isRunning();
+
+    /**
+     * Ask this processor to count down <code>latch</code> once it has processed every event up to and including
+     * <code>sequence</code>, so that a thread waiting for it to drain can block rather than poll its sequence.
+     * Only the most recent request is kept.
+     *
+     * <p>The default implementation does not support draining and returns false, leaving the caller to poll.
+     *
+     * @param sequence to be processed.
+     * @param latch    to count down once.
+     * @return true if the latch will be counted down, false if draining is not supported.
+     */
+    default boolean drainTo(long sequence, CountDownLatch latch)
+    {
+        return false;
+    }
 }
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * {@link WaitStrategy} decorator that records how waiting {@link EventProcessor}s spend their time.
+ *
+ * <p>For every {@link SequenceBarrier} that waits through this strategy a {@link WaitStatistics} is kept
+ * holding the number of waits, spin iterations, yields and parks together with a histogram of wait times.
+ * Recording does not allocate once a barrier and thread have been seen for the first time, and the
+ * statistics may be read from any thread while the consumers are running.
+ *
+ * <p>Spin iterations are counted each time the delegate checks the barrier for an alert.  The wait strategies
+ * shipped with the Disruptor additionally report each yield and park; custom strategies will only have their
+ * loop iterations and wait times recorded.
+ *
+ * <pre><code>
+ * InstrumentedWaitStrategy waitStrategy = new InstrumentedWaitStrategy(new YieldingWaitStrategy());
+ * Disruptor&lt;Event&gt; disruptor = new Disruptor&lt;&gt;(factory, size, threadFactory, ProducerType.SINGLE, waitStrategy);
+ * disruptor.handleEventsWith(handler);
+ * ...
+ * WaitStatistics statistics = waitStrategy.getStatistics(disruptor.getBarrierFor(handler));
+ * </code></pre>
+ */
+public final class InstrumentedWaitStrategy implements WaitStrategy
+{
+    private static final AtomicReferenceFieldUpdater<InstrumentedWaitStrategy, WaitStatistics[]> STATISTICS_UPDATER =
+        AtomicReferenceFieldUpdater.newUpdater(InstrumentedWaitStrategy.class, WaitStatistics[].class, "statistics");
+
+    private final WaitStrategy delegate;
+    private final ThreadLocal<Probe> probes = ThreadLocal.withInitial(Probe::new);
+    private volatile WaitStatistics[] statistics = new WaitStatistics[0];
+
+    /**
+     * @param delegate the wait strategy to instrument.
+     */
+    public InstrumentedWaitStrategy(final WaitStrategy delegate)
+    {
+        if (null == delegate)
+        {
+            throw new NullPointerException("delegate");
+        }
+        this.delegate = delegate;
+    }
+
+    @Override
+    public long waitFor(final long sequence, final Sequence cursor, final Sequence dependentSequence, final SequenceBarrier barrier)
+        throws AlertException, InterruptedException, TimeoutException
+    {
+        final WaitStatistics waitStatistics = statisticsFor(barrier);
+        final Probe probe = probes.get();
+        probe.begin(barrier);
+
+        boolean timedOut = false;
+        final long start = System.nanoTime();
+        try
+        {
+            return delegate.waitFor(sequence, cursor, dependentSequence, probe);
+        }
+        catch (final TimeoutException e)
+        {
+            timedOut = true;
+            throw e;
+        }
+        finally
+        {
+            final long waitNanos = System.nanoTime() - start;
+            waitStatistics.record(waitNanos, probe.iterations, probe.yields, probe.parks, timedOut);
+            probe.end();
+        }
+    }
+
+    @Override
+    public void signalAllWhenBlocking()
+    {
+        delegate.signalAllWhenBlocking();
+    }
+
+    /**
+     * Get the statistics recorded for a barrier.  The returned object is live and will continue to be updated.
+     *
+     * @param barrier whose waits should be reported.
+     * @return the statistics for <code>barrier</code>, empty if it has not yet waited through this strategy.
+     */
+    public WaitStatistics getStatistics(final SequenceBarrier barrier)
+    {
+        return statisticsFor(barrier);
+    }
+
+    /**
+     * Get the statistics for every barrier that has waited through this strategy.
+     *
+     * @return a copy of the array of live statistics.
+     */
+    public WaitStatistics[] getAllStatistics()
+    {
+        return statistics.clone();
+    }
+
+    /**
+     * @return the wait strategy being instrumented.
+     */
+    public WaitStrategy getDelegate()
+    {
+        return delegate;
+    }
+
+    private WaitStatistics statisticsFor(final SequenceBarrier barrier)
+    {
+        final WaitStatistics[] current = statistics;
+        for (final WaitStatistics waitStatistics : current)
+        {
+            if (waitStatistics.getBarrier() == barrier)
+            {
+                return waitStatistics;
+            }
+        }
+
+        return register(barrier);
+    }
+
+    private WaitStatistics register(final SequenceBarrier barrier)
+    {
+        final WaitStatistics added = new WaitStatistics(barrier);
+        WaitStatistics[] current;
+        WaitStatistics[] updated;
+        do
+        {
+            current = statistics;
+            for (final WaitStatistics waitStatistics : current)
+            {
+                if (waitStatistics.getBarrier() == barrier)
+                {
+                    return waitStatistics;
+                }
+            }
+
+            updated = new WaitStatistics[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = added;
+        }
+        while (!STATISTICS_UPDATER.compareAndSet(this, current, updated));
+
+        return added;
+    }
+
+    /**
+     * Called by the wait strategies in this package just before they yield.
+     */
+    static void notifyYield(final SequenceBarrier barrier)
+    {
+        if (barrier instanceof Probe)
+        {
+            ((Probe) barrier).yields++;
+        }
+    }
+
+    /**
+     * Called by the wait strategies in this package just before they park or wait on a monitor.
+     */
+    static void notifyPark(final SequenceBarrier barrier)
+    {
+        if (barrier instanceof Probe)
+        {
+            ((Probe) barrier).parks++;
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "InstrumentedWaitStrategy{" +
+            "delegate=" + delegate +
+            '}';
+    }
+
+    /**
+     * Per thread stand-in for the real barrier that counts the delegate's activity during a single wait.
+     */
+    private static final class Probe implements SequenceBarrier
+    {
+        private SequenceBarrier barrier;
+        private long iterations;
+        private long yields;
+        private long parks;
+
+        void begin(final SequenceBarrier barrier)
+        {
+            this.barrier = barrier;
+            iterations = 0;
+            yields = 0;
+            parks = 0;
+        }
+
+        void end()
+        {
+            barrier = null;
+        }
+
+        @Override
+        public long waitFor(final long sequence) throws AlertException, InterruptedException, TimeoutException
+        {
+            return barrier.waitFor(sequence);
+        }
+
+        @Override
+        public long getCursor()
+        {
+            return barrier.getCursor();
+        }
+
+        @Override
+        public boolean isAlerted()
+        {
+            return barrier.isAlerted();
+        }
+
+        @Override
+        public void alert()
+        {
+            barrier.alert();
+        }
+
+        @Override
+        public void clearAlert()
+        {
+            barrier.clearAlert();
+        }
+
+        @Override
+        public void checkAlert() throws AlertException
+        {
+            iterations++;
+            barrier.checkAlert();
+        }
+    }
+}
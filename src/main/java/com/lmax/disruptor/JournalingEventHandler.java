@@ -0,0 +1,433 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * An {@link EventHandler} that appends every event to a journal, making the events of many batches durable with
+ * one force of the file rather than a write and force per event.
+ *
+ * <p>Each event is serialised by a user supplied {@link EventCodec} into a set of reusable direct buffers, which
+ * are written to the channel with a single gathering write at the end of each batch, or earlier when they are
+ * all full.  When the file is forced is chosen by the {@link SyncPolicy}: after every batch, or once a number of
+ * milliseconds or bytes has accumulated since the last force.  Whatever the policy, the journal is forced at the
+ * end of a batch when no further event has been published, so a journal that goes idle is always durable; the
+ * thresholds bound how long events wait for a force while the journal is busy.  The file is forced with
+ * {@link FileChannel#force(boolean) FileChannel.force(false)}.
+ *
+ * <p>The handler {@link #advancesOwnSequence() advances its own sequence}, only once the events up to it have been
+ * forced, so handlers set up to run after it, such as with <code>disruptor.after(journaller)</code>, only ever see
+ * durable events.
+ *
+ * <p>A failed write or force stops the journal for good: the sequence is not advanced past the last forced event
+ * and every later event, flush or timeout throws an {@link IOException} caused by the original failure, so events
+ * that may not have reached the file are never reported as durable.
+ *
+ * <pre><code>
+ * FileChannel channel = FileChannel.open(Paths.get("orders.journal"), CREATE, WRITE, APPEND);
+ * JournalingEventHandler&lt;Order&gt; journaller = new JournalingEventHandler&lt;&gt;(
+ *     disruptor.getRingBuffer(), channel, (order, sequence, buffer) -&gt; buffer.putLong(sequence).putLong(order.getPrice()),
+ *     JournalingEventHandler.SyncPolicy.EVERY_INTERVAL, 2);
+ * disruptor.handleEventsWith(journaller).then(businessLogic);
+ * </code></pre>
+ *
+ * @param <T> event implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class JournalingEventHandler<T> implements EventHandler<T>
+{
+    /**
+     * Default size in bytes of each buffer events are serialised into.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024;
+
+    /**
+     * Default number of buffers events are serialised into before they must be written.
+     */
+    public static final int DEFAULT_SEGMENT_COUNT = 16;
+
+    /**
+     * When the journal is forced to the storage device.
+     */
+    public enum SyncPolicy
+    {
+        /**
+         * Force the journal at the end of every batch.
+         */
+        EVERY_BATCH,
+
+        /**
+         * Force the journal at the end of a batch once the sync threshold, in milliseconds, has passed since the
+         * last force.
+         */
+        EVERY_INTERVAL,
+
+        /**
+         * Force the journal at the end of a batch once the sync threshold, in bytes, has been written since the
+         * last force.
+         */
+        EVERY_BYTES
+    }
+
+    /**
+     * Serialises an event into the journal.
+     *
+     * @param <T> event implementation storing the data for sharing during exchange or parallel coordination of an event.
+     */
+    @FunctionalInterface
+    public interface EventCodec<T>
+    {
+        /**
+         * Write an event at the buffer's position using its relative put methods.  If the event does not fit, the
+         * buffer throws a {@link java.nio.BufferOverflowException} and the event is written again into an empty
+         * buffer.
+         *
+         * @param event    to serialise.
+         * @param sequence of the event.
+         * @param buffer   to write the event into.
+         * @throws Exception if the event could not be serialised.
+         */
+        void encode(T event, long sequence, ByteBuffer buffer) throws Exception;
+    }
+
+    private final Cursored ringBuffer;
+    private final FileChannel channel;
+    private final EventCodec<? super T> codec;
+    private final SyncPolicy policy;
+    private final long syncThreshold;
+    private final ByteBuffer[] segments;
+    private final LongSupplier clock;
+    private Sequence sequenceCallback = new Sequence();
+
+    private int currentSegment;
+    private long lastSequence = Sequencer.INITIAL_CURSOR_VALUE;
+    private long unsyncedBytes;
+    private long lastSyncNanos;
+    private Exception failure;
+
+    /**
+     * Create a journal that is forced at the end of every batch.
+     *
+     * @param ringBuffer the events are published to.
+     * @param channel    the events are appended to.
+     * @param codec      serialises each event.
+     */
+    public JournalingEventHandler(final Cursored ringBuffer, final FileChannel channel, final EventCodec<? super T> codec)
+    {
+        this(ringBuffer, channel, codec, SyncPolicy.EVERY_BATCH, 0);
+    }
+
+    /**
+     * Create a journal.
+     *
+     * @param ringBuffer    the events are published to.
+     * @param channel       the events are appended to.
+     * @param codec         serialises each event.
+     * @param policy        deciding when the journal is forced.
+     * @param syncThreshold milliseconds for {@link SyncPolicy#EVERY_INTERVAL}, bytes for {@link SyncPolicy#EVERY_BYTES}.
+     */
+    public JournalingEventHandler(
+        final Cursored ringBuffer,
+        final FileChannel channel,
+        final EventCodec<? super T> codec,
+        final SyncPolicy policy,
+        final long syncThreshold)
+    {
+        this(ringBuffer, channel, codec, policy, syncThreshold, DEFAULT_SEGMENT_SIZE, DEFAULT_SEGMENT_COUNT);
+    }
+
+    /**
+     * Create a journal.
+     *
+     * @param ringBuffer    the events are published to.
+     * @param channel       the events are appended to.
+     * @param codec         serialises each event.
+     * @param policy        deciding when the journal is forced.
+     * @param syncThreshold milliseconds for {@link SyncPolicy#EVERY_INTERVAL}, bytes for {@link SyncPolicy#EVERY_BYTES}.
+     * @param segmentSize   size in bytes of each buffer events are serialised into, which no event may exceed.
+     * @param segmentCount  number of buffers events are serialised into before they must be written.
+     * @throws IllegalArgumentException if a size, count or threshold is less than 1
+     */
+    public JournalingEventHandler(
+        final Cursored ringBuffer,
+        final FileChannel channel,
+        final EventCodec<? super T> codec,
+        final SyncPolicy policy,
+        final long syncThreshold,
+        final int segmentSize,
+        final int segmentCount)
+    {
+        this(ringBuffer, channel, codec, policy, syncThreshold, segmentSize, segmentCount, System::nanoTime);
+    }
+
+    JournalingEventHandler(
+        final Cursored ringBuffer,
+        final FileChannel channel,
+        final EventCodec<? super T> codec,
+        final SyncPolicy policy,
+        final long syncThreshold,
+        final int segmentSize,
+        final int segmentCount,
+        final LongSupplier clock)
+    {
+        if (segmentSize < 1 || segmentCount < 1)
+        {
+            throw new IllegalArgumentException("segmentSize and segmentCount must not be less than 1");
+        }
+        if (policy != SyncPolicy.EVERY_BATCH && syncThreshold < 1)
+        {
+            throw new IllegalArgumentException("syncThreshold must not be less than 1");
+        }
+
+        this.ringBuffer = Objects.requireNonNull(ringBuffer);
+        this.channel = Objects.requireNonNull(channel);
+        this.codec = Objects.requireNonNull(codec);
+        this.policy = Objects.requireNonNull(policy);
+        this.syncThreshold = policy == SyncPolicy.EVERY_INTERVAL ? TimeUnit.MILLISECONDS.toNanos(syncThreshold) : syncThreshold;
+        this.clock = clock;
+        this.segments = new ByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++)
+        {
+            segments[i] = ByteBuffer.allocateDirect(segmentSize);
+        }
+    }
+
+    @Override
+    public void onStart()
+    {
+        lastSyncNanos = clock.getAsLong();
+    }
+
+    @Override
+    public void onEvent(final T event, final long sequence, final boolean endOfBatch) throws Exception
+    {
+        checkNotFailed();
+        try
+        {
+            encode(event, sequence);
+        }
+        finally
+        {
+            if (failure == null)
+            {
+                lastSequence = sequence;
+            }
+            if (failure == null && endOfBatch)
+            {
+                write();
+                if (shouldSync(sequence))
+                {
+                    sync();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onTimeout(final long sequence) throws IOException
+    {
+        commit();
+    }
+
+    @Override
+    public void onFlush(final long sequence) throws IOException
+    {
+        commit();
+    }
+
+    @Override
+    public void onShutdown()
+    {
+        try
+        {
+            commit();
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void setSequenceCallback(final Sequence sequenceCallback)
+    {
+        this.sequenceCallback = sequenceCallback;
+    }
+
+    /**
+     * @return true, the sequence is advanced once the events up to it have been forced.
+     */
+    @Override
+    public boolean advancesOwnSequence()
+    {
+        return true;
+    }
+
+    /**
+     * @return the policy deciding when the journal is forced.
+     */
+    public SyncPolicy getPolicy()
+    {
+        return policy;
+    }
+
+    private void encode(final T event, final long sequence) throws Exception
+    {
+        if (tryEncode(segments[currentSegment], event, sequence))
+        {
+            return;
+        }
+
+        if (currentSegment + 1 < segments.length)
+        {
+            currentSegment++;
+        }
+        else
+        {
+            write();
+        }
+
+        if (!tryEncode(segments[currentSegment], event, sequence))
+        {
+            throw new IllegalArgumentException("Event " + sequence + " does not fit in a segment of " + segments[0].capacity() + " bytes");
+        }
+    }
+
+    private boolean tryEncode(final ByteBuffer segment, final T event, final long sequence) throws Exception
+    {
+        final int start = segment.position();
+        try
+        {
+            codec.encode(event, sequence, segment);
+            return true;
+        }
+        catch (final Throwable e)
+        {
+            // drop whatever part of the event was written
+            segment.position(start);
+            if (e instanceof BufferOverflowException)
+            {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private void write() throws IOException
+    {
+        final int count = currentSegment + 1;
+        for (int i = 0; i < count; i++)
+        {
+            segments[i].flip();
+        }
+
+        try
+        {
+            for (int i = 0; i < count; i++)
+            {
+                while (segments[i].hasRemaining())
+                {
+                    unsyncedBytes += channel.write(segments, i, count - i);
+                }
+            }
+        }
+        catch (final IOException | RuntimeException e)
+        {
+            // part of the segments may have been written, so nothing after this point can be made durable
+            failure = e;
+            throw e;
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            segments[i].clear();
+        }
+        currentSegment = 0;
+    }
+
+    private boolean shouldSync(final long sequence)
+    {
+        if (ringBuffer.getCursor() <= sequence)
+        {
+            return true;
+        }
+
+        switch (policy)
+        {
+            case EVERY_BATCH:
+                return true;
+
+            case EVERY_INTERVAL:
+                return clock.getAsLong() - lastSyncNanos >= syncThreshold;
+
+            case EVERY_BYTES:
+                return unsyncedBytes >= syncThreshold;
+
+            default:
+                throw new IllegalStateException("Unknown sync policy " + policy);
+        }
+    }
+
+    private void commit() throws IOException
+    {
+        if (lastSequence > sequenceCallback.get())
+        {
+            checkNotFailed();
+            write();
+            sync();
+        }
+    }
+
+    private void sync() throws IOException
+    {
+        try
+        {
+            channel.force(false);
+        }
+        catch (final IOException | RuntimeException e)
+        {
+            failure = e;
+            throw e;
+        }
+        unsyncedBytes = 0;
+        lastSyncNanos = clock.getAsLong();
+        sequenceCallback.set(lastSequence);
+    }
+
+    private void checkNotFailed() throws IOException
+    {
+        if (failure != null)
+        {
+            throw new IOException("Journal stopped after a failed write", failure);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "JournalingEventHandler{" +
+            "policy=" + policy +
+            ", durableSequence=" + sequenceCallback.get() +
+            '}';
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2012 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * A {@link Sequencer} that creates the events of a {@link Preallocation#LAZY} RingBuffer as their slots are
+ * first claimed, delegating everything else to the sequencer that does the work.  Each slot is first claimed
+ * by exactly one publisher, so the event is created by that publisher and made visible to consumers when it
+ * publishes the sequence.
+ */
+final class LazyPopulatingSequencer implements Sequencer
+{
+    private final Sequencer sequencer;
+    private final Slots slots;
+    private final int bufferSize;
+
+    LazyPopulatingSequencer(final Sequencer sequencer, final Slots slots)
+    {
+        this.sequencer = sequencer;
+        this.slots = slots;
+        this.bufferSize = sequencer.getBufferSize();
+    }
+
+    private long populated(final long hi, final int n)
+    {
+        final long lo = hi - (n - 1);
+        if (lo < bufferSize)
+        {
+            slots.populate(lo, Math.min(hi, bufferSize - 1));
+        }
+        return hi;
+    }
+
+    @Override
+    public long next()
+    {
+        return populated(sequencer.next(), 1);
+    }
+
+    @Override
+    public long next(final int n)
+    {
+        return populated(sequencer.next(n), n);
+    }
+
+    @Override
+    public long tryNext() throws InsufficientCapacityException
+    {
+        return populated(sequencer.tryNext(), 1);
+    }
+
+    @Override
+    public long tryNext(final int n) throws InsufficientCapacityException
+    {
+        return populated(sequencer.tryNext(n), n);
+    }
+
+    /**
+     * Claiming a specific sequence may skip slots, so every remaining slot is populated.
+     *
+     * @see Sequencer#claim(long)
+     */
+    @Override
+    public void claim(final long sequence)
+    {
+        slots.populate(0, bufferSize - 1);
+        sequencer.claim(sequence);
+    }
+
+    @Override
+    public void reset()
+    {
+        sequencer.reset();
+    }
+
+    @Override
+    public void publish(final long sequence)
+    {
+        sequencer.publish(sequence);
+    }
+
+    @Override
+    public void publish(final long lo, final long hi)
+    {
+        sequencer.publish(lo, hi);
+    }
+
+    @Override
+    public long getCursor()
+    {
+        return sequencer.getCursor();
+    }
+
+    @Override
+    public int getBufferSize()
+    {
+        return bufferSize;
+    }
+
+    @Override
+    public boolean hasAvailableCapacity(final int requiredCapacity)
+    {
+        return sequencer.hasAvailableCapacity(requiredCapacity);
+    }
+
+    @Override
+    public long remainingCapacity()
+    {
+        return sequencer.remainingCapacity();
+    }
+
+    @Override
+    public boolean isAvailable(final long sequence)
+    {
+        return sequencer.isAvailable(sequence);
+    }
+
+    @Override
+    public void addGatingSequences(final Sequence... gatingSequences)
+    {
+        sequencer.addGatingSequences(gatingSequences);
+    }
+
+    @Override
+    public boolean tryAddGatingSequence(final Sequence gatingSequence)
+    {
+        return sequencer.tryAddGatingSequence(gatingSequence);
+    }
+
+    @Override
+    public boolean removeGatingSequence(final Sequence sequence)
+    {
+        return sequencer.removeGatingSequence(sequence);
+    }
+
+    @Override
+    public SequenceBarrier newBarrier(final Sequence... sequencesToTrack)
+    {
+        return sequencer.newBarrier(sequencesToTrack);
+    }
+
+    @Override
+    public SequenceBarrier newBarrier(final WaitStrategy waitStrategy, final Sequence... sequencesToTrack)
+    {
+        return sequencer.newBarrier(waitStrategy, sequencesToTrack);
+    }
+
+    @Override
+    public void releaseBarrier(final SequenceBarrier barrier)
+    {
+        sequencer.releaseBarrier(barrier);
+    }
+
+    @Override
+    public long getMinimumSequence()
+    {
+        return sequencer.getMinimumSequence();
+    }
+
+    @Override
+    public long getHighestPublishedSequence(final long nextSequence, final long availableSequence)
+    {
+        return sequencer.getHighestPublishedSequence(nextSequence, availableSequence);
+    }
+
+    @Override
+    public <T> EventPoller<T> newPoller(final DataProvider<T> provider, final Sequence... gatingSequences)
+    {
+        return sequencer.newPoller(provider, gatingSequences);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LazyPopulatingSequencer{" +
+            "sequencer=" + sequencer +
+            '}';
+    }
+
+    /**
+     * The slots of the ring buffer being populated.
+     */
+    interface Slots
+    {
+        /**
+         * Create the events for the slots of sequences <code>lo</code> to <code>hi</code> that do not have one yet.
+         *
+         * @param lo first sequence to populate.
+         * @param hi last sequence to populate.
+         */
+        void populate(long lo, long hi);
+    }
+}
@@ -47,6 +47,7 @@ public final class LiteBlockingWaitStrategy implements WaitStrategy
                     }
 
                     barrier.checkAlert();
+                    InstrumentedWaitStrategy.notifyPark(barrier);
                     mutex.wait();
                 }
                 while (cursorSequence.get() < sequence);
@@ -44,6 +44,7 @@ public class LiteTimeoutBlockingWaitStrategy implements WaitStrategy
                     signalNeeded.getAndSet(true);
 
                     barrier.checkAlert();
+                    InstrumentedWaitStrategy.notifyPark(barrier);
                     nanos = awaitNanos(mutex, nanos);
                     if (nanos <= 0)
                     {
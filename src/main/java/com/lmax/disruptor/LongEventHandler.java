@@ -0,0 +1,59 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * Callback interface to be implemented for processing values as they become available in a {@link LongRingBuffer},
+ * receiving each value as a <code>long</code> without boxing.
+ *
+ * @see LongRingBuffer#newEventProcessor(LongEventHandler, SequenceBarrier)
+ */
+@FunctionalInterface
+public interface LongEventHandler
+{
+    /**
+     * Called when a publisher has published a value to the {@link LongRingBuffer}.
+     *
+     * @param value      published to the {@link LongRingBuffer}
+     * @param sequence   of the value being processed
+     * @param endOfBatch flag to indicate if this is the last value in a batch from the {@link LongRingBuffer}
+     * @throws Exception if the handler would like the exception handled further up the chain.
+     */
+    void onEvent(long value, long sequence, boolean endOfBatch) throws Exception;
+
+    /**
+     * Invoked by {@link BatchEventProcessor} prior to processing a batch of values
+     *
+     * @param batchSize the size of the batch that is starting
+     */
+    default void onBatchStart(long batchSize)
+    {
+    }
+
+    /**
+     * Called once on thread start before first value is available.
+     */
+    default void onStart()
+    {
+    }
+
+    /**
+     * Called once just before the event processing thread is shutdown.
+     */
+    default void onShutdown()
+    {
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.dsl.ProducerType;
+
+import java.util.Objects;
+
+/**
+ * Ring buffer of <code>long</code> values, e.g. ids, sequence numbers and timestamps, stored in a <code>long[]</code> so that neither
+ * producers nor consumers touch an event object or box a value.
+ *
+ * <pre><code>
+ * LongRingBuffer ringBuffer = LongRingBuffer.createMultiProducer(1024, new YieldingWaitStrategy());
+ * BatchEventProcessor&lt;LongRingBuffer&gt; processor = ringBuffer.newEventProcessor(
+ *     (value, sequence, endOfBatch) -&gt; process(value), ringBuffer.newBarrier());
+ * ringBuffer.addGatingSequences(processor.getSequence());
+ *
+ * ringBuffer.put(value);
+ * </code></pre>
+ */
+public final class LongRingBuffer extends PrimitiveRingBuffer<LongEventHandler>
+{
+    // Pad both ends of the array by a cache line pair so neighbouring objects are not falsely shared
+    private static final int BUFFER_PAD = 16;
+
+    private final long[] entries;
+
+    LongRingBuffer(final Sequencer sequencer)
+    {
+        super(sequencer);
+        this.entries = new long[sequencer.getBufferSize() + 2 * BUFFER_PAD];
+    }
+
+    /**
+     * Create a new multiple producer LongRingBuffer with the specified wait strategy.
+     *
+     * @param bufferSize   number of values held by the ring buffer.
+     * @param waitStrategy used to determine how to wait for new values to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     * @see MultiProducerSequencer
+     */
+    public static LongRingBuffer createMultiProducer(final int bufferSize, final WaitStrategy waitStrategy)
+    {
+        return new LongRingBuffer(new MultiProducerSequencer(bufferSize, waitStrategy));
+    }
+
+    /**
+     * Create a new single producer LongRingBuffer with the specified wait strategy.
+     *
+     * @param bufferSize   number of values held by the ring buffer.
+     * @param waitStrategy used to determine how to wait for new values to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     * @see SingleProducerSequencer
+     */
+    public static LongRingBuffer createSingleProducer(final int bufferSize, final WaitStrategy waitStrategy)
+    {
+        return new LongRingBuffer(new SingleProducerSequencer(bufferSize, waitStrategy));
+    }
+
+    /**
+     * Create a new LongRingBuffer with the specified producer type (SINGLE or MULTI)
+     *
+     * @param producerType producer type to use {@link ProducerType}.
+     * @param bufferSize   number of values held by the ring buffer.
+     * @param waitStrategy used to determine how to wait for new values to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     */
+    public static LongRingBuffer create(final ProducerType producerType, final int bufferSize, final WaitStrategy waitStrategy)
+    {
+        switch (producerType)
+        {
+            case SINGLE:
+                return createSingleProducer(bufferSize, waitStrategy);
+            case MULTI:
+                return createMultiProducer(bufferSize, waitStrategy);
+            default:
+                throw new IllegalStateException(producerType.toString());
+        }
+    }
+
+    /**
+     * Get the value for a given sequence.
+     *
+     * @param sequence of the value
+     * @return the value stored at the given sequence
+     */
+    public long get(final long sequence)
+    {
+        return entries[BUFFER_PAD + (int) (sequence & indexMask)];
+    }
+
+    /**
+     * Set the value for a sequence claimed with {@link #next()} or {@link #next(int)}, before publishing it.
+     *
+     * @param sequence claimed by the caller
+     * @param value    to store
+     */
+    public void set(final long sequence, final long value)
+    {
+        entries[BUFFER_PAD + (int) (sequence & indexMask)] = value;
+    }
+
+    /**
+     * Publish a value, waiting for capacity if necessary.
+     *
+     * @param value to publish
+     */
+    public void put(final long value)
+    {
+        final long sequence = sequencer.next();
+        set(sequence, value);
+        sequencer.publish(sequence);
+    }
+
+    /**
+     * Attempt to publish a value.  Will return false if the required capacity is not available.
+     *
+     * @param value to publish
+     * @return true if the value was published, false if there was insufficient capacity.
+     */
+    public boolean tryPut(final long value)
+    {
+        try
+        {
+            final long sequence = sequencer.tryNext();
+            set(sequence, value);
+            sequencer.publish(sequence);
+            return true;
+        }
+        catch (final InsufficientCapacityException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Publish a batch of values, claiming and publishing their sequences together.
+     *
+     * @param values source of the values to publish
+     * @param offset within <code>values</code> of the first value
+     * @param length number of values to publish, no more than the buffer size
+     */
+    public void put(final long[] values, final int offset, final int length)
+    {
+        Objects.checkFromIndexSize(offset, length, values.length);
+        if (length == 0)
+        {
+            return;
+        }
+
+        final long finalSequence = sequencer.next(length);
+        copyAndPublish(values, offset, length, finalSequence);
+    }
+
+    /**
+     * Attempt to publish a batch of values.  Will return false if the required capacity is not available.
+     *
+     * @param values source of the values to publish
+     * @param offset within <code>values</code> of the first value
+     * @param length number of values to publish, no more than the buffer size
+     * @return true if the values were published, false if there was insufficient capacity.
+     */
+    public boolean tryPut(final long[] values, final int offset, final int length)
+    {
+        Objects.checkFromIndexSize(offset, length, values.length);
+        if (length == 0)
+        {
+            return true;
+        }
+
+        try
+        {
+            final long finalSequence = sequencer.tryNext(length);
+            copyAndPublish(values, offset, length, finalSequence);
+            return true;
+        }
+        catch (final InsufficientCapacityException e)
+        {
+            return false;
+        }
+    }
+
+    @Override
+    public BatchEventProcessor<LongRingBuffer> newEventProcessor(final LongEventHandler handler, final SequenceBarrier barrier)
+    {
+        return new BatchEventProcessor<>(sequence -> this, barrier, new HandlerAdapter(handler));
+    }
+
+    private void copyAndPublish(final long[] values, final int offset, final int length, final long finalSequence)
+    {
+        final long initialSequence = finalSequence - (length - 1);
+        long sequence = initialSequence;
+        for (int i = offset, end = offset + length; i < end; i++)
+        {
+            set(sequence++, values[i]);
+        }
+        sequencer.publish(initialSequence, finalSequence);
+    }
+
+    /**
+     * Reads the value for each sequence from the ring buffer, which is passed to the processor as the event.
+     */
+    private static final class HandlerAdapter implements EventHandler<LongRingBuffer>
+    {
+        private final LongEventHandler handler;
+
+        HandlerAdapter(final LongEventHandler handler)
+        {
+            this.handler = handler;
+        }
+
+        @Override
+        public void onEvent(final LongRingBuffer ringBuffer, final long sequence, final boolean endOfBatch) throws Exception
+        {
+            handler.onEvent(ringBuffer.get(sequence), sequence, endOfBatch);
+        }
+
+        @Override
+        public void onBatchStart(final long batchSize)
+        {
+            handler.onBatchStart(batchSize);
+        }
+
+        @Override
+        public void onStart()
+        {
+            handler.onStart();
+        }
+
+        @Override
+        public void onShutdown()
+        {
+            handler.onShutdown();
+        }
+    }
+}
@@ -0,0 +1,629 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.dsl.ProducerType;
+import com.lmax.disruptor.util.Util;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Ring buffer of fixed size entries held in a memory mapped file, together with a checkpoint of each consumer's
+ * position, so that events which had been published but not consumed survive a crash of the JVM and are replayed
+ * when the file is opened again.
+ *
+ * <p>Every entry is stamped with its sequence when it is published.  On opening an existing file the cursor is
+ * recovered by following the stamps on from the lowest consumer checkpoint, and each processor created by
+ * {@link #newEventProcessor(int, EventHandler, Sequence...)} resumes from its own checkpoint.  Checkpoints rather
+ * than the processors' live sequences gate the producers, so an entry is never overwritten before every consumer
+ * has checkpointed past it; processors created by this class checkpoint at the end of every batch.
+ *
+ * <p>Entries reach the file when the operating system writes back the mapping, which survives the JVM exiting
+ * but not the host failing; {@link #force()} may be called to write them out synchronously.  With multiple
+ * producers, recovery stops at the first sequence that had been claimed but not published.
+ *
+ * <pre><code>
+ * MappedRingBuffer ringBuffer = MappedRingBuffer.open(
+ *     Paths.get("orders.ring"), ProducerType.SINGLE, 1024, 64, 1, new YieldingWaitStrategy());
+ * BatchEventProcessor&lt;ByteBuffer&gt; processor = ringBuffer.newEventProcessor(0, handler);
+ *
+ * ringBuffer.publishEvent((entry, sequence, price) -&gt; entry.putLong(price), price);
+ * </code></pre>
+ */
+public final class MappedRingBuffer implements Cursored, EventSequencer<ByteBuffer>
+{
+    private static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private static final int MAGIC = 0x4C4D5852;
+    private static final int VERSION = 1;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int BUFFER_SIZE_OFFSET = 8;
+    private static final int ENTRY_SIZE_OFFSET = 12;
+    private static final int CONSUMERS_OFFSET = 16;
+    private static final int CHECKPOINTS_OFFSET = 128;
+    private static final int CHECKPOINT_STRIDE = 128;
+    private static final int PAGE_SIZE = 4096;
+    private static final int STAMP_LENGTH = 8;
+
+    private final Sequencer sequencer;
+    private final MappedByteBuffer mapping;
+    private final int entrySize;
+    private final int slotSize;
+    private final int dataOffset;
+    private final int indexMask;
+    private final MappedSequence[] checkpoints;
+    private final ThreadLocal<ByteBuffer> views;
+
+    MappedRingBuffer(final Sequencer sequencer, final MappedByteBuffer mapping, final int entrySize, final int consumers)
+    {
+        this.sequencer = sequencer;
+        this.mapping = mapping;
+        this.entrySize = entrySize;
+        this.slotSize = slotSize(entrySize);
+        this.dataOffset = dataOffset(consumers);
+        this.indexMask = sequencer.getBufferSize() - 1;
+        this.views = ThreadLocal.withInitial(() -> mapping.duplicate().order(ByteOrder.nativeOrder()));
+
+        final boolean initialised = (int) INT_VIEW.getAcquire(mapping, MAGIC_OFFSET) == MAGIC;
+        if (initialised)
+        {
+            checkHeader(sequencer.getBufferSize(), entrySize, consumers);
+        }
+
+        this.checkpoints = new MappedSequence[consumers];
+        for (int i = 0; i < consumers; i++)
+        {
+            checkpoints[i] = new MappedSequence(mapping, CHECKPOINTS_OFFSET + i * CHECKPOINT_STRIDE);
+            if (!initialised)
+            {
+                checkpoints[i].set(Sequencer.INITIAL_CURSOR_VALUE);
+            }
+        }
+
+        if (initialised)
+        {
+            recover();
+        }
+        else
+        {
+            mapping.putInt(VERSION_OFFSET, VERSION);
+            mapping.putInt(BUFFER_SIZE_OFFSET, sequencer.getBufferSize());
+            mapping.putInt(ENTRY_SIZE_OFFSET, entrySize);
+            mapping.putInt(CONSUMERS_OFFSET, consumers);
+            INT_VIEW.setRelease(mapping, MAGIC_OFFSET, MAGIC);
+        }
+
+        // adding gating sequences moves them to the cursor, so put the recovered checkpoints back afterwards
+        final long[] recovered = new long[consumers];
+        for (int i = 0; i < consumers; i++)
+        {
+            recovered[i] = checkpoints[i].get();
+        }
+        sequencer.addGatingSequences(checkpoints);
+        for (int i = 0; i < consumers; i++)
+        {
+            checkpoints[i].set(recovered[i]);
+        }
+    }
+
+    /**
+     * Open a MappedRingBuffer backed by <code>file</code>, creating the file if it does not exist.  If it does
+     * exist, it must have been created with the same sizes, and any events that had been published to it but not
+     * checkpointed by every consumer are made available to be consumed again.
+     *
+     * @param file         backing the ring buffer.
+     * @param producerType producer type to use {@link ProducerType}.
+     * @param bufferSize   number of entries in the ring buffer.
+     * @param entrySize    size in bytes of each entry.
+     * @param consumers    number of consumers whose positions are checkpointed in the file.
+     * @param waitStrategy used to determine how to wait for new entries to become available.
+     * @return a constructed ring buffer.
+     * @throws IOException if the file could not be opened or mapped.
+     * @throws IllegalArgumentException if the sizes are invalid or do not match an existing file
+     */
+    public static MappedRingBuffer open(
+        final Path file,
+        final ProducerType producerType,
+        final int bufferSize,
+        final int entrySize,
+        final int consumers,
+        final WaitStrategy waitStrategy) throws IOException
+    {
+        if (entrySize < 1)
+        {
+            throw new IllegalArgumentException("entrySize must not be less than 1");
+        }
+        if (consumers < 1)
+        {
+            throw new IllegalArgumentException("consumers must not be less than 1");
+        }
+
+        final Sequencer sequencer = newSequencer(producerType, bufferSize, waitStrategy);
+        final long length = dataOffset(consumers) + (long) bufferSize * slotSize(entrySize);
+        if (length > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("ring buffer file must not exceed " + Integer.MAX_VALUE + " bytes");
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            final long existingLength = channel.size();
+            if (existingLength != 0 && existingLength != length)
+            {
+                throw new IllegalArgumentException("file " + file + " is " + existingLength + " bytes, expected " + length);
+            }
+
+            final MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            mapping.order(ByteOrder.nativeOrder());
+            return new MappedRingBuffer(sequencer, mapping, entrySize, consumers);
+        }
+    }
+
+    private static Sequencer newSequencer(final ProducerType producerType, final int bufferSize, final WaitStrategy waitStrategy)
+    {
+        switch (producerType)
+        {
+            case SINGLE:
+                return new SingleProducerSequencer(bufferSize, waitStrategy);
+            case MULTI:
+                return new MultiProducerSequencer(bufferSize, waitStrategy);
+            default:
+                throw new IllegalStateException(producerType.toString());
+        }
+    }
+
+    /**
+     * Create a {@link BatchEventProcessor} for a consumer that resumes from the consumer's checkpoint and
+     * checkpoints its position at the end of every batch.  At most one processor may be run for each consumer.
+     *
+     * @param consumer         index of the consumer, from 0 to the number of consumers the file was opened with.
+     * @param handler          to receive the entries.
+     * @param sequencesToTrack sequences of other processors this one must follow, if any.
+     * @return the event processor.
+     */
+    public BatchEventProcessor<ByteBuffer> newEventProcessor(
+        final int consumer,
+        final EventHandler<? super ByteBuffer> handler,
+        final Sequence... sequencesToTrack)
+    {
+        final Sequence checkpoint = getCheckpointSequence(consumer);
+        final BatchEventProcessor<ByteBuffer> processor =
+            new BatchEventProcessor<>(this, sequencer.newBarrier(sequencesToTrack), new CheckpointingEventHandler(handler, checkpoint));
+        processor.getSequence().set(checkpoint.get());
+
+        return processor;
+    }
+
+    /**
+     * The checkpoint of a consumer, held in the file.  It gates the producers, so a consumer not created by
+     * {@link #newEventProcessor(int, EventHandler, Sequence...)} must advance it at least once per
+     * {@link #getBufferSize()} events.
+     *
+     * @param consumer index of the consumer, from 0 to the number of consumers the file was opened with.
+     * @return the sequence holding the consumer's checkpoint.
+     */
+    public Sequence getCheckpointSequence(final int consumer)
+    {
+        return checkpoints[consumer];
+    }
+
+    /**
+     * @return the number of consumers whose positions are checkpointed in the file.
+     */
+    public int getConsumerCount()
+    {
+        return checkpoints.length;
+    }
+
+    /**
+     * Synchronously write any changes to the entries and checkpoints out to the file.
+     *
+     * @see MappedByteBuffer#force()
+     */
+    public void force()
+    {
+        mapping.force();
+    }
+
+    /**
+     * Get the entry for a given sequence, as this thread's view of the ring buffer with its position set to
+     * the start of the entry and its limit to the end of it.
+     *
+     * @param sequence for the entry
+     * @return the view positioned on the entry for the given sequence
+     */
+    @Override
+    public ByteBuffer get(final long sequence)
+    {
+        final int position = slotOffset(sequence) + STAMP_LENGTH;
+
+        final ByteBuffer view = views.get();
+        view.limit(position + entrySize).position(position);
+
+        return view;
+    }
+
+    /**
+     * @return the size in bytes of each entry.
+     */
+    public int getEntrySize()
+    {
+        return entrySize;
+    }
+
+    @Override
+    public int getBufferSize()
+    {
+        return sequencer.getBufferSize();
+    }
+
+    @Override
+    public boolean hasAvailableCapacity(final int requiredCapacity)
+    {
+        return sequencer.hasAvailableCapacity(requiredCapacity);
+    }
+
+    @Override
+    public long remainingCapacity()
+    {
+        return sequencer.remainingCapacity();
+    }
+
+    @Override
+    public long next()
+    {
+        return sequencer.next();
+    }
+
+    @Override
+    public long next(final int n)
+    {
+        return sequencer.next(n);
+    }
+
+    @Override
+    public long tryNext() throws InsufficientCapacityException
+    {
+        return sequencer.tryNext();
+    }
+
+    @Override
+    public long tryNext(final int n) throws InsufficientCapacityException
+    {
+        return sequencer.tryNext(n);
+    }
+
+    @Override
+    public void publish(final long sequence)
+    {
+        stamp(sequence);
+        sequencer.publish(sequence);
+    }
+
+    @Override
+    public void publish(final long lo, final long hi)
+    {
+        for (long sequence = lo; sequence <= hi; sequence++)
+        {
+            stamp(sequence);
+        }
+        sequencer.publish(lo, hi);
+    }
+
+    @Override
+    public long getCursor()
+    {
+        return sequencer.getCursor();
+    }
+
+    /**
+     * Add the specified gating sequences to this ring buffer, in addition to the consumer checkpoints.
+     *
+     * @param gatingSequences The sequences to add.
+     */
+    public void addGatingSequences(final Sequence... gatingSequences)
+    {
+        sequencer.addGatingSequences(gatingSequences);
+    }
+
+    /**
+     * Remove the specified sequence from this ring buffer.
+     *
+     * @param sequence to be removed.
+     * @return <code>true</code> if this sequence was found, <code>false</code> otherwise.
+     */
+    public boolean removeGatingSequence(final Sequence sequence)
+    {
+        return sequencer.removeGatingSequence(sequence);
+    }
+
+    /**
+     * Get the minimum sequence value from all of the gating sequences added to this ring buffer.
+     *
+     * @return The minimum gating sequence or the cursor sequence if no sequences have been added.
+     */
+    public long getMinimumGatingSequence()
+    {
+        return sequencer.getMinimumSequence();
+    }
+
+    /**
+     * Create a new SequenceBarrier to be used by an EventProcessor to track which entries
+     * are available to be read from the ring buffer given a list of sequences to track.
+     *
+     * @param sequencesToTrack the additional sequences to track
+     * @return A sequence barrier that will track the specified sequences.
+     */
+    public SequenceBarrier newBarrier(final Sequence... sequencesToTrack)
+    {
+        return sequencer.newBarrier(sequencesToTrack);
+    }
+
+    /**
+     * Publish an entry, writing it straight into the file with a translator.
+     *
+     * @param translator The user specified translation for the entry
+     */
+    public void publishEvent(final EventTranslator<ByteBuffer> translator)
+    {
+        final long sequence = sequencer.next();
+        translateAndPublish(translator, sequence);
+    }
+
+    /**
+     * Attempts to publish an entry.  Will return false if the required capacity is not available.
+     *
+     * @param translator The user specified translation for the entry
+     * @return true if the value was published, false if there was insufficient capacity.
+     */
+    public boolean tryPublishEvent(final EventTranslator<ByteBuffer> translator)
+    {
+        try
+        {
+            final long sequence = sequencer.tryNext();
+            translateAndPublish(translator, sequence);
+            return true;
+        }
+        catch (final InsufficientCapacityException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Publish an entry, writing it straight into the file with a translator that takes one argument.
+     *
+     * @param <A>        Class of the user supplied argument.
+     * @param translator The user specified translation for the entry
+     * @param arg0       A user supplied argument.
+     */
+    public <A> void publishEvent(final EventTranslatorOneArg<ByteBuffer, A> translator, final A arg0)
+    {
+        final long sequence = sequencer.next();
+        try
+        {
+            translator.translateTo(get(sequence), sequence, arg0);
+        }
+        finally
+        {
+            publish(sequence);
+        }
+    }
+
+    /**
+     * Copy <code>data</code> into the next entry and publish it.
+     *
+     * @param data   source of the bytes to copy.
+     * @param offset within <code>data</code> of the first byte.
+     * @param length number of bytes to copy, no more than {@link #getEntrySize()}.
+     * @throws IndexOutOfBoundsException if the range is outside <code>data</code> or larger than an entry.
+     */
+    public void put(final byte[] data, final int offset, final int length)
+    {
+        Objects.checkFromIndexSize(offset, length, data.length);
+        if (length > entrySize)
+        {
+            throw new IndexOutOfBoundsException("length " + length + " exceeds entrySize " + entrySize);
+        }
+
+        final long sequence = sequencer.next();
+        try
+        {
+            get(sequence).put(data, offset, length);
+        }
+        finally
+        {
+            publish(sequence);
+        }
+    }
+
+    private void translateAndPublish(final EventTranslator<ByteBuffer> translator, final long sequence)
+    {
+        try
+        {
+            translator.translateTo(get(sequence), sequence);
+        }
+        finally
+        {
+            publish(sequence);
+        }
+    }
+
+    /**
+     * Stamps are one more than the sequence, so that the zeroed slots of a new file never match.
+     */
+    private void stamp(final long sequence)
+    {
+        LONG_VIEW.setRelease(mapping, slotOffset(sequence), sequence + 1);
+    }
+
+    private boolean isStamped(final long sequence)
+    {
+        return (long) LONG_VIEW.getAcquire(mapping, slotOffset(sequence)) == sequence + 1;
+    }
+
+    private void recover()
+    {
+        final long checkpoint = Util.getMinimumSequence(checkpoints);
+        long cursor = checkpoint;
+        while (cursor - checkpoint < sequencer.getBufferSize() && isStamped(cursor + 1))
+        {
+            cursor++;
+        }
+
+        if (cursor != Sequencer.INITIAL_CURSOR_VALUE)
+        {
+            sequencer.claim(cursor);
+            sequencer.publish(checkpoint + 1, cursor);
+        }
+    }
+
+    private void checkHeader(final int bufferSize, final int entrySize, final int consumers)
+    {
+        if (mapping.getInt(VERSION_OFFSET) != VERSION ||
+            mapping.getInt(BUFFER_SIZE_OFFSET) != bufferSize ||
+            mapping.getInt(ENTRY_SIZE_OFFSET) != entrySize ||
+            mapping.getInt(CONSUMERS_OFFSET) != consumers)
+        {
+            throw new IllegalArgumentException("file was created with version=" + mapping.getInt(VERSION_OFFSET) +
+                ", bufferSize=" + mapping.getInt(BUFFER_SIZE_OFFSET) +
+                ", entrySize=" + mapping.getInt(ENTRY_SIZE_OFFSET) +
+                ", consumers=" + mapping.getInt(CONSUMERS_OFFSET));
+        }
+    }
+
+    private int slotOffset(final long sequence)
+    {
+        return dataOffset + (int) (sequence & indexMask) * slotSize;
+    }
+
+    private static int slotSize(final int entrySize)
+    {
+        return (STAMP_LENGTH + entrySize + Long.BYTES - 1) & -Long.BYTES;
+    }
+
+    private static int dataOffset(final int consumers)
+    {
+        final int headerLength = CHECKPOINTS_OFFSET + consumers * CHECKPOINT_STRIDE;
+        return (headerLength + PAGE_SIZE - 1) & -PAGE_SIZE;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MappedRingBuffer{" +
+            "sequencer=" + sequencer +
+            ", entrySize=" + entrySize +
+            ", checkpoints=" + Arrays.toString(checkpoints) +
+            '}';
+    }
+
+    /**
+     * Advances a consumer's checkpoint at the end of each batch passed to the handler.  For a handler that
+     * {@link EventHandler#advancesOwnSequence() advances its own sequence} the checkpoint follows that sequence
+     * instead, catching up after each callback the handler may have advanced it from.
+     */
+    private static final class CheckpointingEventHandler implements EventHandler<ByteBuffer>
+    {
+        private final EventHandler<? super ByteBuffer> delegate;
+        private final Sequence checkpoint;
+        private final boolean delegateAdvancesSequence;
+        private Sequence sequenceCallback;
+
+        CheckpointingEventHandler(final EventHandler<? super ByteBuffer> delegate, final Sequence checkpoint)
+        {
+            this.delegate = delegate;
+            this.checkpoint = checkpoint;
+            this.delegateAdvancesSequence = delegate.advancesOwnSequence();
+        }
+
+        @Override
+        public void onEvent(final ByteBuffer event, final long sequence, final boolean endOfBatch) throws Exception
+        {
+            delegate.onEvent(event, sequence, endOfBatch);
+            if (endOfBatch)
+            {
+                checkpoint.set(delegateAdvancesSequence ? sequenceCallback.get() : sequence);
+            }
+        }
+
+        @Override
+        public void onBatchStart(final long batchSize)
+        {
+            delegate.onBatchStart(batchSize);
+        }
+
+        @Override
+        public void onStart()
+        {
+            delegate.onStart();
+        }
+
+        @Override
+        public void onShutdown()
+        {
+            delegate.onShutdown();
+            catchUp();
+        }
+
+        @Override
+        public void setSequenceCallback(final Sequence sequenceCallback)
+        {
+            this.sequenceCallback = sequenceCallback;
+            delegate.setSequenceCallback(sequenceCallback);
+        }
+
+        @Override
+        public boolean advancesOwnSequence()
+        {
+            return delegateAdvancesSequence;
+        }
+
+        @Override
+        public void onTimeout(final long sequence) throws Exception
+        {
+            delegate.onTimeout(sequence);
+            catchUp();
+        }
+
+        @Override
+        public void onFlush(final long sequence) throws Exception
+        {
+            delegate.onFlush(sequence);
+            catchUp();
+        }
+
+        private void catchUp()
+        {
+            if (delegateAdvancesSequence)
+            {
+                checkpoint.set(sequenceCallback.get());
+            }
+        }
+    }
+}
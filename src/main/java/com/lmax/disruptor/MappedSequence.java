@@ -0,0 +1,84 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A Sequence whose value is held at a fixed offset in a direct (usually memory mapped) buffer rather than in
+ * the object itself, so that it outlives the JVM or can be shared with another process mapping the same file.
+ */
+final class MappedSequence extends Sequence
+{
+    private static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer buffer;
+    private final int offset;
+
+    /**
+     * @param buffer holding the value, must be direct.
+     * @param offset of the value within the buffer, must be 8 byte aligned.
+     */
+    MappedSequence(final ByteBuffer buffer, final int offset)
+    {
+        if (!buffer.isDirect() || (offset & (Long.BYTES - 1)) != 0)
+        {
+            throw new IllegalArgumentException("a MappedSequence must be 8 byte aligned in a direct buffer");
+        }
+
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    @Override
+    public long get()
+    {
+        return (long) LONG_VIEW.getAcquire(buffer, offset);
+    }
+
+    @Override
+    public void set(final long value)
+    {
+        LONG_VIEW.setRelease(buffer, offset, value);
+    }
+
+    @Override
+    public void setVolatile(final long value)
+    {
+        LONG_VIEW.setVolatile(buffer, offset, value);
+    }
+
+    @Override
+    public boolean compareAndSet(final long expectedValue, final long newValue)
+    {
+        return LONG_VIEW.compareAndSet(buffer, offset, expectedValue, newValue);
+    }
+
+    @Override
+    public long addAndGet(final long increment)
+    {
+        return (long) LONG_VIEW.getAndAdd(buffer, offset, increment) + increment;
+    }
+
+    @Override
+    public long getAndAdd(final long increment)
+    {
+        return (long) LONG_VIEW.getAndAdd(buffer, offset, increment);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link SequenceCheckpointer} that keeps the checkpointed sequence in a small memory mapped file, so that a
+ * checkpoint costs an ordered write to memory and survives the JVM exiting.
+ *
+ * <p>As with {@link MappedRingBuffer}, the checkpoint reaches the file when the operating system writes back the
+ * mapping, which does not survive the host failing, unless the checkpointer was opened to force every
+ * checkpoint out synchronously or {@link #force()} is called.  Each consumer needs a file of its own.
+ *
+ * <pre><code>
+ * MappedSequenceCheckpointer checkpointer = MappedSequenceCheckpointer.open(Paths.get("journaller.checkpoint"));
+ * disruptor.handleEventsWithCheckpointed(checkpointer, 1024, journaller);
+ * </code></pre>
+ */
+public final class MappedSequenceCheckpointer implements SequenceCheckpointer
+{
+    private static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private static final int MAGIC = 0x4C4D5843;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int SEQUENCE_OFFSET = 8;
+    private static final int LENGTH = SEQUENCE_OFFSET + Long.BYTES;
+
+    private final MappedByteBuffer mapping;
+    private final Sequence sequence;
+    private final boolean forceOnCheckpoint;
+
+    MappedSequenceCheckpointer(final MappedByteBuffer mapping, final boolean forceOnCheckpoint)
+    {
+        this.mapping = mapping;
+        this.sequence = new MappedSequence(mapping, SEQUENCE_OFFSET);
+        this.forceOnCheckpoint = forceOnCheckpoint;
+
+        final int magic = (int) INT_VIEW.getAcquire(mapping, MAGIC_OFFSET);
+        if (magic == 0)
+        {
+            sequence.set(Sequencer.INITIAL_CURSOR_VALUE);
+            INT_VIEW.setRelease(mapping, MAGIC_OFFSET, MAGIC);
+        }
+        else if (magic != MAGIC)
+        {
+            throw new IllegalArgumentException("file is not a sequence checkpoint");
+        }
+    }
+
+    /**
+     * Open a checkpointer backed by <code>file</code>, creating the file if it does not exist.  Checkpoints are
+     * left to the operating system to write back.
+     *
+     * @param file holding the checkpointed sequence.
+     * @return the checkpointer.
+     * @throws IOException if the file could not be opened or mapped.
+     * @throws IllegalArgumentException if the file exists but is not a checkpoint file
+     */
+    public static MappedSequenceCheckpointer open(final Path file) throws IOException
+    {
+        return open(file, false);
+    }
+
+    /**
+     * Open a checkpointer backed by <code>file</code>, creating the file if it does not exist.
+     *
+     * @param file              holding the checkpointed sequence.
+     * @param forceOnCheckpoint whether each checkpoint is written out to the storage device before it returns.
+     * @return the checkpointer.
+     * @throws IOException if the file could not be opened or mapped.
+     * @throws IllegalArgumentException if the file exists but is not a checkpoint file
+     */
+    public static MappedSequenceCheckpointer open(final Path file, final boolean forceOnCheckpoint) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            final long existingLength = channel.size();
+            if (existingLength != 0 && existingLength != LENGTH)
+            {
+                throw new IllegalArgumentException("file " + file + " is " + existingLength + " bytes, expected " + LENGTH);
+            }
+
+            final MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, LENGTH);
+            mapping.order(ByteOrder.nativeOrder());
+            return new MappedSequenceCheckpointer(mapping, forceOnCheckpoint);
+        }
+    }
+
+    @Override
+    public void checkpoint(final long sequence)
+    {
+        this.sequence.set(sequence);
+        if (forceOnCheckpoint)
+        {
+            mapping.force();
+        }
+    }
+
+    @Override
+    public long restore()
+    {
+        return sequence.get();
+    }
+
+    /**
+     * Write the checkpoint out to the storage device.
+     *
+     * @see MappedByteBuffer#force()
+     */
+    public void force()
+    {
+        mapping.force();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MappedSequenceCheckpointer{" +
+            "sequence=" + sequence.get() +
+            '}';
+    }
+}
@@ -43,6 +43,7 @@ public final class MultiProducerSequencer extends AbstractSequencer
     //索引掩码
     private final int indexMask;
     private final int indexShift;
+    private final int strideShift;
 
     /**
      * Construct a Sequencer with the selected wait strategy and buffer size.
@@ -51,6 +52,21 @@ public final class MultiProducerSequencer extends AbstractSequencer
      * @param waitStrategy for those waiting on sequences.
      */
     public MultiProducerSequencer(final int bufferSize, final WaitStrategy waitStrategy)
+    {
+        this(bufferSize, waitStrategy, 1);
+    }
+
+    /**
+     * Construct a Sequencer whose availability flags for consecutive sequences are <code>slotStride</code>
+     * flags apart, so that producers publishing neighbouring sequences do not write to the same cache line.
+     * The flags are 4 bytes each, so a stride of 16 gives every sequence in a run of 16 its own 64 byte line.
+     *
+     * @param bufferSize   the size of the buffer that this will sequence over.
+     * @param waitStrategy for those waiting on sequences.
+     * @param slotStride   distance in flags between consecutive sequences, a power of 2 no greater than bufferSize.
+     * @throws IllegalArgumentException if slotStride is not a power of 2 or is greater than bufferSize
+     */
+    public MultiProducerSequencer(final int bufferSize, final WaitStrategy waitStrategy, final int slotStride)
     {
         super(bufferSize, waitStrategy);
         availableBuffer = new int[bufferSize];
@@ -59,6 +75,7 @@ public final class MultiProducerSequencer extends AbstractSequencer
 
         indexMask = bufferSize - 1;
         indexShift = Util.log2(bufferSize);
+        strideShift = Util.log2(Util.checkSlotStride(slotStride, bufferSize));
     }
 
     /**
@@ -109,6 +126,19 @@ public final class MultiProducerSequencer extends AbstractSequencer
         cursor.set(sequence);
     }
 
+    /**
+     * Also marks every sequence as unpublished again, so that flags written before the reset cannot make a
+     * sequence look available before it is published.
+     *
+     * @see Sequencer#reset()
+     */
+    @Override
+    public void reset()
+    {
+        Arrays.fill(availableBuffer, -1);
+        cursor.set(INITIAL_CURSOR_VALUE);
+    }
+
     /**
      * @see Sequencer#next()
      */
@@ -209,7 +239,7 @@ public final class MultiProducerSequencer extends AbstractSequencer
     public void publish(final long sequence)
     {
         setAvailable(sequence);
-        waitStrategy.signalAllWhenBlocking();
+        signalAllWhenBlocking();
     }
 
     /**
@@ -222,7 +252,7 @@ public final class MultiProducerSequencer extends AbstractSequencer
         {
             setAvailable(l);
         }
-        waitStrategy.signalAllWhenBlocking();
+        signalAllWhenBlocking();
     }
 
     /**
@@ -290,7 +320,8 @@ public final class MultiProducerSequencer extends AbstractSequencer
      */
     private int calculateIndex(final long sequence)
     {
-        return ((int) sequence) & indexMask;
+        final int index = ((int) sequence) & indexMask;
+        return strideShift == 0 ? index : Util.slotIndex(index, strideShift, indexShift, indexMask);
     }
 
     @Override
@@ -298,6 +329,7 @@ public final class MultiProducerSequencer extends AbstractSequencer
     {
         return "MultiProducerSequencer{" +
                 "bufferSize=" + bufferSize +
+                ", slotStride=" + (1 << strideShift) +
                 ", waitStrategy=" + waitStrategy +
                 ", cursor=" + cursor +
                 ", gatingSequences=" + Arrays.toString(gatingSequences) +
@@ -0,0 +1,481 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.dsl.ProducerType;
+import com.lmax.disruptor.util.Util;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Ring buffer that publishes references to events, typically immutable ones, instead of copying them into
+ * preallocated entries as a {@link RingBuffer} does.
+ *
+ * <p>Events are consumed by {@link BatchEventProcessor}s created with
+ * {@link #newEventProcessor(EventHandler, Sequence...)}.  Once every one of those processors has passed a slot,
+ * the reference in it is cleared so that the event can be garbage collected without waiting for the producer to
+ * come round the ring again.  Producers are gated on the clearing rather than on the processors directly, so a
+ * slot is never reused before it has been cleared.
+ *
+ * <pre><code>
+ * ObjectRingBuffer&lt;Trade&gt; ringBuffer = ObjectRingBuffer.createSingleProducer(1024, new YieldingWaitStrategy());
+ * BatchEventProcessor&lt;Trade&gt; processor = ringBuffer.newEventProcessor(handler);
+ * new Thread(processor).start();
+ *
+ * ringBuffer.put(new Trade(price, quantity));
+ * </code></pre>
+ *
+ * @param <T> type of the events published by reference.
+ */
+public final class ObjectRingBuffer<T> implements Cursored, Sequenced, DataProvider<T>
+{
+    private static final int BUFFER_PAD = 32;
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<ObjectRingBuffer, Sequence[]> CONSUMER_SEQUENCES_UPDATER =
+        AtomicReferenceFieldUpdater.newUpdater(ObjectRingBuffer.class, Sequence[].class, "consumerSequences");
+
+    private final Sequencer sequencer;
+    private final Object[] entries;
+    private final int indexMask;
+    private final Sequence clearedSequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+    private final AtomicBoolean clearing = new AtomicBoolean();
+    private volatile Sequence[] consumerSequences = new Sequence[0];
+
+    ObjectRingBuffer(final Sequencer sequencer)
+    {
+        this.sequencer = sequencer;
+        this.entries = new Object[sequencer.getBufferSize() + 2 * BUFFER_PAD];
+        this.indexMask = sequencer.getBufferSize() - 1;
+
+        sequencer.addGatingSequences(clearedSequence);
+    }
+
+    /**
+     * Create a new multiple producer ObjectRingBuffer with the specified wait strategy.
+     *
+     * @param <T>          type of the events published by reference.
+     * @param bufferSize   number of slots in the ring buffer.
+     * @param waitStrategy used to determine how to wait for new events to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     * @see MultiProducerSequencer
+     */
+    public static <T> ObjectRingBuffer<T> createMultiProducer(final int bufferSize, final WaitStrategy waitStrategy)
+    {
+        return new ObjectRingBuffer<>(new MultiProducerSequencer(bufferSize, waitStrategy));
+    }
+
+    /**
+     * Create a new single producer ObjectRingBuffer with the specified wait strategy.
+     *
+     * @param <T>          type of the events published by reference.
+     * @param bufferSize   number of slots in the ring buffer.
+     * @param waitStrategy used to determine how to wait for new events to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     * @see SingleProducerSequencer
+     */
+    public static <T> ObjectRingBuffer<T> createSingleProducer(final int bufferSize, final WaitStrategy waitStrategy)
+    {
+        return new ObjectRingBuffer<>(new SingleProducerSequencer(bufferSize, waitStrategy));
+    }
+
+    /**
+     * Create a new ObjectRingBuffer with the specified producer type (SINGLE or MULTI)
+     *
+     * @param <T>          type of the events published by reference.
+     * @param producerType producer type to use {@link ProducerType}.
+     * @param bufferSize   number of slots in the ring buffer.
+     * @param waitStrategy used to determine how to wait for new events to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     */
+    public static <T> ObjectRingBuffer<T> create(
+        final ProducerType producerType,
+        final int bufferSize,
+        final WaitStrategy waitStrategy)
+    {
+        switch (producerType)
+        {
+            case SINGLE:
+                return createSingleProducer(bufferSize, waitStrategy);
+            case MULTI:
+                return createMultiProducer(bufferSize, waitStrategy);
+            default:
+                throw new IllegalStateException(producerType.toString());
+        }
+    }
+
+    /**
+     * Get the event published at a given sequence, or <code>null</code> if the slot has been cleared.
+     *
+     * @param sequence for the event
+     * @return the event published at the given sequence
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public T get(final long sequence)
+    {
+        return (T) entries[BUFFER_PAD + (int) (sequence & indexMask)];
+    }
+
+    /**
+     * Publish a reference to an event, waiting for a slot to be cleared if the ring buffer is full.
+     *
+     * @param event to publish, must not be null.
+     */
+    public void put(final T event)
+    {
+        Objects.requireNonNull(event);
+        final long sequence = sequencer.next();
+        set(sequence, event);
+        sequencer.publish(sequence);
+    }
+
+    /**
+     * Attempt to publish a reference to an event.
+     *
+     * @param event to publish, must not be null.
+     * @return true if the event was published, false if there was insufficient capacity.
+     */
+    public boolean tryPut(final T event)
+    {
+        Objects.requireNonNull(event);
+        try
+        {
+            final long sequence = sequencer.tryNext();
+            set(sequence, event);
+            sequencer.publish(sequence);
+            return true;
+        }
+        catch (final InsufficientCapacityException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Publish references to a batch of events, claiming and publishing their sequences together.
+     *
+     * @param events to publish, none of which may be null.
+     */
+    public void publishAll(final T[] events)
+    {
+        checkNoNulls(events);
+        if (events.length == 0)
+        {
+            return;
+        }
+
+        final long finalSequence = sequencer.next(events.length);
+        setAll(finalSequence, events);
+    }
+
+    /**
+     * Attempt to publish references to a batch of events, claiming and publishing their sequences together.
+     *
+     * @param events to publish, none of which may be null.
+     * @return true if the events were published, false if there was insufficient capacity.
+     */
+    public boolean tryPublishAll(final T[] events)
+    {
+        checkNoNulls(events);
+        if (events.length == 0)
+        {
+            return true;
+        }
+
+        try
+        {
+            final long finalSequence = sequencer.tryNext(events.length);
+            setAll(finalSequence, events);
+            return true;
+        }
+        catch (final InsufficientCapacityException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Create a {@link BatchEventProcessor} that passes each event to <code>handler</code> and, with the other
+     * processors created by this method, clears slots once all of them have passed.  The processor starts
+     * after the current cursor.
+     *
+     * @param handler          to receive the events.
+     * @param sequencesToTrack sequences of other processors this one must follow, if any.
+     * @return the event processor.
+     */
+    public BatchEventProcessor<T> newEventProcessor(final EventHandler<? super T> handler, final Sequence... sequencesToTrack)
+    {
+        final BatchEventProcessor<T> processor =
+            new BatchEventProcessor<>(this, sequencer.newBarrier(sequencesToTrack), new ClearingEventHandler<>(this, handler));
+
+        SequenceGroups.addSequences(this, CONSUMER_SEQUENCES_UPDATER, this, processor.getSequence());
+
+        return processor;
+    }
+
+    /**
+     * Stop clearing on behalf of a processor created by {@link #newEventProcessor(EventHandler, Sequence...)},
+     * once it has been halted and will consume no more events.
+     *
+     * @param processor to remove.
+     * @return <code>true</code> if the processor's sequence was found, <code>false</code> otherwise.
+     */
+    public boolean removeEventProcessor(final EventProcessor processor)
+    {
+        final boolean removed = SequenceGroups.removeSequence(this, CONSUMER_SEQUENCES_UPDATER, processor.getSequence());
+        if (removed && consumerSequences.length != 0)
+        {
+            clearConsumed();
+        }
+        return removed;
+    }
+
+    @Override
+    public int getBufferSize()
+    {
+        return sequencer.getBufferSize();
+    }
+
+    @Override
+    public boolean hasAvailableCapacity(final int requiredCapacity)
+    {
+        return sequencer.hasAvailableCapacity(requiredCapacity);
+    }
+
+    @Override
+    public long remainingCapacity()
+    {
+        return sequencer.remainingCapacity();
+    }
+
+    @Override
+    public long next()
+    {
+        return sequencer.next();
+    }
+
+    @Override
+    public long next(final int n)
+    {
+        return sequencer.next(n);
+    }
+
+    @Override
+    public long tryNext() throws InsufficientCapacityException
+    {
+        return sequencer.tryNext();
+    }
+
+    @Override
+    public long tryNext(final int n) throws InsufficientCapacityException
+    {
+        return sequencer.tryNext(n);
+    }
+
+    @Override
+    public void publish(final long sequence)
+    {
+        sequencer.publish(sequence);
+    }
+
+    @Override
+    public void publish(final long lo, final long hi)
+    {
+        sequencer.publish(lo, hi);
+    }
+
+    @Override
+    public long getCursor()
+    {
+        return sequencer.getCursor();
+    }
+
+    /**
+     * Set the event at a sequence claimed with {@link #next()} or {@link #tryNext()}, before publishing it.
+     *
+     * @param sequence claimed for the event.
+     * @param event    to publish, must not be null.
+     */
+    public void set(final long sequence, final T event)
+    {
+        entries[BUFFER_PAD + (int) (sequence & indexMask)] = event;
+    }
+
+    /**
+     * Clear the slots that every consumer has passed and release them to the producers.  Only one thread
+     * clears at a time; a thread that finds another clearing leaves it to that thread, which checks again for
+     * newly consumed slots before it finishes.
+     */
+    void clearConsumed()
+    {
+        do
+        {
+            if (!clearing.compareAndSet(false, true))
+            {
+                return;
+            }
+
+            try
+            {
+                final long consumed = Util.getMinimumSequence(consumerSequences, sequencer.getCursor());
+                final long cleared = clearedSequence.get();
+                for (long sequence = cleared + 1; sequence <= consumed; sequence++)
+                {
+                    entries[BUFFER_PAD + (int) (sequence & indexMask)] = null;
+                }
+                if (consumed > cleared)
+                {
+                    clearedSequence.set(consumed);
+                }
+            }
+            finally
+            {
+                clearing.set(false);
+            }
+
+            VarHandle.fullFence();
+        }
+        while (Util.getMinimumSequence(consumerSequences, sequencer.getCursor()) > clearedSequence.get());
+    }
+
+    private void setAll(final long finalSequence, final T[] events)
+    {
+        final long initialSequence = finalSequence - (events.length - 1);
+        long sequence = initialSequence;
+        for (final T event : events)
+        {
+            set(sequence++, event);
+        }
+        sequencer.publish(initialSequence, finalSequence);
+    }
+
+    private static void checkNoNulls(final Object[] events)
+    {
+        for (final Object event : events)
+        {
+            Objects.requireNonNull(event);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ObjectRingBuffer{" +
+            "sequencer=" + sequencer +
+            ", clearedSequence=" + clearedSequence +
+            ", consumerSequences=" + Arrays.toString(consumerSequences) +
+            '}';
+    }
+
+    /**
+     * Makes the processor's progress visible at the end of each batch, then clears what every processor has
+     * passed.  A delegate that {@link EventHandler#advancesOwnSequence() advances its own sequence} is left to do
+     * so, and clearing is tried again after each callback it may have advanced it from.
+     */
+    private static final class ClearingEventHandler<T> implements EventHandler<T>
+    {
+        private final ObjectRingBuffer<T> ringBuffer;
+        private final EventHandler<? super T> delegate;
+        private final boolean delegateAdvancesSequence;
+        private Sequence sequenceCallback;
+
+        ClearingEventHandler(final ObjectRingBuffer<T> ringBuffer, final EventHandler<? super T> delegate)
+        {
+            this.ringBuffer = ringBuffer;
+            this.delegate = delegate;
+            this.delegateAdvancesSequence = delegate.advancesOwnSequence();
+        }
+
+        @Override
+        public void onEvent(final T event, final long sequence, final boolean endOfBatch) throws Exception
+        {
+            try
+            {
+                delegate.onEvent(event, sequence, endOfBatch);
+            }
+            finally
+            {
+                // the processor moves past a failed event too, so clear for it or a full ring never frees up
+                if (endOfBatch)
+                {
+                    if (!delegateAdvancesSequence)
+                    {
+                        sequenceCallback.setVolatile(sequence);
+                    }
+                    ringBuffer.clearConsumed();
+                }
+            }
+        }
+
+        @Override
+        public void onBatchStart(final long batchSize)
+        {
+            delegate.onBatchStart(batchSize);
+        }
+
+        @Override
+        public void onStart()
+        {
+            delegate.onStart();
+        }
+
+        @Override
+        public void onShutdown()
+        {
+            delegate.onShutdown();
+        }
+
+        @Override
+        public void setSequenceCallback(final Sequence sequenceCallback)
+        {
+            this.sequenceCallback = sequenceCallback;
+            delegate.setSequenceCallback(sequenceCallback);
+        }
+
+        @Override
+        public boolean advancesOwnSequence()
+        {
+            return delegateAdvancesSequence;
+        }
+
+        @Override
+        public void onTimeout(final long sequence) throws Exception
+        {
+            delegate.onTimeout(sequence);
+            if (delegateAdvancesSequence)
+            {
+                ringBuffer.clearConsumed();
+            }
+        }
+
+        @Override
+        public void onFlush(final long sequence) throws Exception
+        {
+            delegate.onFlush(sequence);
+            if (delegateAdvancesSequence)
+            {
+                ringBuffer.clearConsumed();
+            }
+        }
+    }
+}
@@ -0,0 +1,421 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.dsl.ProducerType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * Ring based store of fixed size binary entries held in a single direct {@link ByteBuffer}, for exchanging
+ * small messages between producers and {@link EventProcessor}s without allocating an object per slot.
+ *
+ * <p>The event type is {@link ByteBuffer}: {@link #get(long)} returns a view of the whole buffer whose position
+ * and limit delimit the entry for the given sequence, so translators write straight into slot memory and
+ * handlers read from it.  Each thread receives its own view, which is repositioned by every call to
+ * {@link #get(long)} from that thread, so a view must not be retained beyond the event it was returned for.
+ * Entries are not cleared between uses and hold whatever was last written to them.
+ *
+ * <p>As it is a {@link DataProvider} it can be consumed by a {@link BatchEventProcessor}:
+ *
+ * <pre><code>
+ * OffHeapRingBuffer ringBuffer = OffHeapRingBuffer.createMultiProducer(1024 * 1024, 64, new YieldingWaitStrategy());
+ * BatchEventProcessor&lt;ByteBuffer&gt; processor =
+ *     new BatchEventProcessor&lt;&gt;(ringBuffer, ringBuffer.newBarrier(), handler);
+ * ringBuffer.addGatingSequences(processor.getSequence());
+ *
+ * ringBuffer.publishEvent((entry, sequence, price) -&gt; entry.putLong(price), price);
+ * </code></pre>
+ */
+public final class OffHeapRingBuffer implements Cursored, EventSequencer<ByteBuffer>
+{
+    private final Sequencer sequencer;
+    private final int entrySize;
+    private final ByteBuffer buffer;
+    private final int indexMask;
+    private final ThreadLocal<ByteBuffer> views;
+
+    /**
+     * Construct an OffHeapRingBuffer over a sequencer.
+     *
+     * @param sequencer sequencer to handle the ordering of entries moving through the ring buffer.
+     * @param entrySize size in bytes of each entry.
+     * @throws IllegalArgumentException if entrySize is less than 1 or the ring buffer would exceed 2GB
+     */
+    OffHeapRingBuffer(final Sequencer sequencer, final int entrySize)
+    {
+        if (entrySize < 1)
+        {
+            throw new IllegalArgumentException("entrySize must not be less than 1");
+        }
+
+        final long capacity = (long) sequencer.getBufferSize() * entrySize;
+        if (capacity > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("bufferSize * entrySize must not exceed " + Integer.MAX_VALUE + " bytes");
+        }
+
+        this.sequencer = sequencer;
+        this.entrySize = entrySize;
+        this.indexMask = sequencer.getBufferSize() - 1;
+        this.buffer = ByteBuffer.allocateDirect((int) capacity).order(ByteOrder.nativeOrder());
+        this.views = ThreadLocal.withInitial(() -> buffer.duplicate().order(ByteOrder.nativeOrder()));
+    }
+
+    /**
+     * Create a new multiple producer OffHeapRingBuffer with the specified wait strategy.
+     *
+     * @param bufferSize   number of entries in the ring buffer.
+     * @param entrySize    size in bytes of each entry.
+     * @param waitStrategy used to determine how to wait for new entries to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     * @see MultiProducerSequencer
+     */
+    public static OffHeapRingBuffer createMultiProducer(final int bufferSize, final int entrySize, final WaitStrategy waitStrategy)
+    {
+        return new OffHeapRingBuffer(new MultiProducerSequencer(bufferSize, waitStrategy), entrySize);
+    }
+
+    /**
+     * Create a new single producer OffHeapRingBuffer with the specified wait strategy.
+     *
+     * @param bufferSize   number of entries in the ring buffer.
+     * @param entrySize    size in bytes of each entry.
+     * @param waitStrategy used to determine how to wait for new entries to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     * @see SingleProducerSequencer
+     */
+    public static OffHeapRingBuffer createSingleProducer(final int bufferSize, final int entrySize, final WaitStrategy waitStrategy)
+    {
+        return new OffHeapRingBuffer(new SingleProducerSequencer(bufferSize, waitStrategy), entrySize);
+    }
+
+    /**
+     * Create a new OffHeapRingBuffer with the specified producer type (SINGLE or MULTI)
+     *
+     * @param producerType producer type to use {@link ProducerType}.
+     * @param bufferSize   number of entries in the ring buffer.
+     * @param entrySize    size in bytes of each entry.
+     * @param waitStrategy used to determine how to wait for new entries to become available.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     */
+    public static OffHeapRingBuffer create(
+        final ProducerType producerType,
+        final int bufferSize,
+        final int entrySize,
+        final WaitStrategy waitStrategy)
+    {
+        switch (producerType)
+        {
+            case SINGLE:
+                return createSingleProducer(bufferSize, entrySize, waitStrategy);
+            case MULTI:
+                return createMultiProducer(bufferSize, entrySize, waitStrategy);
+            default:
+                throw new IllegalStateException(producerType.toString());
+        }
+    }
+
+    /**
+     * Get the entry for a given sequence, as this thread's view of the ring buffer with its position set to
+     * the start of the entry and its limit to the end of it.
+     *
+     * @param sequence for the entry
+     * @return the view positioned on the entry for the given sequence
+     */
+    @Override
+    public ByteBuffer get(final long sequence)
+    {
+        final int position = (int) (sequence & indexMask) * entrySize;
+
+        final ByteBuffer view = views.get();
+        view.limit(position + entrySize).position(position);
+
+        return view;
+    }
+
+    /**
+     * @return the size in bytes of each entry.
+     */
+    public int getEntrySize()
+    {
+        return entrySize;
+    }
+
+    @Override
+    public int getBufferSize()
+    {
+        return sequencer.getBufferSize();
+    }
+
+    @Override
+    public boolean hasAvailableCapacity(final int requiredCapacity)
+    {
+        return sequencer.hasAvailableCapacity(requiredCapacity);
+    }
+
+    @Override
+    public long remainingCapacity()
+    {
+        return sequencer.remainingCapacity();
+    }
+
+    @Override
+    public long next()
+    {
+        return sequencer.next();
+    }
+
+    @Override
+    public long next(final int n)
+    {
+        return sequencer.next(n);
+    }
+
+    @Override
+    public long tryNext() throws InsufficientCapacityException
+    {
+        return sequencer.tryNext();
+    }
+
+    @Override
+    public long tryNext(final int n) throws InsufficientCapacityException
+    {
+        return sequencer.tryNext(n);
+    }
+
+    @Override
+    public void publish(final long sequence)
+    {
+        sequencer.publish(sequence);
+    }
+
+    @Override
+    public void publish(final long lo, final long hi)
+    {
+        sequencer.publish(lo, hi);
+    }
+
+    @Override
+    public long getCursor()
+    {
+        return sequencer.getCursor();
+    }
+
+    /**
+     * Add the specified gating sequences to this ring buffer.
+     *
+     * @param gatingSequences The sequences to add.
+     */
+    public void addGatingSequences(final Sequence... gatingSequences)
+    {
+        sequencer.addGatingSequences(gatingSequences);
+    }
+
+    /**
+     * Remove the specified sequence from this ring buffer.
+     *
+     * @param sequence to be removed.
+     * @return <code>true</code> if this sequence was found, <code>false</code> otherwise.
+     */
+    public boolean removeGatingSequence(final Sequence sequence)
+    {
+        return sequencer.removeGatingSequence(sequence);
+    }
+
+    /**
+     * Get the minimum sequence value from all of the gating sequences added to this ring buffer.
+     *
+     * @return The minimum gating sequence or the cursor sequence if no sequences have been added.
+     */
+    public long getMinimumGatingSequence()
+    {
+        return sequencer.getMinimumSequence();
+    }
+
+    /**
+     * Create a new SequenceBarrier to be used by an EventProcessor to track which entries
+     * are available to be read from the ring buffer given a list of sequences to track.
+     *
+     * @param sequencesToTrack the additional sequences to track
+     * @return A sequence barrier that will track the specified sequences.
+     */
+    public SequenceBarrier newBarrier(final Sequence... sequencesToTrack)
+    {
+        return sequencer.newBarrier(sequencesToTrack);
+    }
+
+    /**
+     * Publish an entry, writing it straight into slot memory with a translator.
+     *
+     * @param translator The user specified translation for the entry
+     */
+    public void publishEvent(final EventTranslator<ByteBuffer> translator)
+    {
+        final long sequence = sequencer.next();
+        translateAndPublish(translator, sequence);
+    }
+
+    /**
+     * Attempts to publish an entry.  Will return false if the required capacity is not available.
+     *
+     * @param translator The user specified translation for the entry
+     * @return true if the value was published, false if there was insufficient capacity.
+     */
+    public boolean tryPublishEvent(final EventTranslator<ByteBuffer> translator)
+    {
+        try
+        {
+            final long sequence = sequencer.tryNext();
+            translateAndPublish(translator, sequence);
+            return true;
+        }
+        catch (final InsufficientCapacityException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Publish an entry, writing it straight into slot memory with a translator that takes one argument.
+     *
+     * @param <A>        Class of the user supplied argument.
+     * @param translator The user specified translation for the entry
+     * @param arg0       A user supplied argument.
+     */
+    public <A> void publishEvent(final EventTranslatorOneArg<ByteBuffer, A> translator, final A arg0)
+    {
+        final long sequence = sequencer.next();
+        translateAndPublish(translator, sequence, arg0);
+    }
+
+    /**
+     * Attempts to publish an entry.  Will return false if the required capacity is not available.
+     *
+     * @param <A>        Class of the user supplied argument.
+     * @param translator The user specified translation for the entry
+     * @param arg0       A user supplied argument.
+     * @return true if the value was published, false if there was insufficient capacity.
+     */
+    public <A> boolean tryPublishEvent(final EventTranslatorOneArg<ByteBuffer, A> translator, final A arg0)
+    {
+        try
+        {
+            final long sequence = sequencer.tryNext();
+            translateAndPublish(translator, sequence, arg0);
+            return true;
+        }
+        catch (final InsufficientCapacityException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Publish a batch of entries, one for each argument, claiming and publishing the sequences together.
+     *
+     * @param <A>        Class of the user supplied argument.
+     * @param translator The user specified translation for each entry
+     * @param arg0       An array of user supplied arguments, one element per entry.
+     */
+    public <A> void publishEvents(final EventTranslatorOneArg<ByteBuffer, A> translator, final A[] arg0)
+    {
+        if (arg0.length == 0)
+        {
+            return;
+        }
+
+        final long finalSequence = sequencer.next(arg0.length);
+        final long initialSequence = finalSequence - (arg0.length - 1);
+        try
+        {
+            long sequence = initialSequence;
+            for (final A arg : arg0)
+            {
+                translator.translateTo(get(sequence), sequence++, arg);
+            }
+        }
+        finally
+        {
+            sequencer.publish(initialSequence, finalSequence);
+        }
+    }
+
+    /**
+     * Copy <code>data</code> into the next entry and publish it.
+     *
+     * @param data   source of the bytes to copy.
+     * @param offset within <code>data</code> of the first byte.
+     * @param length number of bytes to copy, no more than {@link #getEntrySize()}.
+     * @throws IndexOutOfBoundsException if the range is outside <code>data</code> or larger than an entry.
+     */
+    public void put(final byte[] data, final int offset, final int length)
+    {
+        Objects.checkFromIndexSize(offset, length, data.length);
+        if (length > entrySize)
+        {
+            throw new IndexOutOfBoundsException("length " + length + " exceeds entrySize " + entrySize);
+        }
+
+        final long sequence = sequencer.next();
+        try
+        {
+            get(sequence).put(data, offset, length);
+        }
+        finally
+        {
+            sequencer.publish(sequence);
+        }
+    }
+
+    private void translateAndPublish(final EventTranslator<ByteBuffer> translator, final long sequence)
+    {
+        try
+        {
+            translator.translateTo(get(sequence), sequence);
+        }
+        finally
+        {
+            sequencer.publish(sequence);
+        }
+    }
+
+    private <A> void translateAndPublish(final EventTranslatorOneArg<ByteBuffer, A> translator, final long sequence, final A arg0)
+    {
+        try
+        {
+            translator.translateTo(get(sequence), sequence, arg0);
+        }
+        finally
+        {
+            sequencer.publish(sequence);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "OffHeapRingBuffer{" +
+            "entrySize=" + entrySize +
+            ", sequencer=" + sequencer +
+            '}';
+    }
+}
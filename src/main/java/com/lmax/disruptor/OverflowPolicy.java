@@ -0,0 +1,51 @@
+/*
+ * Copyright 2012 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * Defines what an {@link OverflowPublisher} does with an event offered while its {@link RingBuffer} is full.
+ */
+public enum OverflowPolicy
+{
+    /**
+     * Wait for capacity, as {@link RingBuffer#publishEvent(EventTranslator)} does.
+     */
+    BLOCK,
+
+    /**
+     * Reject the event, as {@link RingBuffer#tryPublishEvent(EventTranslator)} does, leaving the caller to decide
+     * what to do with it.  Rejected events are not counted as discarded.
+     */
+    FAIL,
+
+    /**
+     * Discard the event being offered.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Make room by letting the non-critical consumers' gating floors pass the least recent unconsumed slot, which
+     * is then overwritten.  If the ring is held up by a critical consumer the event being offered is discarded
+     * instead.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Publish every event while at least half of the ring is free; beyond that only publish one in every
+     * sample rate events and discard the others.  Events are also discarded while the ring is full.
+     */
+    SAMPLE
+}
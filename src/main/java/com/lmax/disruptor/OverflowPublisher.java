@@ -0,0 +1,563 @@
+/*
+ * Copyright 2012 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Publishes events to a {@link RingBuffer} applying an {@link OverflowPolicy} when the ring is full, for paths
+ * such as market data where stale events should be discarded rather than hold up the publisher.
+ *
+ * <p>The policy given to the constructor applies to {@link #offerEvent(EventTranslator)} and its variants, and
+ * can be overridden for a single call by passing a policy explicitly.  Every event that is discarded, or
+ * overwritten before being consumed under {@link OverflowPolicy#DROP_OLDEST}, is counted and reported by
+ * {@link #getDiscardedCount()}.
+ *
+ * <p>Consumers that may miss events under {@link OverflowPolicy#DROP_OLDEST} are registered with
+ * {@link #addNonCriticalGatingSequences(Sequence...)} instead of {@link RingBuffer#addGatingSequences(Sequence...)}.
+ * The publisher never writes to their sequences: each one gates the ring buffer through a floor owned by the
+ * publisher, which it moves forward to make room.  Such a consumer must cooperate by skipping the events that
+ * have been overwritten: it waits on a barrier from {@link #newNonCriticalBarrier(Sequence...)}, which does not
+ * wait for an overwritten sequence to be published again, and its handler skips every sequence for which
+ * {@link #isOverwritten(long)} is true.  An event may still be overwritten while it is being read, so events
+ * should carry enough information, such as their sequence, for the handler to detect that.
+ *
+ * @param <E> implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class OverflowPublisher<E>
+{
+    /**
+     * Sample rate used unless one is given to the constructor.
+     */
+    public static final int DEFAULT_SAMPLE_RATE = 8;
+
+    private static final long DISCARDED = Sequencer.INITIAL_CURSOR_VALUE;
+
+    private static final AtomicReferenceFieldUpdater<OverflowPublisher, Sequence[]> NON_CRITICAL_UPDATER =
+        AtomicReferenceFieldUpdater.newUpdater(OverflowPublisher.class, Sequence[].class, "nonCriticalSequences");
+
+    private final RingBuffer<E> ringBuffer;
+    private final OverflowPolicy policy;
+    private final int sampleRate;
+    private final int sampleThreshold;
+    private final Sequence discardedCount = new Sequence(0L);
+    private final Sequence sampleCount = new Sequence(0L);
+
+    private volatile Sequence[] nonCriticalSequences = new Sequence[0];
+
+    /**
+     * Create a publisher using the {@link #DEFAULT_SAMPLE_RATE}.
+     *
+     * @param ringBuffer to publish to.
+     * @param policy     applied by the methods that do not specify a policy.
+     */
+    public OverflowPublisher(final RingBuffer<E> ringBuffer, final OverflowPolicy policy)
+    {
+        this(ringBuffer, policy, DEFAULT_SAMPLE_RATE);
+    }
+
+    /**
+     * Create a publisher.
+     *
+     * @param ringBuffer to publish to.
+     * @param policy     applied by the methods that do not specify a policy.
+     * @param sampleRate one in how many events is published under {@link OverflowPolicy#SAMPLE} once the ring is
+     *                   more than half full.
+     * @throws IllegalArgumentException if sampleRate is less than 1
+     */
+    public OverflowPublisher(final RingBuffer<E> ringBuffer, final OverflowPolicy policy, final int sampleRate)
+    {
+        if (sampleRate < 1)
+        {
+            throw new IllegalArgumentException("sampleRate must not be less than 1");
+        }
+
+        this.ringBuffer = Objects.requireNonNull(ringBuffer);
+        this.policy = Objects.requireNonNull(policy);
+        this.sampleRate = sampleRate;
+        this.sampleThreshold = ringBuffer.getBufferSize() / 2;
+    }
+
+    /**
+     * Add consumer sequences that gate the ring buffer, but whose oldest unconsumed event may be overwritten under
+     * {@link OverflowPolicy#DROP_OLDEST}.  As with {@link RingBuffer#addGatingSequences(Sequence...)} the
+     * sequences are set to the current cursor, so this should be called before their consumers start.
+     *
+     * @param gatingSequences the sequences of non-critical consumers.
+     */
+    public void addNonCriticalGatingSequences(final Sequence... gatingSequences)
+    {
+        final NonCriticalSequence[] floors = new NonCriticalSequence[gatingSequences.length];
+        for (int i = 0; i < gatingSequences.length; i++)
+        {
+            floors[i] = new NonCriticalSequence(gatingSequences[i]);
+        }
+
+        SequenceGroups.addSequences(this, NON_CRITICAL_UPDATER, ringBuffer, floors);
+        ringBuffer.addGatingSequences(floors);
+        for (final NonCriticalSequence floor : floors)
+        {
+            floor.consumerSequence.set(floor.floor());
+        }
+    }
+
+    /**
+     * Remove a sequence added by {@link #addNonCriticalGatingSequences(Sequence...)}.
+     *
+     * @param sequence to be removed.
+     * @return <code>true</code> if this sequence was found, <code>false</code> otherwise.
+     */
+    public boolean removeNonCriticalGatingSequence(final Sequence sequence)
+    {
+        for (final Sequence floor : nonCriticalSequences)
+        {
+            if (((NonCriticalSequence) floor).consumerSequence == sequence)
+            {
+                final boolean removed = SequenceGroups.removeSequence(this, NON_CRITICAL_UPDATER, floor);
+                ringBuffer.removeGatingSequence(floor);
+                return removed;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Create a barrier for a non-critical consumer.  It behaves as {@link RingBuffer#newBarrier(Sequence...)},
+     * except that when asked for a sequence that has been overwritten it waits for the oldest sequence that has
+     * not been instead, so the consumer can move past the gap rather than wait for the overwritten sequence
+     * to be published, which would never happen on a multi producer ring buffer.
+     *
+     * @param sequencesToTrack the additional sequences to track.
+     * @return a barrier for a consumer whose sequence is added with {@link #addNonCriticalGatingSequences(Sequence...)}.
+     */
+    public SequenceBarrier newNonCriticalBarrier(final Sequence... sequencesToTrack)
+    {
+        return new NonCriticalBarrier(ringBuffer, ringBuffer.newBarrier(sequencesToTrack));
+    }
+
+    /**
+     * Tell whether the event at a sequence has been overwritten, or is about to be, under
+     * {@link OverflowPolicy#DROP_OLDEST}.  Non-critical consumers should skip such events.
+     *
+     * @param sequence of the event.
+     * @return <code>true</code> if a sequence a lap or more later has been claimed.
+     */
+    public boolean isOverwritten(final long sequence)
+    {
+        return isOverwritten(ringBuffer, sequence);
+    }
+
+    private static boolean isOverwritten(final RingBuffer<?> ringBuffer, final long sequence)
+    {
+        return sequence <= ringBuffer.getCursor() - ringBuffer.getBufferSize();
+    }
+
+    /**
+     * Publish an event applying this publisher's policy if the ring buffer is full.
+     *
+     * @param translator The user specified translation for the event
+     * @return true if the event was published, false if it was discarded or rejected.
+     */
+    public boolean offerEvent(final EventTranslator<E> translator)
+    {
+        return offerEvent(policy, translator);
+    }
+
+    /**
+     * Publish an event applying the given policy if the ring buffer is full.
+     *
+     * @param overflowPolicy applied to this event.
+     * @param translator     The user specified translation for the event
+     * @return true if the event was published, false if it was discarded or rejected.
+     */
+    public boolean offerEvent(final OverflowPolicy overflowPolicy, final EventTranslator<E> translator)
+    {
+        final long sequence = next(overflowPolicy);
+        if (sequence == DISCARDED)
+        {
+            return false;
+        }
+
+        try
+        {
+            translator.translateTo(ringBuffer.get(sequence), sequence);
+        }
+        finally
+        {
+            ringBuffer.publish(sequence);
+        }
+        return true;
+    }
+
+    /**
+     * Publish an event applying this publisher's policy if the ring buffer is full.
+     *
+     * @param <A>        Class of the user supplied argument
+     * @param translator The user specified translation for the event
+     * @param arg0       A user supplied argument.
+     * @return true if the event was published, false if it was discarded or rejected.
+     */
+    public <A> boolean offerEvent(final EventTranslatorOneArg<E, A> translator, final A arg0)
+    {
+        return offerEvent(policy, translator, arg0);
+    }
+
+    /**
+     * Publish an event applying the given policy if the ring buffer is full.
+     *
+     * @param <A>            Class of the user supplied argument
+     * @param overflowPolicy applied to this event.
+     * @param translator     The user specified translation for the event
+     * @param arg0           A user supplied argument.
+     * @return true if the event was published, false if it was discarded or rejected.
+     */
+    public <A> boolean offerEvent(final OverflowPolicy overflowPolicy, final EventTranslatorOneArg<E, A> translator, final A arg0)
+    {
+        final long sequence = next(overflowPolicy);
+        if (sequence == DISCARDED)
+        {
+            return false;
+        }
+
+        try
+        {
+            translator.translateTo(ringBuffer.get(sequence), sequence, arg0);
+        }
+        finally
+        {
+            ringBuffer.publish(sequence);
+        }
+        return true;
+    }
+
+    /**
+     * Publish an event applying this publisher's policy if the ring buffer is full.
+     *
+     * @param <A>        Class of the user supplied argument
+     * @param <B>        Class of the user supplied argument
+     * @param translator The user specified translation for the event
+     * @param arg0       A user supplied argument.
+     * @param arg1       A user supplied argument.
+     * @return true if the event was published, false if it was discarded or rejected.
+     */
+    public <A, B> boolean offerEvent(final EventTranslatorTwoArg<E, A, B> translator, final A arg0, final B arg1)
+    {
+        return offerEvent(policy, translator, arg0, arg1);
+    }
+
+    /**
+     * Publish an event applying the given policy if the ring buffer is full.
+     *
+     * @param <A>            Class of the user supplied argument
+     * @param <B>            Class of the user supplied argument
+     * @param overflowPolicy applied to this event.
+     * @param translator     The user specified translation for the event
+     * @param arg0           A user supplied argument.
+     * @param arg1           A user supplied argument.
+     * @return true if the event was published, false if it was discarded or rejected.
+     */
+    public <A, B> boolean offerEvent(
+        final OverflowPolicy overflowPolicy, final EventTranslatorTwoArg<E, A, B> translator, final A arg0, final B arg1)
+    {
+        final long sequence = next(overflowPolicy);
+        if (sequence == DISCARDED)
+        {
+            return false;
+        }
+
+        try
+        {
+            translator.translateTo(ringBuffer.get(sequence), sequence, arg0, arg1);
+        }
+        finally
+        {
+            ringBuffer.publish(sequence);
+        }
+        return true;
+    }
+
+    /**
+     * Publish an event applying this publisher's policy if the ring buffer is full.
+     *
+     * @param <A>        Class of the user supplied argument
+     * @param <B>        Class of the user supplied argument
+     * @param <C>        Class of the user supplied argument
+     * @param translator The user specified translation for the event
+     * @param arg0       A user supplied argument.
+     * @param arg1       A user supplied argument.
+     * @param arg2       A user supplied argument.
+     * @return true if the event was published, false if it was discarded or rejected.
+     */
+    public <A, B, C> boolean offerEvent(final EventTranslatorThreeArg<E, A, B, C> translator, final A arg0, final B arg1, final C arg2)
+    {
+        return offerEvent(policy, translator, arg0, arg1, arg2);
+    }
+
+    /**
+     * Publish an event applying the given policy if the ring buffer is full.
+     *
+     * @param <A>            Class of the user supplied argument
+     * @param <B>            Class of the user supplied argument
+     * @param <C>            Class of the user supplied argument
+     * @param overflowPolicy applied to this event.
+     * @param translator     The user specified translation for the event
+     * @param arg0           A user supplied argument.
+     * @param arg1           A user supplied argument.
+     * @param arg2           A user supplied argument.
+     * @return true if the event was published, false if it was discarded or rejected.
+     */
+    public <A, B, C> boolean offerEvent(
+        final OverflowPolicy overflowPolicy, final EventTranslatorThreeArg<E, A, B, C> translator, final A arg0, final B arg1, final C arg2)
+    {
+        final long sequence = next(overflowPolicy);
+        if (sequence == DISCARDED)
+        {
+            return false;
+        }
+
+        try
+        {
+            translator.translateTo(ringBuffer.get(sequence), sequence, arg0, arg1, arg2);
+        }
+        finally
+        {
+            ringBuffer.publish(sequence);
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of events discarded, or overwritten before being consumed, since this publisher was created.
+     */
+    public long getDiscardedCount()
+    {
+        return discardedCount.get();
+    }
+
+    /**
+     * @return the policy applied by the methods that do not specify one.
+     */
+    public OverflowPolicy getPolicy()
+    {
+        return policy;
+    }
+
+    private long next(final OverflowPolicy overflowPolicy)
+    {
+        final long sequence;
+        switch (overflowPolicy)
+        {
+            case BLOCK:
+                sequence = ringBuffer.next();
+                break;
+
+            case FAIL:
+                sequence = tryNext();
+                break;
+
+            case DROP_NEWEST:
+                sequence = discardIfFull(tryNext());
+                break;
+
+            case DROP_OLDEST:
+                sequence = discardIfFull(nextOverwritingOldest());
+                break;
+
+            case SAMPLE:
+                sequence = discardIfFull(nextSampled());
+                break;
+
+            default:
+                throw new IllegalStateException("Unknown overflow policy " + overflowPolicy);
+        }
+        return sequence;
+    }
+
+    private long tryNext()
+    {
+        try
+        {
+            return ringBuffer.tryNext();
+        }
+        catch (final InsufficientCapacityException e)
+        {
+            return DISCARDED;
+        }
+    }
+
+    private long discardIfFull(final long sequence)
+    {
+        if (sequence == DISCARDED)
+        {
+            discardedCount.incrementAndGet();
+        }
+        return sequence;
+    }
+
+    private long nextOverwritingOldest()
+    {
+        long sequence = tryNext();
+        if (sequence == DISCARDED && skipOldest())
+        {
+            sequence = tryNext();
+        }
+        if (sequence != DISCARDED && overwritesUnconsumed(sequence - ringBuffer.getBufferSize()))
+        {
+            discardedCount.incrementAndGet();
+        }
+        return sequence;
+    }
+
+    private boolean overwritesUnconsumed(final long overwritten)
+    {
+        if (overwritten >= 0)
+        {
+            for (final Sequence floor : nonCriticalSequences)
+            {
+                if (((NonCriticalSequence) floor).consumerSequence.get() < overwritten)
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean skipOldest()
+    {
+        final long wrapPoint = ringBuffer.getCursor() + 1 - ringBuffer.getBufferSize();
+        boolean skipped = false;
+        for (final Sequence floor : nonCriticalSequences)
+        {
+            skipped |= ((NonCriticalSequence) floor).raiseTo(wrapPoint);
+        }
+        return skipped;
+    }
+
+    private long nextSampled()
+    {
+        if (ringBuffer.remainingCapacity() < sampleThreshold && sampleCount.getAndAdd(1L) % sampleRate != 0)
+        {
+            return DISCARDED;
+        }
+        return tryNext();
+    }
+
+    /**
+     * Gates the ring buffer at the later of a non-critical consumer's sequence and a floor that only the
+     * publisher moves, so that the publisher can make room without writing to the consumer's sequence.
+     */
+    private static final class NonCriticalSequence extends Sequence
+    {
+        private final Sequence consumerSequence;
+
+        NonCriticalSequence(final Sequence consumerSequence)
+        {
+            this.consumerSequence = consumerSequence;
+        }
+
+        @Override
+        public long get()
+        {
+            return Math.max(super.get(), consumerSequence.get());
+        }
+
+        long floor()
+        {
+            return super.get();
+        }
+
+        boolean raiseTo(final long wrapPoint)
+        {
+            long floor;
+            while ((floor = super.get()) < wrapPoint && consumerSequence.get() < wrapPoint)
+            {
+                if (compareAndSet(floor, wrapPoint))
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Waits for the oldest sequence that has not been overwritten when asked for one that has.
+     */
+    private static final class NonCriticalBarrier implements SequenceBarrier
+    {
+        private final RingBuffer<?> ringBuffer;
+        private final SequenceBarrier barrier;
+
+        NonCriticalBarrier(final RingBuffer<?> ringBuffer, final SequenceBarrier barrier)
+        {
+            this.ringBuffer = ringBuffer;
+            this.barrier = barrier;
+        }
+
+        @Override
+        public long waitFor(final long sequence) throws AlertException, InterruptedException, TimeoutException
+        {
+            if (isOverwritten(ringBuffer, sequence))
+            {
+                return barrier.waitFor(ringBuffer.getCursor() - ringBuffer.getBufferSize() + 1);
+            }
+            return barrier.waitFor(sequence);
+        }
+
+        @Override
+        public long getCursor()
+        {
+            return barrier.getCursor();
+        }
+
+        @Override
+        public boolean isAlerted()
+        {
+            return barrier.isAlerted();
+        }
+
+        @Override
+        public void alert()
+        {
+            barrier.alert();
+        }
+
+        @Override
+        public void clearAlert()
+        {
+            barrier.clearAlert();
+        }
+
+        @Override
+        public void checkAlert() throws AlertException
+        {
+            barrier.checkAlert();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "OverflowPublisher{" +
+            "policy=" + policy +
+            ", sampleRate=" + sampleRate +
+            ", discarded=" + discardedCount.get() +
+            ", ringBuffer=" + ringBuffer +
+            '}';
+    }
+}
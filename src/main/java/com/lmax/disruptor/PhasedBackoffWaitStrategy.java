@@ -132,6 +132,7 @@ public final class PhasedBackoffWaitStrategy implements WaitStrategy
                     }
                     else if (timeDelta > spinTimeoutNanos)
                     {
+                        InstrumentedWaitStrategy.notifyYield(barrier);
                         Thread.yield();
                     }
                 }
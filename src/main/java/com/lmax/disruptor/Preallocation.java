@@ -0,0 +1,41 @@
+/*
+ * Copyright 2012 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * Defines how a {@link RingBuffer} creates the events it preallocates from its {@link EventFactory}.
+ */
+public enum Preallocation
+{
+    /**
+     * Create every event on the constructing thread before the RingBuffer is returned.
+     */
+    EAGER,
+
+    /**
+     * Create every event before the RingBuffer is returned, splitting the slots between the threads of the
+     * common {@link java.util.concurrent.ForkJoinPool}.  The {@link EventFactory} must be safe to call from
+     * several threads at once.
+     */
+    PARALLEL,
+
+    /**
+     * Create each event when its slot is first claimed by a publisher, on the claiming thread.  Until then
+     * {@link RingBuffer#get(long)} returns null for the slot.  The check is made when claiming and stops once
+     * the first lap of the ring has been claimed, {@link RingBuffer#get(long)} is unaffected.
+     */
+    LAZY
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * Base class for ring buffers that store primitive values directly in an array rather than in preallocated
+ * event objects, see {@link LongRingBuffer}, {@link IntRingBuffer}, {@link DoubleRingBuffer} and
+ * {@link ColumnarRingBuffer}.
+ *
+ * <p>Values are consumed by a {@link BatchEventProcessor} created with
+ * {@link #newEventProcessor(Object, SequenceBarrier)}, which passes each value to a primitive handler
+ * without boxing.
+ *
+ * @param <H> the primitive event handler type used to consume values from this ring buffer.
+ */
+public abstract class PrimitiveRingBuffer<H> implements Cursored, Sequenced
+{
+    protected final Sequencer sequencer;
+    protected final int indexMask;
+
+    PrimitiveRingBuffer(final Sequencer sequencer)
+    {
+        this.sequencer = sequencer;
+        this.indexMask = sequencer.getBufferSize() - 1;
+    }
+
+    /**
+     * Create a {@link BatchEventProcessor} that passes each value in this ring buffer to <code>handler</code>.
+     * The processor's sequence must be added as a gating sequence before publishing.
+     *
+     * @param handler to receive the values.
+     * @param barrier on which the processor waits, created by {@link #newBarrier(Sequence...)}.
+     * @return the event processor.
+     */
+    public abstract BatchEventProcessor<? extends PrimitiveRingBuffer<H>> newEventProcessor(H handler, SequenceBarrier barrier);
+
+    @Override
+    public final int getBufferSize()
+    {
+        return sequencer.getBufferSize();
+    }
+
+    @Override
+    public final boolean hasAvailableCapacity(final int requiredCapacity)
+    {
+        return sequencer.hasAvailableCapacity(requiredCapacity);
+    }
+
+    @Override
+    public final long remainingCapacity()
+    {
+        return sequencer.remainingCapacity();
+    }
+
+    @Override
+    public final long next()
+    {
+        return sequencer.next();
+    }
+
+    @Override
+    public final long next(final int n)
+    {
+        return sequencer.next(n);
+    }
+
+    @Override
+    public final long tryNext() throws InsufficientCapacityException
+    {
+        return sequencer.tryNext();
+    }
+
+    @Override
+    public final long tryNext(final int n) throws InsufficientCapacityException
+    {
+        return sequencer.tryNext(n);
+    }
+
+    @Override
+    public final void publish(final long sequence)
+    {
+        sequencer.publish(sequence);
+    }
+
+    @Override
+    public final void publish(final long lo, final long hi)
+    {
+        sequencer.publish(lo, hi);
+    }
+
+    @Override
+    public final long getCursor()
+    {
+        return sequencer.getCursor();
+    }
+
+    /**
+     * Add the specified gating sequences to this ring buffer.
+     *
+     * @param gatingSequences The sequences to add.
+     */
+    public final void addGatingSequences(final Sequence... gatingSequences)
+    {
+        sequencer.addGatingSequences(gatingSequences);
+    }
+
+    /**
+     * Remove the specified sequence from this ring buffer.
+     *
+     * @param sequence to be removed.
+     * @return <code>true</code> if this sequence was found, <code>false</code> otherwise.
+     */
+    public final boolean removeGatingSequence(final Sequence sequence)
+    {
+        return sequencer.removeGatingSequence(sequence);
+    }
+
+    /**
+     * Get the minimum sequence value from all of the gating sequences added to this ring buffer.
+     *
+     * @return The minimum gating sequence or the cursor sequence if no sequences have been added.
+     */
+    public final long getMinimumGatingSequence()
+    {
+        return sequencer.getMinimumSequence();
+    }
+
+    /**
+     * Create a new SequenceBarrier to be used by an EventProcessor to track which values
+     * are available to be read from the ring buffer given a list of sequences to track.
+     *
+     * @param sequencesToTrack the additional sequences to track
+     * @return A sequence barrier that will track the specified sequences.
+     */
+    public final SequenceBarrier newBarrier(final Sequence... sequencesToTrack)
+    {
+        return sequencer.newBarrier(sequencesToTrack);
+    }
+
+    /**
+     * Create a new SequenceBarrier that waits using its own {@link WaitStrategy} rather than the one this
+     * ring buffer was created with.
+     *
+     * @param waitStrategy     the wait strategy used by the barrier.
+     * @param sequencesToTrack the additional sequences to track
+     * @return A sequence barrier that will track the specified sequences.
+     */
+    public final SequenceBarrier newBarrier(final WaitStrategy waitStrategy, final Sequence... sequencesToTrack)
+    {
+        return sequencer.newBarrier(waitStrategy, sequencesToTrack);
+    }
+
+    @Override
+    public String toString()
+    {
+        return getClass().getSimpleName() + "{" +
+            "sequencer=" + sequencer +
+            '}';
+    }
+}
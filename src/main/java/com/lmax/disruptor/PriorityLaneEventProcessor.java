@@ -0,0 +1,381 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Consumes several ring buffers, or lanes, in priority order on a single thread, so that urgent events such as
+ * cancels can overtake bulk traffic published to a lower priority lane.
+ *
+ * <p>Each lane waits on its own {@link SequenceBarrier} and tracks its progress in its own {@link Sequence}, which
+ * gates its ring buffer exactly as the sequence of a {@link BatchEventProcessor} does.  Events are passed to a
+ * single {@link EventHandler} in batches, a batch never spanning two lanes.
+ *
+ * <p>Lanes are served in rounds.  Within a round the processor always takes its next batch from the highest
+ * priority lane that has events available and has not used up its quota, the maximum number of events it may
+ * process per round.  A new round, restoring every quota, starts once no lane with quota left has events, so a
+ * busy high priority lane cannot starve a lower one: every lane is guaranteed its quota of events per round.
+ *
+ * <p>When no lane has events the processor idles as a {@link SleepingWaitStrategy} does, spinning, then yielding,
+ * then parking briefly, since it cannot block on several barriers at once.
+ *
+ * <pre><code>
+ * PriorityLaneEventProcessor&lt;Order&gt; processor = new PriorityLaneEventProcessor.Builder&lt;&gt;(handler)
+ *     .addLane(adminRingBuffer, 16)
+ *     .addLane(orderRingBuffer, 4)
+ *     .build();
+ * new Thread(processor).start();
+ * </code></pre>
+ *
+ * @param <T> event implementation storing the data for sharing during exchange or parallel coordination of an event.
+ */
+public final class PriorityLaneEventProcessor<T> implements Runnable
+{
+    private static final int IDLE = 0;
+    private static final int HALTED = IDLE + 1;
+    private static final int RUNNING = HALTED + 1;
+
+    private static final int SPIN_THRESHOLD = 100;
+    private static final int IDLE_RETRIES = 200;
+    private static final long IDLE_SLEEP_NANOS = 100;
+
+    private final AtomicInteger running = new AtomicInteger(IDLE);
+    private final Lane<T>[] lanes;
+    private final int[] remainingQuotas;
+    private final EventHandler<? super T> eventHandler;
+    private ExceptionHandler<? super T> exceptionHandler;
+
+    private PriorityLaneEventProcessor(final Lane<T>[] lanes, final EventHandler<? super T> eventHandler)
+    {
+        this.lanes = lanes;
+        this.remainingQuotas = new int[lanes.length];
+        this.eventHandler = eventHandler;
+    }
+
+    /**
+     * Get the sequence tracking the progress of a lane.
+     *
+     * @param lane index of the lane, 0 being the highest priority.
+     * @return the sequence of the lane.
+     */
+    public Sequence getSequence(final int lane)
+    {
+        return lanes[lane].sequence;
+    }
+
+    /**
+     * @return the number of lanes.
+     */
+    public int getLaneCount()
+    {
+        return lanes.length;
+    }
+
+    /**
+     * Signal that this processor should stop when it has finished processing its current batch.
+     */
+    public void halt()
+    {
+        running.set(HALTED);
+        for (final Lane<T> lane : lanes)
+        {
+            lane.barrier.alert();
+        }
+    }
+
+    /**
+     * @return true if this processor is running.
+     */
+    public boolean isRunning()
+    {
+        return running.get() != IDLE;
+    }
+
+    /**
+     * Set a new {@link ExceptionHandler} for handling exceptions propagated out of the event handler.
+     *
+     * @param exceptionHandler to replace the existing exceptionHandler.
+     */
+    public void setExceptionHandler(final ExceptionHandler<? super T> exceptionHandler)
+    {
+        this.exceptionHandler = Objects.requireNonNull(exceptionHandler);
+    }
+
+    /**
+     * It is ok to have another thread rerun this method after a halt().
+     *
+     * @throws IllegalStateException if this object instance is already running in a thread
+     */
+    @Override
+    public void run()
+    {
+        final int witnessValue = running.compareAndExchange(IDLE, RUNNING);
+        if (witnessValue == RUNNING)
+        {
+            throw new IllegalStateException("Thread is already running");
+        }
+
+        if (witnessValue == IDLE)
+        {
+            for (final Lane<T> lane : lanes)
+            {
+                lane.barrier.clearAlert();
+            }
+        }
+
+        notifyStart();
+        try
+        {
+            if (running.get() == RUNNING)
+            {
+                processEvents();
+            }
+        }
+        finally
+        {
+            notifyShutdown();
+            running.set(IDLE);
+        }
+    }
+
+    private void processEvents()
+    {
+        int idleCounter = IDLE_RETRIES;
+        startRound();
+
+        while (running.get() == RUNNING)
+        {
+            try
+            {
+                final int lane = selectLane();
+                final int processed = lane < 0 ? 0 : processBatch(lanes[lane], remainingQuotas[lane]);
+                if (processed > 0)
+                {
+                    remainingQuotas[lane] -= processed;
+                    idleCounter = IDLE_RETRIES;
+                }
+                else
+                {
+                    idleCounter = idle(idleCounter);
+                }
+            }
+            catch (final AlertException | TimeoutException | InterruptedException ex)
+            {
+                // Re-check the running state, the lane is tried again if still running.
+            }
+        }
+    }
+
+    /**
+     * Find the highest priority lane with both quota left and events available, starting a new round if every
+     * lane with events available has used up its quota.
+     */
+    private int selectLane()
+    {
+        boolean pending = false;
+        for (int i = 0; i < lanes.length; i++)
+        {
+            if (lanes[i].hasAvailable())
+            {
+                if (remainingQuotas[i] > 0)
+                {
+                    return i;
+                }
+                pending = true;
+            }
+        }
+
+        if (pending)
+        {
+            startRound();
+            return selectLane();
+        }
+        return -1;
+    }
+
+    private void startRound()
+    {
+        for (int i = 0; i < lanes.length; i++)
+        {
+            remainingQuotas[i] = lanes[i].quota;
+        }
+    }
+
+    private int processBatch(final Lane<T> lane, final int quota)
+        throws AlertException, TimeoutException, InterruptedException
+    {
+        final long nextSequence = lane.sequence.get() + 1L;
+        final long availableSequence = Math.min(lane.barrier.waitFor(nextSequence), nextSequence + quota - 1L);
+        if (availableSequence < nextSequence)
+        {
+            return 0;
+        }
+
+        long sequence = nextSequence;
+        T event = null;
+        try
+        {
+            eventHandler.onBatchStart(availableSequence - nextSequence + 1);
+            while (sequence <= availableSequence)
+            {
+                event = lane.ringBuffer.get(sequence);
+                eventHandler.onEvent(event, sequence, sequence == availableSequence);
+                sequence++;
+            }
+            lane.sequence.set(availableSequence);
+        }
+        catch (final Throwable ex)
+        {
+            getExceptionHandler().handleEventException(ex, sequence, event);
+            lane.sequence.set(sequence);
+            sequence++;
+        }
+        return (int) (sequence - nextSequence);
+    }
+
+    private int idle(final int counter)
+    {
+        if (counter > SPIN_THRESHOLD)
+        {
+            return counter - 1;
+        }
+        else if (counter > 0)
+        {
+            Thread.yield();
+            return counter - 1;
+        }
+
+        LockSupport.parkNanos(IDLE_SLEEP_NANOS);
+        return counter;
+    }
+
+    private void notifyStart()
+    {
+        try
+        {
+            eventHandler.onStart();
+        }
+        catch (final Throwable ex)
+        {
+            getExceptionHandler().handleOnStartException(ex);
+        }
+    }
+
+    private void notifyShutdown()
+    {
+        try
+        {
+            eventHandler.onShutdown();
+        }
+        catch (final Throwable ex)
+        {
+            getExceptionHandler().handleOnShutdownException(ex);
+        }
+    }
+
+    private ExceptionHandler<? super T> getExceptionHandler()
+    {
+        final ExceptionHandler<? super T> handler = exceptionHandler;
+        return handler == null ? ExceptionHandlers.defaultHandler() : handler;
+    }
+
+    /**
+     * Builds a {@link PriorityLaneEventProcessor}, lanes being added from the highest priority to the lowest.
+     *
+     * @param <T> event implementation storing the data for sharing during exchange or parallel coordination of an event.
+     */
+    public static final class Builder<T>
+    {
+        private final EventHandler<? super T> eventHandler;
+        private final List<Lane<T>> lanes = new ArrayList<>();
+
+        /**
+         * Start building a processor.
+         *
+         * @param eventHandler to receive the events of every lane.
+         */
+        public Builder(final EventHandler<? super T> eventHandler)
+        {
+            this.eventHandler = Objects.requireNonNull(eventHandler);
+        }
+
+        /**
+         * Add the next lane, at a lower priority than those already added.
+         *
+         * @param ringBuffer       the lane's events are published to.
+         * @param quota            maximum number of the lane's events to process per round.
+         * @param sequencesToTrack sequences the lane must follow in addition to the ring buffer's cursor, if any.
+         * @return this builder.
+         * @throws IllegalArgumentException if quota is less than 1
+         */
+        public Builder<T> addLane(final RingBuffer<T> ringBuffer, final int quota, final Sequence... sequencesToTrack)
+        {
+            if (quota < 1)
+            {
+                throw new IllegalArgumentException("quota must not be less than 1");
+            }
+
+            lanes.add(new Lane<>(ringBuffer, ringBuffer.newBarrier(sequencesToTrack), quota));
+            return this;
+        }
+
+        /**
+         * Create the processor and add the sequence of each lane to the gating sequences of its ring buffer.
+         *
+         * @return the processor.
+         * @throws IllegalStateException if no lanes have been added
+         */
+        @SuppressWarnings("unchecked")
+        public PriorityLaneEventProcessor<T> build()
+        {
+            if (lanes.isEmpty())
+            {
+                throw new IllegalStateException("At least one lane is required");
+            }
+
+            for (final Lane<T> lane : lanes)
+            {
+                lane.ringBuffer.addGatingSequences(lane.sequence);
+            }
+            return new PriorityLaneEventProcessor<>(lanes.toArray(new Lane[0]), eventHandler);
+        }
+    }
+
+    private static final class Lane<T>
+    {
+        private final RingBuffer<T> ringBuffer;
+        private final SequenceBarrier barrier;
+        private final int quota;
+        private final Sequence sequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+        Lane(final RingBuffer<T> ringBuffer, final SequenceBarrier barrier, final int quota)
+        {
+            this.ringBuffer = ringBuffer;
+            this.barrier = barrier;
+            this.quota = quota;
+        }
+
+        boolean hasAvailable()
+        {
+            return barrier.getCursor() > sequence.get();
+        }
+    }
+}
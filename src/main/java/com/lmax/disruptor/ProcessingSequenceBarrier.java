@@ -69,6 +69,11 @@ final class ProcessingSequenceBarrier implements SequenceBarrier
         return sequencer.getHighestPublishedSequence(sequence, availableSequence);
     }
 
+    WaitStrategy getWaitStrategy()
+    {
+        return waitStrategy;
+    }
+
     @Override
     public long getCursor()
     {
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Convenience class for handling the batching semantics of consuming records from a {@link RecordRingBuffer}
+ * and delegating them to a {@link RecordHandler}.  A RecordRingBuffer supports a single consumer, so at most
+ * one RecordEventProcessor may be run against it.
+ *
+ * <p>The processor's sequence is the byte position up to which the ring buffer has been consumed, and it waits
+ * for records using the {@link WaitStrategy} the ring buffer was created with.
+ */
+public final class RecordEventProcessor implements EventProcessor
+{
+    private static final int IDLE = 0;
+    private static final int HALTED = IDLE + 1;
+    private static final int RUNNING = HALTED + 1;
+    private static final int DEFAULT_BATCH_LIMIT = Integer.MAX_VALUE;
+
+    private final AtomicInteger running = new AtomicInteger(IDLE);
+    private ExceptionHandler<? super ByteBuffer> exceptionHandler;
+    private final RecordRingBuffer ringBuffer;
+    private final RecordHandler recordHandler;
+    private final int batchLimit;
+    private final RecordRingBuffer.PositionBarrier barrier;
+
+    /**
+     * Construct a RecordEventProcessor that reads batches of any size.
+     *
+     * @param ringBuffer    from which records are read.
+     * @param recordHandler is the delegate to which records are dispatched.
+     */
+    public RecordEventProcessor(final RecordRingBuffer ringBuffer, final RecordHandler recordHandler)
+    {
+        this(ringBuffer, recordHandler, DEFAULT_BATCH_LIMIT);
+    }
+
+    /**
+     * Construct a RecordEventProcessor.
+     *
+     * @param ringBuffer    from which records are read.
+     * @param recordHandler is the delegate to which records are dispatched.
+     * @param batchLimit    the maximum number of records read in a single batch.
+     */
+    public RecordEventProcessor(final RecordRingBuffer ringBuffer, final RecordHandler recordHandler, final int batchLimit)
+    {
+        if (batchLimit < 1)
+        {
+            throw new IllegalArgumentException("batchLimit must be greater than 0");
+        }
+
+        this.ringBuffer = ringBuffer;
+        this.recordHandler = recordHandler;
+        this.batchLimit = batchLimit;
+        this.barrier = new RecordRingBuffer.PositionBarrier(ringBuffer.commits, ringBuffer.waitStrategy);
+    }
+
+    @Override
+    public Sequence getSequence()
+    {
+        return ringBuffer.head;
+    }
+
+    @Override
+    public void halt()
+    {
+        running.set(HALTED);
+        barrier.alert();
+        ringBuffer.waitStrategy.signalAllWhenBlocking();
+    }
+
+    @Override
+    public boolean isRunning()
+    {
+        return running.get() != IDLE;
+    }
+
+    /**
+     * Set a new {@link ExceptionHandler} for handling exceptions propagated out of the {@link RecordHandler}.
+     * The event passed to the handler is always <code>null</code>.
+     *
+     * @param exceptionHandler to replace the existing exceptionHandler.
+     */
+    public void setExceptionHandler(final ExceptionHandler<? super ByteBuffer> exceptionHandler)
+    {
+        if (null == exceptionHandler)
+        {
+            throw new NullPointerException();
+        }
+
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * It is ok to have another thread rerun this method after a halt().
+     *
+     * @throws IllegalStateException if this object instance is already running in a thread
+     */
+    @Override
+    public void run()
+    {
+        int witnessValue = running.compareAndExchange(IDLE, RUNNING);
+        if (witnessValue == IDLE)
+        {
+            barrier.clearAlert();
+
+            notifyStart();
+            try
+            {
+                if (running.get() == RUNNING)
+                {
+                    processRecords();
+                }
+            }
+            finally
+            {
+                notifyShutdown();
+                running.set(IDLE);
+            }
+        }
+        else
+        {
+            if (witnessValue == RUNNING)
+            {
+                throw new IllegalStateException("Thread is already running");
+            }
+            else
+            {
+                notifyStart();
+                notifyShutdown();
+            }
+        }
+    }
+
+    private void processRecords()
+    {
+        final Sequence head = ringBuffer.head;
+        final Sequence commits = ringBuffer.commits;
+
+        while (true)
+        {
+            try
+            {
+                // read the commit count first, so a commit racing with the read ends the wait
+                final long observedCommits = commits.get();
+                final long observedHead = head.get();
+                if (ringBuffer.read(recordHandler, batchLimit) == 0 && head.get() == observedHead)
+                {
+                    barrier.waitFor(observedCommits + 1L);
+                }
+                barrier.checkAlert();
+            }
+            catch (final TimeoutException e)
+            {
+                // the handler has no timeout callback, carry on waiting
+            }
+            catch (final AlertException ex)
+            {
+                if (running.get() != RUNNING)
+                {
+                    break;
+                }
+            }
+            catch (final Throwable ex)
+            {
+                getExceptionHandler().handleEventException(ex, head.get(), null);
+            }
+        }
+    }
+
+    private void notifyStart()
+    {
+        try
+        {
+            recordHandler.onStart();
+        }
+        catch (final Throwable ex)
+        {
+            getExceptionHandler().handleOnStartException(ex);
+        }
+    }
+
+    private void notifyShutdown()
+    {
+        try
+        {
+            recordHandler.onShutdown();
+        }
+        catch (final Throwable ex)
+        {
+            getExceptionHandler().handleOnShutdownException(ex);
+        }
+    }
+
+    private ExceptionHandler<? super ByteBuffer> getExceptionHandler()
+    {
+        ExceptionHandler<? super ByteBuffer> handler = exceptionHandler;
+        return handler == null ? ExceptionHandlers.defaultHandler() : handler;
+    }
+}
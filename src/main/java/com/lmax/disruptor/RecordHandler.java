@@ -0,0 +1,54 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Callback interface to be implemented for processing variable length records as they become available in a
+ * {@link RecordRingBuffer}.
+ *
+ * @see RecordEventProcessor
+ */
+@FunctionalInterface
+public interface RecordHandler
+{
+    /**
+     * Called for each committed record.  The record is not copied: <code>record</code> is a view of the ring
+     * buffer whose position and limit delimit the record's payload, and is only valid until this method returns.
+     *
+     * @param typeId     supplied by the producer when the record was claimed
+     * @param record     view of the payload, from its position to its limit
+     * @param position   of the record within the stream of bytes written to the ring buffer
+     * @param endOfBatch flag to indicate if this is the last record in a batch read from the ring buffer
+     * @throws Exception if the handler would like the exception handled further up the chain.
+     */
+    void onRecord(int typeId, ByteBuffer record, long position, boolean endOfBatch) throws Exception;
+
+    /**
+     * Called once on thread start before first record is available.
+     */
+    default void onStart()
+    {
+    }
+
+    /**
+     * Called once just before the event processing thread is shutdown.
+     */
+    default void onShutdown()
+    {
+    }
+}
@@ -0,0 +1,499 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * Ring buffer of variable length records written back to back into a single on-heap or direct {@link ByteBuffer},
+ * for messages whose sizes vary too much for the fixed size slots of a {@link RingBuffer}.
+ *
+ * <p>Any number of producers claim space for a record, write its payload in place and commit it; a single consumer
+ * reads committed records in batches through {@link #read(RecordHandler, int)}, normally from a
+ * {@link RecordEventProcessor}, receiving each as a view of the buffer rather than a copy.
+ *
+ * <p>Each record is preceded by an {@value #HEADER_LENGTH} byte header holding its length and a producer supplied
+ * type id, and is aligned to {@value #ALIGNMENT} bytes.  The length is negative while the record is being written
+ * and becomes positive when it is committed.  A record that would not fit before the end of the buffer is placed at
+ * the start, and the space it skipped is filled with a padding record that the consumer ignores.
+ *
+ * <pre><code>
+ * RecordRingBuffer ringBuffer = RecordRingBuffer.allocateDirect(1 &lt;&lt; 20, new YieldingWaitStrategy());
+ *
+ * int offset = ringBuffer.claim(MESSAGE_TYPE, length);
+ * try
+ * {
+ *     ringBuffer.buffer().putLong(offset, value);
+ *     ...
+ * }
+ * finally
+ * {
+ *     ringBuffer.commit(offset);
+ * }
+ * </code></pre>
+ */
+public final class RecordRingBuffer
+{
+    /**
+     * Length in bytes of the header preceding each record.
+     */
+    public static final int HEADER_LENGTH = 8;
+
+    /**
+     * Alignment in bytes of every record, including its header.
+     */
+    public static final int ALIGNMENT = 8;
+
+    /**
+     * Type id of the records used to pad the end of the buffer, which are never passed to a {@link RecordHandler}.
+     */
+    public static final int PADDING_TYPE_ID = -1;
+
+    /**
+     * Returned by {@link #tryClaim(int, int)} when there is not enough free space for the record.
+     */
+    public static final int INSUFFICIENT_CAPACITY = -1;
+
+    private static final int TYPE_ID_OFFSET = 4;
+    private static final int MAX_RECORD_FRACTION = 8;
+    private static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer buffer;
+    private final ByteBuffer consumerView;
+    private final ThreadLocal<ByteBuffer> producerViews;
+    private final int capacity;
+    private final int indexMask;
+    private final int maxRecordLength;
+    final WaitStrategy waitStrategy;
+    final Sequence tail = new Sequence(0);
+    final Sequence head = new Sequence(0);
+    final Sequence commits = new Sequence(0);
+    private final PositionBarrier headBarrier;
+
+    /**
+     * Construct a RecordRingBuffer over the whole of an existing buffer, which must be zeroed.
+     *
+     * @param buffer       to hold the records, with a capacity that is a power of 2 and at least 64 bytes.
+     * @param waitStrategy used by a {@link RecordEventProcessor} to wait for records to be committed.
+     * @throws IllegalArgumentException if the capacity of the buffer is not a power of 2 or is too small
+     */
+    public RecordRingBuffer(final ByteBuffer buffer, final WaitStrategy waitStrategy)
+    {
+        final int capacity = buffer.capacity();
+        if (Integer.bitCount(capacity) != 1 || capacity < HEADER_LENGTH * MAX_RECORD_FRACTION)
+        {
+            throw new IllegalArgumentException("buffer capacity must be a power of 2 and at least " + HEADER_LENGTH * MAX_RECORD_FRACTION);
+        }
+
+        this.buffer = buffer.duplicate().clear().order(ByteOrder.nativeOrder());
+        this.consumerView = this.buffer.duplicate().order(ByteOrder.nativeOrder());
+        this.producerViews = ThreadLocal.withInitial(() -> this.buffer.duplicate().order(ByteOrder.nativeOrder()));
+        this.capacity = capacity;
+        this.indexMask = capacity - 1;
+        this.maxRecordLength = capacity / MAX_RECORD_FRACTION - HEADER_LENGTH;
+        this.waitStrategy = waitStrategy;
+        this.headBarrier = new PositionBarrier(head, waitStrategy);
+    }
+
+    /**
+     * Create a RecordRingBuffer over a new heap buffer.
+     *
+     * @param capacity     in bytes, must be a power of 2.
+     * @param waitStrategy used by a {@link RecordEventProcessor} to wait for records to be committed.
+     * @return the ring buffer.
+     */
+    public static RecordRingBuffer allocate(final int capacity, final WaitStrategy waitStrategy)
+    {
+        return new RecordRingBuffer(ByteBuffer.allocate(capacity), waitStrategy);
+    }
+
+    /**
+     * Create a RecordRingBuffer over a new direct buffer.
+     *
+     * @param capacity     in bytes, must be a power of 2.
+     * @param waitStrategy used by a {@link RecordEventProcessor} to wait for records to be committed.
+     * @return the ring buffer.
+     */
+    public static RecordRingBuffer allocateDirect(final int capacity, final WaitStrategy waitStrategy)
+    {
+        return new RecordRingBuffer(ByteBuffer.allocateDirect(capacity), waitStrategy);
+    }
+
+    /**
+     * @return the capacity of the ring buffer in bytes.
+     */
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * @return the largest payload, in bytes, that a single record may hold.
+     */
+    public int getMaxRecordLength()
+    {
+        return maxRecordLength;
+    }
+
+    /**
+     * The buffer holding the records, in native byte order, for writing a claimed record's payload in place
+     * with absolute puts.  The position and limit of the returned buffer must not be changed.
+     *
+     * @return the buffer holding the records.
+     */
+    public ByteBuffer buffer()
+    {
+        return buffer;
+    }
+
+    /**
+     * @return the number of bytes, including headers and padding, currently claimed and not yet consumed.
+     */
+    public long size()
+    {
+        return tail.get() - head.get();
+    }
+
+    /**
+     * Claim space for a record, waiting with the ring buffer's {@link WaitStrategy} for the consumer to free
+     * enough space if necessary.  If the thread is interrupted while waiting it carries on waiting, and its
+     * interrupt status is set again once the space has been claimed.
+     *
+     * @param typeId of the record, must not be negative.
+     * @param length of the record's payload in bytes, no more than {@link #getMaxRecordLength()}.
+     * @return the offset in {@link #buffer()} at which to write the payload, to be passed to {@link #commit(int)}.
+     */
+    public int claim(final int typeId, final int length)
+    {
+        boolean interrupted = false;
+        long observedHead = head.get();
+        int offset;
+        while ((offset = tryClaim(typeId, length)) == INSUFFICIENT_CAPACITY)
+        {
+            try
+            {
+                headBarrier.waitFor(observedHead + 1L);
+            }
+            catch (final AlertException | TimeoutException e)
+            {
+                // the barrier is never alerted, on a timeout look for space again
+            }
+            catch (final InterruptedException e)
+            {
+                interrupted = true;
+            }
+            observedHead = head.get();
+        }
+
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+        return offset;
+    }
+
+    /**
+     * Attempt to claim space for a record.
+     *
+     * @param typeId of the record, must not be negative.
+     * @param length of the record's payload in bytes, no more than {@link #getMaxRecordLength()}.
+     * @return the offset in {@link #buffer()} at which to write the payload, to be passed to {@link #commit(int)},
+     * or {@link #INSUFFICIENT_CAPACITY} if there is not enough free space.
+     */
+    public int tryClaim(final int typeId, final int length)
+    {
+        if (typeId < 0)
+        {
+            throw new IllegalArgumentException("typeId must not be negative");
+        }
+        if (length < 0 || length > maxRecordLength)
+        {
+            throw new IllegalArgumentException("length must be between 0 and " + maxRecordLength);
+        }
+
+        final int recordLength = HEADER_LENGTH + length;
+        final int alignedLength = align(recordLength);
+
+        long tailPosition;
+        int index;
+        int padding;
+        do
+        {
+            tailPosition = tail.get();
+            final int available = capacity - (int) (tailPosition - head.get());
+            index = (int) (tailPosition & indexMask);
+
+            final int toEnd = capacity - index;
+            padding = alignedLength > toEnd ? toEnd : 0;
+            if (padding + alignedLength > available)
+            {
+                return INSUFFICIENT_CAPACITY;
+            }
+        }
+        while (!tail.compareAndSet(tailPosition, tailPosition + padding + alignedLength));
+
+        if (padding != 0)
+        {
+            buffer.putInt(index + TYPE_ID_OFFSET, PADDING_TYPE_ID);
+            INT_VIEW.setRelease(buffer, index, padding);
+            index = 0;
+        }
+
+        buffer.putInt(index + TYPE_ID_OFFSET, typeId);
+        INT_VIEW.setRelease(buffer, index, -recordLength);
+
+        return index + HEADER_LENGTH;
+    }
+
+    /**
+     * Make a claimed record available to the consumer.
+     *
+     * @param offset returned when the record was claimed.
+     * @throws IllegalStateException if there is no claimed record at <code>offset</code>.
+     */
+    public void commit(final int offset)
+    {
+        final int index = claimedRecordIndex(offset);
+        INT_VIEW.setRelease(buffer, index, -buffer.getInt(index));
+        commits.incrementAndGet();
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    /**
+     * Release a claimed record without making it available to the consumer.
+     *
+     * @param offset returned when the record was claimed.
+     * @throws IllegalStateException if there is no claimed record at <code>offset</code>.
+     */
+    public void abort(final int offset)
+    {
+        final int index = claimedRecordIndex(offset);
+        buffer.putInt(index + TYPE_ID_OFFSET, PADDING_TYPE_ID);
+        INT_VIEW.setRelease(buffer, index, -buffer.getInt(index));
+        commits.incrementAndGet();
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    /**
+     * Copy a record into the ring buffer and commit it, waiting for space if necessary.
+     *
+     * @param typeId of the record, must not be negative.
+     * @param src    holding the payload.
+     * @param offset within <code>src</code> of the first byte.
+     * @param length of the payload in bytes.
+     */
+    public void write(final int typeId, final byte[] src, final int offset, final int length)
+    {
+        Objects.checkFromIndexSize(offset, length, src.length);
+        copyAndCommit(claim(typeId, length), src, offset, length);
+    }
+
+    /**
+     * Attempt to copy a record into the ring buffer and commit it.
+     *
+     * @param typeId of the record, must not be negative.
+     * @param src    holding the payload.
+     * @param offset within <code>src</code> of the first byte.
+     * @param length of the payload in bytes.
+     * @return true if the record was written, false if there was not enough free space.
+     */
+    public boolean tryWrite(final int typeId, final byte[] src, final int offset, final int length)
+    {
+        Objects.checkFromIndexSize(offset, length, src.length);
+        final int recordOffset = tryClaim(typeId, length);
+        if (recordOffset == INSUFFICIENT_CAPACITY)
+        {
+            return false;
+        }
+
+        copyAndCommit(recordOffset, src, offset, length);
+        return true;
+    }
+
+    /**
+     * Read the committed records that are available, passing each to <code>handler</code>, and free the space
+     * they occupied.  Only one thread may read from a RecordRingBuffer.
+     *
+     * <p>A batch ends at the first record that has not yet been committed, at the end of the buffer, or after
+     * <code>limit</code> records.  If the handler throws, the records up to and including the one that caused
+     * the exception are consumed and the exception is propagated.
+     *
+     * @param handler to receive the records.
+     * @param limit   the maximum number of records to read.
+     * @return the number of records passed to the handler, which is 0 if only the padding at the end of the buffer
+     * was consumed.
+     * @throws Exception thrown by the handler.
+     */
+    public int read(final RecordHandler handler, final int limit) throws Exception
+    {
+        final long headPosition = head.get();
+        final int headIndex = (int) (headPosition & indexMask);
+        final int contiguous = capacity - headIndex;
+
+        int available = 0;
+        int lastRecordIndex = -1;
+        int records = 0;
+        while (available < contiguous && records < limit)
+        {
+            final int index = headIndex + available;
+            final int recordLength = (int) INT_VIEW.getAcquire(buffer, index);
+            if (recordLength <= 0)
+            {
+                break;
+            }
+
+            if (buffer.getInt(index + TYPE_ID_OFFSET) != PADDING_TYPE_ID)
+            {
+                lastRecordIndex = index;
+                records++;
+            }
+            available += align(recordLength);
+        }
+
+        int consumed = 0;
+        try
+        {
+            final ByteBuffer view = consumerView;
+            while (consumed < available)
+            {
+                final int index = headIndex + consumed;
+                final int recordLength = buffer.getInt(index);
+                final int typeId = buffer.getInt(index + TYPE_ID_OFFSET);
+                consumed += align(recordLength);
+
+                if (typeId != PADDING_TYPE_ID)
+                {
+                    view.limit(index + recordLength).position(index + HEADER_LENGTH);
+                    handler.onRecord(typeId, view, headPosition + (index - headIndex), index == lastRecordIndex);
+                }
+            }
+        }
+        finally
+        {
+            if (consumed != 0)
+            {
+                for (int i = headIndex, end = headIndex + consumed; i < end; i += ALIGNMENT)
+                {
+                    buffer.putLong(i, 0L);
+                }
+                head.set(headPosition + consumed);
+                waitStrategy.signalAllWhenBlocking();
+            }
+        }
+
+        return records;
+    }
+
+    private void copyAndCommit(final int recordOffset, final byte[] src, final int offset, final int length)
+    {
+        try
+        {
+            final ByteBuffer view = producerViews.get();
+            view.limit(recordOffset + length).position(recordOffset);
+            view.put(src, offset, length);
+        }
+        finally
+        {
+            commit(recordOffset);
+        }
+    }
+
+    private int claimedRecordIndex(final int offset)
+    {
+        final int index = offset - HEADER_LENGTH;
+        if (index < 0 || index > capacity - HEADER_LENGTH || (index & (ALIGNMENT - 1)) != 0 || buffer.getInt(index) >= 0)
+        {
+            throw new IllegalStateException("No claimed record at offset " + offset);
+        }
+        return index;
+    }
+
+    private static int align(final int length)
+    {
+        return (length + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    /**
+     * Barrier on one of the ring buffer's positions, waiting for it with the ring buffer's {@link WaitStrategy}.
+     */
+    static final class PositionBarrier implements SequenceBarrier
+    {
+        private final Sequence position;
+        private final WaitStrategy waitStrategy;
+        private volatile boolean alerted = false;
+
+        PositionBarrier(final Sequence position, final WaitStrategy waitStrategy)
+        {
+            this.position = position;
+            this.waitStrategy = waitStrategy;
+        }
+
+        @Override
+        public long waitFor(final long sequence) throws AlertException, InterruptedException, TimeoutException
+        {
+            checkAlert();
+            return waitStrategy.waitFor(sequence, position, position, this);
+        }
+
+        @Override
+        public long getCursor()
+        {
+            return position.get();
+        }
+
+        @Override
+        public boolean isAlerted()
+        {
+            return alerted;
+        }
+
+        @Override
+        public void alert()
+        {
+            alerted = true;
+        }
+
+        @Override
+        public void clearAlert()
+        {
+            alerted = false;
+        }
+
+        @Override
+        public void checkAlert() throws AlertException
+        {
+            if (alerted)
+            {
+                throw AlertException.INSTANCE;
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "RecordRingBuffer{" +
+            "capacity=" + capacity +
+            ", head=" + head +
+            ", tail=" + tail +
+            ", waitStrategy=" + waitStrategy +
+            '}';
+    }
+}
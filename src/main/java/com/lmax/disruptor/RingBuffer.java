@@ -17,6 +17,10 @@ package com.lmax.disruptor;
 
 
 import com.lmax.disruptor.dsl.ProducerType;
+import com.lmax.disruptor.util.Util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * 环形数组填充
@@ -40,21 +44,33 @@ abstract class RingBufferPad
 abstract class RingBufferFields<E> extends RingBufferPad
 {
     private static final int BUFFER_PAD = 32;
+    private static final int PARALLEL_FILL_THRESHOLD = 1 << 12;
 
     //索引掩码
     private final long indexMask;
     //数组
     private final E[] entries;
+    private final EventFactory<E> eventFactory;
     //元素个数
     protected final int bufferSize;
     protected final Sequencer sequencer;
 
-    @SuppressWarnings("unchecked")
     RingBufferFields(
         final EventFactory<E> eventFactory,
         final Sequencer sequencer)
     {
-        this.sequencer = sequencer;
+        this(eventFactory, sequencer, 1, Preallocation.EAGER);
+    }
+
+    @SuppressWarnings("unchecked")
+    RingBufferFields(
+        final EventFactory<E> eventFactory,
+        final Sequencer sequencer,
+        final int slotStride,
+        final Preallocation preallocation)
+    {
+        this.sequencer = preallocation == Preallocation.LAZY ? new LazyPopulatingSequencer(sequencer, this::populate) : sequencer;
+        this.eventFactory = eventFactory;
         this.bufferSize = sequencer.getBufferSize();
 
         if (bufferSize < 1)
@@ -68,22 +84,63 @@ abstract class RingBufferFields<E> extends RingBufferPad
         }
         //索引掩码
         this.indexMask = bufferSize - 1;
+        final int strideShift = Util.log2(Util.checkSlotStride(slotStride, bufferSize));
         //初始化数组，数组长度为元素个数+2*32
         this.entries = (E[]) new Object[sequencer.getBufferSize() + 2 * BUFFER_PAD];
         //填充数组
-        fill(eventFactory);
+        switch (preallocation)
+        {
+            case EAGER:
+                fill(0, bufferSize, strideShift);
+                break;
+            case PARALLEL:
+                ForkJoinPool.commonPool().invoke(new ParallelFill(0, bufferSize, strideShift));
+                break;
+            case LAZY:
+                break;
+            default:
+                throw new IllegalStateException(preallocation.toString());
+        }
     }
 
     /**
      * 填充数组
-     * @param eventFactory
+     *
+     * <p>Events are created in allocation order, which with a stride places the events of consecutive sequences
+     * <code>1 &lt;&lt; strideShift</code> allocations apart while the entries stay indexed by the plain mask.
+     *
+     * @param from        first position in allocation order to fill.
+     * @param to          position after the last to fill.
+     * @param strideShift log2 of the slot stride.
      */
-    private void fill(final EventFactory<E> eventFactory)
+    private void fill(final int from, final int to, final int strideShift)
     {
-        for (int i = 0; i < bufferSize; i++)
+        final int indexShift = Util.log2(bufferSize);
+        for (int i = from; i < to; i++)
         {
+            // rotating right by the stride inverts the rotation that spreads the sequences out
+            final int index = strideShift == 0 ? i : Util.slotIndex(i, indexShift - strideShift, indexShift, (int) indexMask);
             //使用事件工厂新实例填充数组
-            entries[BUFFER_PAD + i] = eventFactory.newInstance();
+            entries[BUFFER_PAD + index] = eventFactory.newInstance();
+        }
+    }
+
+    /**
+     * Create the events for the slots of sequences <code>lo</code> to <code>hi</code> within the first lap
+     * that do not have one yet, for {@link Preallocation#LAZY}.
+     *
+     * @param lo first sequence to populate.
+     * @param hi last sequence to populate.
+     */
+    final void populate(final long lo, final long hi)
+    {
+        for (long sequence = lo; sequence <= hi; sequence++)
+        {
+            final int index = BUFFER_PAD + (int) (sequence & indexMask);
+            if (entries[index] == null)
+            {
+                entries[index] = eventFactory.newInstance();
+            }
         }
     }
 
@@ -97,6 +154,39 @@ abstract class RingBufferFields<E> extends RingBufferPad
         //序列和索引掩码与操作，相当于序列对索引掩码取模操作，获取数组中的下标
         return entries[BUFFER_PAD + (int) (sequence & indexMask)];
     }
+
+    /**
+     * Fills a range of slots, splitting it in half until it is small enough to fill on one thread.
+     */
+    private final class ParallelFill extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int strideShift;
+
+        ParallelFill(final int from, final int to, final int strideShift)
+        {
+            this.from = from;
+            this.to = to;
+            this.strideShift = strideShift;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from <= PARALLEL_FILL_THRESHOLD)
+            {
+                fill(from, to, strideShift);
+            }
+            else
+            {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new ParallelFill(from, middle, strideShift), new ParallelFill(middle, to, strideShift));
+            }
+        }
+    }
 }
 
 /**
@@ -135,6 +225,15 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         super(eventFactory, sequencer);
     }
 
+    RingBuffer(
+        final EventFactory<E> eventFactory,
+        final Sequencer sequencer,
+        final int slotStride,
+        final Preallocation preallocation)
+    {
+        super(eventFactory, sequencer, slotStride, preallocation);
+    }
+
     /**
      * Create a new multiple producer RingBuffer with the specified wait strategy.
      * 使用指定的等待策略创建新的多生产者环形缓冲区
@@ -156,6 +255,36 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         return new RingBuffer<>(factory, sequencer);
     }
 
+    /**
+     * Create a new multiple producer RingBuffer whose consecutive sequences are spread <code>slotStride</code>
+     * slots apart, in both the allocation order of the events and the sequencer's availability flags.
+     *
+     * <p>Producers claiming consecutive sequences then write to events and flags that are further apart in memory,
+     * at the cost of consumers touching more cache lines when reading a batch.  A stride of 16 puts the availability
+     * flags of consecutive sequences on different 64 byte cache lines, and separates consecutive events by
+     * <code>slotStride</code> objects.  The stride is applied when the events are created, so {@link #get(long)} still
+     * indexes the entries with a plain mask.  A stride of 1 gives the default dense layout.</p>
+     *
+     * @param <E> Class of the event stored in the ring buffer.
+     * @param factory      used to create the events within the ring buffer.
+     * @param bufferSize   number of elements to create within the ring buffer.
+     * @param waitStrategy used to determine how to wait for new elements to become available.
+     * @param slotStride   distance in slots between consecutive sequences, a power of 2 no greater than bufferSize.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2, or slotStride is invalid
+     * @see MultiProducerSequencer#MultiProducerSequencer(int, WaitStrategy, int)
+     */
+    public static <E> RingBuffer<E> createMultiProducer(
+        final EventFactory<E> factory,
+        final int bufferSize,
+        final WaitStrategy waitStrategy,
+        final int slotStride)
+    {
+        MultiProducerSequencer sequencer = new MultiProducerSequencer(bufferSize, waitStrategy, slotStride);
+
+        return new RingBuffer<>(factory, sequencer, slotStride, Preallocation.EAGER);
+    }
+
     /**
      * Create a new multiple producer RingBuffer using the default wait strategy  {@link BlockingWaitStrategy}.
      * 使用默认的等待策略BlockingWaitStrategy创建一个新的多生产者环形缓冲区
@@ -192,6 +321,30 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         return new RingBuffer<>(factory, sequencer);
     }
 
+    /**
+     * Create a new single producer RingBuffer whose consecutive sequences are spread <code>slotStride</code>
+     * slots apart in the allocation order of the events.
+     *
+     * @param <E> Class of the event stored in the ring buffer.
+     * @param factory      used to create the events within the ring buffer.
+     * @param bufferSize   number of elements to create within the ring buffer.
+     * @param waitStrategy used to determine how to wait for new elements to become available.
+     * @param slotStride   distance in slots between consecutive sequences, a power of 2 no greater than bufferSize.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2, or slotStride is invalid
+     * @see #createMultiProducer(EventFactory, int, WaitStrategy, int)
+     */
+    public static <E> RingBuffer<E> createSingleProducer(
+        final EventFactory<E> factory,
+        final int bufferSize,
+        final WaitStrategy waitStrategy,
+        final int slotStride)
+    {
+        SingleProducerSequencer sequencer = new SingleProducerSequencer(bufferSize, waitStrategy);
+
+        return new RingBuffer<>(factory, sequencer, slotStride, Preallocation.EAGER);
+    }
+
     /**
      * Create a new single producer RingBuffer using the default wait strategy  {@link BlockingWaitStrategy}.
      * 使用默认的等待策略BlockingWaitStrategy创建一个新的单生产者环形缓冲区
@@ -235,6 +388,70 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
     }
 
+    /**
+     * Create a new Ring Buffer with the specified producer type (SINGLE or MULTI) whose consecutive sequences
+     * are spread <code>slotStride</code> slots apart.
+     *
+     * @param <E> Class of the event stored in the ring buffer.
+     * @param producerType producer type to use {@link ProducerType}.
+     * @param factory      used to create events within the ring buffer.
+     * @param bufferSize   number of elements to create within the ring buffer.
+     * @param waitStrategy used to determine how to wait for new elements to become available.
+     * @param slotStride   distance in slots between consecutive sequences, a power of 2 no greater than bufferSize.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2, or slotStride is invalid
+     * @see #createMultiProducer(EventFactory, int, WaitStrategy, int)
+     */
+    public static <E> RingBuffer<E> create(
+        final ProducerType producerType,
+        final EventFactory<E> factory,
+        final int bufferSize,
+        final WaitStrategy waitStrategy,
+        final int slotStride)
+    {
+        switch (producerType)
+        {
+            case SINGLE:
+                return createSingleProducer(factory, bufferSize, waitStrategy, slotStride);
+            case MULTI:
+                return createMultiProducer(factory, bufferSize, waitStrategy, slotStride);
+            default:
+                throw new IllegalStateException(producerType.toString());
+        }
+    }
+
+    /**
+     * Create a new Ring Buffer with the specified producer type (SINGLE or MULTI), choosing how its events are
+     * preallocated.  {@link Preallocation#PARALLEL} and {@link Preallocation#LAZY} shorten the construction of
+     * very large rings, where creating every event on one thread can take seconds.
+     *
+     * @param <E> Class of the event stored in the ring buffer.
+     * @param producerType  producer type to use {@link ProducerType}.
+     * @param factory       used to create events within the ring buffer.
+     * @param bufferSize    number of elements to create within the ring buffer.
+     * @param waitStrategy  used to determine how to wait for new elements to become available.
+     * @param preallocation how and when the events are created by the factory.
+     * @return a constructed ring buffer.
+     * @throws IllegalArgumentException if bufferSize is less than 1 or not a power of 2
+     */
+    public static <E> RingBuffer<E> create(
+        final ProducerType producerType,
+        final EventFactory<E> factory,
+        final int bufferSize,
+        final WaitStrategy waitStrategy,
+        final Preallocation preallocation)
+    {
+        switch (producerType)
+        {
+            case SINGLE:
+                return new RingBuffer<>(factory, new SingleProducerSequencer(bufferSize, waitStrategy), 1, preallocation);
+            case MULTI:
+                return new RingBuffer<>(factory, new MultiProducerSequencer(bufferSize, waitStrategy), 1, preallocation);
+            default:
+                throw new IllegalStateException(producerType.toString());
+        }
+    }
+
     /**
      * <p>Get the event for a given sequence in the RingBuffer.</p>
      * 获取RingBuffer中给定序列的事件
@@ -348,6 +565,18 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         sequencer.publish(sequence);
     }
 
+    /**
+     * Return the ring buffer to its initial state, with the cursor at {@link #INITIAL_CURSOR_VALUE} and no
+     * sequence published.  The events are left as they are.  This must only be called while no producer or
+     * consumer is using the ring buffer, e.g. after a warm up.
+     *
+     * @see Sequencer#reset()
+     */
+    public void reset()
+    {
+        sequencer.reset();
+    }
+
     /**
      * Sets the cursor to a specific sequence and returns the preallocated entry that is stored there.  This
      * can cause a data race and should only be done in controlled circumstances, e.g. during initialisation.
@@ -400,6 +629,20 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         sequencer.addGatingSequences(gatingSequences);
     }
 
+    /**
+     * Add a gating sequence at its current value rather than the cursor, so that a consumer added while events
+     * are being published can start from an earlier sequence that has not yet been overwritten.
+     *
+     * @param gatingSequence The sequence to add, holding the last sequence its consumer has processed.
+     * @return <code>true</code> if the sequence was added, <code>false</code> if it is behind the slowest
+     * existing gating sequence, whose events may already have been overwritten.
+     * @see Sequencer#tryAddGatingSequence(Sequence)
+     */
+    public boolean tryAddGatingSequence(final Sequence gatingSequence)
+    {
+        return sequencer.tryAddGatingSequence(gatingSequence);
+    }
+
     /**
      * Get the minimum sequence value from all of the gating sequences
      * added to this ringBuffer.
@@ -436,6 +679,32 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         return sequencer.newBarrier(sequencesToTrack);
     }
 
+    /**
+     * Create a new SequenceBarrier that waits using its own {@link WaitStrategy} rather than the one this
+     * ring buffer was created with.
+     *
+     * @param waitStrategy     the wait strategy used by the barrier.
+     * @param sequencesToTrack the additional sequences to track
+     * @return A sequence barrier that will track the specified sequences.
+     * @see SequenceBarrier
+     */
+    public SequenceBarrier newBarrier(final WaitStrategy waitStrategy, final Sequence... sequencesToTrack)
+    {
+        return sequencer.newBarrier(waitStrategy, sequencesToTrack);
+    }
+
+    /**
+     * Release a barrier created by {@link #newBarrier(WaitStrategy, Sequence...)} once no processor waits on it
+     * any more, so that publishing stops signalling its wait strategy.
+     *
+     * @param barrier the barrier that is no longer used.
+     * @see Sequencer#releaseBarrier(SequenceBarrier)
+     */
+    public void releaseBarrier(final SequenceBarrier barrier)
+    {
+        sequencer.releaseBarrier(barrier);
+    }
+
     /**
      * Creates an event poller for this ring buffer gated on the supplied sequences.
      * 在提供的序列上为该环形缓冲区创建一个事件轮询器
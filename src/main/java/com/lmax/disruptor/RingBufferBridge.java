@@ -0,0 +1,225 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.Objects;
+
+/**
+ * An {@link EventHandler} that forwards every event it receives from one ring buffer into another, claiming and
+ * publishing a whole batch of the downstream ring with a single {@link RingBuffer#next(int)} and
+ * {@link RingBuffer#publish(long, long)} rather than a claim and publish per event.
+ *
+ * <p>Each upstream event is copied into its downstream slot by a user supplied translator.  A batch larger than
+ * the downstream ring is forwarded in chunks of at most the downstream buffer size.  What happens when the
+ * downstream ring has no room is chosen by the {@link BackPressurePolicy}.
+ *
+ * <p>If the translator throws, the rest of the downstream chunk claimed for the batch is published straight away,
+ * including the slot it was writing and those not yet written, which keep the event last written to them.  The
+ * downstream ring is so never left with a claimed but unpublished sequence, even if the upstream processor stops
+ * when the exception is passed to its {@link ExceptionHandler}.  Any later events of the batch are forwarded into
+ * a new claim.
+ *
+ * @param <A> event type of the upstream ring buffer.
+ * @param <B> event type of the downstream ring buffer.
+ */
+public final class RingBufferBridge<A, B> implements EventHandler<A>
+{
+    /**
+     * What the bridge does when the downstream ring buffer does not have capacity for a batch.
+     */
+    public enum BackPressurePolicy
+    {
+        /**
+         * Wait for capacity, applying back-pressure to the upstream ring.
+         */
+        BLOCK,
+
+        /**
+         * Drop the whole batch if it does not fit.
+         */
+        DROP_BATCH,
+
+        /**
+         * Forward as many of the most recent events of the batch as fit and drop the earlier ones.
+         */
+        DROP_OVERFLOW
+    }
+
+    private final RingBuffer<B> target;
+    private final EventTranslatorOneArg<B, A> translator;
+    private final BackPressurePolicy policy;
+    private final int maxChunkSize;
+    private final Sequence droppedCount = new Sequence(0L);
+
+    private long remainingInBatch;
+    private long lowSequence;
+    private long nextSequence;
+    private long highSequence = Sequencer.INITIAL_CURSOR_VALUE;
+    private long remainingToDrop;
+
+    /**
+     * Create a bridge that blocks while the downstream ring buffer is full.
+     *
+     * @param target     ring buffer events are forwarded to.
+     * @param translator copies each upstream event into its downstream slot.
+     */
+    public RingBufferBridge(final RingBuffer<B> target, final EventTranslatorOneArg<B, A> translator)
+    {
+        this(target, translator, BackPressurePolicy.BLOCK);
+    }
+
+    /**
+     * Create a bridge.
+     *
+     * @param target     ring buffer events are forwarded to.
+     * @param translator copies each upstream event into its downstream slot.
+     * @param policy     applied when the downstream ring buffer does not have capacity for a batch.
+     */
+    public RingBufferBridge(
+        final RingBuffer<B> target,
+        final EventTranslatorOneArg<B, A> translator,
+        final BackPressurePolicy policy)
+    {
+        this.target = Objects.requireNonNull(target);
+        this.translator = Objects.requireNonNull(translator);
+        this.policy = Objects.requireNonNull(policy);
+        this.maxChunkSize = target.getBufferSize();
+        this.lowSequence = highSequence + 1;
+        this.nextSequence = lowSequence;
+    }
+
+    @Override
+    public void onBatchStart(final long batchSize)
+    {
+        remainingInBatch = batchSize;
+    }
+
+    @Override
+    public void onEvent(final A event, final long sequence, final boolean endOfBatch)
+    {
+        if (remainingToDrop == 0 && nextSequence > highSequence)
+        {
+            claim(Math.max(1, remainingInBatch));
+        }
+        remainingInBatch--;
+
+        if (remainingToDrop > 0)
+        {
+            remainingToDrop--;
+            droppedCount.set(droppedCount.get() + 1);
+            return;
+        }
+
+        try
+        {
+            translator.translateTo(target.get(nextSequence), nextSequence, event);
+        }
+        catch (final Throwable e)
+        {
+            // publish the whole chunk, the processor may stop before the rest of it is translated
+            nextSequence = highSequence;
+            throw e;
+        }
+        finally
+        {
+            if (nextSequence++ == highSequence)
+            {
+                target.publish(lowSequence, highSequence);
+            }
+        }
+    }
+
+    /**
+     * @return the number of upstream events that were dropped because the downstream ring buffer was full.
+     */
+    public long getDroppedCount()
+    {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return the back-pressure policy of this bridge.
+     */
+    public BackPressurePolicy getPolicy()
+    {
+        return policy;
+    }
+
+    private void claim(final long batchSize)
+    {
+        final int n = (int) Math.min(batchSize, maxChunkSize);
+        int claimed = n;
+        switch (policy)
+        {
+            case BLOCK:
+                highSequence = target.next(n);
+                break;
+
+            case DROP_BATCH:
+                try
+                {
+                    highSequence = target.tryNext(n);
+                }
+                catch (final InsufficientCapacityException e)
+                {
+                    claimed = 0;
+                }
+                break;
+
+            case DROP_OVERFLOW:
+                claimed = tryClaimAvailable(n);
+                break;
+
+            default:
+                throw new IllegalStateException("Unknown back-pressure policy " + policy);
+        }
+
+        lowSequence = highSequence - claimed + 1;
+        nextSequence = lowSequence;
+        remainingToDrop = n - claimed;
+    }
+
+    private int tryClaimAvailable(final int n)
+    {
+        while (true)
+        {
+            final int available = (int) Math.min(n, target.remainingCapacity());
+            if (available == 0)
+            {
+                return 0;
+            }
+
+            try
+            {
+                highSequence = target.tryNext(available);
+                return available;
+            }
+            catch (final InsufficientCapacityException e)
+            {
+                // Another producer took the capacity, look again.
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "RingBufferBridge{" +
+            "policy=" + policy +
+            ", dropped=" + droppedCount.get() +
+            '}';
+    }
+}
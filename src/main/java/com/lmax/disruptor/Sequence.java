@@ -7,7 +7,7 @@ import java.lang.invoke.VarHandle;
 /**
  * 缓存行左填充
  */
-class LhsPadding
+abstract class LhsPadding extends AbstractSequence
 {
     protected byte
         p10, p11, p12, p13, p14, p15, p16, p17,
@@ -22,7 +22,7 @@ class LhsPadding
 /**
  * 缓存行保存实际的值
  */
-class Value extends LhsPadding
+abstract class Value extends LhsPadding
 {
     protected long value;
 }
@@ -30,7 +30,7 @@ class Value extends LhsPadding
 /**
  * 缓存行右填充
  */
-class RhsPadding extends Value
+abstract class RhsPadding extends Value
 {
     protected byte
         p90, p91, p92, p93, p94, p95, p96, p97,
@@ -97,6 +97,7 @@ public class Sequence extends RhsPadding
      *
      * @return The current value of the sequence.
      */
+    @Override
     public long get()
     {
         long value = this.value;
@@ -113,6 +114,7 @@ public class Sequence extends RhsPadding
      *
      * @param value The new value for the sequence.
      */
+    @Override
     public void set(final long value)
     {
         //确保此屏障前的读取和写入不会与屏障后的写入重排序 StoreStore+LoadStore
@@ -128,6 +130,7 @@ public class Sequence extends RhsPadding
      * 执行此序列的volatile写入。其目的是在本次写入和任何之前的写入之间设置存储/存储屏障，并在本次写入和任何后续的volatile读取之间设置存储/加载屏障。
      * @param value The new value for the sequence.
      */
+    @Override
     public void setVolatile(final long value)
     {
         //确保此屏障前的读取和写入不会与屏障后的写入重排序 StoreStore+LoadStore
@@ -144,6 +147,7 @@ public class Sequence extends RhsPadding
      * @param newValue      The value to update to.
      * @return true if the operation succeeds, false otherwise.
      */
+    @Override
     public boolean compareAndSet(final long expectedValue, final long newValue)
     {
         return VALUE_FIELD.compareAndSet(this, expectedValue, newValue);
@@ -154,6 +158,7 @@ public class Sequence extends RhsPadding
      *
      * @return The value after the increment
      */
+    @Override
     public long incrementAndGet()
     {
         return addAndGet(1);
@@ -165,6 +170,7 @@ public class Sequence extends RhsPadding
      * @param increment The value to add to the sequence.
      * @return The value after the increment.
      */
+    @Override
     public long addAndGet(final long increment)
     {
         return (long) VALUE_FIELD.getAndAdd(this, increment) + increment;
@@ -176,6 +182,7 @@ public class Sequence extends RhsPadding
      * @param increment The value to add to the sequence.
      * @return the value before increment
      */
+    @Override
     public long getAndAdd(final long increment)
     {
         return (long) VALUE_FIELD.getAndAdd(this, increment);
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+
+/**
+ * Many sequence values packed into a single <code>long[]</code>, for deployments that track so many sequences
+ * that the padding carried by each {@link Sequence} object (around 136 bytes per value) matters.
+ *
+ * <p>The stride, in longs, between consecutive values chooses between density and protection from false
+ * sharing: {@link #DENSE} packs values 8 bytes apart, {@link #CACHE_LINE_PADDED} gives each value its own 64 byte
+ * cache line and {@link #DOUBLE_CACHE_LINE_PADDED} keeps values 128 bytes apart, as {@link Sequence} does, to
+ * also defeat adjacent line prefetching.  Values that are only ever updated by one thread, or that are rarely
+ * updated, can usually be packed densely.
+ *
+ * <p>Values are accessed by index, with the same memory ordering as the corresponding {@link Sequence} methods,
+ * or through an {@link AbstractSequence} view returned by {@link #sequence(int)}.  A view holds only a reference to
+ * the array and an offset, around 24 bytes with compressed references, rather than the padding of a Sequence.  Views
+ * gate a ring buffer through a {@link SequenceGroup}, which is added as a single gating sequence:
+ *
+ * <pre><code>
+ * SequenceArray positions = new SequenceArray(sessions, SequenceArray.DENSE);
+ * SequenceGroup gating = new SequenceGroup();
+ * for (int i = 0; i &lt; sessions; i++)
+ * {
+ *     gating.add(positions.sequence(i));
+ * }
+ * ringBuffer.addGatingSequences(gating);
+ * </code></pre>
+ */
+public final class SequenceArray
+{
+    /**
+     * Stride at which values are packed next to each other.
+     */
+    public static final int DENSE = 1;
+
+    /**
+     * Stride at which each value occupies its own 64 byte cache line.
+     */
+    public static final int CACHE_LINE_PADDED = 8;
+
+    /**
+     * Stride at which values are 128 bytes apart, the same separation a {@link Sequence} gives its value.
+     */
+    public static final int DOUBLE_CACHE_LINE_PADDED = 16;
+
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] values;
+    private final int length;
+    private final int stride;
+    private final int pad;
+
+    /**
+     * Create a SequenceArray with all values initialised to -1.
+     *
+     * @param length number of values.
+     * @param stride distance in longs between consecutive values, such as {@link #DENSE} or {@link #CACHE_LINE_PADDED}.
+     */
+    public SequenceArray(final int length, final int stride)
+    {
+        this(length, stride, Sequencer.INITIAL_CURSOR_VALUE);
+    }
+
+    /**
+     * Create a SequenceArray with all values set to the specified initial value.
+     *
+     * @param length       number of values.
+     * @param stride       distance in longs between consecutive values, such as {@link #DENSE} or {@link #CACHE_LINE_PADDED}.
+     * @param initialValue for every value.
+     * @throws IllegalArgumentException if length is negative, stride is less than 1 or the array would be too large
+     */
+    public SequenceArray(final int length, final int stride, final long initialValue)
+    {
+        if (length < 0)
+        {
+            throw new IllegalArgumentException("length must not be negative");
+        }
+        if (stride < 1)
+        {
+            throw new IllegalArgumentException("stride must not be less than 1");
+        }
+
+        this.pad = stride == DENSE ? 0 : stride;
+        final long arrayLength = 2L * pad + (long) length * stride;
+        if (arrayLength > Integer.MAX_VALUE - 8)
+        {
+            throw new IllegalArgumentException("length * stride is too large");
+        }
+
+        this.values = new long[(int) arrayLength];
+        this.length = length;
+        this.stride = stride;
+
+        for (int i = 0; i < length; i++)
+        {
+            values[offset(i)] = initialValue;
+        }
+        VarHandle.releaseFence();
+    }
+
+    /**
+     * @return the number of values.
+     */
+    public int length()
+    {
+        return length;
+    }
+
+    /**
+     * @return the distance in longs between consecutive values.
+     */
+    public int getStride()
+    {
+        return stride;
+    }
+
+    /**
+     * Perform a volatile read of a value.
+     *
+     * @param index of the value.
+     * @return the current value.
+     */
+    public long get(final int index)
+    {
+        return (long) VALUES.getAcquire(values, checkedOffset(index));
+    }
+
+    /**
+     * Perform an ordered write of a value.
+     *
+     * @param index of the value.
+     * @param value the new value.
+     */
+    public void set(final int index, final long value)
+    {
+        VALUES.setRelease(values, checkedOffset(index), value);
+    }
+
+    /**
+     * Perform a volatile write of a value.
+     *
+     * @param index of the value.
+     * @param value the new value.
+     */
+    public void setVolatile(final int index, final long value)
+    {
+        VALUES.setVolatile(values, checkedOffset(index), value);
+    }
+
+    /**
+     * Perform a compare and set operation on a value.
+     *
+     * @param index         of the value.
+     * @param expectedValue The expected current value.
+     * @param newValue      The value to update to.
+     * @return true if the operation succeeds, false otherwise.
+     */
+    public boolean compareAndSet(final int index, final long expectedValue, final long newValue)
+    {
+        return VALUES.compareAndSet(values, checkedOffset(index), expectedValue, newValue);
+    }
+
+    /**
+     * Atomically increment a value by one.
+     *
+     * @param index of the value.
+     * @return The value after the increment
+     */
+    public long incrementAndGet(final int index)
+    {
+        return addAndGet(index, 1L);
+    }
+
+    /**
+     * Atomically add the supplied increment to a value.
+     *
+     * @param index     of the value.
+     * @param increment The value to add.
+     * @return The value after the increment.
+     */
+    public long addAndGet(final int index, final long increment)
+    {
+        return (long) VALUES.getAndAdd(values, checkedOffset(index), increment) + increment;
+    }
+
+    /**
+     * Atomically add the supplied increment to a value.
+     *
+     * @param index     of the value.
+     * @param increment The value to add.
+     * @return the value before the increment
+     */
+    public long getAndAdd(final int index, final long increment)
+    {
+        return (long) VALUES.getAndAdd(values, checkedOffset(index), increment);
+    }
+
+    /**
+     * Get the minimum of all the values.
+     *
+     * @param minimum an initial default minimum, returned if there are no values.
+     * @return the smaller of the minimum value and <code>minimum</code>.
+     */
+    public long getMinimum(final long minimum)
+    {
+        long result = minimum;
+        for (int i = 0; i < length; i++)
+        {
+            result = Math.min(result, (long) VALUES.getAcquire(values, offset(i)));
+        }
+        return result;
+    }
+
+    /**
+     * Create a sequence whose value is the value at <code>index</code> in this array.
+     *
+     * @param index of the value.
+     * @return a view of the value.
+     */
+    public AbstractSequence sequence(final int index)
+    {
+        return new SequenceView(this, checkedOffset(index));
+    }
+
+    private int checkedOffset(final int index)
+    {
+        return offset(Objects.checkIndex(index, length));
+    }
+
+    private int offset(final int index)
+    {
+        return pad + index * stride;
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder builder = new StringBuilder("SequenceArray{stride=").append(stride).append(", values=[");
+        for (int i = 0; i < length; i++)
+        {
+            builder.append(i == 0 ? "" : ", ").append(get(i));
+        }
+        return builder.append("]}").toString();
+    }
+
+    /**
+     * A sequence backed by one value of a SequenceArray, carrying no padding of its own.
+     */
+    private static final class SequenceView extends AbstractSequence
+    {
+        private final long[] values;
+        private final int offset;
+
+        SequenceView(final SequenceArray array, final int offset)
+        {
+            this.values = array.values;
+            this.offset = offset;
+        }
+
+        @Override
+        public long get()
+        {
+            return (long) VALUES.getAcquire(values, offset);
+        }
+
+        @Override
+        public void set(final long value)
+        {
+            VALUES.setRelease(values, offset, value);
+        }
+
+        @Override
+        public void setVolatile(final long value)
+        {
+            VALUES.setVolatile(values, offset, value);
+        }
+
+        @Override
+        public boolean compareAndSet(final long expectedValue, final long newValue)
+        {
+            return VALUES.compareAndSet(values, offset, expectedValue, newValue);
+        }
+
+        @Override
+        public long addAndGet(final long increment)
+        {
+            return (long) VALUES.getAndAdd(values, offset, increment) + increment;
+        }
+
+        @Override
+        public long getAndAdd(final long increment)
+        {
+            return (long) VALUES.getAndAdd(values, offset, increment);
+        }
+    }
+}
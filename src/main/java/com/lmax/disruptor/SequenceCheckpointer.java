@@ -0,0 +1,50 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+/**
+ * Persists the progress of an event processor so that, after a restart, it can resume from the last sequence it
+ * had processed rather than from the start, while its input is replayed from the same point.
+ *
+ * <p>A {@link BatchEventProcessor} given a checkpointer with
+ * {@link BatchEventProcessor#setSequenceCheckpointer(SequenceCheckpointer, long)} calls {@link #checkpoint(long)}
+ * from its own thread at the end of a batch, once the checkpoint interval has passed, and once more when it is
+ * halted.  A checkpointed sequence has been fully processed, so after a crash events are handled at least once:
+ * those after the last checkpoint are handled again.  {@link MappedSequenceCheckpointer} keeps the sequence in a
+ * memory mapped file; any other store can be used by implementing this interface.
+ */
+public interface SequenceCheckpointer
+{
+    /**
+     * Record that every event up to and including <code>sequence</code> has been processed.
+     *
+     * @param sequence the last sequence processed.
+     * @throws Exception if the checkpoint could not be recorded, which is passed to the processor's {@link ExceptionHandler}.
+     */
+    void checkpoint(long sequence) throws Exception;
+
+    /**
+     * Get the last sequence recorded by {@link #checkpoint(long)}, possibly by an earlier process.  The default
+     * implementation suits a write only sink, and returns {@link Sequencer#INITIAL_CURSOR_VALUE} so that
+     * processing starts from the beginning.
+     *
+     * @return the last sequence checkpointed, or {@link Sequencer#INITIAL_CURSOR_VALUE} if there is none.
+     */
+    default long restore()
+    {
+        return Sequencer.INITIAL_CURSOR_VALUE;
+    }
+}
@@ -21,16 +21,18 @@ import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * A {@link Sequence} group that can dynamically have {@link Sequence}s added and removed while being
- * thread safe.
+ * thread safe.  Any {@link AbstractSequence} can be added, such as the views of a {@link SequenceArray}, so the
+ * group can gate a ring buffer on values that are not Sequences themselves.
  *
  * <p>The {@link SequenceGroup#get()} and {@link SequenceGroup#set(long)} methods are lock free and can be
- * concurrently be called with the {@link SequenceGroup#add(Sequence)} and {@link SequenceGroup#remove(Sequence)}.
+ * concurrently be called with the {@link SequenceGroup#add(AbstractSequence)} and
+ * {@link SequenceGroup#remove(AbstractSequence)}.
  */
 public final class SequenceGroup extends Sequence
 {
-    private static final AtomicReferenceFieldUpdater<SequenceGroup, Sequence[]> SEQUENCE_UPDATER =
-        AtomicReferenceFieldUpdater.newUpdater(SequenceGroup.class, Sequence[].class, "sequences");
-    private volatile Sequence[] sequences = new Sequence[0];
+    private static final AtomicReferenceFieldUpdater<SequenceGroup, AbstractSequence[]> SEQUENCE_UPDATER =
+        AtomicReferenceFieldUpdater.newUpdater(SequenceGroup.class, AbstractSequence[].class, "sequences");
+    private volatile AbstractSequence[] sequences = new AbstractSequence[0];
 
     /**
      * Default Constructor
@@ -59,8 +61,8 @@ public final class SequenceGroup extends Sequence
     @Override
     public void set(final long value)
     {
-        final Sequence[] sequences = this.sequences;
-        for (Sequence sequence : sequences)
+        final AbstractSequence[] sequences = this.sequences;
+        for (AbstractSequence sequence : sequences)
         {
             sequence.set(value);
         }
@@ -68,20 +70,20 @@ public final class SequenceGroup extends Sequence
 
     /**
      * Add a {@link Sequence} into this aggregate.  This should only be used during
-     * initialisation.  Use {@link SequenceGroup#addWhileRunning(Cursored, Sequence)}
+     * initialisation.  Use {@link SequenceGroup#addWhileRunning(Cursored, AbstractSequence)}
      *
      * @param sequence to be added to the aggregate.
-     * @see SequenceGroup#addWhileRunning(Cursored, Sequence)
+     * @see SequenceGroup#addWhileRunning(Cursored, AbstractSequence)
      */
-    public void add(final Sequence sequence)
+    public void add(final AbstractSequence sequence)
     {
-        Sequence[] oldSequences;
-        Sequence[] newSequences;
+        AbstractSequence[] oldSequences;
+        AbstractSequence[] newSequences;
         do
         {
             oldSequences = sequences;
             final int oldSize = oldSequences.length;
-            newSequences = new Sequence[oldSize + 1];
+            newSequences = new AbstractSequence[oldSize + 1];
             System.arraycopy(oldSequences, 0, newSequences, 0, oldSize);
             newSequences[oldSize] = sequence;
         }
@@ -94,7 +96,7 @@ public final class SequenceGroup extends Sequence
      * @param sequence to be removed from this aggregate.
      * @return true if the sequence was removed otherwise false.
      */
-    public boolean remove(final Sequence sequence)
+    public boolean remove(final AbstractSequence sequence)
     {
         return SequenceGroups.removeSequence(this, SEQUENCE_UPDATER, sequence);
     }
@@ -118,7 +120,7 @@ public final class SequenceGroup extends Sequence
      *                 be pulling it's events from.
      * @param sequence The sequence to add.
      */
-    public void addWhileRunning(final Cursored cursored, final Sequence sequence)
+    public void addWhileRunning(final Cursored cursored, final AbstractSequence sequence)
     {
         SequenceGroups.addSequences(this, SEQUENCE_UPDATER, cursored, sequence);
     }
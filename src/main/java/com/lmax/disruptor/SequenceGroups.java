@@ -15,6 +15,8 @@
  */
 package com.lmax.disruptor;
 
+import com.lmax.disruptor.util.Util;
+
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import static java.util.Arrays.copyOf;
@@ -24,15 +26,16 @@ import static java.util.Arrays.copyOf;
  */
 class SequenceGroups
 {
-    static <T> void addSequences(
+    @SafeVarargs
+    static <T, S extends AbstractSequence> void addSequences(
         final T holder,
-        final AtomicReferenceFieldUpdater<T, Sequence[]> updater,
+        final AtomicReferenceFieldUpdater<T, S[]> updater,
         final Cursored cursor,
-        final Sequence... sequencesToAdd)
+        final S... sequencesToAdd)
     {
         long cursorSequence;
-        Sequence[] updatedSequences;
-        Sequence[] currentSequences;
+        S[] updatedSequences;
+        S[] currentSequences;
 
         do
         {
@@ -41,7 +44,7 @@ class SequenceGroups
             cursorSequence = cursor.getCursor();
 
             int index = currentSequences.length;
-            for (Sequence sequence : sequencesToAdd)
+            for (S sequence : sequencesToAdd)
             {
                 sequence.set(cursorSequence);
                 updatedSequences[index++] = sequence;
@@ -50,20 +53,55 @@ class SequenceGroups
         while (!updater.compareAndSet(holder, currentSequences, updatedSequences));
 
         cursorSequence = cursor.getCursor();
-        for (Sequence sequence : sequencesToAdd)
+        for (S sequence : sequencesToAdd)
         {
             sequence.set(cursorSequence);
         }
     }
 
-    static <T> boolean removeSequence(
+    static <T, S extends AbstractSequence> boolean tryAddSequence(
+        final T holder,
+        final AtomicReferenceFieldUpdater<T, S[]> updater,
+        final Cursored cursor,
+        final S sequenceToAdd)
+    {
+        final long value = sequenceToAdd.get();
+        S[] updatedSequences;
+        S[] currentSequences;
+
+        do
+        {
+            currentSequences = updater.get(holder);
+            if (value < Util.getMinimumSequence(currentSequences, cursor.getCursor()))
+            {
+                return false;
+            }
+
+            updatedSequences = copyOf(currentSequences, currentSequences.length + 1);
+            updatedSequences[currentSequences.length] = sequenceToAdd;
+        }
+        while (!updater.compareAndSet(holder, currentSequences, updatedSequences));
+
+        // A publisher may have cached a minimum read before the sequence was added, which is no later than the
+        // minimum of the other sequences now.  If that is still no later than the value the cache cannot let a
+        // publisher overwrite the events after it.
+        if (value < Util.getMinimumSequence(currentSequences, cursor.getCursor()))
+        {
+            removeSequence(holder, updater, sequenceToAdd);
+            return false;
+        }
+
+        return true;
+    }
+
+    static <T, S extends AbstractSequence> boolean removeSequence(
         final T holder,
-        final AtomicReferenceFieldUpdater<T, Sequence[]> sequenceUpdater,
-        final Sequence sequence)
+        final AtomicReferenceFieldUpdater<T, S[]> sequenceUpdater,
+        final AbstractSequence sequence)
     {
         int numToRemove;
-        Sequence[] oldSequences;
-        Sequence[] newSequences;
+        S[] oldSequences;
+        S[] newSequences;
 
         do
         {
@@ -77,11 +115,11 @@ class SequenceGroups
             }
 
             final int oldSize = oldSequences.length;
-            newSequences = new Sequence[oldSize - numToRemove];
+            newSequences = copyOf(oldSequences, oldSize - numToRemove);
 
             for (int i = 0, pos = 0; i < oldSize; i++)
             {
-                final Sequence testSequence = oldSequences[i];
+                final S testSequence = oldSequences[i];
                 if (sequence != testSequence)
                 {
                     newSequences[pos++] = testSequence;
@@ -93,10 +131,10 @@ class SequenceGroups
         return numToRemove != 0;
     }
 
-    private static <T> int countMatching(final T[] values, final T toMatch)
+    private static int countMatching(final Object[] values, final Object toMatch)
     {
         int numToRemove = 0;
-        for (T value : values)
+        for (Object value : values)
         {
             if (value == toMatch) // Specifically uses identity
             {
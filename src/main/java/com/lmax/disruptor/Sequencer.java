@@ -35,6 +35,17 @@ public interface Sequencer extends Cursored, Sequenced
      */
     void claim(long sequence);
 
+    /**
+     * Return the sequencer to its initial state, with the cursor at {@link #INITIAL_CURSOR_VALUE} and no sequence
+     * published, so that it can be used from the start again, e.g. after a warm up.  This must only be called
+     * while no producer or consumer is using the sequencer.
+     */
+    default void reset()
+    {
+        claim(INITIAL_CURSOR_VALUE);
+        publish(INITIAL_CURSOR_VALUE);
+    }
+
     /**
      * Confirms if a sequence is published and the event is available for use; non-blocking.
      * 判断一个序列是否被发布，并且发布到序列上的事件是可处理的。非阻塞方法
@@ -51,6 +62,22 @@ public interface Sequencer extends Cursored, Sequenced
      */
     void addGatingSequences(Sequence... gatingSequences);
 
+    /**
+     * Add a gating sequence at its current value, rather than moving it to the cursor, so that a consumer added
+     * while events are being published can resume from an earlier sequence.  This is only safe while the events
+     * after that value cannot yet have been overwritten, so the sequence is only added if its value is no
+     * earlier than every existing gating sequence, checked again once it has been added.  The default
+     * implementation, for sequencers that cannot add a sequence without moving it, is unsupported.
+     *
+     * @param gatingSequence The sequence to add, holding the last sequence its consumer has processed.
+     * @return <code>true</code> if the sequence was added, <code>false</code> if it is too far behind.
+     * @throws UnsupportedOperationException if the sequencer cannot add a sequence at its current value.
+     */
+    default boolean tryAddGatingSequence(Sequence gatingSequence)
+    {
+        throw new UnsupportedOperationException("tryAddGatingSequence is not supported by " + getClass().getName());
+    }
+
     /**
      * Remove the specified sequence from this sequencer.
      * 移除控制序列
@@ -69,6 +96,34 @@ public interface Sequencer extends Cursored, Sequenced
      */
     SequenceBarrier newBarrier(Sequence... sequencesToTrack);
 
+    /**
+     * Create a new SequenceBarrier that waits using its own {@link WaitStrategy} rather than the one this
+     * sequencer was constructed with, allowing e.g. a latency critical {@link EventProcessor} to busy spin
+     * while others on the same ring buffer block.  Publishing will signal this wait strategy in addition to
+     * the sequencer's own when it may have blocked waiters.  The default implementation, for sequencers that
+     * cannot signal other wait strategies, ignores <code>waitStrategy</code> and waits with the sequencer's own.
+     * 基于给定的等待策略和追踪序列创建一个序列栅栏
+     * @param waitStrategy     The wait strategy used by the newly constructed barrier.
+     * @param sequencesToTrack All of the sequences that the newly constructed barrier will wait on.
+     * @return A sequence barrier that will track the specified sequences.
+     * @see SequenceBarrier
+     */
+    default SequenceBarrier newBarrier(WaitStrategy waitStrategy, Sequence... sequencesToTrack)
+    {
+        return newBarrier(sequencesToTrack);
+    }
+
+    /**
+     * Release a barrier created by {@link #newBarrier(WaitStrategy, Sequence...)} once no processor waits on
+     * it any more, so that publishing stops signalling its wait strategy.  Each barrier must only be released
+     * once.  The default implementation does nothing, matching the default {@link #newBarrier(WaitStrategy, Sequence...)}.
+     *
+     * @param barrier the barrier that is no longer used.
+     */
+    default void releaseBarrier(SequenceBarrier barrier)
+    {
+    }
+
     /**
      * Get the minimum sequence value from all of the gating sequences
      * added to this ringBuffer.
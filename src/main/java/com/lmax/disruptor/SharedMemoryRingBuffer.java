@@ -0,0 +1,442 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Ring buffer of fixed size entries that producers and consumers in different processes on the same host share
+ * by mapping the same file, for example a file under <code>/dev/shm</code>.  The sequencer's cursor, its
+ * availability buffer, a sequence for each consumer and the entries themselves all live in the file, so
+ * publishing and consuming work as they do for a multi producer {@link OffHeapRingBuffer}, whichever process
+ * each producer and consumer is in.
+ *
+ * <p>Each process opens the ring buffer with the same sizes, and the first to open it initialises the file.
+ * Consumers are identified by an index fixed when the file is created; their sequences gate every producer,
+ * and a consumer that is restarted resumes after the last entry it processed.
+ *
+ * <p>Publishing can only signal a {@link WaitStrategy} in the publishing process, so the ring buffer must be
+ * opened with a strategy that does not depend on being signalled: {@link BusySpinWaitStrategy},
+ * {@link YieldingWaitStrategy} or {@link SleepingWaitStrategy}.
+ *
+ * <pre><code>
+ * // gateway process
+ * SharedMemoryRingBuffer ringBuffer = SharedMemoryRingBuffer.open(
+ *     Paths.get("/dev/shm/orders"), 1024, 64, 1, new YieldingWaitStrategy());
+ * ringBuffer.publishEvent((entry, sequence, price) -&gt; entry.putLong(price), price);
+ *
+ * // matching engine process
+ * SharedMemoryRingBuffer ringBuffer = SharedMemoryRingBuffer.open(
+ *     Paths.get("/dev/shm/orders"), 1024, 64, 1, new YieldingWaitStrategy());
+ * new Thread(ringBuffer.newEventProcessor(0, handler)).start();
+ * </code></pre>
+ */
+public final class SharedMemoryRingBuffer implements Cursored, EventSequencer<ByteBuffer>
+{
+    private static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private static final int MAGIC = 0x4C4D5853;
+    private static final int VERSION = 1;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int BUFFER_SIZE_OFFSET = 8;
+    private static final int ENTRY_SIZE_OFFSET = 12;
+    private static final int CONSUMERS_OFFSET = 16;
+    private static final int CURSOR_OFFSET = 128;
+    private static final int SEQUENCES_OFFSET = 256;
+    private static final int SEQUENCE_STRIDE = 128;
+    private static final int PAGE_SIZE = 4096;
+
+    private final Sequencer sequencer;
+    private final MappedSequence[] consumerSequences;
+    private final int entrySize;
+    private final int dataOffset;
+    private final int indexMask;
+    private final ThreadLocal<ByteBuffer> views;
+
+    SharedMemoryRingBuffer(
+        final MappedByteBuffer mapping,
+        final int bufferSize,
+        final int entrySize,
+        final int consumers,
+        final WaitStrategy waitStrategy)
+    {
+        final boolean initialised = (int) INT_VIEW.getAcquire(mapping, MAGIC_OFFSET) == MAGIC;
+        if (initialised)
+        {
+            checkHeader(mapping, bufferSize, entrySize, consumers);
+        }
+
+        final MappedSequence cursor = new MappedSequence(mapping, CURSOR_OFFSET);
+        this.consumerSequences = new MappedSequence[consumers];
+        for (int i = 0; i < consumers; i++)
+        {
+            consumerSequences[i] = new MappedSequence(mapping, SEQUENCES_OFFSET + i * SEQUENCE_STRIDE);
+        }
+
+        final int availableOffset = availableOffset(consumers);
+        if (!initialised)
+        {
+            cursor.set(Sequencer.INITIAL_CURSOR_VALUE);
+            for (final MappedSequence consumerSequence : consumerSequences)
+            {
+                consumerSequence.set(Sequencer.INITIAL_CURSOR_VALUE);
+            }
+            SharedMemorySequencer.initialise(mapping, availableOffset, bufferSize);
+
+            mapping.putInt(VERSION_OFFSET, VERSION);
+            mapping.putInt(BUFFER_SIZE_OFFSET, bufferSize);
+            mapping.putInt(ENTRY_SIZE_OFFSET, entrySize);
+            mapping.putInt(CONSUMERS_OFFSET, consumers);
+            INT_VIEW.setRelease(mapping, MAGIC_OFFSET, MAGIC);
+        }
+
+        this.sequencer = new SharedMemorySequencer(bufferSize, waitStrategy, cursor, consumerSequences, mapping, availableOffset);
+        this.entrySize = entrySize;
+        this.dataOffset = dataOffset(bufferSize, consumers);
+        this.indexMask = bufferSize - 1;
+        this.views = ThreadLocal.withInitial(() -> mapping.duplicate().order(ByteOrder.nativeOrder()));
+    }
+
+    /**
+     * Open a SharedMemoryRingBuffer backed by <code>file</code>, creating and initialising the file if it does not
+     * exist or has not yet been initialised.
+     *
+     * @param file         shared by the processes using the ring buffer.
+     * @param bufferSize   number of entries in the ring buffer.
+     * @param entrySize    size in bytes of each entry.
+     * @param consumers    number of consumers, each with a sequence in the file.
+     * @param waitStrategy used by consumers in this process to wait for new entries to become available, one that
+     *                     does not block waiting to be signalled.
+     * @return a constructed ring buffer.
+     * @throws IOException if the file could not be opened, locked or mapped.
+     * @throws IllegalArgumentException if the sizes are invalid or do not match an existing file, or the wait
+     *                                  strategy blocks
+     */
+    public static SharedMemoryRingBuffer open(
+        final Path file,
+        final int bufferSize,
+        final int entrySize,
+        final int consumers,
+        final WaitStrategy waitStrategy) throws IOException
+    {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1)
+        {
+            throw new IllegalArgumentException("bufferSize must be a power of 2");
+        }
+        if (entrySize < 1)
+        {
+            throw new IllegalArgumentException("entrySize must not be less than 1");
+        }
+        if (consumers < 1)
+        {
+            throw new IllegalArgumentException("consumers must not be less than 1");
+        }
+        if (AbstractSequencer.requiresSignal(waitStrategy))
+        {
+            throw new IllegalArgumentException("waitStrategy must not block, consumers in other processes cannot signal it");
+        }
+
+        final long length = dataOffset(bufferSize, consumers) + (long) bufferSize * entrySize;
+        if (length > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("ring buffer file must not exceed " + Integer.MAX_VALUE + " bytes");
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock())
+        {
+            final long existingLength = channel.size();
+            if (existingLength != 0 && existingLength != length)
+            {
+                throw new IllegalArgumentException("file " + file + " is " + existingLength + " bytes, expected " + length);
+            }
+
+            final MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            mapping.order(ByteOrder.nativeOrder());
+            return new SharedMemoryRingBuffer(mapping, bufferSize, entrySize, consumers, waitStrategy);
+        }
+    }
+
+    /**
+     * Create a {@link BatchEventProcessor} for a consumer whose progress is tracked in the consumer's sequence in
+     * the file, resuming after the last entry that consumer processed.  At most one processor may be run for
+     * each consumer, across all processes.
+     *
+     * @param consumer         index of the consumer, from 0 to the number of consumers the file was created with.
+     * @param handler          to receive the entries.
+     * @param sequencesToTrack sequences of other consumers this one must follow, if any.
+     * @return the event processor.
+     */
+    public BatchEventProcessor<ByteBuffer> newEventProcessor(
+        final int consumer,
+        final EventHandler<? super ByteBuffer> handler,
+        final Sequence... sequencesToTrack)
+    {
+        return new BatchEventProcessor<>(this, sequencer.newBarrier(sequencesToTrack), handler, getConsumerSequence(consumer));
+    }
+
+    /**
+     * The sequence of a consumer, held in the file, which gates every producer.
+     *
+     * @param consumer index of the consumer, from 0 to the number of consumers the file was created with.
+     * @return the consumer's sequence.
+     */
+    public Sequence getConsumerSequence(final int consumer)
+    {
+        return consumerSequences[consumer];
+    }
+
+    /**
+     * @return the number of consumers with a sequence in the file.
+     */
+    public int getConsumerCount()
+    {
+        return consumerSequences.length;
+    }
+
+    /**
+     * Get the entry for a given sequence, as this thread's view of the ring buffer with its position set to
+     * the start of the entry and its limit to the end of it.
+     *
+     * @param sequence for the entry
+     * @return the view positioned on the entry for the given sequence
+     */
+    @Override
+    public ByteBuffer get(final long sequence)
+    {
+        final int position = dataOffset + (int) (sequence & indexMask) * entrySize;
+
+        final ByteBuffer view = views.get();
+        view.limit(position + entrySize).position(position);
+
+        return view;
+    }
+
+    /**
+     * @return the size in bytes of each entry.
+     */
+    public int getEntrySize()
+    {
+        return entrySize;
+    }
+
+    @Override
+    public int getBufferSize()
+    {
+        return sequencer.getBufferSize();
+    }
+
+    @Override
+    public boolean hasAvailableCapacity(final int requiredCapacity)
+    {
+        return sequencer.hasAvailableCapacity(requiredCapacity);
+    }
+
+    @Override
+    public long remainingCapacity()
+    {
+        return sequencer.remainingCapacity();
+    }
+
+    @Override
+    public long next()
+    {
+        return sequencer.next();
+    }
+
+    @Override
+    public long next(final int n)
+    {
+        return sequencer.next(n);
+    }
+
+    @Override
+    public long tryNext() throws InsufficientCapacityException
+    {
+        return sequencer.tryNext();
+    }
+
+    @Override
+    public long tryNext(final int n) throws InsufficientCapacityException
+    {
+        return sequencer.tryNext(n);
+    }
+
+    @Override
+    public void publish(final long sequence)
+    {
+        sequencer.publish(sequence);
+    }
+
+    @Override
+    public void publish(final long lo, final long hi)
+    {
+        sequencer.publish(lo, hi);
+    }
+
+    @Override
+    public long getCursor()
+    {
+        return sequencer.getCursor();
+    }
+
+    /**
+     * Create a new SequenceBarrier to be used by an EventProcessor to track which entries
+     * are available to be read from the ring buffer given a list of sequences to track.
+     *
+     * @param sequencesToTrack the additional sequences to track
+     * @return A sequence barrier that will track the specified sequences.
+     */
+    public SequenceBarrier newBarrier(final Sequence... sequencesToTrack)
+    {
+        return sequencer.newBarrier(sequencesToTrack);
+    }
+
+    /**
+     * Publish an entry, writing it straight into shared memory with a translator.
+     *
+     * @param translator The user specified translation for the entry
+     */
+    public void publishEvent(final EventTranslator<ByteBuffer> translator)
+    {
+        final long sequence = sequencer.next();
+        translateAndPublish(translator, sequence);
+    }
+
+    /**
+     * Attempts to publish an entry.  Will return false if the required capacity is not available.
+     *
+     * @param translator The user specified translation for the entry
+     * @return true if the value was published, false if there was insufficient capacity.
+     */
+    public boolean tryPublishEvent(final EventTranslator<ByteBuffer> translator)
+    {
+        try
+        {
+            final long sequence = sequencer.tryNext();
+            translateAndPublish(translator, sequence);
+            return true;
+        }
+        catch (final InsufficientCapacityException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Publish an entry, writing it straight into shared memory with a translator that takes one argument.
+     *
+     * @param <A>        Class of the user supplied argument.
+     * @param translator The user specified translation for the entry
+     * @param arg0       A user supplied argument.
+     */
+    public <A> void publishEvent(final EventTranslatorOneArg<ByteBuffer, A> translator, final A arg0)
+    {
+        final long sequence = sequencer.next();
+        try
+        {
+            translator.translateTo(get(sequence), sequence, arg0);
+        }
+        finally
+        {
+            sequencer.publish(sequence);
+        }
+    }
+
+    /**
+     * Copy <code>data</code> into the next entry and publish it.
+     *
+     * @param data   source of the bytes to copy.
+     * @param offset within <code>data</code> of the first byte.
+     * @param length number of bytes to copy, no more than {@link #getEntrySize()}.
+     * @throws IndexOutOfBoundsException if the range is outside <code>data</code> or larger than an entry.
+     */
+    public void put(final byte[] data, final int offset, final int length)
+    {
+        Objects.checkFromIndexSize(offset, length, data.length);
+        if (length > entrySize)
+        {
+            throw new IndexOutOfBoundsException("length " + length + " exceeds entrySize " + entrySize);
+        }
+
+        final long sequence = sequencer.next();
+        try
+        {
+            get(sequence).put(data, offset, length);
+        }
+        finally
+        {
+            sequencer.publish(sequence);
+        }
+    }
+
+    private void translateAndPublish(final EventTranslator<ByteBuffer> translator, final long sequence)
+    {
+        try
+        {
+            translator.translateTo(get(sequence), sequence);
+        }
+        finally
+        {
+            sequencer.publish(sequence);
+        }
+    }
+
+    private static void checkHeader(final ByteBuffer mapping, final int bufferSize, final int entrySize, final int consumers)
+    {
+        if (mapping.getInt(VERSION_OFFSET) != VERSION ||
+            mapping.getInt(BUFFER_SIZE_OFFSET) != bufferSize ||
+            mapping.getInt(ENTRY_SIZE_OFFSET) != entrySize ||
+            mapping.getInt(CONSUMERS_OFFSET) != consumers)
+        {
+            throw new IllegalArgumentException("file was created with version=" + mapping.getInt(VERSION_OFFSET) +
+                ", bufferSize=" + mapping.getInt(BUFFER_SIZE_OFFSET) +
+                ", entrySize=" + mapping.getInt(ENTRY_SIZE_OFFSET) +
+                ", consumers=" + mapping.getInt(CONSUMERS_OFFSET));
+        }
+    }
+
+    private static int availableOffset(final int consumers)
+    {
+        return SEQUENCES_OFFSET + consumers * SEQUENCE_STRIDE;
+    }
+
+    private static int dataOffset(final int bufferSize, final int consumers)
+    {
+        final long headerLength = availableOffset(consumers) + (long) bufferSize * Integer.BYTES;
+        return (int) Math.min((headerLength + PAGE_SIZE - 1) & -PAGE_SIZE, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SharedMemoryRingBuffer{" +
+            "sequencer=" + sequencer +
+            ", entrySize=" + entrySize +
+            '}';
+    }
+}
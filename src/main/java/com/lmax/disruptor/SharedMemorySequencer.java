@@ -0,0 +1,252 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.util.Util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Multi producer sequencer whose cursor, availability buffer and consumer sequences are held in a buffer mapped
+ * from a file, so that producers and consumers in different processes can share it.  The algorithm is that of
+ * {@link MultiProducerSequencer}; only the gating sequence cache is local to each process.
+ *
+ * @see SharedMemoryRingBuffer
+ */
+final class SharedMemorySequencer extends AbstractSequencer
+{
+    private static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final Sequence gatingSequenceCache = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+    private final ByteBuffer buffer;
+    private final int availableOffset;
+    private final int indexMask;
+    private final int indexShift;
+
+    /**
+     * @param bufferSize      the size of the buffer that this will sequence over.
+     * @param waitStrategy    for those waiting on sequences in this process.
+     * @param cursor          held in the shared buffer.
+     * @param gatingSequences held in the shared buffer, one per consumer.
+     * @param buffer          the shared buffer.
+     * @param availableOffset of the availability buffer, an int per entry, within the shared buffer.
+     */
+    SharedMemorySequencer(
+        final int bufferSize,
+        final WaitStrategy waitStrategy,
+        final Sequence cursor,
+        final Sequence[] gatingSequences,
+        final ByteBuffer buffer,
+        final int availableOffset)
+    {
+        super(bufferSize, waitStrategy, cursor);
+        this.gatingSequences = Arrays.copyOf(gatingSequences, gatingSequences.length);
+        this.buffer = buffer;
+        this.availableOffset = availableOffset;
+        this.indexMask = bufferSize - 1;
+        this.indexShift = Util.log2(bufferSize);
+    }
+
+    /**
+     * Reset a newly created shared buffer so that no entry is available.
+     *
+     * @param buffer          the shared buffer.
+     * @param availableOffset of the availability buffer within the shared buffer.
+     * @param bufferSize      the size of the buffer that will be sequenced over.
+     */
+    static void initialise(final ByteBuffer buffer, final int availableOffset, final int bufferSize)
+    {
+        for (int i = 0; i < bufferSize; i++)
+        {
+            buffer.putInt(availableOffset + i * Integer.BYTES, -1);
+        }
+    }
+
+    @Override
+    public boolean hasAvailableCapacity(final int requiredCapacity)
+    {
+        return hasAvailableCapacity(gatingSequences, requiredCapacity, cursor.get());
+    }
+
+    private boolean hasAvailableCapacity(final Sequence[] gatingSequences, final int requiredCapacity, final long cursorValue)
+    {
+        long wrapPoint = (cursorValue + requiredCapacity) - bufferSize;
+        long cachedGatingSequence = gatingSequenceCache.get();
+
+        if (wrapPoint > cachedGatingSequence || cachedGatingSequence > cursorValue)
+        {
+            long minSequence = Util.getMinimumSequence(gatingSequences, cursorValue);
+            gatingSequenceCache.set(minSequence);
+            if (wrapPoint > minSequence)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public void claim(final long sequence)
+    {
+        cursor.set(sequence);
+    }
+
+    @Override
+    public void reset()
+    {
+        initialise(buffer, availableOffset, bufferSize);
+        cursor.set(INITIAL_CURSOR_VALUE);
+    }
+
+    @Override
+    public long next()
+    {
+        return next(1);
+    }
+
+    @Override
+    public long next(final int n)
+    {
+        if (n < 1 || n > bufferSize)
+        {
+            throw new IllegalArgumentException("n must be > 0 and < bufferSize");
+        }
+        long current = cursor.getAndAdd(n);
+        long nextSequence = current + n;
+        long wrapPoint = nextSequence - bufferSize;
+        long cachedGatingSequence = gatingSequenceCache.get();
+        if (wrapPoint > cachedGatingSequence || cachedGatingSequence > current)
+        {
+            long gatingSequence;
+            while (wrapPoint > (gatingSequence = Util.getMinimumSequence(gatingSequences, current)))
+            {
+                LockSupport.parkNanos(1L);
+            }
+            gatingSequenceCache.set(gatingSequence);
+        }
+
+        return nextSequence;
+    }
+
+    @Override
+    public long tryNext() throws InsufficientCapacityException
+    {
+        return tryNext(1);
+    }
+
+    @Override
+    public long tryNext(final int n) throws InsufficientCapacityException
+    {
+        if (n < 1)
+        {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+
+        long current;
+        long next;
+
+        do
+        {
+            current = cursor.get();
+            next = current + n;
+            if (!hasAvailableCapacity(gatingSequences, n, current))
+            {
+                throw InsufficientCapacityException.INSTANCE;
+            }
+        }
+        while (!cursor.compareAndSet(current, next));
+
+        return next;
+    }
+
+    @Override
+    public long remainingCapacity()
+    {
+        long consumed = Util.getMinimumSequence(gatingSequences, cursor.get());
+        long produced = cursor.get();
+        return getBufferSize() - (produced - consumed);
+    }
+
+    @Override
+    public void publish(final long sequence)
+    {
+        setAvailable(sequence);
+        signalAllWhenBlocking();
+    }
+
+    @Override
+    public void publish(final long lo, final long hi)
+    {
+        for (long l = lo; l <= hi; l++)
+        {
+            setAvailable(l);
+        }
+        signalAllWhenBlocking();
+    }
+
+    private void setAvailable(final long sequence)
+    {
+        INT_VIEW.setRelease(buffer, availableIndex(sequence), calculateAvailabilityFlag(sequence));
+    }
+
+    @Override
+    public boolean isAvailable(final long sequence)
+    {
+        return (int) INT_VIEW.getAcquire(buffer, availableIndex(sequence)) == calculateAvailabilityFlag(sequence);
+    }
+
+    @Override
+    public long getHighestPublishedSequence(final long lowerBound, final long availableSequence)
+    {
+        for (long sequence = lowerBound; sequence <= availableSequence; sequence++)
+        {
+            if (!isAvailable(sequence))
+            {
+                return sequence - 1;
+            }
+        }
+
+        return availableSequence;
+    }
+
+    private int calculateAvailabilityFlag(final long sequence)
+    {
+        return (int) (sequence >>> indexShift);
+    }
+
+    private int availableIndex(final long sequence)
+    {
+        return availableOffset + (((int) sequence) & indexMask) * Integer.BYTES;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SharedMemorySequencer{" +
+                "bufferSize=" + bufferSize +
+                ", waitStrategy=" + waitStrategy +
+                ", cursor=" + cursor +
+                ", gatingSequences=" + Arrays.toString(gatingSequences) +
+                '}';
+    }
+}
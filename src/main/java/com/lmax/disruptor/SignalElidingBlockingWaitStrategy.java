@@ -0,0 +1,121 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Variation of the {@link BlockingWaitStrategy} that makes the publish path close to free when no
+ * {@link EventProcessor} is parked.
+ *
+ * <p>Waiters register themselves in a sleeper count before re-checking the cursor and parking.  Publishers
+ * pay for a single fence and a read of that count, which stays shared in every producer's cache while
+ * consumers are running, and only take the lock when a sleeper is actually present.  Unlike the
+ * {@link LiteBlockingWaitStrategy} there is no read-modify-write on a shared flag for every published
+ * event, which matters when several producers publish through a {@link MultiProducerSequencer}.
+ *
+ * <p>Missed wake-ups are prevented by ordering: a waiter increments the count before its final check of
+ * the cursor, and a publisher advances the cursor before it reads the count, so at least one of them
+ * observes the other.
+ */
+public final class SignalElidingBlockingWaitStrategy implements WaitStrategy
+{
+    private static final VarHandle SLEEPERS;
+
+    static
+    {
+        try
+        {
+            SLEEPERS = MethodHandles.lookup().findVarHandle(SignalElidingBlockingWaitStrategy.class, "sleepers", int.class);
+        }
+        catch (final Exception e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private final Object mutex = new Object();
+    private volatile int sleepers = 0;
+
+    @Override
+    public long waitFor(final long sequence, final Sequence cursorSequence, final Sequence dependentSequence, final SequenceBarrier barrier)
+        throws AlertException, InterruptedException
+    {
+        long availableSequence;
+        if (cursorSequence.get() < sequence)
+        {
+            synchronized (mutex)
+            {
+                SLEEPERS.getAndAdd(this, 1);
+                try
+                {
+                    while (cursorSequence.get() < sequence)
+                    {
+                        barrier.checkAlert();
+                        InstrumentedWaitStrategy.notifyPark(barrier);
+                        mutex.wait();
+                    }
+                }
+                finally
+                {
+                    SLEEPERS.getAndAdd(this, -1);
+                }
+            }
+        }
+
+        while ((availableSequence = dependentSequence.get()) < sequence)
+        {
+            barrier.checkAlert();
+            Thread.onSpinWait();
+        }
+
+        return availableSequence;
+    }
+
+    @Override
+    public void signalAllWhenBlocking()
+    {
+        // StoreLoad: the cursor (or alert) write must be visible before we look for sleepers.
+        VarHandle.fullFence();
+        if (sleepers != 0)
+        {
+            synchronized (mutex)
+            {
+                mutex.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Check whether any {@link EventProcessor} is currently parked on this strategy.
+     *
+     * @return <code>true</code> if at least one waiter is parked or about to park.
+     */
+    public boolean hasSleepers()
+    {
+        return sleepers != 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SignalElidingBlockingWaitStrategy{" +
+            "mutex=" + mutex +
+            ", sleepers=" + sleepers +
+            '}';
+    }
+}
@@ -245,7 +245,7 @@ public final class SingleProducerSequencer extends SingleProducerSequencerFields
     public void publish(final long sequence)
     {
         cursor.set(sequence);
-        waitStrategy.signalAllWhenBlocking();
+        signalAllWhenBlocking();
     }
 
     /**
@@ -96,11 +96,13 @@ public final class SleepingWaitStrategy implements WaitStrategy
         }
         else if (counter > 0)
         {
+            InstrumentedWaitStrategy.notifyYield(barrier);
             Thread.yield();
             return counter - 1;
         }
         else
         {
+            InstrumentedWaitStrategy.notifyPark(barrier);
             LockSupport.parkNanos(sleepTimeNs);
         }
 
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * {@link WaitStrategy} that delegates to another strategy which can be replaced while the Disruptor is
+ * running, e.g. busy spin while latency matters and blocking when CPU should be given back.
+ *
+ * <pre><code>
+ * SwitchableWaitStrategy waitStrategy = new SwitchableWaitStrategy(new BusySpinWaitStrategy());
+ * Disruptor&lt;Event&gt; disruptor = new Disruptor&lt;&gt;(factory, size, threadFactory, ProducerType.MULTI, waitStrategy);
+ * ...
+ * waitStrategy.switchTo(new BlockingWaitStrategy());
+ * </code></pre>
+ *
+ * <p>Threads already waiting in the previous strategy migrate to the new one: they see the switch the next
+ * time the previous strategy checks the barrier for an alert, and the previous strategy is signalled after the
+ * switch so that blocked waiters wake up to do so.  Every wait strategy shipped with the Disruptor checks the
+ * barrier on each pass of its wait loop; custom strategies must do the same to migrate promptly.
+ */
+public final class SwitchableWaitStrategy implements WaitStrategy
+{
+    private final ThreadLocal<MigratingBarrier> barriers = ThreadLocal.withInitial(MigratingBarrier::new);
+    private volatile WaitStrategy delegate;
+
+    /**
+     * @param initialStrategy the wait strategy to use until {@link #switchTo(WaitStrategy)} is called.
+     */
+    public SwitchableWaitStrategy(final WaitStrategy initialStrategy)
+    {
+        if (null == initialStrategy)
+        {
+            throw new NullPointerException("initialStrategy");
+        }
+        this.delegate = initialStrategy;
+    }
+
+    /**
+     * Switch to a different wait strategy.  Waiting threads are moved to <code>waitStrategy</code> without being
+     * restarted and without missing any signal.
+     *
+     * @param waitStrategy the wait strategy to use from now on.
+     */
+    public void switchTo(final WaitStrategy waitStrategy)
+    {
+        if (null == waitStrategy)
+        {
+            throw new NullPointerException("waitStrategy");
+        }
+
+        final WaitStrategy previous = delegate;
+        delegate = waitStrategy;
+        previous.signalAllWhenBlocking();
+    }
+
+    /**
+     * @return the wait strategy currently in use.
+     */
+    public WaitStrategy getCurrentStrategy()
+    {
+        return delegate;
+    }
+
+    @Override
+    public long waitFor(final long sequence, final Sequence cursor, final Sequence dependentSequence, final SequenceBarrier barrier)
+        throws AlertException, InterruptedException, TimeoutException
+    {
+        final MigratingBarrier migratingBarrier = barriers.get();
+        try
+        {
+            while (true)
+            {
+                final WaitStrategy waitStrategy = delegate;
+                migratingBarrier.begin(barrier, waitStrategy);
+                try
+                {
+                    return waitStrategy.waitFor(sequence, cursor, dependentSequence, migratingBarrier);
+                }
+                catch (final AlertException e)
+                {
+                    if (!migratingBarrier.switched)
+                    {
+                        throw e;
+                    }
+                }
+            }
+        }
+        finally
+        {
+            migratingBarrier.end();
+        }
+    }
+
+    @Override
+    public void signalAllWhenBlocking()
+    {
+        // order the publisher's store to the cursor before the read of the strategy, or a waiter that has just
+        // moved to a blocking strategy could miss the cursor and the publisher signal the strategy it left
+        VarHandle.fullFence();
+        delegate.signalAllWhenBlocking();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SwitchableWaitStrategy{" +
+            "delegate=" + delegate +
+            '}';
+    }
+
+    /**
+     * Per thread stand-in for the real barrier that raises an alert once the strategy it was issued for
+     * is no longer current.
+     */
+    private final class MigratingBarrier implements SequenceBarrier
+    {
+        private SequenceBarrier barrier;
+        private WaitStrategy waitStrategy;
+        private boolean switched;
+
+        void begin(final SequenceBarrier barrier, final WaitStrategy waitStrategy)
+        {
+            this.barrier = barrier;
+            this.waitStrategy = waitStrategy;
+            switched = false;
+        }
+
+        void end()
+        {
+            barrier = null;
+            waitStrategy = null;
+        }
+
+        @Override
+        public long waitFor(final long sequence) throws AlertException, InterruptedException, TimeoutException
+        {
+            return barrier.waitFor(sequence);
+        }
+
+        @Override
+        public long getCursor()
+        {
+            return barrier.getCursor();
+        }
+
+        @Override
+        public boolean isAlerted()
+        {
+            return barrier.isAlerted();
+        }
+
+        @Override
+        public void alert()
+        {
+            barrier.alert();
+        }
+
+        @Override
+        public void clearAlert()
+        {
+            barrier.clearAlert();
+        }
+
+        @Override
+        public void checkAlert() throws AlertException
+        {
+            barrier.checkAlert();
+            if (waitStrategy != delegate)
+            {
+                switched = true;
+                throw AlertException.INSTANCE;
+            }
+        }
+    }
+}
@@ -46,6 +46,7 @@ public class TimeoutBlockingWaitStrategy implements WaitStrategy
                 while (cursorSequence.get() < sequence)
                 {
                     barrier.checkAlert();
+                    InstrumentedWaitStrategy.notifyPark(barrier);
                     timeoutNanos = awaitNanos(mutex, timeoutNanos);
                     if (timeoutNanos <= 0)
                     {
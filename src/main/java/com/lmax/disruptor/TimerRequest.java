@@ -0,0 +1,137 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event published to the request ring buffer of a {@link TimerWheel} to schedule or cancel a timer.
+ *
+ * <p>Requests are usually published with {@link #schedule(RingBuffer, long, long, TimeUnit)} and
+ * {@link #cancel(RingBuffer, long)}, which claim and fill the preallocated event directly so that scheduling and
+ * cancelling a timer allocates nothing.
+ */
+public final class TimerRequest
+{
+    /**
+     * Factory for the request ring buffer of a {@link TimerWheel}.
+     */
+    public static final EventFactory<TimerRequest> FACTORY = TimerRequest::new;
+
+    private boolean cancel;
+    private long timerId;
+    private long deadlineNanos;
+
+    /**
+     * Publish a request to schedule a timer, replacing any timer already scheduled with the same id.
+     *
+     * @param ringBuffer the timer wheel consumes requests from.
+     * @param timerId    chosen by the caller to identify the timer when it expires or is cancelled.
+     * @param delay      after which the timer expires, measured from now.
+     * @param unit       of the delay.
+     */
+    public static void schedule(final RingBuffer<TimerRequest> ringBuffer, final long timerId, final long delay, final TimeUnit unit)
+    {
+        scheduleAt(ringBuffer, timerId, System.nanoTime() + unit.toNanos(delay));
+    }
+
+    /**
+     * Publish a request to schedule a timer at a deadline, replacing any timer already scheduled with the same id.
+     *
+     * @param ringBuffer    the timer wheel consumes requests from.
+     * @param timerId       chosen by the caller to identify the timer when it expires or is cancelled.
+     * @param deadlineNanos at which the timer expires, on the timer wheel's clock, {@link System#nanoTime()} by default.
+     */
+    public static void scheduleAt(final RingBuffer<TimerRequest> ringBuffer, final long timerId, final long deadlineNanos)
+    {
+        final long sequence = ringBuffer.next();
+        try
+        {
+            ringBuffer.get(sequence).set(false, timerId, deadlineNanos);
+        }
+        finally
+        {
+            ringBuffer.publish(sequence);
+        }
+    }
+
+    /**
+     * Publish a request to cancel a timer.  Cancelling a timer that has expired or was never scheduled has no effect.
+     *
+     * @param ringBuffer the timer wheel consumes requests from.
+     * @param timerId    of the timer to cancel.
+     */
+    public static void cancel(final RingBuffer<TimerRequest> ringBuffer, final long timerId)
+    {
+        final long sequence = ringBuffer.next();
+        try
+        {
+            ringBuffer.get(sequence).set(true, timerId, 0L);
+        }
+        finally
+        {
+            ringBuffer.publish(sequence);
+        }
+    }
+
+    /**
+     * Set the content of this request.
+     *
+     * @param cancel        true to cancel the timer, false to schedule it.
+     * @param timerId       of the timer.
+     * @param deadlineNanos at which the timer expires, ignored when cancelling.
+     */
+    public void set(final boolean cancel, final long timerId, final long deadlineNanos)
+    {
+        this.cancel = cancel;
+        this.timerId = timerId;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * @return true if this request cancels a timer, false if it schedules one.
+     */
+    public boolean isCancel()
+    {
+        return cancel;
+    }
+
+    /**
+     * @return the id of the timer.
+     */
+    public long getTimerId()
+    {
+        return timerId;
+    }
+
+    /**
+     * @return the deadline of the timer being scheduled.
+     */
+    public long getDeadlineNanos()
+    {
+        return deadlineNanos;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TimerRequest{" +
+            "cancel=" + cancel +
+            ", timerId=" + timerId +
+            ", deadlineNanos=" + deadlineNanos +
+            '}';
+    }
+}
@@ -0,0 +1,417 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A hashed timer wheel owned by the processor thread of a ring buffer of {@link TimerRequest}s.  Timers are
+ * scheduled and cancelled by publishing requests, and each timer that expires is published as an event into a
+ * target ring buffer.
+ *
+ * <p>Timers live in preallocated arrays, linked into the bucket of the tick at which they expire, and are found
+ * by id through an open addressing table, so neither scheduling, cancelling nor expiring a timer allocates and
+ * only the request ring buffer is contended.  A timer expires on the first tick at or after its deadline, so it
+ * may fire up to one tick duration late.
+ *
+ * <p>The wheel advances at the end of every batch of requests and whenever the processor's wait times out, so
+ * the request ring buffer should be consumed with a wait strategy that times out about once per tick, such as
+ * {@link LiteTimeoutBlockingWaitStrategy}:
+ *
+ * <pre><code>
+ * RingBuffer&lt;TimerRequest&gt; requests = RingBuffer.createMultiProducer(
+ *     TimerRequest.FACTORY, 1024, new LiteTimeoutBlockingWaitStrategy(1, TimeUnit.MILLISECONDS));
+ * TimerWheel&lt;Expiry&gt; wheel = new TimerWheel&lt;&gt;(
+ *     expiries, (event, sequence, timerId, deadline) -&gt; event.set(timerId), 1, TimeUnit.MILLISECONDS, 512, 1 &lt;&lt; 20);
+ * BatchEventProcessor&lt;TimerRequest&gt; processor = new BatchEventProcessor&lt;&gt;(requests, requests.newBarrier(), wheel);
+ *
+ * TimerRequest.schedule(requests, orderId, 30, TimeUnit.SECONDS);
+ * </code></pre>
+ *
+ * @param <E> type of the events expired timers are published as.
+ */
+public final class TimerWheel<E> implements EventHandler<TimerRequest>
+{
+    /**
+     * Copies an expired timer into the event it is published as.
+     *
+     * @param <E> type of the events expired timers are published as.
+     */
+    @FunctionalInterface
+    public interface ExpiryTranslator<E>
+    {
+        /**
+         * Translate an expired timer into an event of the target ring buffer.
+         *
+         * @param event         into which the timer is translated.
+         * @param sequence      that is assigned to the event.
+         * @param timerId       of the expired timer.
+         * @param deadlineNanos that the timer was scheduled for.
+         */
+        void translateTo(E event, long sequence, long timerId, long deadlineNanos);
+    }
+
+    private static final int NONE = -1;
+    private static final int MAX_CAPACITY = 1 << 29;
+    private static final int TABLE_SIZE_SHIFT = 2;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final RingBuffer<E> target;
+    private final ExpiryTranslator<E> translator;
+    private final LongSupplier clock;
+    private final long tickNanos;
+    private final long startNanos;
+    private final int wheelMask;
+    private final int[] bucketHeads;
+
+    private final long[] timerIds;
+    private final long[] deadlines;
+    private final int[] nextTimers;
+    private final int[] previousTimers;
+    private final int[] timerBuckets;
+    private int freeHead;
+    private int timerCount;
+
+    private final long[] tableKeys;
+    private final int[] tableTimers;
+    private final int tableMask;
+
+    private long currentTick;
+
+    /**
+     * Create a timer wheel on the {@link System#nanoTime()} clock.
+     *
+     * @param target        ring buffer expired timers are published to.
+     * @param translator    copies each expired timer into its event.
+     * @param tickDuration  resolution of the wheel.
+     * @param unit          of the tick duration.
+     * @param ticksPerWheel number of buckets, must be a power of 2.
+     * @param capacity      maximum number of timers scheduled at once.
+     */
+    public TimerWheel(
+        final RingBuffer<E> target,
+        final ExpiryTranslator<E> translator,
+        final long tickDuration,
+        final TimeUnit unit,
+        final int ticksPerWheel,
+        final int capacity)
+    {
+        this(target, translator, tickDuration, unit, ticksPerWheel, capacity, System::nanoTime);
+    }
+
+    /**
+     * Create a timer wheel.
+     *
+     * @param target        ring buffer expired timers are published to.
+     * @param translator    copies each expired timer into its event.
+     * @param tickDuration  resolution of the wheel.
+     * @param unit          of the tick duration.
+     * @param ticksPerWheel number of buckets, must be a power of 2.
+     * @param capacity      maximum number of timers scheduled at once.
+     * @param clock         source of the current time in nanoseconds, against which deadlines are measured.
+     * @throws IllegalArgumentException if the tick duration or capacity is less than 1 or ticksPerWheel is not a power of 2
+     */
+    public TimerWheel(
+        final RingBuffer<E> target,
+        final ExpiryTranslator<E> translator,
+        final long tickDuration,
+        final TimeUnit unit,
+        final int ticksPerWheel,
+        final int capacity,
+        final LongSupplier clock)
+    {
+        if (Integer.bitCount(ticksPerWheel) != 1)
+        {
+            throw new IllegalArgumentException("ticksPerWheel must be a power of 2");
+        }
+        if (capacity < 1 || capacity > MAX_CAPACITY)
+        {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^29");
+        }
+
+        this.target = Objects.requireNonNull(target);
+        this.translator = Objects.requireNonNull(translator);
+        this.clock = Objects.requireNonNull(clock);
+        this.tickNanos = unit.toNanos(tickDuration);
+        if (tickNanos < 1)
+        {
+            throw new IllegalArgumentException("tickDuration must be at least 1 nanosecond");
+        }
+        this.startNanos = clock.getAsLong();
+        this.wheelMask = ticksPerWheel - 1;
+        this.bucketHeads = new int[ticksPerWheel];
+        Arrays.fill(bucketHeads, NONE);
+
+        this.timerIds = new long[capacity];
+        this.deadlines = new long[capacity];
+        this.nextTimers = new int[capacity];
+        this.previousTimers = new int[capacity];
+        this.timerBuckets = new int[capacity];
+        for (int i = 0; i < capacity; i++)
+        {
+            nextTimers[i] = i + 1 < capacity ? i + 1 : NONE;
+        }
+        this.freeHead = 0;
+
+        final int tableSize = Integer.highestOneBit(capacity) << TABLE_SIZE_SHIFT;
+        this.tableKeys = new long[tableSize];
+        this.tableTimers = new int[tableSize];
+        this.tableMask = tableSize - 1;
+        Arrays.fill(tableTimers, NONE);
+    }
+
+    @Override
+    public void onEvent(final TimerRequest request, final long sequence, final boolean endOfBatch)
+    {
+        if (request.isCancel())
+        {
+            cancel(request.getTimerId());
+        }
+        else
+        {
+            schedule(request.getTimerId(), request.getDeadlineNanos());
+        }
+
+        if (endOfBatch)
+        {
+            expireTimers(clock.getAsLong());
+        }
+    }
+
+    @Override
+    public void onTimeout(final long sequence)
+    {
+        expireTimers(clock.getAsLong());
+    }
+
+    /**
+     * Schedule a timer, replacing any timer already scheduled with the same id.  Must only be called on the
+     * processor thread; other threads publish a {@link TimerRequest}.
+     *
+     * @param timerId       of the timer.
+     * @param deadlineNanos at which the timer expires.
+     * @throws IllegalStateException if the wheel is at capacity
+     */
+    public void schedule(final long timerId, final long deadlineNanos)
+    {
+        cancel(timerId);
+        if (freeHead == NONE)
+        {
+            throw new IllegalStateException("Timer wheel is full, capacity " + timerIds.length);
+        }
+
+        final int timer = freeHead;
+        freeHead = nextTimers[timer];
+        timerIds[timer] = timerId;
+        deadlines[timer] = deadlineNanos;
+        timerCount++;
+
+        final long deadlineTick = Math.max(ceilingTick(deadlineNanos), currentTick);
+        final int bucket = (int) (deadlineTick & wheelMask);
+        final int head = bucketHeads[bucket];
+        timerBuckets[timer] = bucket;
+        previousTimers[timer] = NONE;
+        nextTimers[timer] = head;
+        if (head != NONE)
+        {
+            previousTimers[head] = timer;
+        }
+        bucketHeads[bucket] = timer;
+        tableInsert(timerId, timer);
+    }
+
+    /**
+     * Cancel a timer.  Must only be called on the processor thread; other threads publish a {@link TimerRequest}.
+     *
+     * @param timerId of the timer.
+     * @return true if the timer was scheduled, false if it had already expired or never been scheduled.
+     */
+    public boolean cancel(final long timerId)
+    {
+        final int slot = tableFind(timerId);
+        if (slot == NONE)
+        {
+            return false;
+        }
+
+        final int timer = tableTimers[slot];
+        tableRemove(slot);
+        unlink(timer);
+        return true;
+    }
+
+    /**
+     * Publish every timer whose deadline has passed.  Called by the processor at the end of each batch of
+     * requests and on timeout; must only be called on the processor thread.
+     *
+     * @param nowNanos current time on the wheel's clock.
+     * @return the number of timers that expired.
+     */
+    public int expireTimers(final long nowNanos)
+    {
+        final long targetTick = (nowNanos - startNanos) / tickNanos;
+        if (targetTick < currentTick)
+        {
+            return 0;
+        }
+
+        final long ticks = Math.min(targetTick - currentTick + 1, bucketHeads.length);
+        int expired = 0;
+        for (long tick = currentTick; tick < currentTick + ticks; tick++)
+        {
+            expired += expireBucket((int) (tick & wheelMask), nowNanos);
+        }
+        currentTick = targetTick + 1;
+        return expired;
+    }
+
+    /**
+     * @return the number of timers currently scheduled.
+     */
+    public int getTimerCount()
+    {
+        return timerCount;
+    }
+
+    private int expireBucket(final int bucket, final long nowNanos)
+    {
+        int expired = 0;
+        int timer = bucketHeads[bucket];
+        while (timer != NONE)
+        {
+            final int next = nextTimers[timer];
+            final long deadline = deadlines[timer];
+            if (deadline <= nowNanos)
+            {
+                final long timerId = timerIds[timer];
+                tableRemove(tableFind(timerId));
+                unlink(timer);
+                publishExpiry(timerId, deadline);
+                expired++;
+            }
+            timer = next;
+        }
+        return expired;
+    }
+
+    private void publishExpiry(final long timerId, final long deadline)
+    {
+        final long sequence = target.next();
+        try
+        {
+            translator.translateTo(target.get(sequence), sequence, timerId, deadline);
+        }
+        finally
+        {
+            target.publish(sequence);
+        }
+    }
+
+    private long ceilingTick(final long deadlineNanos)
+    {
+        final long elapsed = deadlineNanos - startNanos;
+        return elapsed <= 0 ? 0 : (elapsed + tickNanos - 1) / tickNanos;
+    }
+
+    private void unlink(final int timer)
+    {
+        final int previous = previousTimers[timer];
+        final int next = nextTimers[timer];
+        if (previous == NONE)
+        {
+            bucketHeads[timerBuckets[timer]] = next;
+        }
+        else
+        {
+            nextTimers[previous] = next;
+        }
+        if (next != NONE)
+        {
+            previousTimers[next] = previous;
+        }
+
+        nextTimers[timer] = freeHead;
+        freeHead = timer;
+        timerCount--;
+    }
+
+    private int tableFind(final long timerId)
+    {
+        int slot = hash(timerId);
+        while (tableTimers[slot] != NONE)
+        {
+            if (tableKeys[slot] == timerId)
+            {
+                return slot;
+            }
+            slot = (slot + 1) & tableMask;
+        }
+        return NONE;
+    }
+
+    private void tableInsert(final long timerId, final int timer)
+    {
+        int slot = hash(timerId);
+        while (tableTimers[slot] != NONE)
+        {
+            slot = (slot + 1) & tableMask;
+        }
+        tableKeys[slot] = timerId;
+        tableTimers[slot] = timer;
+    }
+
+    /**
+     * Remove an entry by shifting back the entries that follow it in its probe sequence, so lookups never need
+     * tombstones.
+     */
+    private void tableRemove(final int removed)
+    {
+        int hole = removed;
+        int slot = (hole + 1) & tableMask;
+        while (tableTimers[slot] != NONE)
+        {
+            final int home = hash(tableKeys[slot]);
+            if (((slot - home) & tableMask) >= ((slot - hole) & tableMask))
+            {
+                tableKeys[hole] = tableKeys[slot];
+                tableTimers[hole] = tableTimers[slot];
+                hole = slot;
+            }
+            slot = (slot + 1) & tableMask;
+        }
+        tableTimers[hole] = NONE;
+    }
+
+    private int hash(final long timerId)
+    {
+        final long h = timerId * HASH_MULTIPLIER;
+        return (int) (h ^ (h >>> Integer.SIZE)) & tableMask;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TimerWheel{" +
+            "tickNanos=" + tickNanos +
+            ", ticksPerWheel=" + bucketHeads.length +
+            ", timers=" + timerCount +
+            ", currentTick=" + currentTick +
+            '}';
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Live counters describing how the {@link EventProcessor}s behind one {@link SequenceBarrier} have been
+ * waiting, as recorded by an {@link InstrumentedWaitStrategy}.
+ *
+ * <p>All counters are updated atomically without allocation and may be read from any thread.  A snapshot
+ * taken while consumers are active is not guaranteed to be consistent across counters.
+ *
+ * <p>Wait times are kept in a base 2 logarithmic histogram: bucket <code>i</code> counts waits that took
+ * at least <code>2^(i-1)</code> and fewer than <code>2^i</code> nanoseconds, bucket 0 counts waits that
+ * returned without any measurable delay.
+ */
+public final class WaitStatistics
+{
+    /**
+     * Number of buckets in the wait time histogram.
+     */
+    public static final int BUCKET_COUNT = Long.SIZE;
+
+    private static final double PERCENT = 100.0;
+    private static final VarHandle COUNTERS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final int WAITS = 0;
+    private static final int SPINS = 1;
+    private static final int YIELDS = 2;
+    private static final int PARKS = 3;
+    private static final int TIMEOUTS = 4;
+    private static final int TOTAL_WAIT_NANOS = 5;
+    private static final int MAX_WAIT_NANOS = 6;
+    private static final int FIRST_BUCKET = 7;
+
+    private final SequenceBarrier barrier;
+    private final long[] counters = new long[FIRST_BUCKET + BUCKET_COUNT];
+
+    WaitStatistics(final SequenceBarrier barrier)
+    {
+        this.barrier = barrier;
+    }
+
+    SequenceBarrier getBarrier()
+    {
+        return barrier;
+    }
+
+    void record(final long waitNanos, final long iterations, final long yields, final long parks, final boolean timedOut)
+    {
+        add(WAITS, 1);
+        add(SPINS, Math.max(0, iterations - yields - parks));
+        add(YIELDS, yields);
+        add(PARKS, parks);
+        add(TOTAL_WAIT_NANOS, waitNanos);
+        if (timedOut)
+        {
+            add(TIMEOUTS, 1);
+        }
+        add(FIRST_BUCKET + bucketFor(waitNanos), 1);
+
+        long max;
+        do
+        {
+            max = get(MAX_WAIT_NANOS);
+        }
+        while (waitNanos > max && !COUNTERS.compareAndSet(counters, MAX_WAIT_NANOS, max, waitNanos));
+    }
+
+    /**
+     * @return the number of calls made to {@link WaitStrategy#waitFor(long, Sequence, Sequence, SequenceBarrier)}.
+     */
+    public long getWaitCount()
+    {
+        return get(WAITS);
+    }
+
+    /**
+     * @return the number of wait loop iterations that neither yielded nor parked.
+     */
+    public long getSpinCount()
+    {
+        return get(SPINS);
+    }
+
+    /**
+     * @return the number of times a waiting thread called {@link Thread#yield()}.
+     */
+    public long getYieldCount()
+    {
+        return get(YIELDS);
+    }
+
+    /**
+     * @return the number of times a waiting thread parked or waited on a monitor.
+     */
+    public long getParkCount()
+    {
+        return get(PARKS);
+    }
+
+    /**
+     * @return the number of waits that ended with a {@link TimeoutException}.
+     */
+    public long getTimeoutCount()
+    {
+        return get(TIMEOUTS);
+    }
+
+    /**
+     * @return the total time, in nanoseconds, spent inside the wait strategy.
+     */
+    public long getTotalWaitNanos()
+    {
+        return get(TOTAL_WAIT_NANOS);
+    }
+
+    /**
+     * @return the longest single wait, in nanoseconds.
+     */
+    public long getMaxWaitNanos()
+    {
+        return get(MAX_WAIT_NANOS);
+    }
+
+    /**
+     * Get the number of waits recorded in one bucket of the wait time histogram.
+     *
+     * @param bucket index of the bucket, from 0 to {@link #BUCKET_COUNT} - 1.
+     * @return the number of waits recorded in that bucket.
+     */
+    public long getBucketCount(final int bucket)
+    {
+        if (bucket < 0 || bucket >= BUCKET_COUNT)
+        {
+            throw new IllegalArgumentException("bucket must be >= 0 and < " + BUCKET_COUNT);
+        }
+        return get(FIRST_BUCKET + bucket);
+    }
+
+    /**
+     * Get an upper bound, in nanoseconds, for the wait time at the given percentile.  The result is
+     * the upper edge of the histogram bucket that holds the percentile, so is accurate to within a factor of 2.
+     *
+     * @param percentile between 0 and 100.
+     * @return upper bound of the wait time at that percentile, or 0 if nothing has been recorded.
+     */
+    public long getWaitNanosAtPercentile(final double percentile)
+    {
+        final long[] buckets = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            buckets[i] = get(FIRST_BUCKET + i);
+            total += buckets[i];
+        }
+
+        final long target = (long) Math.ceil(total * (percentile / PERCENT));
+        long seen = 0;
+        int bucket = 0;
+        while (bucket < BUCKET_COUNT - 1 && (seen += buckets[bucket]) < target)
+        {
+            bucket++;
+        }
+
+        return total == 0 ? 0 : upperBoundOf(bucket);
+    }
+
+    private static int bucketFor(final long nanos)
+    {
+        return nanos <= 0 ? 0 : Long.SIZE - Long.numberOfLeadingZeros(nanos);
+    }
+
+    private static long upperBoundOf(final int bucket)
+    {
+        // For the last bucket this overflows to Long.MAX_VALUE, which is the correct bound.
+        return (1L << bucket) - 1;
+    }
+
+    private void add(final int index, final long delta)
+    {
+        if (delta != 0)
+        {
+            COUNTERS.getAndAdd(counters, index, delta);
+        }
+    }
+
+    private long get(final int index)
+    {
+        return (long) COUNTERS.getVolatile(counters, index);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "WaitStatistics{" +
+            "waits=" + getWaitCount() +
+            ", spins=" + getSpinCount() +
+            ", yields=" + getYieldCount() +
+            ", parks=" + getParkCount() +
+            ", timeouts=" + getTimeoutCount() +
+            ", totalWaitNanos=" + getTotalWaitNanos() +
+            ", maxWaitNanos=" + getMaxWaitNanos() +
+            '}';
+    }
+}
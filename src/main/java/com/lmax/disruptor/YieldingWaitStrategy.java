@@ -56,6 +56,7 @@ public final class YieldingWaitStrategy implements WaitStrategy
 
         if (0 == counter)
         {
+            InstrumentedWaitStrategy.notifyYield(barrier);
             Thread.yield();
         }
         else
@@ -3,6 +3,7 @@ package com.lmax.disruptor.dsl;
 import com.lmax.disruptor.Sequence;
 import com.lmax.disruptor.SequenceBarrier;
 
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadFactory;
 
 interface ConsumerInfo
@@ -19,5 +20,11 @@ interface ConsumerInfo
 
     void markAsUsedInBarrier();
 
+    void markAsNoLongerUsedInBarrier();
+
     boolean isRunning();
+
+    boolean isStarted();
+
+    boolean drainTo(long sequence, CountDownLatch latch);
 }
@@ -15,10 +15,12 @@
  */
 package com.lmax.disruptor.dsl;
 
+import com.lmax.disruptor.Cursored;
 import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.EventProcessor;
 import com.lmax.disruptor.Sequence;
 import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.TimeoutException;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -27,21 +29,33 @@ import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Provides a repository mechanism to associate {@link EventHandler}s with {@link EventProcessor}s
  *
+ * <p>Handlers can be attached and detached while the disruptor is running, so the lookup maps are only used
+ * while holding the repository's lock.  The consumers themselves are held in a copy on write list, so iterating
+ * over them does not need it.
+ *
  * @param <T> the type of the {@link EventHandler}
  */
 class ConsumerRepository<T> implements Iterable<ConsumerInfo>
 {
+    private static final long DRAIN_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
     private final Map<EventHandler<?>, EventProcessorInfo<T>> eventProcessorInfoByEventHandler =
         new IdentityHashMap<>();
     private final Map<Sequence, ConsumerInfo> eventProcessorInfoBySequence =
         new IdentityHashMap<>();
-    private final Collection<ConsumerInfo> consumerInfos = new ArrayList<>();
+    private final Collection<ConsumerInfo> consumerInfos = new CopyOnWriteArrayList<>();
+    private final Map<EventHandler<?>, Sequence[]> barrierSequencesByAttachedHandler =
+        new IdentityHashMap<>();
 
-    public void add(
+    public synchronized void add(
         final EventProcessor eventprocessor,
         final EventHandler<? super T> handler,
         final SequenceBarrier barrier)
@@ -52,7 +66,74 @@ class ConsumerRepository<T> implements Iterable<ConsumerInfo>
         consumerInfos.add(consumerInfo);
     }
 
-    public void add(final EventProcessor processor)
+    public synchronized void addFusedStage(
+        final EventProcessor eventprocessor,
+        final EventHandler<? super T> handler,
+        final Sequence stageSequence,
+        final SequenceBarrier barrier)
+    {
+        final EventProcessorInfo<T> stageInfo = new FusedStageInfo<>(eventprocessor, handler, barrier, stageSequence);
+        eventProcessorInfoByEventHandler.put(handler, stageInfo);
+        eventProcessorInfoBySequence.put(stageSequence, stageInfo);
+    }
+
+    public synchronized ConsumerInfo addAttached(
+        final EventProcessor eventprocessor,
+        final EventHandler<? super T> handler,
+        final SequenceBarrier barrier,
+        final Sequence[] barrierSequences)
+    {
+        if (!hasConsumersFor(barrierSequences))
+        {
+            throw new IllegalStateException("An event handler that " + handler + " depends on has been detached.");
+        }
+        unMarkEventProcessorsAsEndOfChain(barrierSequences);
+        barrierSequencesByAttachedHandler.put(handler, barrierSequences);
+        add(eventprocessor, handler, barrier);
+
+        return eventProcessorInfoByEventHandler.get(handler);
+    }
+
+    public synchronized EventProcessor removeAttached(final EventHandler<T> handler)
+    {
+        final Sequence[] barrierSequences = barrierSequencesByAttachedHandler.get(handler);
+        if (barrierSequences == null)
+        {
+            throw new IllegalArgumentException("The event handler " + handler + " was not attached at runtime.");
+        }
+
+        final EventProcessorInfo<T> consumerInfo = getEventProcessorInfo(handler);
+        if (!consumerInfo.isEndOfChain())
+        {
+            throw new IllegalStateException("The event handler " + handler + " has dependent event handlers.");
+        }
+
+        barrierSequencesByAttachedHandler.remove(handler);
+        eventProcessorInfoByEventHandler.remove(handler);
+        eventProcessorInfoBySequence.remove(consumerInfo.getEventProcessor().getSequence());
+        consumerInfos.remove(consumerInfo);
+        for (Sequence barrierSequence : barrierSequences)
+        {
+            getEventProcessorInfo(barrierSequence).markAsNoLongerUsedInBarrier();
+        }
+
+        return consumerInfo.getEventProcessor();
+    }
+
+    synchronized boolean hasConsumersFor(final Sequence[] sequences)
+    {
+        for (final Sequence sequence : sequences)
+        {
+            if (!eventProcessorInfoBySequence.containsKey(sequence))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public synchronized void add(final EventProcessor processor)
     {
         final EventProcessorInfo<T> consumerInfo = new EventProcessorInfo<>(processor, null, null);
         eventProcessorInfoBySequence.put(processor.getSequence(), consumerInfo);
@@ -79,6 +160,156 @@ class ConsumerRepository<T> implements Iterable<ConsumerInfo>
         return false;
     }
 
+    /**
+     * Ask every started consumer to count down the returned latch once it has processed up to
+     * <code>sequence</code>.  Consumers that do not support draining count it down straight away and are added to
+     * <code>polled</code>, so that they can be checked instead.
+     *
+     * @param sequence to be processed.
+     * @param polled   to add the consumers that cannot signal to.
+     * @return a latch released once every started consumer that supports draining has reached the sequence.
+     */
+    CountDownLatch drainTo(final long sequence, final List<ConsumerInfo> polled)
+    {
+        // include processors whose threads have not begun yet, they serve the request once they do
+        final List<ConsumerInfo> started = new ArrayList<>();
+        for (final ConsumerInfo consumerInfo : consumerInfos)
+        {
+            if (consumerInfo.isStarted())
+            {
+                started.add(consumerInfo);
+            }
+        }
+
+        final CountDownLatch latch = new CountDownLatch(started.size());
+        for (final ConsumerInfo consumerInfo : started)
+        {
+            if (!consumerInfo.drainTo(sequence, latch))
+            {
+                polled.add(consumerInfo);
+                latch.countDown();
+            }
+        }
+        return latch;
+    }
+
+    /**
+     * Wait until every started consumer has processed up to the cursor.  The calling thread blocks on a drain
+     * request to the cursor until every consumer that supports draining has flushed its handler and signalled,
+     * even if it had already reached the cursor.  Consumers that cannot signal are checked every millisecond.  The
+     * request is made again while the cursor keeps moving, for example because events were published after the
+     * previous request.
+     *
+     * @param cursored whose cursor the consumers must reach.
+     * @param timeout  the amount of time to wait, <code>-1</code> to wait for as long as it takes.
+     * @param timeUnit the unit of the timeout.
+     * @throws TimeoutException if the consumers have not reached the cursor by the time the timeout expires.
+     */
+    void awaitDrained(final Cursored cursored, final long timeout, final TimeUnit timeUnit) throws TimeoutException
+    {
+        final long timeOutAt = System.nanoTime() + timeUnit.toNanos(timeout);
+        boolean interrupted = false;
+        try
+        {
+            long cursor;
+            do
+            {
+                cursor = cursored.getCursor();
+                final List<ConsumerInfo> polled = new ArrayList<>();
+                final CountDownLatch drained = drainTo(cursor, polled);
+                while (drained.getCount() != 0)
+                {
+                    interrupted |= await(drained, remainingNanos(timeout, timeOutAt));
+                }
+
+                while (hasBacklog(polled, cursor))
+                {
+                    LockSupport.parkNanos(Math.min(DRAIN_CHECK_INTERVAL_NANOS, remainingNanos(timeout, timeOutAt)));
+                    interrupted |= Thread.interrupted();
+                }
+            }
+            while (cursored.getCursor() != cursor);
+        }
+        finally
+        {
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static boolean hasBacklog(final List<ConsumerInfo> consumers, final long cursor)
+    {
+        for (final ConsumerInfo consumerInfo : consumers)
+        {
+            if (consumerInfo.isStarted())
+            {
+                for (final Sequence sequence : consumerInfo.getSequences())
+                {
+                    if (cursor > sequence.get())
+                    {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static long remainingNanos(final long timeout, final long timeOutAt) throws TimeoutException
+    {
+        if (timeout < 0)
+        {
+            return Long.MAX_VALUE;
+        }
+
+        final long remainingNanos = timeOutAt - System.nanoTime();
+        if (remainingNanos <= 0)
+        {
+            throw TimeoutException.INSTANCE;
+        }
+        return remainingNanos;
+    }
+
+    private static boolean await(final CountDownLatch drained, final long waitNanos)
+    {
+        try
+        {
+            drained.await(waitNanos, TimeUnit.NANOSECONDS);
+            return false;
+        }
+        catch (final InterruptedException e)
+        {
+            return true;
+        }
+    }
+
+    /**
+     * Move every consumer sequence, including those of fused stages, that is behind <code>sequence</code> up to it.
+     *
+     * @param sequence to move the sequences up to.
+     */
+    synchronized void alignSequences(final long sequence)
+    {
+        for (final Sequence consumerSequence : eventProcessorInfoBySequence.keySet())
+        {
+            if (consumerSequence.get() < sequence)
+            {
+                consumerSequence.set(sequence);
+            }
+        }
+    }
+
+    synchronized void resetSequences(final long sequence)
+    {
+        for (final Sequence consumerSequence : eventProcessorInfoBySequence.keySet())
+        {
+            consumerSequence.set(sequence);
+        }
+    }
+
     /**
      * @deprecated this function should no longer be used to determine the existence
      * of a backlog, instead use hasBacklog
@@ -99,23 +330,17 @@ class ConsumerRepository<T> implements Iterable<ConsumerInfo>
         return lastSequence.toArray(new Sequence[lastSequence.size()]);
     }
 
-    public EventProcessor getEventProcessorFor(final EventHandler<T> handler)
+    public synchronized EventProcessor getEventProcessorFor(final EventHandler<T> handler)
     {
-        final EventProcessorInfo<T> eventprocessorInfo = getEventProcessorInfo(handler);
-        if (eventprocessorInfo == null)
-        {
-            throw new IllegalArgumentException("The event handler " + handler + " is not processing events.");
-        }
-
-        return eventprocessorInfo.getEventProcessor();
+        return getRequiredEventProcessorInfo(handler).getEventProcessor();
     }
 
-    public Sequence getSequenceFor(final EventHandler<T> handler)
+    public synchronized Sequence getSequenceFor(final EventHandler<T> handler)
     {
-        return getEventProcessorFor(handler).getSequence();
+        return getRequiredEventProcessorInfo(handler).getSequences()[0];
     }
 
-    public void unMarkEventProcessorsAsEndOfChain(final Sequence... barrierEventProcessors)
+    public synchronized void unMarkEventProcessorsAsEndOfChain(final Sequence... barrierEventProcessors)
     {
         for (Sequence barrierEventProcessor : barrierEventProcessors)
         {
@@ -129,12 +354,36 @@ class ConsumerRepository<T> implements Iterable<ConsumerInfo>
         return consumerInfos.iterator();
     }
 
-    public SequenceBarrier getBarrierFor(final EventHandler<T> handler)
+    boolean usesBarrier(final SequenceBarrier barrier)
+    {
+        for (final ConsumerInfo consumerInfo : consumerInfos)
+        {
+            if (consumerInfo.getBarrier() == barrier)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public synchronized SequenceBarrier getBarrierFor(final EventHandler<T> handler)
     {
         final ConsumerInfo consumerInfo = getEventProcessorInfo(handler);
         return consumerInfo != null ? consumerInfo.getBarrier() : null;
     }
 
+    private EventProcessorInfo<T> getRequiredEventProcessorInfo(final EventHandler<T> handler)
+    {
+        final EventProcessorInfo<T> eventprocessorInfo = getEventProcessorInfo(handler);
+        if (eventprocessorInfo == null)
+        {
+            throw new IllegalArgumentException("The event handler " + handler + " is not processing events.");
+        }
+
+        return eventprocessorInfo;
+    }
+
     private EventProcessorInfo<T> getEventProcessorInfo(final EventHandler<T> handler)
     {
         return eventProcessorInfoByEventHandler.get(handler);
@@ -27,13 +27,18 @@ import com.lmax.disruptor.ExceptionHandler;
 import com.lmax.disruptor.RingBuffer;
 import com.lmax.disruptor.Sequence;
 import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.SequenceCheckpointer;
 import com.lmax.disruptor.TimeoutException;
 import com.lmax.disruptor.WaitStrategy;
 import com.lmax.disruptor.util.Util;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
 /**
  * A DSL-style API for setting up the disruptor pattern around a ring buffer
@@ -56,11 +61,20 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 public class Disruptor<T>
 {
+    /**
+     * Number of events published by {@link #warmUp(EventTranslator)}, enough for the JIT to compile the
+     * publishing and handling paths with its optimising compiler.
+     */
+    public static final int DEFAULT_WARM_UP_ITERATIONS = 20_000;
+
+
     private final RingBuffer<T> ringBuffer;
     private final ThreadFactory threadFactory;
     private final ConsumerRepository<T> consumerRepository = new ConsumerRepository<>();
     private final AtomicBoolean started = new AtomicBoolean(false);
     private ExceptionHandler<? super T> exceptionHandler = new ExceptionHandlerWrapper<>();
+    private long lowestRestoredSequence = Long.MAX_VALUE;
+    private final Map<Sequence, Sequence[]> barrierSequencesByConsumerSequence = new LinkedHashMap<>();
 
     /**
      * Create a new Disruptor. Will default to {@link com.lmax.disruptor.BlockingWaitStrategy} and
@@ -125,6 +139,102 @@ public class Disruptor<T>
         return createEventProcessors(new Sequence[0], handlers);
     }
 
+    /**
+     * <p>Set up event handlers to handle events from the ring buffer, waiting with their own {@link WaitStrategy}
+     * rather than the one the ring buffer was created with.  These handlers will process events
+     * as soon as they become available, in parallel.</p>
+     *
+     * <p>This allows, for example, a latency critical handler to busy spin while other handlers block:</p>
+     * <pre><code>dw.handleEventsWith(new BusySpinWaitStrategy(), A);
+     * dw.handleEventsWith(new BlockingWaitStrategy(), B, C);</code></pre>
+     *
+     * @param waitStrategy the wait strategy used by the handlers' barrier.
+     * @param handlers     the event handlers that will process events.
+     * @return a {@link EventHandlerGroup} that can be used to chain dependencies.
+     */
+    @SuppressWarnings("varargs")
+    @SafeVarargs
+    public final EventHandlerGroup<T> handleEventsWith(final WaitStrategy waitStrategy, final EventHandler<? super T>... handlers)
+    {
+        return createEventProcessors(new Sequence[0], waitStrategy, handlers);
+    }
+
+    /**
+     * <p>Set up a linear chain of event handlers that run one after another on a single event processor thread.
+     * Each event is handled by every handler in order, within one batch loop, which saves a thread and a
+     * cache line transfer for every hop the equivalent chain would make:</p>
+     * <pre><code>dw.handleEventsWith(A).then(B).then(C);  // three threads
+     * dw.handleEventsWithFused(A, B, C);        // one thread</code></pre>
+     *
+     * <p>Every handler can still be used with {@link #after(EventHandler[])}.  The sequence of each handler but
+     * the last advances at the end of every batch, once that handler has handled the batch.  Fusing suits
+     * stages that are cheap compared to a hand off; a slow stage delays the stages after it on the same thread.</p>
+     *
+     * @param handlers the event handlers that will process events, in order.
+     * @return a {@link EventHandlerGroup} over the last handler that can be used to chain dependencies.
+     */
+    @SuppressWarnings("varargs")
+    @SafeVarargs
+    public final EventHandlerGroup<T> handleEventsWithFused(final EventHandler<? super T>... handlers)
+    {
+        return createFusedEventProcessor(new Sequence[0], handlers);
+    }
+
+    /**
+     * <p>Set up an event handler whose progress is checkpointed, so that after a restart it resumes from the last
+     * sequence it checkpointed while the input is replayed.  The handler's processor starts from
+     * {@link SequenceCheckpointer#restore()} and calls {@link SequenceCheckpointer#checkpoint(long)} at the end
+     * of a batch once <code>checkpointInterval</code> sequences have passed since the last checkpoint, and when
+     * it is halted.</p>
+     *
+     * <p>When the Disruptor is started the ring buffer's cursor is aligned to the lowest sequence restored by any
+     * checkpointed handler, and every other consumer behind it is moved up to it, so the producer must replay its
+     * input from the event after that sequence.  A handler that restored a later sequence skips the replayed
+     * events it has already processed, and so do the handlers set up after it, which are moved up to the lowest
+     * sequence of the handlers they depend on.  Events after the last checkpoint are handled again, so handlers must
+     * tolerate seeing an event more than once.  This method must be called before {@link #start()} and before
+     * any event is published, and checkpointed handlers cannot be warmed up with {@link #warmUp(EventTranslator)}.</p>
+     *
+     * <pre><code>MappedSequenceCheckpointer checkpointer = MappedSequenceCheckpointer.open(Paths.get("journaller.checkpoint"));
+     * dw.handleEventsWithCheckpointed(checkpointer, 1024, A).then(B);
+     * RingBuffer ringBuffer = dw.start();
+     * replayInputFrom(ringBuffer.getCursor() + 1);</code></pre>
+     *
+     * @param checkpointer       records the handler's progress and restores it on start.
+     * @param checkpointInterval minimum number of sequences processed between checkpoints.
+     * @param handler            the event handler that will process events.
+     * @return a {@link EventHandlerGroup} that can be used to chain dependencies.
+     * @throws IllegalArgumentException if <code>checkpointInterval</code> is less than 1
+     */
+    public EventHandlerGroup<T> handleEventsWithCheckpointed(
+        final SequenceCheckpointer checkpointer,
+        final long checkpointInterval,
+        final EventHandler<? super T> handler)
+    {
+        checkNotStarted();
+
+        final Sequence[] barrierSequences = new Sequence[0];
+        final SequenceBarrier barrier = ringBuffer.newBarrier(barrierSequences);
+        final BatchEventProcessor<T> batchEventProcessor = new BatchEventProcessor<>(ringBuffer, barrier, handler);
+        batchEventProcessor.setSequenceCheckpointer(checkpointer, checkpointInterval);
+
+        if (exceptionHandler != null)
+        {
+            batchEventProcessor.setExceptionHandler(exceptionHandler);
+        }
+
+        consumerRepository.add(batchEventProcessor, handler, barrier);
+        final Sequence[] processorSequences = new Sequence[]{batchEventProcessor.getSequence()};
+        updateGatingSequencesForNextInChain(barrierSequences, processorSequences);
+
+        // adding a gating sequence moves it to the cursor, so restore it afterwards
+        final long restoredSequence = checkpointer.restore();
+        batchEventProcessor.getSequence().set(restoredSequence);
+        lowestRestoredSequence = Math.min(lowestRestoredSequence, restoredSequence);
+
+        return new EventHandlerGroup<>(this, consumerRepository, processorSequences);
+    }
+
     /**
      * <p>Set up custom event processors to handle events from the ring buffer. The Disruptor will
      * automatically start these processors when {@link #start()} is called.</p>
@@ -328,7 +438,9 @@ public class Disruptor<T>
      * <p>Starts the event processors and returns the fully configured ring buffer.</p>
      *
      * <p>The ring buffer is set up to prevent overwriting any entry that is yet to
-     * be processed by the slowest event processor.</p>
+     * be processed by the slowest event processor.  If handlers were set up with
+     * {@link #handleEventsWithCheckpointed(SequenceCheckpointer, long, EventHandler)}, the cursor is first aligned
+     * to the lowest sequence they restored.</p>
      *
      * <p>This method must only be called once after all event processors have been added.</p>
      *
@@ -337,6 +449,13 @@ public class Disruptor<T>
     public RingBuffer<T> start()
     {
         checkOnlyStartedOnce();
+        if (lowestRestoredSequence != Long.MAX_VALUE && lowestRestoredSequence > ringBuffer.getCursor())
+        {
+            resetCursorTo(lowestRestoredSequence);
+            consumerRepository.alignSequences(lowestRestoredSequence);
+            alignDependentSequences();
+        }
+
         for (final ConsumerInfo consumerInfo : consumerRepository)
         {
             consumerInfo.start(threadFactory);
@@ -345,6 +464,287 @@ public class Disruptor<T>
         return ringBuffer;
     }
 
+    @SuppressWarnings("deprecation")
+    private void resetCursorTo(final long sequence)
+    {
+        ringBuffer.resetTo(sequence);
+    }
+
+    /**
+     * Move each consumer up to the lowest sequence of the consumers it depends on, so that the consumers after a
+     * checkpointed handler that restored a later sequence do not process the slots between the cursor and that
+     * sequence before the events in them have been replayed.  Consumers are set up after those they depend on,
+     * so one pass in the order they were set up carries the alignment down each chain.
+     */
+    private void alignDependentSequences()
+    {
+        for (final Map.Entry<Sequence, Sequence[]> entry : barrierSequencesByConsumerSequence.entrySet())
+        {
+            final Sequence[] barrierSequences = entry.getValue();
+            if (barrierSequences.length > 0)
+            {
+                final long upstreamSequence = Util.getMinimumSequence(barrierSequences);
+                if (entry.getKey().get() < upstreamSequence)
+                {
+                    entry.getKey().set(upstreamSequence);
+                }
+            }
+        }
+    }
+
+    /**
+     * Warm up the ring buffer and event processors with {@link #DEFAULT_WARM_UP_ITERATIONS} synthetic events.
+     *
+     * @param warmUpTranslator translates each synthetic event.
+     * @see #warmUp(EventTranslator, int)
+     */
+    public void warmUp(final EventTranslator<T> warmUpTranslator)
+    {
+        warmUp(warmUpTranslator, DEFAULT_WARM_UP_ITERATIONS);
+    }
+
+    /**
+     * <p>Warm up the ring buffer and event processors before they handle real events, so that the first events
+     * after {@link #start()} are not slowed by page faults on fresh memory or by interpreted and lightly compiled
+     * code on the publishing and handling paths.</p>
+     *
+     * <p>The event processors are run on threads from the thread factory while synthetic events, written by
+     * <code>warmUpTranslator</code>, are published through the whole topology.  At least one event is published
+     * to every slot, so every event and availability flag is written once.  When the handlers have processed
+     * them all, the processors are halted and the cursor and every processor sequence are reset, so that
+     * {@link #start()} begins from a clean cursor with no trace of the synthetic events.</p>
+     *
+     * <p>The handlers see the synthetic events, along with the {@link EventHandler#onStart()} and
+     * {@link EventHandler#onShutdown()} notifications of the warm up run, so the translator should mark the
+     * events in a way the handlers recognise if they must not act on them.  This method must be called after
+     * all the event handlers have been added, before {@link #start()} and before any real event is published.</p>
+     *
+     * @param warmUpTranslator translates each synthetic event.
+     * @param iterations       the minimum number of synthetic events to publish.
+     * @throws IllegalStateException if the disruptor has already been started or has checkpointed handlers.
+     */
+    public void warmUp(final EventTranslator<T> warmUpTranslator, final int iterations)
+    {
+        checkNotStarted();
+        if (lowestRestoredSequence != Long.MAX_VALUE)
+        {
+            throw new IllegalStateException("Checkpointed event handlers would checkpoint the warm up events.");
+        }
+
+        for (final ConsumerInfo consumerInfo : consumerRepository)
+        {
+            consumerInfo.start(threadFactory);
+        }
+        awaitConsumersRunning(true);
+
+        final long events = Math.max(iterations, ringBuffer.getBufferSize());
+        for (long i = 0; i < events; i++)
+        {
+            ringBuffer.publishEvent(warmUpTranslator);
+        }
+        while (consumerRepository.hasBacklog(ringBuffer.getCursor(), true))
+        {
+            LockSupport.parkNanos(1L);
+        }
+
+        halt();
+        awaitConsumersRunning(false);
+
+        consumerRepository.resetSequences(RingBuffer.INITIAL_CURSOR_VALUE);
+        ringBuffer.reset();
+    }
+
+    private void awaitConsumersRunning(final boolean running)
+    {
+        for (final ConsumerInfo consumerInfo : consumerRepository)
+        {
+            while (consumerInfo.isRunning() != running)
+            {
+                LockSupport.parkNanos(1L);
+            }
+        }
+    }
+
+    /**
+     * <p>Attach event handlers to a running Disruptor.  Each handler is run by its own event processor, started
+     * on a thread from the thread factory, and handles the events published from now on.  The handlers gate the
+     * ring buffer as soon as they are attached.</p>
+     *
+     * <p>This allows, for example, a temporary consumer to be added to a pipeline under load, and later
+     * removed with {@link #detach(EventHandler)}, without restarting it.</p>
+     *
+     * @param handlers the event handlers to attach.
+     * @return a {@link EventHandlerGroup} that can be used to attach dependent handlers.
+     * @throws IllegalStateException if the Disruptor has not been started.
+     */
+    @SuppressWarnings("varargs")
+    @SafeVarargs
+    public final EventHandlerGroup<T> attach(final EventHandler<? super T>... handlers)
+    {
+        checkStarted();
+
+        final Sequence[] barrierSequences = new Sequence[0];
+        final SequenceBarrier[] barriers = newAttachedBarriers(barrierSequences, handlers.length);
+        final BatchEventProcessor<T>[] processors = createAttachedEventProcessors(barriers, handlers);
+        ringBuffer.addGatingSequences(Util.getSequencesFor(processors));
+
+        return startAttachedEventProcessors(barrierSequences, barriers, handlers, processors);
+    }
+
+    /**
+     * <p>Attach event handlers to a running Disruptor, catching up from an earlier sequence.  The handlers first
+     * handle the events from <code>fromSequence</code> that are still in the ring buffer, then those published
+     * from now on.</p>
+     *
+     * <p>Events are only kept until every gating consumer has processed them, so <code>fromSequence</code> must be
+     * no earlier than the next sequence of the slowest consumer.  The handlers gate the ring buffer at
+     * <code>fromSequence</code> atomically, so none of the events they are to catch up with can be overwritten.</p>
+     *
+     * @param fromSequence the first sequence the handlers will handle.
+     * @param handlers     the event handlers to attach.
+     * @return a {@link EventHandlerGroup} that can be used to attach dependent handlers.
+     * @throws IllegalStateException    if the Disruptor has not been started.
+     * @throws IllegalArgumentException if the events from <code>fromSequence</code> may already have been overwritten.
+     */
+    @SuppressWarnings("varargs")
+    @SafeVarargs
+    public final EventHandlerGroup<T> attachFrom(final long fromSequence, final EventHandler<? super T>... handlers)
+    {
+        checkStarted();
+
+        final Sequence[] barrierSequences = new Sequence[0];
+        final SequenceBarrier[] barriers = newAttachedBarriers(barrierSequences, handlers.length);
+        final BatchEventProcessor<T>[] processors = createAttachedEventProcessors(barriers, handlers);
+        if (!tryAddGatingSequences(Util.getSequencesFor(processors), fromSequence - 1))
+        {
+            throw new IllegalArgumentException("Events from sequence " + fromSequence + " may already have been overwritten");
+        }
+
+        return startAttachedEventProcessors(barrierSequences, barriers, handlers, processors);
+    }
+
+    /**
+     * Detach an event handler previously attached with {@link #attach(EventHandler[])}, {@link #attachFrom(long, EventHandler[])}
+     * or {@link EventHandlerGroup#attach(EventHandler[])}.  Its event processor is halted, and once it has
+     * stopped its sequence is removed from the ring buffer's gating sequences.
+     *
+     * @param handler the event handler to detach.
+     * @throws IllegalArgumentException if the handler was not attached at runtime.
+     * @throws IllegalStateException    if other attached handlers depend on the handler.
+     */
+    public void detach(final EventHandler<T> handler)
+    {
+        final SequenceBarrier barrier = consumerRepository.getBarrierFor(handler);
+        final EventProcessor processor = consumerRepository.removeAttached(handler);
+        processor.halt();
+        while (processor.isRunning())
+        {
+            LockSupport.parkNanos(1L);
+        }
+        ringBuffer.removeGatingSequence(processor.getSequence());
+        if (barrier != null && !consumerRepository.usesBarrier(barrier))
+        {
+            ringBuffer.releaseBarrier(barrier);
+        }
+    }
+
+    EventHandlerGroup<T> attachEventProcessors(
+        final Sequence[] barrierSequences,
+        final EventHandler<? super T>[] eventHandlers)
+    {
+        checkStarted();
+
+        final SequenceBarrier[] barriers = newAttachedBarriers(barrierSequences, eventHandlers.length);
+        final BatchEventProcessor<T>[] processors = createAttachedEventProcessors(barriers, eventHandlers);
+        final Sequence[] processorSequences = Util.getSequencesFor(processors);
+        while (!tryAddGatingSequences(processorSequences, Util.getMinimumSequence(barrierSequences, ringBuffer.getCursor())))
+        {
+            // a detached handler's sequence no longer moves, so the handlers could never be added behind it
+            if (!consumerRepository.hasConsumersFor(barrierSequences))
+            {
+                throw new IllegalStateException("An event handler to attach after has been detached.");
+            }
+            Thread.yield();
+        }
+
+        return startAttachedEventProcessors(barrierSequences, barriers, eventHandlers, processors);
+    }
+
+    private SequenceBarrier[] newAttachedBarriers(final Sequence[] barrierSequences, final int count)
+    {
+        // each attached processor gets its own barrier, as detaching one alerts its barrier to halt it
+        final SequenceBarrier[] barriers = new SequenceBarrier[count];
+        for (int i = 0; i < count; i++)
+        {
+            barriers[i] = ringBuffer.newBarrier(barrierSequences);
+        }
+
+        return barriers;
+    }
+
+    @SuppressWarnings("unchecked")
+    private BatchEventProcessor<T>[] createAttachedEventProcessors(
+        final SequenceBarrier[] barriers,
+        final EventHandler<? super T>[] eventHandlers)
+    {
+        final BatchEventProcessor<T>[] processors = new BatchEventProcessor[eventHandlers.length];
+        for (int i = 0; i < eventHandlers.length; i++)
+        {
+            processors[i] = new BatchEventProcessor<>(ringBuffer, barriers[i], eventHandlers[i]);
+            if (exceptionHandler != null)
+            {
+                processors[i].setExceptionHandler(exceptionHandler);
+            }
+        }
+
+        return processors;
+    }
+
+    private boolean tryAddGatingSequences(final Sequence[] sequences, final long value)
+    {
+        for (int i = 0; i < sequences.length; i++)
+        {
+            sequences[i].set(value);
+            if (!ringBuffer.tryAddGatingSequence(sequences[i]))
+            {
+                for (int j = 0; j < i; j++)
+                {
+                    ringBuffer.removeGatingSequence(sequences[j]);
+                }
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private EventHandlerGroup<T> startAttachedEventProcessors(
+        final Sequence[] barrierSequences,
+        final SequenceBarrier[] barriers,
+        final EventHandler<? super T>[] eventHandlers,
+        final BatchEventProcessor<T>[] processors)
+    {
+        for (int i = 0; i < processors.length; i++)
+        {
+            final ConsumerInfo consumerInfo;
+            try
+            {
+                consumerInfo = consumerRepository.addAttached(processors[i], eventHandlers[i], barriers[i], barrierSequences);
+            }
+            catch (final IllegalStateException e)
+            {
+                for (int j = i; j < processors.length; j++)
+                {
+                    ringBuffer.removeGatingSequence(processors[j].getSequence());
+                }
+                throw e;
+            }
+            consumerInfo.start(threadFactory);
+        }
+
+        return new EventHandlerGroup<>(this, consumerRepository, Util.getSequencesFor(processors));
+    }
+
     /**
      * Calls {@link com.lmax.disruptor.EventProcessor#halt()} on all of the event processors created via this disruptor.
      */
@@ -380,6 +780,10 @@ public class Disruptor<T>
      * <p>Waits until all events currently in the disruptor have been processed by all event processors
      * and then halts the processors.</p>
      *
+     * <p>The calling thread blocks until each running processor signals that it has reached the cursor, calling
+     * {@link EventHandler#onFlush(long)} as it does, rather than spinning on the processors' sequences.  Processors
+     * that cannot signal, and events published after the call, are picked up by checking again every millisecond.</p>
+     *
      * <p>This method will not shutdown the executor, nor will it await the final termination of the
      * processor threads.</p>
      *
@@ -389,15 +793,7 @@ public class Disruptor<T>
      */
     public void shutdown(final long timeout, final TimeUnit timeUnit) throws TimeoutException
     {
-        final long timeOutAt = System.currentTimeMillis() + timeUnit.toMillis(timeout);
-        while (hasBacklog())
-        {
-            if (timeout >= 0 && System.currentTimeMillis() > timeOutAt)
-            {
-                throw TimeoutException.INSTANCE;
-            }
-            // Busy spin
-        }
+        consumerRepository.awaitDrained(ringBuffer, timeout, timeUnit);
         halt();
     }
 
@@ -468,16 +864,6 @@ public class Disruptor<T>
         return consumerRepository.getSequenceFor(b1).get();
     }
 
-    /**
-     * Confirms if all messages have been consumed by all event processors
-     */
-    private boolean hasBacklog()
-    {
-        final long cursor = ringBuffer.getCursor();
-
-        return consumerRepository.hasBacklog(cursor, false);
-    }
-
     /**
      * Checks if disruptor has been started
      *
@@ -494,12 +880,31 @@ public class Disruptor<T>
     {
         checkNotStarted();
 
+        return createEventProcessors(barrierSequences, () -> ringBuffer.newBarrier(barrierSequences), eventHandlers);
+    }
+
+    EventHandlerGroup<T> createEventProcessors(
+        final Sequence[] barrierSequences,
+        final WaitStrategy waitStrategy,
+        final EventHandler<? super T>[] eventHandlers)
+    {
+        checkNotStarted();
+
+        return createEventProcessors(barrierSequences, () -> ringBuffer.newBarrier(waitStrategy, barrierSequences), eventHandlers);
+    }
+
+    private EventHandlerGroup<T> createEventProcessors(
+        final Sequence[] barrierSequences,
+        final Supplier<SequenceBarrier> barrierFactory,
+        final EventHandler<? super T>[] eventHandlers)
+    {
         final Sequence[] processorSequences = new Sequence[eventHandlers.length];
-        final SequenceBarrier barrier = ringBuffer.newBarrier(barrierSequences);
 
         for (int i = 0, eventHandlersLength = eventHandlers.length; i < eventHandlersLength; i++)
         {
             final EventHandler<? super T> eventHandler = eventHandlers[i];
+            // a barrier per processor, so that a drain request or halt alerting it wakes only that processor
+            final SequenceBarrier barrier = barrierFactory.get();
 
             final BatchEventProcessor<T> batchEventProcessor =
                 new BatchEventProcessor<>(ringBuffer, barrier, eventHandler);
@@ -518,8 +923,45 @@ public class Disruptor<T>
         return new EventHandlerGroup<>(this, consumerRepository, processorSequences);
     }
 
+    EventHandlerGroup<T> createFusedEventProcessor(
+        final Sequence[] barrierSequences,
+        final EventHandler<? super T>[] eventHandlers)
+    {
+        checkNotStarted();
+        if (eventHandlers.length == 0)
+        {
+            throw new IllegalArgumentException("At least one event handler must be fused");
+        }
+
+        final SequenceBarrier barrier = ringBuffer.newBarrier(barrierSequences);
+        final FusedEventHandler<T> fusedEventHandler = new FusedEventHandler<>(eventHandlers);
+        final BatchEventProcessor<T> batchEventProcessor = new BatchEventProcessor<>(ringBuffer, barrier, fusedEventHandler);
+
+        if (exceptionHandler != null)
+        {
+            batchEventProcessor.setExceptionHandler(exceptionHandler);
+        }
+
+        final int last = eventHandlers.length - 1;
+        for (int i = 0; i < last; i++)
+        {
+            consumerRepository.addFusedStage(batchEventProcessor, eventHandlers[i], fusedEventHandler.getStageSequence(i), barrier);
+            barrierSequencesByConsumerSequence.put(fusedEventHandler.getStageSequence(i), barrierSequences);
+        }
+        consumerRepository.add(batchEventProcessor, eventHandlers[last], barrier);
+
+        final Sequence[] processorSequences = new Sequence[]{batchEventProcessor.getSequence()};
+        updateGatingSequencesForNextInChain(barrierSequences, processorSequences);
+
+        return new EventHandlerGroup<>(this, consumerRepository, processorSequences);
+    }
+
     private void updateGatingSequencesForNextInChain(final Sequence[] barrierSequences, final Sequence[] processorSequences)
     {
+        for (final Sequence processorSequence : processorSequences)
+        {
+            barrierSequencesByConsumerSequence.put(processorSequence, barrierSequences);
+        }
         if (processorSequences.length > 0)
         {
             ringBuffer.addGatingSequences(processorSequences);
@@ -551,6 +993,14 @@ public class Disruptor<T>
         }
     }
 
+    private void checkStarted()
+    {
+        if (!started.get())
+        {
+            throw new IllegalStateException("Event handlers can only be attached once the Disruptor has started.");
+        }
+    }
+
     private void checkOnlyStartedOnce()
     {
         if (!started.compareAndSet(false, true))
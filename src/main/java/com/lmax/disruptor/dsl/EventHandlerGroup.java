@@ -19,6 +19,7 @@ import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.EventProcessor;
 import com.lmax.disruptor.Sequence;
 import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.WaitStrategy;
 
 import java.util.Arrays;
 
@@ -97,6 +98,38 @@ public class EventHandlerGroup<T>
         return handleEventsWith(handlers);
     }
 
+    /**
+     * <p>Set up batch handlers to consume events from the ring buffer, waiting with their own {@link WaitStrategy}.
+     * These handlers will only process events after every {@link EventProcessor} in this group has processed the event.</p>
+     *
+     * <pre><code>dw.handleEventsWith(A).then(new BlockingWaitStrategy(), B);</code></pre>
+     *
+     * @param waitStrategy the wait strategy used by the handlers' barrier.
+     * @param handlers     the batch handlers that will process events.
+     * @return a {@link EventHandlerGroup} that can be used to set up a event processor barrier over the created event processors.
+     */
+    @SafeVarargs
+    public final EventHandlerGroup<T> then(final WaitStrategy waitStrategy, final EventHandler<? super T>... handlers)
+    {
+        return handleEventsWith(waitStrategy, handlers);
+    }
+
+    /**
+     * <p>Set up a linear chain of batch handlers that run one after another on a single event processor thread,
+     * only processing events after every {@link EventProcessor} in this group has processed the event.</p>
+     *
+     * <pre><code>dw.handleEventsWith(A).thenFused(B, C, D);</code></pre>
+     *
+     * @param handlers the batch handlers that will process events, in order.
+     * @return a {@link EventHandlerGroup} over the last handler that can be used to chain dependencies.
+     * @see Disruptor#handleEventsWithFused(EventHandler[])
+     */
+    @SafeVarargs
+    public final EventHandlerGroup<T> thenFused(final EventHandler<? super T>... handlers)
+    {
+        return handleEventsWithFused(handlers);
+    }
+
     /**
      * <p>Set up custom event processors to handle events from the ring buffer. The Disruptor will
      * automatically start these processors when {@link Disruptor#start()} is called.</p>
@@ -131,6 +164,39 @@ public class EventHandlerGroup<T>
         return disruptor.createEventProcessors(sequences, handlers);
     }
 
+    /**
+     * <p>Set up a linear chain of batch handlers that run one after another on a single event processor thread,
+     * only processing events after every {@link EventProcessor} in this group has processed the event.</p>
+     *
+     * <pre><code>dw.after(A).handleEventsWithFused(B, C, D);</code></pre>
+     *
+     * @param handlers the batch handlers that will process events, in order.
+     * @return a {@link EventHandlerGroup} over the last handler that can be used to chain dependencies.
+     * @see Disruptor#handleEventsWithFused(EventHandler[])
+     */
+    @SafeVarargs
+    public final EventHandlerGroup<T> handleEventsWithFused(final EventHandler<? super T>... handlers)
+    {
+        return disruptor.createFusedEventProcessor(sequences, handlers);
+    }
+
+    /**
+     * <p>Set up batch handlers to handle events from the ring buffer, waiting with their own {@link WaitStrategy}
+     * rather than the one the ring buffer was created with.  These handlers will only process events
+     * after every {@link EventProcessor} in this group has processed the event.</p>
+     *
+     * <pre><code>dw.after(A).handleEventsWith(new BlockingWaitStrategy(), B);</code></pre>
+     *
+     * @param waitStrategy the wait strategy used by the handlers' barrier.
+     * @param handlers     the batch handlers that will process events.
+     * @return a {@link EventHandlerGroup} that can be used to set up a event processor barrier over the created event processors.
+     */
+    @SafeVarargs
+    public final EventHandlerGroup<T> handleEventsWith(final WaitStrategy waitStrategy, final EventHandler<? super T>... handlers)
+    {
+        return disruptor.createEventProcessors(sequences, waitStrategy, handlers);
+    }
+
     /**
      * <p>Set up custom event processors to handle events from the ring buffer. The Disruptor will
      * automatically start these processors when {@link Disruptor#start()} is called.</p>
@@ -149,6 +215,24 @@ public class EventHandlerGroup<T>
         return disruptor.createEventProcessors(sequences, eventProcessorFactories);
     }
 
+    /**
+     * <p>Attach batch handlers to a running Disruptor, to handle events after every {@link EventProcessor} in this
+     * group has processed them.  The handlers start from the slowest processor in this group, so they handle
+     * every event the group has yet to process.</p>
+     *
+     * <pre><code>dw.after(A).attach(B);</code></pre>
+     *
+     * @param handlers the batch handlers to attach.
+     * @return a {@link EventHandlerGroup} that can be used to attach dependent handlers.
+     * @throws IllegalStateException if the Disruptor has not been started.
+     * @see Disruptor#attach(EventHandler[])
+     */
+    @SafeVarargs
+    public final EventHandlerGroup<T> attach(final EventHandler<? super T>... handlers)
+    {
+        return disruptor.attachEventProcessors(sequences, handlers);
+    }
+
     /**
      * Create a dependency barrier for the processors in this group.
      * This allows custom event processors to have dependencies on
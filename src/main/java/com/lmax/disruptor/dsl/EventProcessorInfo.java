@@ -20,7 +20,9 @@ import com.lmax.disruptor.EventProcessor;
 import com.lmax.disruptor.Sequence;
 import com.lmax.disruptor.SequenceBarrier;
 
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Wrapper class to tie together a particular event processing stage</p>
@@ -34,7 +36,8 @@ class EventProcessorInfo<T> implements ConsumerInfo
     private final EventProcessor eventprocessor;
     private final EventHandler<? super T> handler;
     private final SequenceBarrier barrier;
-    private boolean endOfChain = true;
+    private final AtomicInteger usedInBarrierCount = new AtomicInteger();
+    private volatile boolean started;
 
     EventProcessorInfo(
         final EventProcessor eventprocessor, final EventHandler<? super T> handler, final SequenceBarrier barrier)
@@ -69,7 +72,7 @@ class EventProcessorInfo<T> implements ConsumerInfo
     @Override
     public boolean isEndOfChain()
     {
-        return endOfChain;
+        return usedInBarrierCount.get() == 0;
     }
 
     @Override
@@ -81,12 +84,14 @@ class EventProcessorInfo<T> implements ConsumerInfo
             throw new RuntimeException("Failed to create thread to run: " + eventprocessor);
         }
 
+        started = true;
         thread.start();
     }
 
     @Override
     public void halt()
     {
+        started = false;
         eventprocessor.halt();
     }
 
@@ -96,7 +101,13 @@ class EventProcessorInfo<T> implements ConsumerInfo
     @Override
     public void markAsUsedInBarrier()
     {
-        endOfChain = false;
+        usedInBarrierCount.incrementAndGet();
+    }
+
+    @Override
+    public void markAsNoLongerUsedInBarrier()
+    {
+        usedInBarrierCount.decrementAndGet();
     }
 
     @Override
@@ -104,4 +115,20 @@ class EventProcessorInfo<T> implements ConsumerInfo
     {
         return eventprocessor.isRunning();
     }
+
+    /**
+     * @return true if the event processor is running, or has been started and not halted but its thread has
+     * not yet begun running it.
+     */
+    @Override
+    public boolean isStarted()
+    {
+        return started || eventprocessor.isRunning();
+    }
+
+    @Override
+    public boolean drainTo(final long sequence, final CountDownLatch latch)
+    {
+        return eventprocessor.drainTo(sequence, latch);
+    }
 }
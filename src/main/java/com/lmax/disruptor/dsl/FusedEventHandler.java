@@ -0,0 +1,139 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.dsl;
+
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.Sequence;
+
+/**
+ * Runs a linear chain of handlers, each in turn, on the thread of a single event processor.  Each stage but the
+ * last has its own {@link Sequence}, advanced at the end of every batch once the stage has handled it, so that
+ * other handlers can still depend on an individual stage.  The last stage is tracked by the processor's sequence.
+ *
+ * <p>A stage that {@link EventHandler#advancesOwnSequence() advances its own sequence} is left to do so, and the
+ * fused handler advances its own sequence when the last stage does.  Later stages are still called with each event
+ * straight away, as they run on the same thread; only handlers depending on the stage's sequence are held back.
+ *
+ * @param <T> the type of event handled.
+ */
+final class FusedEventHandler<T> implements EventHandler<T>
+{
+    private final EventHandler<? super T>[] handlers;
+    private final Sequence[] stageSequences;
+    private final boolean[] stageAdvancesSequence;
+    private final int last;
+
+    FusedEventHandler(final EventHandler<? super T>[] handlers)
+    {
+        this.handlers = handlers.clone();
+        this.last = handlers.length - 1;
+        this.stageSequences = new Sequence[last];
+        this.stageAdvancesSequence = new boolean[last];
+        for (int i = 0; i < last; i++)
+        {
+            stageSequences[i] = new Sequence();
+            stageAdvancesSequence[i] = this.handlers[i].advancesOwnSequence();
+        }
+    }
+
+    Sequence getStageSequence(final int stage)
+    {
+        return stageSequences[stage];
+    }
+
+    @Override
+    public void onEvent(final T event, final long sequence, final boolean endOfBatch) throws Exception
+    {
+        for (int i = 0; i < last; i++)
+        {
+            handlers[i].onEvent(event, sequence, endOfBatch);
+            if (endOfBatch && !stageAdvancesSequence[i])
+            {
+                stageSequences[i].set(sequence);
+            }
+        }
+        handlers[last].onEvent(event, sequence, endOfBatch);
+    }
+
+    @Override
+    public void onBatchStart(final long batchSize)
+    {
+        for (final EventHandler<? super T> handler : handlers)
+        {
+            handler.onBatchStart(batchSize);
+        }
+    }
+
+    @Override
+    public void onStart()
+    {
+        for (final EventHandler<? super T> handler : handlers)
+        {
+            handler.onStart();
+        }
+    }
+
+    @Override
+    public void onShutdown()
+    {
+        for (final EventHandler<? super T> handler : handlers)
+        {
+            handler.onShutdown();
+        }
+    }
+
+    /**
+     * The processor's sequence is given to the last stage, every other stage is given its own sequence.
+     *
+     * @see EventHandler#setSequenceCallback(Sequence)
+     */
+    @Override
+    public void setSequenceCallback(final Sequence sequenceCallback)
+    {
+        for (int i = 0; i < last; i++)
+        {
+            handlers[i].setSequenceCallback(stageSequences[i]);
+        }
+        handlers[last].setSequenceCallback(sequenceCallback);
+    }
+
+    /**
+     * @return whether the last stage advances its own sequence, which is the processor's sequence.
+     */
+    @Override
+    public boolean advancesOwnSequence()
+    {
+        return handlers[last].advancesOwnSequence();
+    }
+
+    @Override
+    public void onTimeout(final long sequence) throws Exception
+    {
+        for (final EventHandler<? super T> handler : handlers)
+        {
+            handler.onTimeout(sequence);
+        }
+    }
+
+    @Override
+    public void onFlush(final long sequence) throws Exception
+    {
+        for (final EventHandler<? super T> handler : handlers)
+        {
+            handler.onFlush(sequence);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.dsl;
+
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventProcessor;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.SequenceBarrier;
+
+/**
+ * Ties a stage of a fused chain to the event processor that runs it and to the stage's own sequence.  The
+ * processor is started and halted through the last stage of the chain, so this is only used to look up the
+ * stage's sequence, barrier and processor.
+ *
+ * @param <T> the type of the configured {@link EventHandler}
+ */
+class FusedStageInfo<T> extends EventProcessorInfo<T>
+{
+    private final Sequence stageSequence;
+
+    FusedStageInfo(
+        final EventProcessor eventprocessor,
+        final EventHandler<? super T> handler,
+        final SequenceBarrier barrier,
+        final Sequence stageSequence)
+    {
+        super(eventprocessor, handler, barrier);
+        this.stageSequence = stageSequence;
+    }
+
+    @Override
+    public Sequence[] getSequences()
+    {
+        return new Sequence[]{stageSequence};
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.dsl;
+
+import com.lmax.disruptor.BatchEventProcessor;
+import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.PrimitiveRingBuffer;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.TimeoutException;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A DSL-style API for setting up the disruptor pattern around a {@link PrimitiveRingBuffer}, such as a
+ * {@link com.lmax.disruptor.LongRingBuffer}, with primitive event handlers.
+ *
+ * <pre>
+ * <code>LongRingBuffer ringBuffer = LongRingBuffer.createMultiProducer(1024, new BlockingWaitStrategy());
+ * PrimitiveDisruptor&lt;LongRingBuffer, LongEventHandler&gt; disruptor =
+ *     new PrimitiveDisruptor&lt;&gt;(ringBuffer, DaemonThreadFactory.INSTANCE);
+ * disruptor.handleEventsWith(handler1).then(handler2);
+ * disruptor.start();
+ *
+ * ringBuffer.put(value);</code>
+ * </pre>
+ *
+ * @param <R> the type of ring buffer used.
+ * @param <H> the primitive event handler type consuming from the ring buffer.
+ */
+public class PrimitiveDisruptor<R extends PrimitiveRingBuffer<H>, H>
+{
+    private final R ringBuffer;
+    private final ThreadFactory threadFactory;
+    private final ConsumerRepository<Object> consumerRepository = new ConsumerRepository<>();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private ExceptionHandler<Object> exceptionHandler;
+
+    /**
+     * Create a new PrimitiveDisruptor.
+     *
+     * @param ringBuffer    the primitive ring buffer to set up handlers for.
+     * @param threadFactory a {@link ThreadFactory} to create threads for processors.
+     */
+    public PrimitiveDisruptor(final R ringBuffer, final ThreadFactory threadFactory)
+    {
+        this.ringBuffer = ringBuffer;
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * <p>Set up event handlers to handle values from the ring buffer. These handlers will process values
+     * as soon as they become available, in parallel.</p>
+     *
+     * <pre><code>dw.handleEventsWith(A).then(B);</code></pre>
+     *
+     * @param handlers the event handlers that will process values.
+     * @return a {@link PrimitiveEventHandlerGroup} that can be used to chain dependencies.
+     */
+    @SafeVarargs
+    public final PrimitiveEventHandlerGroup<H> handleEventsWith(final H... handlers)
+    {
+        return createEventProcessors(new Sequence[0], handlers);
+    }
+
+    /**
+     * Specify an exception handler to be used for any future event handlers.
+     *
+     * @param exceptionHandler the exception handler to use for any future event processors.
+     */
+    public void setDefaultExceptionHandler(final ExceptionHandler<Object> exceptionHandler)
+    {
+        checkNotStarted();
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * Starts the event processors and returns the fully configured ring buffer.
+     *
+     * @return the configured ring buffer.
+     */
+    public R start()
+    {
+        if (!started.compareAndSet(false, true))
+        {
+            throw new IllegalStateException("PrimitiveDisruptor.start() must only be called once.");
+        }
+
+        for (final ConsumerInfo consumerInfo : consumerRepository)
+        {
+            consumerInfo.start(threadFactory);
+        }
+
+        return ringBuffer;
+    }
+
+    /**
+     * Calls {@link com.lmax.disruptor.EventProcessor#halt()} on all of the event processors created via this disruptor.
+     */
+    public void halt()
+    {
+        for (final ConsumerInfo consumerInfo : consumerRepository)
+        {
+            consumerInfo.halt();
+        }
+    }
+
+    /**
+     * <p>Waits until all values currently in the ring buffer have been processed by all event processors
+     * and then halts the processors.  As with {@link Disruptor#shutdown(long, TimeUnit)}, the calling thread blocks
+     * until the processors signal that they have reached the cursor rather than spinning.</p>
+     *
+     * @param timeout  the amount of time to wait for all values to be processed. <code>-1</code> will give an infinite timeout
+     * @param timeUnit the unit the timeOut is specified in
+     * @throws TimeoutException if a timeout occurs before shutdown completes.
+     */
+    public void shutdown(final long timeout, final TimeUnit timeUnit) throws TimeoutException
+    {
+        consumerRepository.awaitDrained(ringBuffer, timeout, timeUnit);
+        halt();
+    }
+
+    /**
+     * @return the ring buffer used by this disruptor.
+     */
+    public R getRingBuffer()
+    {
+        return ringBuffer;
+    }
+
+    PrimitiveEventHandlerGroup<H> createEventProcessors(final Sequence[] barrierSequences, final H[] handlers)
+    {
+        checkNotStarted();
+
+        final Sequence[] processorSequences = new Sequence[handlers.length];
+
+        for (int i = 0; i < handlers.length; i++)
+        {
+            final SequenceBarrier barrier = ringBuffer.newBarrier(barrierSequences);
+            final BatchEventProcessor<?> processor = ringBuffer.newEventProcessor(handlers[i], barrier);
+            if (exceptionHandler != null)
+            {
+                processor.setExceptionHandler(exceptionHandler);
+            }
+
+            consumerRepository.add(processor);
+            processorSequences[i] = processor.getSequence();
+        }
+
+        if (processorSequences.length > 0)
+        {
+            ringBuffer.addGatingSequences(processorSequences);
+            for (final Sequence barrierSequence : barrierSequences)
+            {
+                ringBuffer.removeGatingSequence(barrierSequence);
+            }
+            consumerRepository.unMarkEventProcessorsAsEndOfChain(barrierSequences);
+        }
+
+        return new PrimitiveEventHandlerGroup<>(this, processorSequences);
+    }
+
+    private void checkNotStarted()
+    {
+        if (started.get())
+        {
+            throw new IllegalStateException("All event handlers must be added before calling starts.");
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PrimitiveDisruptor{" +
+            "ringBuffer=" + ringBuffer +
+            ", started=" + started +
+            ", threadFactory=" + threadFactory +
+            '}';
+    }
+}
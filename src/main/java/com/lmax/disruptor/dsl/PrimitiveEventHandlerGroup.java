@@ -0,0 +1,65 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.dsl;
+
+import com.lmax.disruptor.Sequence;
+
+import java.util.Arrays;
+
+/**
+ * A group of event processors created by a {@link PrimitiveDisruptor}.
+ *
+ * @param <H> the primitive event handler type consuming from the ring buffer.
+ */
+public class PrimitiveEventHandlerGroup<H>
+{
+    private final PrimitiveDisruptor<?, H> disruptor;
+    private final Sequence[] sequences;
+
+    PrimitiveEventHandlerGroup(final PrimitiveDisruptor<?, H> disruptor, final Sequence[] sequences)
+    {
+        this.disruptor = disruptor;
+        this.sequences = Arrays.copyOf(sequences, sequences.length);
+    }
+
+    /**
+     * Create a new group that combines the handlers in this group with <code>otherHandlerGroup</code>.
+     *
+     * @param otherHandlerGroup the group to combine.
+     * @return a new group combining the existing and new handlers into a single dependency group.
+     */
+    public PrimitiveEventHandlerGroup<H> and(final PrimitiveEventHandlerGroup<H> otherHandlerGroup)
+    {
+        final Sequence[] combinedSequences = Arrays.copyOf(sequences, sequences.length + otherHandlerGroup.sequences.length);
+        System.arraycopy(otherHandlerGroup.sequences, 0, combinedSequences, sequences.length, otherHandlerGroup.sequences.length);
+        return new PrimitiveEventHandlerGroup<>(disruptor, combinedSequences);
+    }
+
+    /**
+     * <p>Set up handlers to consume values from the ring buffer. These handlers will only process a value
+     * after every handler in this group has processed it.</p>
+     *
+     * <pre><code>dw.handleEventsWith(A).then(B);</code></pre>
+     *
+     * @param handlers the handlers that will process values.
+     * @return a {@link PrimitiveEventHandlerGroup} that can be used to chain dependencies.
+     */
+    @SafeVarargs
+    public final PrimitiveEventHandlerGroup<H> then(final H... handlers)
+    {
+        return disruptor.createEventProcessors(sequences, handlers);
+    }
+}
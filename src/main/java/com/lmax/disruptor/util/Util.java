@@ -15,6 +15,7 @@
  */
 package com.lmax.disruptor.util;
 
+import com.lmax.disruptor.AbstractSequence;
 import com.lmax.disruptor.EventProcessor;
 import com.lmax.disruptor.Sequence;
 
@@ -44,7 +45,7 @@ public final class Util
      * @param sequences to compare.
      * @return the minimum sequence found or Long.MAX_VALUE if the array is empty.
      */
-    public static long getMinimumSequence(final Sequence[] sequences)
+    public static long getMinimumSequence(final AbstractSequence[] sequences)
     {
         return getMinimumSequence(sequences, Long.MAX_VALUE);
     }
@@ -58,7 +59,7 @@ public final class Util
      * @return the smaller of minimum sequence value found in {@code sequences} and {@code minimum};
      * {@code minimum} if {@code sequences} is empty
      */
-    public static long getMinimumSequence(final Sequence[] sequences, final long minimum)
+    public static long getMinimumSequence(final AbstractSequence[] sequences, final long minimum)
     {
         long minimumSequence = minimum;
         for (int i = 0, n = sequences.length; i < n; i++)
@@ -105,6 +106,39 @@ public final class Util
         return r;
     }
 
+    /**
+     * Map a dense index onto the slot it occupies when consecutive indices are spread <code>1 &lt;&lt; strideShift</code>
+     * slots apart.  The mapping rotates the index bits left by <code>strideShift</code>, so it is a permutation of
+     * the slots and a stride of 1 leaves the index unchanged.
+     *
+     * @param index       dense index, less than <code>1 &lt;&lt; indexShift</code>.
+     * @param strideShift log2 of the stride.
+     * @param indexShift  log2 of the buffer size.
+     * @param indexMask   buffer size - 1.
+     * @return the slot for the index.
+     */
+    public static int slotIndex(final int index, final int strideShift, final int indexShift, final int indexMask)
+    {
+        return ((index << strideShift) | (index >>> (indexShift - strideShift))) & indexMask;
+    }
+
+    /**
+     * Check that a slot stride is a power of 2 no greater than the buffer size.
+     *
+     * @param slotStride distance in slots between consecutive sequences.
+     * @param bufferSize size of the buffer the slots are in.
+     * @return the slot stride.
+     * @throws IllegalArgumentException if the slot stride is not a power of 2 or is greater than bufferSize
+     */
+    public static int checkSlotStride(final int slotStride, final int bufferSize)
+    {
+        if (slotStride < 1 || Integer.bitCount(slotStride) != 1 || slotStride > bufferSize)
+        {
+            throw new IllegalArgumentException("slotStride must be a power of 2 no greater than bufferSize");
+        }
+        return slotStride;
+    }
+
     /**
      * @param mutex The object to wait on
      * @param timeoutNanos The number of nanoseconds to wait for
@@ -1,19 +1,18 @@
 package com.lmax.disruptor.immutable;
 
 import com.lmax.disruptor.BatchEventProcessor;
-import com.lmax.disruptor.SingleProducerSequencer;
+import com.lmax.disruptor.ObjectRingBuffer;
 import com.lmax.disruptor.YieldingWaitStrategy;
 
 import java.util.concurrent.locks.LockSupport;
 
 public class CustomPerformanceTest
 {
-    private final CustomRingBuffer<SimpleEvent> ringBuffer;
+    private final ObjectRingBuffer<SimpleEvent> ringBuffer;
 
     public CustomPerformanceTest()
     {
-        ringBuffer =
-                new CustomRingBuffer<>(new SingleProducerSequencer(Constants.SIZE, new YieldingWaitStrategy()));
+        ringBuffer = ObjectRingBuffer.createSingleProducer(Constants.SIZE, new YieldingWaitStrategy());
     }
 
     public void run()
@@ -30,7 +29,7 @@ public class CustomPerformanceTest
 
     private void doRun() throws InterruptedException
     {
-        BatchEventProcessor<?> batchEventProcessor = ringBuffer.createHandler(new SimpleEventHandler());
+        BatchEventProcessor<?> batchEventProcessor = ringBuffer.newEventProcessor(new SimpleEventHandler());
 
         Thread t = new Thread(batchEventProcessor);
         t.start();
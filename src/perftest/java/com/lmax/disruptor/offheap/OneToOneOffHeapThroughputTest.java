@@ -2,20 +2,15 @@ package com.lmax.disruptor.offheap;
 
 import com.lmax.disruptor.AbstractPerfTestDisruptor;
 import com.lmax.disruptor.BatchEventProcessor;
-import com.lmax.disruptor.DataProvider;
 import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.OffHeapRingBuffer;
 import com.lmax.disruptor.PerfTestContext;
-import com.lmax.disruptor.Sequence;
-import com.lmax.disruptor.SequenceBarrier;
-import com.lmax.disruptor.Sequencer;
-import com.lmax.disruptor.SingleProducerSequencer;
 import com.lmax.disruptor.WaitStrategy;
 import com.lmax.disruptor.YieldingWaitStrategy;
 import com.lmax.disruptor.util.DaemonThreadFactory;
 import com.lmax.disruptor.util.PaddedLong;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.util.Random;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
@@ -30,8 +25,7 @@ public class OneToOneOffHeapThroughputTest extends AbstractPerfTestDisruptor
 
     private final Executor executor = Executors.newFixedThreadPool(1, DaemonThreadFactory.INSTANCE);
     private final WaitStrategy waitStrategy = new YieldingWaitStrategy();
-    private final OffHeapRingBuffer buffer =
-        new OffHeapRingBuffer(new SingleProducerSequencer(BUFFER_SIZE, waitStrategy), BLOCK_SIZE);
+    private final OffHeapRingBuffer buffer = OffHeapRingBuffer.createSingleProducer(BUFFER_SIZE, BLOCK_SIZE, waitStrategy);
     private final ByteBufferHandler handler = new ByteBufferHandler();
     private final BatchEventProcessor<ByteBuffer> processor =
             new BatchEventProcessor<>(buffer, buffer.newBarrier(), handler);
@@ -70,7 +64,7 @@ public class OneToOneOffHeapThroughputTest extends AbstractPerfTestDisruptor
 
         for (long i = 0; i < ITERATIONS; i++)
         {
-            rb.put(data);
+            rb.put(data, 0, BLOCK_SIZE);
         }
 
         latch.await();
@@ -141,70 +135,4 @@ public class OneToOneOffHeapThroughputTest extends AbstractPerfTestDisruptor
             batchesProcessed.increment();
         }
     }
-
-    public static class OffHeapRingBuffer implements DataProvider<ByteBuffer>
-    {
-        private final Sequencer sequencer;
-        private final int entrySize;
-        private final ByteBuffer buffer;
-        private final int mask;
-
-        private final ThreadLocal<ByteBuffer> perThreadBuffer = new ThreadLocal<>()
-        {
-            @Override
-            protected ByteBuffer initialValue()
-            {
-                return buffer.duplicate().order(ByteOrder.nativeOrder());
-            }
-        };
-
-        public OffHeapRingBuffer(final Sequencer sequencer, final int entrySize)
-        {
-            this.sequencer = sequencer;
-            this.entrySize = entrySize;
-            this.mask = sequencer.getBufferSize() - 1;
-            buffer = ByteBuffer.allocateDirect(sequencer.getBufferSize() * entrySize).order(ByteOrder.nativeOrder());
-        }
-
-        public void addGatingSequences(final Sequence sequence)
-        {
-            sequencer.addGatingSequences(sequence);
-        }
-
-        public SequenceBarrier newBarrier()
-        {
-            return sequencer.newBarrier();
-        }
-
-        @Override
-        public ByteBuffer get(final long sequence)
-        {
-            int index = index(sequence);
-            int position = index * entrySize;
-            int limit = position + entrySize;
-
-            ByteBuffer byteBuffer = perThreadBuffer.get();
-            byteBuffer.position(position).limit(limit);
-
-            return byteBuffer;
-        }
-
-        public void put(final byte[] data)
-        {
-            long next = sequencer.next();
-            try
-            {
-                get(next).put(data);
-            }
-            finally
-            {
-                sequencer.publish(next);
-            }
-        }
-
-        private int index(final long next)
-        {
-            return (int) (next & mask);
-        }
-    }
 }
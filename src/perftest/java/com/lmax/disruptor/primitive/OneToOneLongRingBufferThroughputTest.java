@@ -0,0 +1,145 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.primitive;
+
+import com.lmax.disruptor.AbstractPerfTestDisruptor;
+import com.lmax.disruptor.BatchEventProcessor;
+import com.lmax.disruptor.LongEventHandler;
+import com.lmax.disruptor.LongRingBuffer;
+import com.lmax.disruptor.PerfTestContext;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.lmax.disruptor.support.PerfTestUtil;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import com.lmax.disruptor.util.PaddedLong;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.lmax.disruptor.support.PerfTestUtil.failIfNot;
+
+/**
+ * <pre>
+ * UniCast a series of longs between 1 publisher and 1 event processor through a {@link LongRingBuffer},
+ * for comparison with {@link com.lmax.disruptor.sequenced.OneToOneSequencedThroughputTest} which
+ * moves the same values through preallocated event objects.
+ *
+ * +----+    +-----+
+ * | P1 |--->| EP1 |
+ * +----+    +-----+
+ * </pre>
+ */
+public final class OneToOneLongRingBufferThroughputTest extends AbstractPerfTestDisruptor
+{
+    private static final int BUFFER_SIZE = 1024 * 64;
+    private static final long ITERATIONS = 1000L * 1000L * 100L;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(DaemonThreadFactory.INSTANCE);
+    private final long expectedResult = PerfTestUtil.accumulatedAddition(ITERATIONS);
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private final LongRingBuffer ringBuffer = LongRingBuffer.createSingleProducer(BUFFER_SIZE, new YieldingWaitStrategy());
+    private final ValueAdditionLongEventHandler handler = new ValueAdditionLongEventHandler();
+    private final BatchEventProcessor<LongRingBuffer> batchEventProcessor =
+        ringBuffer.newEventProcessor(handler, ringBuffer.newBarrier());
+
+    {
+        ringBuffer.addGatingSequences(batchEventProcessor.getSequence());
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected int getRequiredProcessorCount()
+    {
+        return 2;
+    }
+
+    @Override
+    protected PerfTestContext runDisruptorPass() throws InterruptedException
+    {
+        PerfTestContext perfTestContext = new PerfTestContext();
+        final CountDownLatch latch = new CountDownLatch(1);
+        long expectedCount = batchEventProcessor.getSequence().get() + ITERATIONS;
+        handler.reset(latch, expectedCount);
+        executor.submit(batchEventProcessor);
+        long start = System.currentTimeMillis();
+
+        final LongRingBuffer rb = ringBuffer;
+
+        for (long i = 0; i < ITERATIONS; i++)
+        {
+            rb.put(i);
+        }
+
+        latch.await();
+        perfTestContext.setDisruptorOps((ITERATIONS * 1000L) / (System.currentTimeMillis() - start));
+        perfTestContext.setBatchData(handler.batchesProcessed.get(), ITERATIONS);
+        waitForEventProcessorSequence(expectedCount);
+        batchEventProcessor.halt();
+
+        failIfNot(expectedResult, handler.value.get());
+
+        return perfTestContext;
+    }
+
+    private void waitForEventProcessorSequence(final long expectedCount) throws InterruptedException
+    {
+        while (batchEventProcessor.getSequence().get() != expectedCount)
+        {
+            Thread.sleep(1);
+        }
+    }
+
+    public static void main(final String[] args) throws Exception
+    {
+        OneToOneLongRingBufferThroughputTest test = new OneToOneLongRingBufferThroughputTest();
+        test.testImplementations();
+    }
+
+    private static final class ValueAdditionLongEventHandler implements LongEventHandler
+    {
+        private final PaddedLong value = new PaddedLong();
+        private final PaddedLong batchesProcessed = new PaddedLong();
+        private long count;
+        private CountDownLatch latch;
+
+        void reset(final CountDownLatch latch, final long expectedCount)
+        {
+            value.set(0L);
+            batchesProcessed.set(0L);
+            this.latch = latch;
+            count = expectedCount;
+        }
+
+        @Override
+        public void onEvent(final long event, final long sequence, final boolean endOfBatch)
+        {
+            value.set(value.get() + event);
+
+            if (count == sequence)
+            {
+                latch.countDown();
+            }
+        }
+
+        @Override
+        public void onBatchStart(final long batchSize)
+        {
+            batchesProcessed.increment();
+        }
+    }
+}
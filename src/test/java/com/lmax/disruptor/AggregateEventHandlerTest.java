@@ -20,6 +20,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SuppressWarnings("unchecked")
 public final class AggregateEventHandlerTest
@@ -64,6 +65,26 @@ public final class AggregateEventHandlerTest
         assertShutoownCalls(1, eh1, eh2, eh3);
     }
 
+    @Test
+    public void shouldRejectHandlerThatAdvancesItsOwnSequence()
+    {
+        final EventHandler<int[]> journal = new EventHandler<int[]>()
+        {
+            @Override
+            public void onEvent(final int[] event, final long sequence, final boolean endOfBatch)
+            {
+            }
+
+            @Override
+            public boolean advancesOwnSequence()
+            {
+                return true;
+            }
+        };
+
+        assertThrows(IllegalArgumentException.class, () -> new AggregateEventHandler<>(eh1, journal));
+    }
+
     @Test
     public void shouldHandleEmptyListOfEventHandlers() throws Exception
     {
@@ -27,6 +27,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import static com.lmax.disruptor.RingBuffer.createMultiProducer;
+import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -97,6 +98,160 @@ public final class BatchEventProcessorTest
         thread.join();
     }
 
+    @Test
+    public void shouldFlushAndSignalDrainOnReachingTarget() throws Exception
+    {
+        final List<Long> flushed = new ArrayList<>();
+        final List<Thread> flushingThreads = new ArrayList<>();
+        final BatchEventProcessor<StubEvent> batchEventProcessor = new BatchEventProcessor<>(
+                ringBuffer, sequenceBarrier, new EventHandler<StubEvent>()
+        {
+            @Override
+            public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+            {
+            }
+
+            @Override
+            public void onFlush(final long sequence)
+            {
+                flushed.add(sequence);
+                flushingThreads.add(Thread.currentThread());
+            }
+        });
+        ringBuffer.addGatingSequences(batchEventProcessor.getSequence());
+
+        final CountDownLatch drained = new CountDownLatch(1);
+        assertTrue(batchEventProcessor.drainTo(2, drained));
+        assertThat(drained.getCount(), is(1L));
+
+        final long hi = ringBuffer.next(3);
+        ringBuffer.publish(hi - 2, hi);
+        Thread thread = new Thread(batchEventProcessor);
+        thread.start();
+
+        assertTrue(drained.await(2, TimeUnit.SECONDS));
+        assertThat(flushed, is(List.of(2L)));
+
+        // the processor has already passed the target, so it is woken to flush on its own thread
+        final CountDownLatch alreadyDrained = new CountDownLatch(1);
+        batchEventProcessor.drainTo(1, alreadyDrained);
+        assertTrue(alreadyDrained.await(2, TimeUnit.SECONDS));
+        assertThat(flushed, is(List.of(2L, 2L)));
+        assertThat(flushingThreads, is(List.of(thread, thread)));
+
+        batchEventProcessor.halt();
+        thread.join();
+    }
+
+    @Test
+    public void shouldReleaseDrainWithoutFlushingWhenStoppedBeforeReachingTarget() throws Exception
+    {
+        final List<Long> flushed = new ArrayList<>();
+        final BatchEventProcessor<StubEvent> batchEventProcessor = new BatchEventProcessor<>(
+                ringBuffer, sequenceBarrier, new EventHandler<StubEvent>()
+        {
+            @Override
+            public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+            {
+            }
+
+            @Override
+            public void onFlush(final long sequence)
+            {
+                flushed.add(sequence);
+            }
+        });
+        ringBuffer.addGatingSequences(batchEventProcessor.getSequence());
+
+        Thread thread = new Thread(batchEventProcessor);
+        thread.start();
+        final CountDownLatch pending = new CountDownLatch(1);
+        batchEventProcessor.drainTo(5, pending);
+        batchEventProcessor.halt();
+        thread.join();
+
+        assertThat(pending.getCount(), is(0L));
+
+        final CountDownLatch afterStop = new CountDownLatch(1);
+        assertTrue(batchEventProcessor.drainTo(5, afterStop));
+        assertThat(afterStop.getCount(), is(0L));
+        assertThat(flushed, is(List.of()));
+    }
+
+    @Test
+    public void shouldCheckpointAtEndOfBatchOnceIntervalHasPassedAndOnHalt() throws Exception
+    {
+        final List<Long> checkpoints = new ArrayList<>();
+        final BatchEventProcessor<StubEvent> batchEventProcessor = new BatchEventProcessor<>(
+                ringBuffer, sequenceBarrier, (event, sequence, endOfBatch) ->
+        {
+        });
+        batchEventProcessor.setSequenceCheckpointer(checkpoints::add, 2);
+        ringBuffer.addGatingSequences(batchEventProcessor.getSequence());
+
+        final long hi = ringBuffer.next(3);
+        ringBuffer.publish(hi - 2, hi);
+        Thread thread = new Thread(batchEventProcessor);
+        thread.start();
+        while (batchEventProcessor.getSequence().get() < 2)
+        {
+            Thread.yield();
+        }
+
+        ringBuffer.publish(ringBuffer.next());
+        while (batchEventProcessor.getSequence().get() < 3)
+        {
+            Thread.yield();
+        }
+
+        batchEventProcessor.halt();
+        thread.join();
+        assertThat(checkpoints, is(List.of(2L, 3L)));
+    }
+
+    @Test
+    public void shouldRejectCheckpointIntervalLessThanOne()
+    {
+        final BatchEventProcessor<StubEvent> batchEventProcessor = new BatchEventProcessor<>(
+                ringBuffer, sequenceBarrier, (event, sequence, endOfBatch) ->
+        {
+        });
+
+        assertThrows(IllegalArgumentException.class, () -> batchEventProcessor.setSequenceCheckpointer(new ArrayList<Long>()::add, 0));
+    }
+
+    @Test
+    public void shouldLeaveSequenceToHandlerThatAdvancesItsOwn() throws Exception
+    {
+        final CountDownLatch processed = new CountDownLatch(3);
+        final BatchEventProcessor<StubEvent> batchEventProcessor = new BatchEventProcessor<>(
+                ringBuffer, sequenceBarrier, new EventHandler<StubEvent>()
+        {
+            @Override
+            public void onEvent(final StubEvent event, final long sequence, final boolean endOfBatch)
+            {
+                processed.countDown();
+            }
+
+            @Override
+            public boolean advancesOwnSequence()
+            {
+                return true;
+            }
+        });
+        ringBuffer.addGatingSequences(batchEventProcessor.getSequence());
+
+        final long hi = ringBuffer.next(3);
+        ringBuffer.publish(hi - 2, hi);
+        Thread thread = new Thread(batchEventProcessor);
+        thread.start();
+
+        assertTrue(processed.await(2, TimeUnit.SECONDS));
+        batchEventProcessor.halt();
+        thread.join();
+        assertThat(batchEventProcessor.getSequence().get(), is(Sequencer.INITIAL_CURSOR_VALUE));
+    }
+
     private static class LatchEventHandler implements EventHandler<StubEvent>
     {
         private final CountDownLatch latch;
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.dsl.PrimitiveDisruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ColumnarRingBufferTest
+{
+    @Test
+    public void shouldWriteAndReadEachColumn()
+    {
+        final ColumnarRingBuffer.Builder builder = new ColumnarRingBuffer.Builder(4);
+        final ColumnarRingBuffer.LongColumn id = builder.addLongColumn();
+        final ColumnarRingBuffer.IntColumn quantity = builder.addIntColumn();
+        final ColumnarRingBuffer.DoubleColumn price = builder.addDoubleColumn();
+        final ColumnarRingBuffer.BytesColumn venue = builder.addBytesColumn(8);
+        final ColumnarRingBuffer ringBuffer = builder.build(ProducerType.SINGLE, new BlockingWaitStrategy());
+
+        final byte[] name = "XLON".getBytes(StandardCharsets.US_ASCII);
+        ringBuffer.publishEvent((event, sequence) ->
+        {
+            id.set(sequence, 17L);
+            quantity.set(sequence, 300);
+            price.set(sequence, 101.25);
+            venue.set(sequence, name, 0, name.length);
+        });
+
+        final byte[] copy = new byte[8];
+        assertThat(ringBuffer.getColumnCount(), is(4));
+        assertThat(ringBuffer.get(0), is(ringBuffer));
+        assertThat(id.get(0), is(17L));
+        assertThat(quantity.get(4), is(300));
+        assertThat(price.get(0), is(101.25));
+        assertThat(venue.get(0, copy, 0), is(4));
+        assertThat(new String(copy, 0, venue.length(0), StandardCharsets.US_ASCII), is("XLON"));
+        assertThat(new String(venue.array(), venue.offset(0), venue.length(0), StandardCharsets.US_ASCII), is("XLON"));
+    }
+
+    @Test
+    public void shouldRejectBytesLongerThanColumn()
+    {
+        final ColumnarRingBuffer.Builder builder = new ColumnarRingBuffer.Builder(4);
+        final ColumnarRingBuffer.BytesColumn bytes = builder.addBytesColumn(2);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> bytes.set(0, new byte[3], 0, 3));
+        assertThrows(IllegalArgumentException.class, () -> new ColumnarRingBuffer.Builder(3));
+    }
+
+    @Test
+    public void shouldPublishBatchAndStopWhenFull()
+    {
+        final ColumnarRingBuffer.Builder builder = new ColumnarRingBuffer.Builder(4);
+        final ColumnarRingBuffer.LongColumn value = builder.addLongColumn();
+        final ColumnarRingBuffer ringBuffer = builder.build(ProducerType.MULTI, new BlockingWaitStrategy());
+        ringBuffer.addGatingSequences(new Sequence());
+
+        ringBuffer.publishEvents((event, sequence, arg) -> value.set(sequence, arg), new Long[] {5L, 6L, 7L});
+        assertTrue(ringBuffer.tryPublishEvent((event, sequence) -> value.set(sequence, 8L)));
+        assertFalse(ringBuffer.tryPublishEvent((event, sequence) -> value.set(sequence, 9L)));
+
+        assertThat(value.get(2), is(7L));
+        assertThat(value.get(3), is(8L));
+    }
+
+    @Test
+    public void shouldConsumeSingleColumnThroughDisruptor() throws Exception
+    {
+        final ColumnarRingBuffer.Builder builder = new ColumnarRingBuffer.Builder(16);
+        final ColumnarRingBuffer.LongColumn id = builder.addLongColumn();
+        final ColumnarRingBuffer.DoubleColumn price = builder.addDoubleColumn();
+        final ColumnarRingBuffer ringBuffer = builder.build(ProducerType.MULTI, new BlockingWaitStrategy());
+
+        final double[] total = new double[1];
+        final CountDownLatch done = new CountDownLatch(100);
+        final PrimitiveDisruptor<ColumnarRingBuffer, EventHandler<ColumnarRingBuffer>> disruptor =
+            new PrimitiveDisruptor<>(ringBuffer, DaemonThreadFactory.INSTANCE);
+        disruptor.handleEventsWith((event, sequence, endOfBatch) ->
+        {
+            total[0] += price.get(sequence);
+            done.countDown();
+        });
+        disruptor.start();
+
+        for (int i = 0; i < 100; i++)
+        {
+            ringBuffer.publishEvent((event, sequence, arg) ->
+            {
+                id.set(sequence, arg);
+                price.set(sequence, arg * 0.5);
+            }, i);
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        disruptor.shutdown(5, TimeUnit.SECONDS);
+
+        assertThat(total[0], is(0.5 * 99 * 100 / 2));
+    }
+}
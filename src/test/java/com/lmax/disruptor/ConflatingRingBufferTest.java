@@ -0,0 +1,121 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConflatingRingBufferTest
+{
+    @Test
+    public void shouldReplacePendingUpdateForSameKey()
+    {
+        final ConflatingRingBuffer<String, Integer> ringBuffer = ConflatingRingBuffer.create(8, new BlockingWaitStrategy());
+        ringBuffer.newEventProcessor(ConflatingRingBufferTest::ignore);
+
+        ringBuffer.put("a", 1);
+        ringBuffer.put("b", 2);
+        assertTrue(ringBuffer.tryPut("a", 3));
+
+        assertThat(ringBuffer.getCursor(), is(1L));
+        assertThat(ringBuffer.get(0), is(3));
+        assertThat(ringBuffer.get(1), is(2));
+        assertThat(ringBuffer.getConflatedCount(), is(1L));
+    }
+
+    @Test
+    public void shouldPublishToNewSlotOnceUpdateHasBeenConsumed() throws Exception
+    {
+        final ConflatingRingBuffer<String, Integer> ringBuffer = ConflatingRingBuffer.create(8, new BlockingWaitStrategy());
+        final List<Integer> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(2);
+        final BatchEventProcessor<Integer> processor = ringBuffer.newEventProcessor((value, sequence, endOfBatch) ->
+        {
+            received.add(value);
+            latch.countDown();
+        });
+        DaemonThreadFactory.INSTANCE.newThread(processor).start();
+
+        ringBuffer.put("a", 1);
+        while (processor.getSequence().get() < 0L)
+        {
+            LockSupport.parkNanos(1000L);
+        }
+        ringBuffer.put("a", 2);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertThat(received, is(List.of(1, 2)));
+        assertThat(ringBuffer.getCursor(), is(1L));
+        assertThat(ringBuffer.get(0), nullValue());
+        assertThat(ringBuffer.getConflatedCount(), is(0L));
+        processor.halt();
+    }
+
+    @Test
+    public void shouldNotReplaceValueInReusedSlot()
+    {
+        final ConflatingRingBuffer<String, Integer> ringBuffer = ConflatingRingBuffer.create(2, new BlockingWaitStrategy());
+
+        ringBuffer.put("a", 1);
+        ringBuffer.put("b", 2);
+        ringBuffer.put("c", 3);
+        ringBuffer.put("a", 4);
+
+        assertThat(ringBuffer.getCursor(), is(3L));
+        assertThat(ringBuffer.get(2), is(3));
+        assertThat(ringBuffer.get(3), is(4));
+    }
+
+    @Test
+    public void shouldFailToPutWhenFullUnlessConflating()
+    {
+        final ConflatingRingBuffer<String, Integer> ringBuffer = ConflatingRingBuffer.create(2, new BlockingWaitStrategy());
+        ringBuffer.newEventProcessor(ConflatingRingBufferTest::ignore);
+
+        ringBuffer.put("a", 1);
+        ringBuffer.put("b", 2);
+
+        assertFalse(ringBuffer.tryPut("c", 3));
+        assertTrue(ringBuffer.tryPut("b", 4));
+        assertThat(ringBuffer.get(1), is(4));
+    }
+
+    @Test
+    public void shouldOnlyAllowOneConsumer()
+    {
+        final ConflatingRingBuffer<String, Integer> ringBuffer = ConflatingRingBuffer.create(4, new BlockingWaitStrategy());
+        ringBuffer.newEventProcessor(ConflatingRingBufferTest::ignore);
+
+        assertThrows(IllegalStateException.class, () -> ringBuffer.newEventProcessor(ConflatingRingBufferTest::ignore));
+    }
+
+    private static <T> void ignore(final T event, final long sequence, final boolean endOfBatch)
+    {
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DoubleRingBufferTest
+{
+    @Test
+    public void shouldPutAndGetValues()
+    {
+        final DoubleRingBuffer ringBuffer = DoubleRingBuffer.createMultiProducer(4, new BlockingWaitStrategy());
+        ringBuffer.addGatingSequences(new Sequence());
+
+        ringBuffer.put(new double[] {1.5, 2.25, Double.NaN}, 0, 3);
+        assertTrue(ringBuffer.tryPut((double) 3));
+        assertFalse(ringBuffer.tryPut((double) 4));
+
+        assertThat(ringBuffer.get(2), is(Double.NaN));
+        assertThat(ringBuffer.get(7), is((double) 3));
+    }
+
+    @Test
+    public void shouldPassValuesToEventProcessor() throws Exception
+    {
+        final DoubleRingBuffer ringBuffer = DoubleRingBuffer.createSingleProducer(4, new BlockingWaitStrategy());
+        final double[] received = new double[8];
+        final CountDownLatch done = new CountDownLatch(received.length);
+
+        final BatchEventProcessor<DoubleRingBuffer> processor = ringBuffer.newEventProcessor(
+            (value, sequence, endOfBatch) ->
+            {
+                received[(int) sequence] = value;
+                done.countDown();
+            }, ringBuffer.newBarrier());
+        ringBuffer.addGatingSequences(processor.getSequence());
+        final Thread thread = DaemonThreadFactory.INSTANCE.newThread(processor);
+        thread.start();
+
+        for (int i = 0; i < received.length; i++)
+        {
+            ringBuffer.put((double) (i * 3));
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join();
+
+        for (int i = 0; i < received.length; i++)
+        {
+            assertThat(received[i], is((double) (i * 3)));
+        }
+    }
+}
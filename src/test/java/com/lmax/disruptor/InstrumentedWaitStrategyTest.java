@@ -0,0 +1,116 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.DummySequenceBarrier;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InstrumentedWaitStrategyTest
+{
+    @Test
+    public void shouldCountSpinsYieldsAndParks() throws Exception
+    {
+        final InstrumentedWaitStrategy waitStrategy = new InstrumentedWaitStrategy(new SleepingWaitStrategy());
+        final SequenceBarrier barrier = new DummySequenceBarrier();
+        final Sequence cursor = new Sequence(0);
+        final Sequence dependent = new Sequence();
+
+        final Thread updater = new Thread(() ->
+        {
+            try
+            {
+                Thread.sleep(50);
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            dependent.set(0);
+        });
+        updater.start();
+
+        final long sequence = waitStrategy.waitFor(0, cursor, dependent, barrier);
+        updater.join();
+
+        final WaitStatistics statistics = waitStrategy.getStatistics(barrier);
+        assertThat(sequence, is(0L));
+        assertThat(statistics.getWaitCount(), is(1L));
+        assertThat(statistics.getSpinCount(), is(100L));
+        assertThat(statistics.getYieldCount(), is(100L));
+        assertTrue(statistics.getParkCount() > 0);
+        assertTrue(statistics.getMaxWaitNanos() > 0);
+        assertTrue(statistics.getWaitNanosAtPercentile(100) >= statistics.getMaxWaitNanos());
+    }
+
+    @Test
+    public void shouldRecordWaitThatReturnsImmediately() throws Exception
+    {
+        final InstrumentedWaitStrategy waitStrategy = new InstrumentedWaitStrategy(new BusySpinWaitStrategy());
+        final SequenceBarrier barrier = new DummySequenceBarrier();
+        final Sequence cursor = new Sequence(10);
+
+        waitStrategy.waitFor(5, cursor, cursor, barrier);
+        waitStrategy.waitFor(6, cursor, cursor, barrier);
+
+        final WaitStatistics statistics = waitStrategy.getStatistics(barrier);
+        assertThat(statistics.getWaitCount(), is(2L));
+        assertThat(statistics.getSpinCount(), is(0L));
+        assertThat(statistics.getYieldCount(), is(0L));
+        assertThat(statistics.getParkCount(), is(0L));
+    }
+
+    @Test
+    public void shouldCountTimeouts()
+    {
+        final InstrumentedWaitStrategy waitStrategy =
+            new InstrumentedWaitStrategy(new TimeoutBlockingWaitStrategy(1, TimeUnit.MILLISECONDS));
+        final SequenceBarrier barrier = new DummySequenceBarrier();
+        final Sequence cursor = new Sequence(5);
+
+        assertThrows(TimeoutException.class, () -> waitStrategy.waitFor(6, cursor, cursor, barrier));
+
+        final WaitStatistics statistics = waitStrategy.getStatistics(barrier);
+        assertThat(statistics.getTimeoutCount(), is(1L));
+        assertTrue(statistics.getParkCount() > 0);
+    }
+
+    @Test
+    public void shouldKeepSeparateStatisticsPerBarrier() throws Exception
+    {
+        final InstrumentedWaitStrategy waitStrategy = new InstrumentedWaitStrategy(new BusySpinWaitStrategy());
+        final SequenceBarrier barrierOne = new DummySequenceBarrier();
+        final SequenceBarrier barrierTwo = new DummySequenceBarrier();
+        final Sequence cursor = new Sequence(10);
+
+        waitStrategy.waitFor(1, cursor, cursor, barrierOne);
+        waitStrategy.waitFor(1, cursor, cursor, barrierTwo);
+        waitStrategy.waitFor(2, cursor, cursor, barrierTwo);
+
+        assertThat(waitStrategy.getStatistics(barrierOne).getWaitCount(), is(1L));
+        assertThat(waitStrategy.getStatistics(barrierTwo).getWaitCount(), is(2L));
+        assertThat(waitStrategy.getStatistics(barrierOne), is(not(sameInstance(waitStrategy.getStatistics(barrierTwo)))));
+        assertThat(waitStrategy.getAllStatistics().length, is(2));
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.JournalingEventHandler.EventCodec;
+import com.lmax.disruptor.JournalingEventHandler.SyncPolicy;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.support.LongEvent;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JournalingEventHandlerTest
+{
+    private static final EventCodec<LongEvent> CODEC = (event, sequence, buffer) -> buffer.putLong(event.get());
+
+    private final AtomicLong cursor = new AtomicLong(Sequencer.INITIAL_CURSOR_VALUE);
+    private final Sequence sequence = new Sequence();
+    private Path file;
+    private FileChannel channel;
+
+    @BeforeEach
+    public void setUp() throws IOException
+    {
+        file = Files.createTempFile("disruptor", ".journal");
+        channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException
+    {
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void shouldWriteAndForceEveryBatch() throws Exception
+    {
+        final JournalingEventHandler<LongEvent> journal = newJournal(SyncPolicy.EVERY_BATCH, 0, 64, 1, () -> 0L);
+        cursor.set(5L);
+
+        handleBatch(journal, 0, 2);
+        assertThat(sequence.get(), is(2L));
+        assertJournalContains(0, 1, 2);
+    }
+
+    @Test
+    public void shouldHoldBackSequenceUntilEnoughBytesAreWritten() throws Exception
+    {
+        final JournalingEventHandler<LongEvent> journal = newJournal(SyncPolicy.EVERY_BYTES, 32, 64, 1, () -> 0L);
+        cursor.set(10L);
+
+        handleBatch(journal, 0, 1);
+        assertJournalContains(0, 1);
+        assertThat(sequence.get(), is(Sequencer.INITIAL_CURSOR_VALUE));
+
+        handleBatch(journal, 2, 3);
+        assertThat(sequence.get(), is(3L));
+
+        handleBatch(journal, 4, 4);
+        assertThat(sequence.get(), is(3L));
+    }
+
+    @Test
+    public void shouldForceOnceIntervalHasPassed() throws Exception
+    {
+        final AtomicLong clock = new AtomicLong();
+        final JournalingEventHandler<LongEvent> journal = newJournal(SyncPolicy.EVERY_INTERVAL, 2, 64, 1, clock::get);
+        cursor.set(10L);
+
+        handleBatch(journal, 0, 0);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        handleBatch(journal, 1, 1);
+        assertThat(sequence.get(), is(Sequencer.INITIAL_CURSOR_VALUE));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        handleBatch(journal, 2, 2);
+        assertThat(sequence.get(), is(2L));
+    }
+
+    @Test
+    public void shouldForceWhenNoFurtherEventHasBeenPublished() throws Exception
+    {
+        final JournalingEventHandler<LongEvent> journal = newJournal(SyncPolicy.EVERY_BYTES, 1024, 64, 1, () -> 0L);
+        cursor.set(1L);
+
+        handleBatch(journal, 0, 0);
+        assertThat(sequence.get(), is(Sequencer.INITIAL_CURSOR_VALUE));
+
+        handleBatch(journal, 1, 1);
+        assertThat(sequence.get(), is(1L));
+    }
+
+    @Test
+    public void shouldGatherBatchLargerThanOneSegment() throws Exception
+    {
+        final JournalingEventHandler<LongEvent> journal = newJournal(SyncPolicy.EVERY_BATCH, 0, 16, 2, () -> 0L);
+        cursor.set(4L);
+
+        handleBatch(journal, 0, 4);
+        assertThat(sequence.get(), is(4L));
+        assertJournalContains(0, 1, 2, 3, 4);
+    }
+
+    @Test
+    public void shouldRejectEventLargerThanSegmentAndCarryOn() throws Exception
+    {
+        final JournalingEventHandler<LongEvent> journal = new JournalingEventHandler<>(
+            cursor::get, channel, (event, sequence, buffer) -> buffer.put(new byte[(int) event.get()]),
+            SyncPolicy.EVERY_BATCH, 0, 16, 1);
+        journal.setSequenceCallback(sequence);
+        journal.onStart();
+        cursor.set(1L);
+
+        assertThrows(IllegalArgumentException.class, () -> journal.onEvent(event(17), 0, false));
+        journal.onEvent(event(8), 1, true);
+        assertThat(sequence.get(), is(1L));
+        assertThat(channel.size(), is(8L));
+    }
+
+    @Test
+    public void shouldStopAdvancingSequenceAfterFailedWrite() throws Exception
+    {
+        final JournalingEventHandler<LongEvent> journal = newJournal(SyncPolicy.EVERY_BATCH, 0, 64, 1, () -> 0L);
+        cursor.set(5L);
+
+        handleBatch(journal, 0, 1);
+        assertThat(sequence.get(), is(1L));
+
+        channel.close();
+        journal.onEvent(event(2), 2, false);
+        assertThrows(IOException.class, () -> journal.onEvent(event(3), 3, true));
+        assertThat(sequence.get(), is(1L));
+
+        assertThrows(IOException.class, () -> journal.onEvent(event(4), 4, true));
+        assertThrows(IOException.class, () -> journal.onFlush(4));
+        assertThrows(UncheckedIOException.class, journal::onShutdown);
+        assertThat(sequence.get(), is(1L));
+        assertJournalContains(0, 1);
+    }
+
+    @Test
+    public void shouldOnlyLetDependentHandlersSeeDurableEvents() throws Exception
+    {
+        final int count = 1000;
+        final Disruptor<LongEvent> disruptor = new Disruptor<>(LongEvent.FACTORY, 64, DaemonThreadFactory.INSTANCE);
+        final JournalingEventHandler<LongEvent> journal = new JournalingEventHandler<>(
+            disruptor.getRingBuffer(), channel, CODEC, SyncPolicy.EVERY_BYTES, 256);
+        final AtomicBoolean durable = new AtomicBoolean(true);
+        final CountDownLatch latch = new CountDownLatch(count);
+
+        disruptor.handleEventsWith(journal).then((event, sequence, endOfBatch) ->
+        {
+            if (channel.size() < (sequence + 1) * Long.BYTES)
+            {
+                durable.set(false);
+            }
+            latch.countDown();
+        });
+        disruptor.start();
+
+        for (long i = 0; i < count; i++)
+        {
+            disruptor.publishEvent((event, sequence, value) -> event.set(value), i);
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        disruptor.shutdown();
+        assertTrue(durable.get());
+        assertThat(channel.size(), is((long) count * Long.BYTES));
+    }
+
+    private JournalingEventHandler<LongEvent> newJournal(
+        final SyncPolicy policy, final long syncThreshold, final int segmentSize, final int segmentCount, final LongSupplier clock)
+    {
+        final JournalingEventHandler<LongEvent> journal = new JournalingEventHandler<>(
+            cursor::get, channel, CODEC, policy, syncThreshold, segmentSize, segmentCount, clock);
+        journal.setSequenceCallback(sequence);
+        journal.onStart();
+        return journal;
+    }
+
+    private static void handleBatch(final JournalingEventHandler<LongEvent> journal, final long first, final long last) throws Exception
+    {
+        journal.onBatchStart(last - first + 1);
+        for (long i = first; i <= last; i++)
+        {
+            journal.onEvent(event(i), i, i == last);
+        }
+    }
+
+    private void assertJournalContains(final long... values) throws IOException
+    {
+        final ByteBuffer contents = ByteBuffer.wrap(Files.readAllBytes(file));
+        assertThat(contents.remaining(), is(values.length * Long.BYTES));
+        for (final long value : values)
+        {
+            assertThat(contents.getLong(), is(value));
+        }
+    }
+
+    private static LongEvent event(final long value)
+    {
+        final LongEvent event = new LongEvent();
+        event.set(value);
+        return event;
+    }
+}
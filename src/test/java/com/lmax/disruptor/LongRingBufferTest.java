@@ -0,0 +1,126 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LongRingBufferTest
+{
+    @Test
+    public void shouldPutAndGetValue()
+    {
+        final LongRingBuffer ringBuffer = LongRingBuffer.createSingleProducer(4, new BlockingWaitStrategy());
+
+        ringBuffer.put(Long.MAX_VALUE);
+        ringBuffer.put(-7L);
+
+        assertThat(ringBuffer.getCursor(), is(1L));
+        assertThat(ringBuffer.get(0), is(Long.MAX_VALUE));
+        assertThat(ringBuffer.get(1), is(-7L));
+    }
+
+    @Test
+    public void shouldPublishClaimedSequence()
+    {
+        final LongRingBuffer ringBuffer = LongRingBuffer.createMultiProducer(4, new BlockingWaitStrategy());
+
+        final long hi = ringBuffer.next(2);
+        ringBuffer.set(hi - 1, 3L);
+        ringBuffer.set(hi, 4L);
+        ringBuffer.publish(hi - 1, hi);
+
+        assertThat(ringBuffer.getCursor(), is(1L));
+        assertThat(ringBuffer.get(5), is(4L));
+    }
+
+    @Test
+    public void shouldPutBatch()
+    {
+        final LongRingBuffer ringBuffer = LongRingBuffer.createSingleProducer(8, new BlockingWaitStrategy());
+
+        ringBuffer.put(new long[] {9L, 1L, 2L, 3L, 9L}, 1, 3);
+
+        assertThat(ringBuffer.getCursor(), is(2L));
+        assertThat(ringBuffer.get(0), is(1L));
+        assertThat(ringBuffer.get(2), is(3L));
+        assertThrows(IndexOutOfBoundsException.class, () -> ringBuffer.put(new long[2], 1, 2));
+    }
+
+    @Test
+    public void shouldNotPutWhenFull()
+    {
+        final LongRingBuffer ringBuffer = LongRingBuffer.createSingleProducer(4, new BlockingWaitStrategy());
+        ringBuffer.addGatingSequences(new Sequence());
+
+        assertTrue(ringBuffer.tryPut(new long[] {1L, 2L, 3L}, 0, 3));
+        assertFalse(ringBuffer.tryPut(new long[] {4L, 5L}, 0, 2));
+        assertTrue(ringBuffer.tryPut(4L));
+        assertFalse(ringBuffer.tryPut(5L));
+        assertThat(ringBuffer.getCursor(), is(3L));
+    }
+
+    @Test
+    public void shouldPassValuesToEventProcessor() throws Exception
+    {
+        final int count = 1000;
+        final LongRingBuffer ringBuffer = LongRingBuffer.createMultiProducer(16, new BlockingWaitStrategy());
+        final long[] total = new long[1];
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(count);
+
+        final BatchEventProcessor<LongRingBuffer> processor = ringBuffer.newEventProcessor(
+            new LongEventHandler()
+            {
+                @Override
+                public void onEvent(final long value, final long sequence, final boolean endOfBatch)
+                {
+                    total[0] += value;
+                    done.countDown();
+                }
+
+                @Override
+                public void onStart()
+                {
+                    started.countDown();
+                }
+            }, ringBuffer.newBarrier());
+        ringBuffer.addGatingSequences(processor.getSequence());
+        final Thread thread = DaemonThreadFactory.INSTANCE.newThread(processor);
+        thread.start();
+
+        for (long i = 1; i <= count; i++)
+        {
+            ringBuffer.put(i);
+        }
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join();
+
+        assertThat(total[0], is(count * (count + 1L) / 2));
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.dsl.ProducerType;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedRingBufferTest
+{
+    private static final int ENTRY_SIZE = 16;
+
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException
+    {
+        file = Files.createTempFile("disruptor", ".ring");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException
+    {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void shouldConsumeAndCheckpointEntries() throws Exception
+    {
+        final MappedRingBuffer ringBuffer = open(ProducerType.SINGLE, 1);
+        final CountDownLatch latch = new CountDownLatch(3);
+        final List<Long> values = new ArrayList<>();
+
+        final BatchEventProcessor<ByteBuffer> processor = ringBuffer.newEventProcessor(0, (entry, sequence, endOfBatch) ->
+        {
+            values.add(entry.getLong());
+            latch.countDown();
+        });
+        final Thread thread = DaemonThreadFactory.INSTANCE.newThread(processor);
+        thread.start();
+
+        for (long i = 0; i < 3; i++)
+        {
+            ringBuffer.publishEvent((entry, sequence, value) -> entry.putLong(value), i * 10);
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join(5000);
+
+        assertThat(values, is(List.of(0L, 10L, 20L)));
+        assertThat(ringBuffer.getCheckpointSequence(0).get(), is(2L));
+    }
+
+    @Test
+    public void shouldCheckpointSequenceAdvancedByHandler() throws Exception
+    {
+        final MappedRingBuffer ringBuffer = open(ProducerType.SINGLE, 1);
+        final CountDownLatch latch = new CountDownLatch(3);
+
+        final BatchEventProcessor<ByteBuffer> processor = ringBuffer.newEventProcessor(0, new EventHandler<ByteBuffer>()
+        {
+            private Sequence sequenceCallback;
+
+            @Override
+            public void onEvent(final ByteBuffer entry, final long sequence, final boolean endOfBatch)
+            {
+                if (endOfBatch)
+                {
+                    sequenceCallback.set(sequence - 1);
+                }
+                latch.countDown();
+            }
+
+            @Override
+            public void setSequenceCallback(final Sequence sequenceCallback)
+            {
+                this.sequenceCallback = sequenceCallback;
+            }
+
+            @Override
+            public boolean advancesOwnSequence()
+            {
+                return true;
+            }
+        });
+        final Thread thread = DaemonThreadFactory.INSTANCE.newThread(processor);
+        thread.start();
+
+        for (long i = 0; i < 3; i++)
+        {
+            ringBuffer.publishEvent((entry, sequence, value) -> entry.putLong(value), i);
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join(5000);
+
+        assertThat(processor.getSequence().get(), is(1L));
+        assertThat(ringBuffer.getCheckpointSequence(0).get(), is(1L));
+    }
+
+    @Test
+    public void shouldReplayUncheckpointedEntriesAfterReopening() throws Exception
+    {
+        assertReplay(ProducerType.SINGLE);
+    }
+
+    @Test
+    public void shouldReplayUncheckpointedEntriesFromMultiProducerRingAfterReopening() throws Exception
+    {
+        assertReplay(ProducerType.MULTI);
+    }
+
+    @Test
+    public void shouldResumeEachConsumerFromItsOwnCheckpoint() throws Exception
+    {
+        final MappedRingBuffer ringBuffer = open(ProducerType.SINGLE, 2);
+        for (byte i = 0; i < 4; i++)
+        {
+            ringBuffer.put(new byte[]{i}, 0, 1);
+        }
+        ringBuffer.getCheckpointSequence(0).set(2L);
+        ringBuffer.getCheckpointSequence(1).set(0L);
+
+        final MappedRingBuffer reopened = open(ProducerType.SINGLE, 2);
+
+        assertThat(reopened.getCursor(), is(3L));
+        assertThat(reopened.newEventProcessor(0, MappedRingBufferTest::ignore).getSequence().get(), is(2L));
+        assertThat(reopened.newEventProcessor(1, MappedRingBufferTest::ignore).getSequence().get(), is(0L));
+        assertThat(reopened.remainingCapacity(), is((long) reopened.getBufferSize() - 3));
+    }
+
+    @Test
+    public void shouldGateProducerOnCheckpoints() throws Exception
+    {
+        final MappedRingBuffer ringBuffer = open(ProducerType.SINGLE, 1);
+        for (int i = 0; i < ringBuffer.getBufferSize(); i++)
+        {
+            assertTrue(ringBuffer.tryPublishEvent((entry, sequence) -> entry.putLong(sequence)));
+        }
+
+        assertFalse(ringBuffer.tryPublishEvent((entry, sequence) -> entry.putLong(sequence)));
+
+        ringBuffer.getCheckpointSequence(0).set(0L);
+
+        assertTrue(ringBuffer.tryPublishEvent((entry, sequence) -> entry.putLong(sequence)));
+    }
+
+    @Test
+    public void shouldRejectFileCreatedWithDifferentSizes() throws Exception
+    {
+        open(ProducerType.SINGLE, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> MappedRingBuffer.open(file, ProducerType.SINGLE, 8, ENTRY_SIZE * 2, 1, new BlockingWaitStrategy()));
+        assertThrows(IllegalArgumentException.class, () -> MappedRingBuffer.open(file, ProducerType.SINGLE, 8, ENTRY_SIZE, 2, new BlockingWaitStrategy()));
+    }
+
+    private void assertReplay(final ProducerType producerType) throws Exception
+    {
+        final MappedRingBuffer ringBuffer = open(producerType, 1);
+        for (long i = 0; i < 5; i++)
+        {
+            ringBuffer.publishEvent((entry, sequence, value) -> entry.putLong(value), i * 10);
+        }
+        ringBuffer.getCheckpointSequence(0).set(1L);
+
+        final MappedRingBuffer reopened = open(producerType, 1);
+        final CountDownLatch latch = new CountDownLatch(3);
+        final List<Long> values = new ArrayList<>();
+        final BatchEventProcessor<ByteBuffer> processor = reopened.newEventProcessor(0, (entry, sequence, endOfBatch) ->
+        {
+            values.add(entry.getLong());
+            latch.countDown();
+        });
+        final Thread thread = DaemonThreadFactory.INSTANCE.newThread(processor);
+        thread.start();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join(5000);
+
+        assertThat(reopened.getCursor(), is(4L));
+        assertThat(values, is(List.of(20L, 30L, 40L)));
+        assertThat(reopened.next(), is(5L));
+    }
+
+    private MappedRingBuffer open(final ProducerType producerType, final int consumers) throws IOException
+    {
+        return MappedRingBuffer.open(file, producerType, 8, ENTRY_SIZE, consumers, new BlockingWaitStrategy());
+    }
+
+    private static void ignore(final ByteBuffer entry, final long sequence, final boolean endOfBatch)
+    {
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MappedSequenceCheckpointerTest
+{
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException
+    {
+        file = Files.createTempFile("disruptor", ".checkpoint");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException
+    {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void shouldRestoreInitialCursorValueFromNewFile() throws Exception
+    {
+        assertThat(MappedSequenceCheckpointer.open(file).restore(), is(Sequencer.INITIAL_CURSOR_VALUE));
+    }
+
+    @Test
+    public void shouldRestoreLastCheckpointAfterReopening() throws Exception
+    {
+        final MappedSequenceCheckpointer checkpointer = MappedSequenceCheckpointer.open(file, true);
+        checkpointer.checkpoint(41L);
+        checkpointer.checkpoint(42L);
+
+        assertThat(MappedSequenceCheckpointer.open(file).restore(), is(42L));
+    }
+
+    @Test
+    public void shouldRejectFileThatIsNotACheckpoint() throws Exception
+    {
+        Files.write(file, new byte[]{1, 2, 3});
+        assertThrows(IllegalArgumentException.class, () -> MappedSequenceCheckpointer.open(file));
+
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        assertThrows(IllegalArgumentException.class, () -> MappedSequenceCheckpointer.open(file));
+    }
+}
@@ -19,6 +19,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class MultiProducerSequencerTest
 {
@@ -38,4 +39,54 @@ public class MultiProducerSequencerTest
         assertThat(publisher.isAvailable(5), is(true));
         assertThat(publisher.isAvailable(6), is(false));
     }
+
+    @Test
+    public void shouldTrackAvailabilityWithSlotStride()
+    {
+        final Sequencer strided = new MultiProducerSequencer(16, new BlockingWaitStrategy(), 4);
+
+        strided.publish(3);
+        strided.publish(5);
+
+        assertThat(strided.isAvailable(3), is(true));
+        assertThat(strided.isAvailable(4), is(false));
+        assertThat(strided.isAvailable(5), is(true));
+        assertThat(strided.isAvailable(19), is(false));
+        assertThat(strided.getHighestPublishedSequence(3, 5), is(3L));
+
+        strided.publish(4);
+        assertThat(strided.getHighestPublishedSequence(3, 5), is(5L));
+
+        strided.publish(17, 19);
+        assertThat(strided.isAvailable(19), is(true));
+        assertThat(strided.isAvailable(3), is(false));
+    }
+
+    @Test
+    public void shouldRejectInvalidSlotStride()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new MultiProducerSequencer(16, new BlockingWaitStrategy(), 3));
+        assertThrows(IllegalArgumentException.class, () -> new MultiProducerSequencer(16, new BlockingWaitStrategy(), 32));
+        assertThrows(IllegalArgumentException.class, () -> new MultiProducerSequencer(16, new BlockingWaitStrategy(), 0));
+    }
+
+    @Test
+    public void shouldMarkEverySequenceUnpublishedOnReset()
+    {
+        final Sequencer sequencer = new MultiProducerSequencer(8, new BlockingWaitStrategy());
+        for (int i = 0; i < 12; i++)
+        {
+            sequencer.publish(sequencer.next());
+        }
+
+        sequencer.reset();
+
+        assertThat(sequencer.getCursor(), is(Sequencer.INITIAL_CURSOR_VALUE));
+        for (long sequence = 0; sequence < 16; sequence++)
+        {
+            assertThat(sequencer.isAvailable(sequence), is(false));
+        }
+        sequencer.publish(sequencer.next());
+        assertThat(sequencer.getHighestPublishedSequence(0, 7), is(0L));
+    }
 }
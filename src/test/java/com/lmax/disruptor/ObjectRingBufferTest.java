@@ -0,0 +1,166 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ObjectRingBufferTest
+{
+    @Test
+    public void shouldPublishReferencesWithoutCopying() throws Exception
+    {
+        final ObjectRingBuffer<CharSequence> ringBuffer = ObjectRingBuffer.createSingleProducer(8, new BlockingWaitStrategy());
+        final StringBuilder first = new StringBuilder("first");
+        final List<CharSequence> received = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(3);
+
+        final BatchEventProcessor<CharSequence> processor = ringBuffer.newEventProcessor((event, sequence, endOfBatch) ->
+        {
+            received.add(event);
+            latch.countDown();
+        });
+        start(processor);
+
+        ringBuffer.put(first);
+        ringBuffer.publishAll(new CharSequence[]{"second", "third"});
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertThat(received.get(0), sameInstance(first));
+        assertThat(received.subList(1, 3), is(List.<CharSequence>of("second", "third")));
+        processor.halt();
+    }
+
+    @Test
+    public void shouldClearSlotsOnceEveryProcessorHasPassed() throws Exception
+    {
+        final ObjectRingBuffer<String> ringBuffer = ObjectRingBuffer.createMultiProducer(8, new BlockingWaitStrategy());
+        final CountDownLatch release = new CountDownLatch(1);
+        final BatchEventProcessor<String> fast = ringBuffer.newEventProcessor(ObjectRingBufferTest::ignore);
+        final BatchEventProcessor<String> slow = ringBuffer.newEventProcessor((event, sequence, endOfBatch) -> release.await());
+        start(fast);
+        start(slow);
+
+        ringBuffer.put("a");
+        ringBuffer.put("b");
+        waitFor(fast.getSequence(), 1L);
+
+        assertThat(ringBuffer.get(0), is("a"));
+        assertThat(ringBuffer.get(1), is("b"));
+
+        release.countDown();
+        waitFor(slow.getSequence(), 1L);
+        waitForCleared(ringBuffer, 1);
+
+        assertThat(ringBuffer.get(0), nullValue());
+        assertThat(ringBuffer.get(1), nullValue());
+        fast.halt();
+        slow.halt();
+    }
+
+    @Test
+    public void shouldNotReuseSlotsUntilCleared() throws Exception
+    {
+        final ObjectRingBuffer<Integer> ringBuffer = ObjectRingBuffer.createSingleProducer(4, new BlockingWaitStrategy());
+        final BatchEventProcessor<Integer> processor = ringBuffer.newEventProcessor(ObjectRingBufferTest::ignore);
+
+        assertTrue(ringBuffer.tryPublishAll(new Integer[]{1, 2, 3, 4}));
+        assertFalse(ringBuffer.tryPut(5));
+
+        start(processor);
+        ringBuffer.put(5);
+
+        assertThat(ringBuffer.getCursor(), is(4L));
+        assertTrue(processor.getSequence().get() >= 3L);
+        processor.halt();
+    }
+
+    @Test
+    public void shouldClearSlotsWhenLastEventOfBatchThrows() throws Exception
+    {
+        final ObjectRingBuffer<Integer> ringBuffer = ObjectRingBuffer.createSingleProducer(4, new BlockingWaitStrategy());
+        final BatchEventProcessor<Integer> processor = ringBuffer.newEventProcessor((event, sequence, endOfBatch) ->
+        {
+            if (endOfBatch)
+            {
+                throw new IllegalStateException("failed " + event);
+            }
+        });
+        processor.setExceptionHandler(new IgnoreExceptionHandler());
+
+        assertTrue(ringBuffer.tryPublishAll(new Integer[]{1, 2, 3, 4}));
+        start(processor);
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!ringBuffer.tryPut(5))
+        {
+            assertTrue(System.nanoTime() < deadline, "Slots were never cleared");
+            LockSupport.parkNanos(1000L);
+        }
+
+        assertThat(ringBuffer.getCursor(), is(4L));
+        processor.halt();
+    }
+
+    @Test
+    public void shouldRejectNullEvents()
+    {
+        final ObjectRingBuffer<String> ringBuffer = ObjectRingBuffer.createSingleProducer(4, new BlockingWaitStrategy());
+
+        assertThrows(NullPointerException.class, () -> ringBuffer.put(null));
+        assertThrows(NullPointerException.class, () -> ringBuffer.publishAll(new String[]{"a", null}));
+        assertThat(ringBuffer.getCursor(), is(Sequencer.INITIAL_CURSOR_VALUE));
+    }
+
+    private static void start(final Runnable processor)
+    {
+        DaemonThreadFactory.INSTANCE.newThread(processor).start();
+    }
+
+    private static void waitFor(final Sequence sequence, final long value)
+    {
+        while (sequence.get() < value)
+        {
+            LockSupport.parkNanos(1000L);
+        }
+    }
+
+    private static void waitForCleared(final ObjectRingBuffer<?> ringBuffer, final int sequence)
+    {
+        while (ringBuffer.get(sequence) != null)
+        {
+            LockSupport.parkNanos(1000L);
+        }
+    }
+
+    private static <T> void ignore(final T event, final long sequence, final boolean endOfBatch)
+    {
+    }
+}
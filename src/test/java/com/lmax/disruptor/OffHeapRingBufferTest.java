@@ -0,0 +1,153 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OffHeapRingBufferTest
+{
+    private static final int ENTRY_SIZE = 16;
+
+    @Test
+    public void shouldPublishAndGetEntry()
+    {
+        final OffHeapRingBuffer ringBuffer = OffHeapRingBuffer.createSingleProducer(4, ENTRY_SIZE, new BlockingWaitStrategy());
+
+        ringBuffer.publishEvent((entry, sequence, value) -> entry.putLong(value).putLong(sequence), 42L);
+
+        final ByteBuffer entry = ringBuffer.get(0);
+        assertThat(ringBuffer.getCursor(), is(0L));
+        assertThat(entry.position(), is(0));
+        assertThat(entry.remaining(), is(ENTRY_SIZE));
+        assertThat(entry.getLong(), is(42L));
+        assertThat(entry.getLong(), is(0L));
+    }
+
+    @Test
+    public void shouldConfineWritesToEntry()
+    {
+        final OffHeapRingBuffer ringBuffer = OffHeapRingBuffer.createSingleProducer(4, ENTRY_SIZE, new BlockingWaitStrategy());
+
+        assertThrows(BufferOverflowException.class, () -> ringBuffer.publishEvent((entry, sequence) -> entry.put(new byte[ENTRY_SIZE + 1])));
+        assertThrows(IndexOutOfBoundsException.class, () -> ringBuffer.put(new byte[ENTRY_SIZE + 1], 0, ENTRY_SIZE + 1));
+    }
+
+    @Test
+    public void shouldPositionEntriesOutOfOrderAndAfterWrapping()
+    {
+        final OffHeapRingBuffer ringBuffer = OffHeapRingBuffer.createSingleProducer(4, ENTRY_SIZE, new BlockingWaitStrategy());
+
+        ringBuffer.publishEvents((entry, sequence, value) -> entry.putLong(value), new Long[] {10L, 11L, 12L, 13L});
+
+        assertThat(ringBuffer.get(3).getLong(), is(13L));
+        assertThat(ringBuffer.get(0).getLong(), is(10L));
+        assertThat(ringBuffer.get(6).getLong(), is(12L));
+        assertThat(ringBuffer.getCursor(), is(3L));
+    }
+
+    @Test
+    public void shouldNotPublishWhenFull()
+    {
+        final OffHeapRingBuffer ringBuffer = OffHeapRingBuffer.createSingleProducer(4, ENTRY_SIZE, new BlockingWaitStrategy());
+        ringBuffer.addGatingSequences(new Sequence());
+
+        for (int i = 0; i < 4; i++)
+        {
+            assertTrue(ringBuffer.tryPublishEvent((entry, sequence) -> entry.putLong(sequence)));
+        }
+
+        assertFalse(ringBuffer.tryPublishEvent((entry, sequence) -> entry.putLong(sequence)));
+        assertThat(ringBuffer.remainingCapacity(), is(0L));
+    }
+
+    @Test
+    public void shouldRejectRingLargerThanByteBuffer()
+    {
+        assertThrows(IllegalArgumentException.class, () -> OffHeapRingBuffer.createSingleProducer(1 << 20, 1 << 12, new BlockingWaitStrategy()));
+        assertThrows(IllegalArgumentException.class, () -> OffHeapRingBuffer.createSingleProducer(4, 0, new BlockingWaitStrategy()));
+    }
+
+    @Test
+    public void shouldDeliverEntriesFromMultipleProducersToBatchEventProcessor() throws Exception
+    {
+        final int producers = 2;
+        final int perProducer = 1000;
+        final OffHeapRingBuffer ringBuffer = OffHeapRingBuffer.createMultiProducer(64, ENTRY_SIZE, new YieldingWaitStrategy());
+
+        final long[] sums = new long[producers];
+        final CountDownLatch done = new CountDownLatch(producers * perProducer);
+        final BatchEventProcessor<ByteBuffer> processor = new BatchEventProcessor<>(
+            ringBuffer, ringBuffer.newBarrier(), (entry, sequence, endOfBatch) ->
+            {
+                sums[entry.getInt()] += entry.getLong();
+                done.countDown();
+            });
+        ringBuffer.addGatingSequences(processor.getSequence());
+        final Thread processorThread = DaemonThreadFactory.INSTANCE.newThread(processor);
+        processorThread.start();
+
+        final CyclicBarrier start = new CyclicBarrier(producers);
+        final Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++)
+        {
+            final int producer = p;
+            threads[p] = new Thread(() ->
+            {
+                try
+                {
+                    start.await();
+                }
+                catch (final Exception e)
+                {
+                    throw new RuntimeException(e);
+                }
+
+                for (long i = 1; i <= perProducer; i++)
+                {
+                    ringBuffer.publishEvent((entry, sequence, value) -> entry.putInt(producer).putLong(value), i);
+                }
+            });
+            threads[p].start();
+        }
+
+        for (final Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        processor.halt();
+        processorThread.join();
+
+        for (int p = 0; p < producers; p++)
+        {
+            assertThat(sums[p], is(perProducer * (perProducer + 1L) / 2));
+        }
+    }
+}
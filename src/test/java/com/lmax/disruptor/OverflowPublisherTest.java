@@ -0,0 +1,183 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.LongEvent;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OverflowPublisherTest
+{
+    private static final EventTranslatorOneArg<LongEvent, Long> SET_VALUE = (event, sequence, value) -> event.set(value);
+
+    @Test
+    public void shouldRejectWithoutCountingUnderFail()
+    {
+        final RingBuffer<LongEvent> ringBuffer = fullRingBuffer(RingBuffer.createSingleProducer(LongEvent.FACTORY, 4));
+        final OverflowPublisher<LongEvent> publisher = new OverflowPublisher<>(ringBuffer, OverflowPolicy.FAIL);
+
+        assertFalse(publisher.offerEvent(SET_VALUE, 5L));
+        assertThat(publisher.getDiscardedCount(), is(0L));
+        assertThat(ringBuffer.getCursor(), is(3L));
+    }
+
+    @Test
+    public void shouldDiscardAndCountNewestEvent()
+    {
+        final RingBuffer<LongEvent> ringBuffer = fullRingBuffer(RingBuffer.createMultiProducer(LongEvent.FACTORY, 4));
+        final OverflowPublisher<LongEvent> publisher = new OverflowPublisher<>(ringBuffer, OverflowPolicy.DROP_NEWEST);
+
+        assertFalse(publisher.offerEvent(SET_VALUE, 5L));
+        assertFalse(publisher.offerEvent((event, sequence) -> event.set(6L)));
+        assertFalse(publisher.offerEvent(OverflowPolicy.FAIL, SET_VALUE, 7L));
+        assertThat(publisher.getDiscardedCount(), is(2L));
+        assertThat(ringBuffer.getCursor(), is(3L));
+        assertThat(ringBuffer.get(3).get(), is(3L));
+    }
+
+    @Test
+    public void shouldOverwriteOldestEventForNonCriticalConsumers()
+    {
+        final RingBuffer<LongEvent> ringBuffer = RingBuffer.createSingleProducer(LongEvent.FACTORY, 4);
+        final OverflowPublisher<LongEvent> publisher = new OverflowPublisher<>(ringBuffer, OverflowPolicy.DROP_OLDEST);
+        final Sequence nonCritical = new Sequence();
+        publisher.addNonCriticalGatingSequences(nonCritical);
+
+        for (long i = 0; i < 6; i++)
+        {
+            assertTrue(publisher.offerEvent(SET_VALUE, i));
+        }
+
+        assertThat(ringBuffer.getCursor(), is(5L));
+        assertThat(nonCritical.get(), is(-1L));
+        assertTrue(publisher.isOverwritten(1L));
+        assertFalse(publisher.isOverwritten(2L));
+        assertThat(ringBuffer.get(2).get(), is(2L));
+        assertThat(ringBuffer.get(5).get(), is(5L));
+        assertThat(publisher.getDiscardedCount(), is(2L));
+    }
+
+    @Test
+    public void shouldDiscardNewestWhenCriticalConsumerIsBehind()
+    {
+        final RingBuffer<LongEvent> ringBuffer = RingBuffer.createMultiProducer(LongEvent.FACTORY, 4);
+        final OverflowPublisher<LongEvent> publisher = new OverflowPublisher<>(ringBuffer, OverflowPolicy.DROP_OLDEST);
+        final Sequence nonCritical = new Sequence();
+        final Sequence critical = new Sequence();
+        publisher.addNonCriticalGatingSequences(nonCritical);
+        ringBuffer.addGatingSequences(critical);
+
+        for (long i = 0; i < 4; i++)
+        {
+            assertTrue(publisher.offerEvent(SET_VALUE, i));
+        }
+        assertFalse(publisher.offerEvent(SET_VALUE, 4L));
+        assertThat(ringBuffer.getCursor(), is(3L));
+
+        critical.set(0L);
+        assertTrue(publisher.offerEvent(SET_VALUE, 4L));
+        assertThat(nonCritical.get(), is(-1L));
+        assertThat(ringBuffer.getCursor(), is(4L));
+        assertThat(publisher.getDiscardedCount(), is(2L));
+
+        assertTrue(publisher.removeNonCriticalGatingSequence(nonCritical));
+        assertThat(ringBuffer.getMinimumGatingSequence(), is(0L));
+    }
+
+    @Test
+    public void shouldLetNonCriticalConsumerSkipOverwrittenEvents() throws Exception
+    {
+        final RingBuffer<LongEvent> ringBuffer = RingBuffer.createMultiProducer(LongEvent.FACTORY, 4);
+        final OverflowPublisher<LongEvent> publisher = new OverflowPublisher<>(ringBuffer, OverflowPolicy.DROP_OLDEST);
+        final List<Long> values = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final BatchEventProcessor<LongEvent> processor = new BatchEventProcessor<>(
+            ringBuffer, publisher.newNonCriticalBarrier(), (event, sequence, endOfBatch) ->
+            {
+                if (!publisher.isOverwritten(sequence))
+                {
+                    values.add(event.get());
+                }
+                if (sequence == 9L)
+                {
+                    latch.countDown();
+                }
+            });
+        publisher.addNonCriticalGatingSequences(processor.getSequence());
+
+        for (long i = 0; i < 10; i++)
+        {
+            assertTrue(publisher.offerEvent(SET_VALUE, i));
+        }
+        assertThat(publisher.getDiscardedCount(), is(6L));
+        assertThat(processor.getSequence().get(), is(-1L));
+
+        final Thread thread = DaemonThreadFactory.INSTANCE.newThread(processor);
+        thread.start();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join(5000);
+
+        assertThat(values, is(List.of(6L, 7L, 8L, 9L)));
+    }
+
+    @Test
+    public void shouldSampleEventsOnceRingIsMoreThanHalfFull()
+    {
+        final RingBuffer<LongEvent> ringBuffer = RingBuffer.createSingleProducer(LongEvent.FACTORY, 8);
+        ringBuffer.addGatingSequences(new Sequence());
+        final OverflowPublisher<LongEvent> publisher = new OverflowPublisher<>(ringBuffer, OverflowPolicy.SAMPLE, 8);
+
+        int published = 0;
+        for (long i = 0; i < 20; i++)
+        {
+            published += publisher.offerEvent(SET_VALUE, i) ? 1 : 0;
+        }
+
+        assertThat(published, is(7));
+        assertThat(publisher.getDiscardedCount(), is(13L));
+        assertThat(ringBuffer.get(5).get(), is(5L));
+        assertThat(ringBuffer.get(6).get(), is(13L));
+    }
+
+    @Test
+    public void shouldRejectInvalidSampleRate()
+    {
+        final RingBuffer<LongEvent> ringBuffer = RingBuffer.createSingleProducer(LongEvent.FACTORY, 4);
+        assertThrows(IllegalArgumentException.class, () -> new OverflowPublisher<>(ringBuffer, OverflowPolicy.SAMPLE, 0));
+    }
+
+    private static RingBuffer<LongEvent> fullRingBuffer(final RingBuffer<LongEvent> ringBuffer)
+    {
+        ringBuffer.addGatingSequences(new Sequence());
+        for (long i = 0; i < ringBuffer.getBufferSize(); i++)
+        {
+            ringBuffer.publishEvent(SET_VALUE, i);
+        }
+        return ringBuffer;
+    }
+}
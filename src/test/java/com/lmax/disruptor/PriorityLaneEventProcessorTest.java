@@ -0,0 +1,146 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.LongEvent;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PriorityLaneEventProcessorTest
+{
+    private final RingBuffer<LongEvent> highPriority = RingBuffer.createMultiProducer(LongEvent.FACTORY, 16);
+    private final RingBuffer<LongEvent> lowPriority = RingBuffer.createSingleProducer(LongEvent.FACTORY, 16);
+    private final List<Long> received = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void shouldServeHigherPriorityLaneFirstWithinItsQuota() throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch(9);
+        final PriorityLaneEventProcessor<LongEvent> processor = new PriorityLaneEventProcessor.Builder<LongEvent>(
+            (event, sequence, endOfBatch) ->
+            {
+                received.add(event.get());
+                latch.countDown();
+            })
+            .addLane(highPriority, 2)
+            .addLane(lowPriority, 1)
+            .build();
+
+        publish(lowPriority, 0, 4);
+        publish(highPriority, 100, 5);
+        DaemonThreadFactory.INSTANCE.newThread(processor).start();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertThat(received, is(List.of(100L, 101L, 0L, 102L, 103L, 1L, 104L, 2L, 3L)));
+        processor.halt();
+    }
+
+    @Test
+    public void shouldGateEachRingBufferOnItsOwnLane() throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch(3);
+        final PriorityLaneEventProcessor<LongEvent> processor = new PriorityLaneEventProcessor.Builder<LongEvent>(
+            (event, sequence, endOfBatch) -> latch.countDown())
+            .addLane(highPriority, 1)
+            .addLane(lowPriority, 1)
+            .build();
+        DaemonThreadFactory.INSTANCE.newThread(processor).start();
+
+        publish(highPriority, 100, 1);
+        publish(lowPriority, 0, 2);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        // the handler sees the last event just before the lane's sequence is set
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (processor.getSequence(0).get() < 0L || processor.getSequence(1).get() < 1L)
+        {
+            assertTrue(System.nanoTime() < deadline);
+            LockSupport.parkNanos(1L);
+        }
+        assertThat(processor.getLaneCount(), is(2));
+        assertThat(processor.getSequence(0).get(), is(0L));
+        assertThat(processor.getSequence(1).get(), is(1L));
+        assertThat(highPriority.getMinimumGatingSequence(), is(0L));
+        assertThat(lowPriority.getMinimumGatingSequence(), is(1L));
+        processor.halt();
+    }
+
+    @Test
+    public void shouldStopWhenHalted() throws Exception
+    {
+        final CountDownLatch shutdown = new CountDownLatch(1);
+        final PriorityLaneEventProcessor<LongEvent> processor = new PriorityLaneEventProcessor.Builder<LongEvent>(
+            new EventHandler<LongEvent>()
+            {
+                @Override
+                public void onEvent(final LongEvent event, final long sequence, final boolean endOfBatch)
+                {
+                }
+
+                @Override
+                public void onShutdown()
+                {
+                    shutdown.countDown();
+                }
+            })
+            .addLane(highPriority, 1)
+            .build();
+        DaemonThreadFactory.INSTANCE.newThread(processor).start();
+        while (!processor.isRunning())
+        {
+            LockSupport.parkNanos(1000L);
+        }
+
+        processor.halt();
+
+        assertTrue(shutdown.await(5, TimeUnit.SECONDS));
+        while (processor.isRunning())
+        {
+            LockSupport.parkNanos(1000L);
+        }
+        assertFalse(processor.isRunning());
+    }
+
+    @Test
+    public void shouldRejectInvalidLanes()
+    {
+        final PriorityLaneEventProcessor.Builder<LongEvent> builder =
+            new PriorityLaneEventProcessor.Builder<>((event, sequence, endOfBatch) -> received.add(event.get()));
+
+        assertThrows(IllegalStateException.class, builder::build);
+        assertThrows(IllegalArgumentException.class, () -> builder.addLane(highPriority, 0));
+    }
+
+    private static void publish(final RingBuffer<LongEvent> ringBuffer, final long firstValue, final int count)
+    {
+        for (long value = firstValue; value < firstValue + count; value++)
+        {
+            ringBuffer.publishEvent((event, sequence, arg) -> event.set(arg), value);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RecordRingBufferTest
+{
+    @Test
+    public void shouldWriteAndReadRecordsFromHeapBuffer() throws Exception
+    {
+        assertWriteAndRead(RecordRingBuffer.allocate(256, new BlockingWaitStrategy()));
+    }
+
+    @Test
+    public void shouldWriteAndReadRecordsFromDirectBuffer() throws Exception
+    {
+        assertWriteAndRead(RecordRingBuffer.allocateDirect(256, new BlockingWaitStrategy()));
+    }
+
+    @Test
+    public void shouldNotReadRecordsUntilCommitted() throws Exception
+    {
+        final RecordRingBuffer ringBuffer = RecordRingBuffer.allocate(256, new BlockingWaitStrategy());
+        final List<Integer> typeIds = new ArrayList<>();
+
+        final int first = ringBuffer.claim(1, 4);
+        final int second = ringBuffer.claim(2, 4);
+        ringBuffer.commit(second);
+
+        assertThat(ringBuffer.read((typeId, record, position, endOfBatch) -> typeIds.add(typeId), 10), is(0));
+
+        ringBuffer.commit(first);
+
+        assertThat(ringBuffer.read((typeId, record, position, endOfBatch) -> typeIds.add(typeId), 10), is(2));
+        assertThat(typeIds, is(List.of(1, 2)));
+        assertThat(ringBuffer.size(), is(0L));
+    }
+
+    @Test
+    public void shouldPadEndOfBufferWhenRecordDoesNotFit() throws Exception
+    {
+        final RecordRingBuffer ringBuffer = RecordRingBuffer.allocate(128, new BlockingWaitStrategy());
+        final List<Long> positions = new ArrayList<>();
+        final RecordHandler handler = (typeId, record, position, endOfBatch) -> positions.add(position);
+
+        for (int i = 0; i < 7; i++)
+        {
+            assertTrue(ringBuffer.tryWrite(1, new byte[8], 0, 8));
+        }
+        ringBuffer.write(3, new byte[0], 0, 0);
+        assertThat(ringBuffer.read(handler, 10), is(8));
+
+        // 8 bytes remain before the end, so the next record starts at the beginning of the buffer
+        final int offset = ringBuffer.claim(2, 8);
+        assertThat(offset, is(RecordRingBuffer.HEADER_LENGTH));
+        ringBuffer.buffer().putLong(offset, 99L);
+        ringBuffer.commit(offset);
+
+        final long[] value = new long[1];
+        assertThat(ringBuffer.read(handler, 10), is(0));
+        assertThat(ringBuffer.read((typeId, record, position, endOfBatch) -> value[0] = record.getLong(record.position()), 10), is(1));
+        assertThat(value[0], is(99L));
+        assertThat(positions.get(7), is(112L));
+        assertThat(ringBuffer.size(), is(0L));
+    }
+
+    @Test
+    public void shouldRejectRecordsWhenFull()
+    {
+        final RecordRingBuffer ringBuffer = RecordRingBuffer.allocate(64, new BlockingWaitStrategy());
+
+        assertThrows(IllegalArgumentException.class, () -> ringBuffer.tryClaim(1, ringBuffer.getMaxRecordLength() + 1));
+        for (int i = 0; i < 8; i++)
+        {
+            assertTrue(ringBuffer.tryClaim(1, 0) != RecordRingBuffer.INSUFFICIENT_CAPACITY);
+        }
+        assertThat(ringBuffer.tryClaim(1, 0), is(RecordRingBuffer.INSUFFICIENT_CAPACITY));
+        assertFalse(ringBuffer.tryWrite(1, new byte[0], 0, 0));
+    }
+
+    @Test
+    public void shouldSkipAbortedRecords() throws Exception
+    {
+        final RecordRingBuffer ringBuffer = RecordRingBuffer.allocate(256, new BlockingWaitStrategy());
+        final List<Integer> typeIds = new ArrayList<>();
+
+        final int aborted = ringBuffer.claim(1, 16);
+        ringBuffer.write(2, new byte[4], 0, 4);
+        ringBuffer.abort(aborted);
+
+        assertThrows(IllegalStateException.class, () -> ringBuffer.commit(aborted));
+        assertThat(ringBuffer.read((typeId, record, position, endOfBatch) -> typeIds.add(typeId), 10), is(1));
+        assertThat(typeIds, is(List.of(2)));
+    }
+
+    @Test
+    public void shouldBlockConsumerUntilCommitAndProducerUntilSpaceIsFreed() throws Exception
+    {
+        final RecordRingBuffer ringBuffer = RecordRingBuffer.allocate(64, new BlockingWaitStrategy());
+        final List<Integer> typeIds = new ArrayList<>();
+        final CountDownLatch delivered = new CountDownLatch(9);
+        final RecordEventProcessor processor = new RecordEventProcessor(ringBuffer, (typeId, record, position, endOfBatch) ->
+        {
+            typeIds.add(typeId);
+            delivered.countDown();
+        });
+
+        final int uncommitted = ringBuffer.claim(1, 0);
+        for (int i = 0; i < 7; i++)
+        {
+            ringBuffer.write(2, new byte[0], 0, 0);
+        }
+        final Thread consumer = DaemonThreadFactory.INSTANCE.newThread(processor);
+        consumer.start();
+
+        // the ring is full and the consumer is waiting on the first record, so the claim has to wait for both
+        final CountDownLatch claimed = new CountDownLatch(1);
+        final Thread producer = DaemonThreadFactory.INSTANCE.newThread(() ->
+        {
+            ringBuffer.write(3, new byte[0], 0, 0);
+            claimed.countDown();
+        });
+        producer.start();
+
+        assertFalse(claimed.await(50, TimeUnit.MILLISECONDS));
+        assertThat(typeIds.size(), is(0));
+
+        ringBuffer.commit(uncommitted);
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertTrue(claimed.await(5, TimeUnit.SECONDS));
+        assertThat(typeIds, is(List.of(1, 2, 2, 2, 2, 2, 2, 2, 3)));
+
+        processor.halt();
+        consumer.join(5000);
+        assertFalse(processor.isRunning());
+    }
+
+    @Test
+    public void shouldProcessRecordsFromMultipleProducers() throws Exception
+    {
+        final int producers = 3;
+        final int recordsPerProducer = 2000;
+        final RecordRingBuffer ringBuffer = RecordRingBuffer.allocateDirect(1024, new BlockingWaitStrategy());
+        final CountDownLatch latch = new CountDownLatch(producers * recordsPerProducer);
+        final long[] totals = new long[producers];
+
+        final RecordEventProcessor processor = new RecordEventProcessor(ringBuffer, (typeId, record, position, endOfBatch) ->
+        {
+            final int length = record.getInt(record.position());
+            assertThat(record.remaining(), is(length));
+            totals[typeId] += record.get(record.limit() - 1);
+            latch.countDown();
+        });
+        final Thread consumer = DaemonThreadFactory.INSTANCE.newThread(processor);
+        consumer.start();
+
+        final CyclicBarrier start = new CyclicBarrier(producers);
+        final Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++)
+        {
+            final int typeId = p;
+            threads[p] = DaemonThreadFactory.INSTANCE.newThread(() -> produce(ringBuffer, start, typeId, recordsPerProducer));
+            threads[p].start();
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        for (int p = 0; p < producers; p++)
+        {
+            assertThat(totals[p], is((long) recordsPerProducer));
+        }
+
+        processor.halt();
+        consumer.join(5000);
+        assertFalse(processor.isRunning());
+        assertThat(processor.getSequence().get(), is(ringBuffer.tail.get()));
+    }
+
+    private static void produce(final RecordRingBuffer ringBuffer, final CyclicBarrier start, final int typeId, final int records)
+    {
+        try
+        {
+            start.await();
+        }
+        catch (final Exception e)
+        {
+            throw new RuntimeException(e);
+        }
+
+        for (int i = 0; i < records; i++)
+        {
+            final int length = Integer.BYTES + 1 + i % 50;
+            final int offset = ringBuffer.claim(typeId, length);
+            final ByteBuffer buffer = ringBuffer.buffer();
+            buffer.putInt(offset, length);
+            buffer.put(offset + length - 1, (byte) 1);
+            ringBuffer.commit(offset);
+        }
+    }
+
+    private static void assertWriteAndRead(final RecordRingBuffer ringBuffer) throws Exception
+    {
+        ringBuffer.write(7, new byte[]{1, 2, 3}, 0, 3);
+        ringBuffer.write(8, new byte[]{4, 5, 6, 7, 8}, 1, 3);
+
+        final List<String> records = new ArrayList<>();
+        final int read = ringBuffer.read((typeId, record, position, endOfBatch) ->
+        {
+            final byte[] payload = new byte[record.remaining()];
+            record.get(payload);
+            records.add(typeId + ":" + position + ":" + Arrays.toString(payload) + ":" + endOfBatch);
+        }, 10);
+
+        assertThat(read, is(2));
+        assertThat(records, is(List.of("7:0:[1, 2, 3]:false", "8:16:[5, 6, 7]:true")));
+        assertThat(ringBuffer.size(), is(0L));
+        assertThat(ringBuffer.read((typeId, record, position, endOfBatch) -> records.add("unexpected"), 10), is(0));
+    }
+}
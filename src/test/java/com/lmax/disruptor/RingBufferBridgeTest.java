@@ -0,0 +1,197 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.RingBufferBridge.BackPressurePolicy;
+import com.lmax.disruptor.support.LongEvent;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RingBufferBridgeTest
+{
+    private static final EventTranslatorOneArg<LongEvent, LongEvent> COPY =
+        (event, sequence, source) -> event.set(source.get());
+
+    @Test
+    public void shouldPublishEachBatchOnceItHasBeenTranslated()
+    {
+        final RingBuffer<LongEvent> target = RingBuffer.createSingleProducer(LongEvent.FACTORY, 8);
+        final RingBufferBridge<LongEvent, LongEvent> bridge = new RingBufferBridge<>(target, COPY);
+
+        bridge.onBatchStart(3);
+        bridge.onEvent(event(10), 0, false);
+        bridge.onEvent(event(11), 1, false);
+        assertThat(target.getCursor(), is(Sequencer.INITIAL_CURSOR_VALUE));
+
+        bridge.onEvent(event(12), 2, true);
+        assertThat(target.getCursor(), is(2L));
+        assertThat(target.get(0).get(), is(10L));
+        assertThat(target.get(2).get(), is(12L));
+    }
+
+    @Test
+    public void shouldSplitBatchesLargerThanTheTargetRing()
+    {
+        final RingBuffer<LongEvent> target = RingBuffer.createSingleProducer(LongEvent.FACTORY, 4);
+        final Sequence consumer = new Sequence();
+        target.addGatingSequences(consumer);
+        final RingBufferBridge<LongEvent, LongEvent> bridge = new RingBufferBridge<>(target, COPY);
+
+        bridge.onBatchStart(6);
+        for (int i = 0; i < 4; i++)
+        {
+            bridge.onEvent(event(i), i, false);
+        }
+        assertThat(target.getCursor(), is(3L));
+
+        consumer.set(3L);
+        bridge.onEvent(event(4), 4, false);
+        bridge.onEvent(event(5), 5, true);
+        assertThat(target.getCursor(), is(5L));
+        assertThat(target.get(5).get(), is(5L));
+    }
+
+    @Test
+    public void shouldDropWholeBatchWhenTargetIsFull()
+    {
+        final RingBuffer<LongEvent> target = RingBuffer.createSingleProducer(LongEvent.FACTORY, 4);
+        target.addGatingSequences(new Sequence());
+        target.publish(target.next(2));
+        final RingBufferBridge<LongEvent, LongEvent> bridge = new RingBufferBridge<>(target, COPY, BackPressurePolicy.DROP_BATCH);
+
+        bridge.onBatchStart(3);
+        for (int i = 0; i < 3; i++)
+        {
+            bridge.onEvent(event(i), i, i == 2);
+        }
+        assertThat(target.getCursor(), is(1L));
+        assertThat(bridge.getDroppedCount(), is(3L));
+
+        bridge.onBatchStart(2);
+        bridge.onEvent(event(3), 3, false);
+        bridge.onEvent(event(4), 4, true);
+        assertThat(target.getCursor(), is(3L));
+        assertThat(target.get(3).get(), is(4L));
+    }
+
+    @Test
+    public void shouldForwardTheMostRecentEventsThatFit()
+    {
+        final RingBuffer<LongEvent> target = RingBuffer.createMultiProducer(LongEvent.FACTORY, 4);
+        target.addGatingSequences(new Sequence());
+        target.publish(target.next(2));
+        final RingBufferBridge<LongEvent, LongEvent> bridge = new RingBufferBridge<>(target, COPY, BackPressurePolicy.DROP_OVERFLOW);
+
+        bridge.onBatchStart(3);
+        for (int i = 0; i < 3; i++)
+        {
+            bridge.onEvent(event(i), i, i == 2);
+        }
+        assertThat(target.getCursor(), is(3L));
+        assertThat(target.get(2).get(), is(1L));
+        assertThat(target.get(3).get(), is(2L));
+        assertThat(bridge.getDroppedCount(), is(1L));
+    }
+
+    @Test
+    public void shouldBridgeEventsBetweenRunningProcessors() throws Exception
+    {
+        final RingBuffer<LongEvent> source = RingBuffer.createSingleProducer(LongEvent.FACTORY, 16);
+        final RingBuffer<LongEvent> target = RingBuffer.createSingleProducer(LongEvent.FACTORY, 4);
+        final int count = 100;
+        final List<Long> received = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(count);
+
+        final BatchEventProcessor<LongEvent> bridgeProcessor = new BatchEventProcessor<>(
+            source, source.newBarrier(), new RingBufferBridge<>(target, COPY));
+        final BatchEventProcessor<LongEvent> targetProcessor = new BatchEventProcessor<>(
+            target, target.newBarrier(), (event, sequence, endOfBatch) ->
+            {
+                received.add(event.get());
+                latch.countDown();
+            });
+        source.addGatingSequences(bridgeProcessor.getSequence());
+        target.addGatingSequences(targetProcessor.getSequence());
+        DaemonThreadFactory.INSTANCE.newThread(bridgeProcessor).start();
+        DaemonThreadFactory.INSTANCE.newThread(targetProcessor).start();
+
+        for (long i = 0; i < count; i++)
+        {
+            source.publishEvent((event, sequence, value) -> event.set(value), i);
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < count; i++)
+        {
+            assertThat(received.get(i), is((long) i));
+        }
+        bridgeProcessor.halt();
+        targetProcessor.halt();
+    }
+
+    @Test
+    public void shouldPublishClaimedChunkWhenTranslatorThrows()
+    {
+        final RingBuffer<LongEvent> source = RingBuffer.createSingleProducer(LongEvent.FACTORY, 8);
+        final RingBuffer<LongEvent> target = RingBuffer.createMultiProducer(LongEvent.FACTORY, 8);
+        final RingBufferBridge<LongEvent, LongEvent> bridge = new RingBufferBridge<>(target, (event, sequence, value) ->
+        {
+            if (value.get() == 1)
+            {
+                throw new IllegalStateException("untranslatable");
+            }
+            event.set(value.get());
+        });
+        final BatchEventProcessor<LongEvent> bridgeProcessor = new BatchEventProcessor<>(source, source.newBarrier(), bridge);
+        source.addGatingSequences(bridgeProcessor.getSequence());
+        target.addGatingSequences(new Sequence());
+
+        for (long i = 0; i < 3; i++)
+        {
+            source.publishEvent((event, sequence, value) -> event.set(value), i);
+        }
+
+        // the default exception handler stops the processor on the second event of the batch
+        assertThrows(RuntimeException.class, bridgeProcessor::run);
+        for (long sequence = 0; sequence < 3; sequence++)
+        {
+            assertTrue(target.isAvailable(sequence));
+        }
+        assertThat(target.get(0).get(), is(0L));
+
+        final long next = target.next();
+        target.publish(next);
+        assertThat(next, is(3L));
+        assertTrue(target.isAvailable(3));
+    }
+
+    private static LongEvent event(final long value)
+    {
+        final LongEvent event = new LongEvent();
+        event.set(value);
+        return event;
+    }
+}
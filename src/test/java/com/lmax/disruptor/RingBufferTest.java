@@ -15,12 +15,16 @@
  */
 package com.lmax.disruptor;
 
+import com.lmax.disruptor.dsl.ProducerType;
 import com.lmax.disruptor.support.StubEvent;
 import com.lmax.disruptor.support.TestWaiter;
 import com.lmax.disruptor.util.DaemonThreadFactory;
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
@@ -28,11 +32,13 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.lmax.disruptor.RingBuffer.createMultiProducer;
 import static com.lmax.disruptor.RingBufferEventMatcher.ringBufferWithEvents;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -1443,6 +1449,104 @@ public class RingBufferTest
         assertHandleResetAndNotWrap(RingBuffer.createMultiProducer(StubEvent.EVENT_FACTORY, 4));
     }
 
+    @Test
+    public void shouldOnlyAddGatingSequenceNoEarlierThanSlowestConsumer()
+    {
+        final RingBuffer<StubEvent> ringBuffer = RingBuffer.createMultiProducer(StubEvent.EVENT_FACTORY, 8);
+        final Sequence slowest = new Sequence();
+        ringBuffer.addGatingSequences(slowest);
+        ringBuffer.publish(ringBuffer.next(6));
+        slowest.set(3);
+
+        final Sequence tooLate = new Sequence(2);
+        final Sequence catchingUp = new Sequence(3);
+
+        assertFalse(ringBuffer.tryAddGatingSequence(tooLate));
+        assertTrue(ringBuffer.tryAddGatingSequence(catchingUp));
+        assertThat(catchingUp.get(), is(3L));
+
+        slowest.set(5);
+        assertThat(ringBuffer.getMinimumGatingSequence(), is(3L));
+    }
+
+    @Test
+    public void shouldSpreadConsecutiveSequencesAcrossSlotsWithSlotStride()
+    {
+        final RingBuffer<StubEvent> ringBuffer = createMultiProducer(StubEvent.EVENT_FACTORY, 16, new BlockingWaitStrategy(), 4);
+        final Set<StubEvent> events = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (long sequence = 0; sequence < 16; sequence++)
+        {
+            events.add(ringBuffer.get(sequence));
+            assertThat(ringBuffer.get(sequence + 16), sameInstance(ringBuffer.get(sequence)));
+        }
+        assertThat(events.size(), is(16));
+
+        for (int i = 0; i < 20; i++)
+        {
+            final long sequence = ringBuffer.next();
+            ringBuffer.get(sequence).setValue(i);
+            ringBuffer.publish(sequence);
+        }
+        assertThat(ringBuffer.get(19).getValue(), is(19));
+        assertThat(ringBuffer.get(18).getValue(), is(18));
+    }
+
+    @Test
+    public void shouldAllocateConsecutiveSequencesStrideApartWithSlotStride()
+    {
+        final AtomicInteger allocated = new AtomicInteger();
+        final RingBuffer<StubEvent> ringBuffer =
+            RingBuffer.createSingleProducer(() -> new StubEvent(allocated.getAndIncrement()), 16, new BlockingWaitStrategy(), 4);
+
+        assertThat(ringBuffer.get(0).getValue(), is(0));
+        assertThat(ringBuffer.get(1).getValue(), is(4));
+        assertThat(ringBuffer.get(2).getValue(), is(8));
+        assertThat(ringBuffer.get(3).getValue(), is(12));
+        assertThat(ringBuffer.get(4).getValue(), is(1));
+        assertThat(ringBuffer.get(15).getValue(), is(15));
+    }
+
+    @Test
+    public void shouldPreallocateEventsInParallel()
+    {
+        final RingBuffer<StubEvent> ringBuffer =
+            RingBuffer.create(ProducerType.MULTI, StubEvent.EVENT_FACTORY, 1 << 14, new BlockingWaitStrategy(), Preallocation.PARALLEL);
+        final Set<StubEvent> events = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (long sequence = 0; sequence < ringBuffer.getBufferSize(); sequence++)
+        {
+            events.add(ringBuffer.get(sequence));
+        }
+
+        assertThat(events.size(), is(1 << 14));
+        assertFalse(events.contains(null));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void shouldPreallocateEventsLazilyOnFirstClaim() throws Exception
+    {
+        final RingBuffer<StubEvent> ringBuffer =
+            RingBuffer.create(ProducerType.SINGLE, StubEvent.EVENT_FACTORY, 8, new BlockingWaitStrategy(), Preallocation.LAZY);
+
+        assertThat(ringBuffer.get(0), nullValue());
+
+        ringBuffer.publishEvent((event, sequence) -> event.setValue(7));
+        assertThat(ringBuffer.get(0).getValue(), is(7));
+        assertThat(ringBuffer.get(1), nullValue());
+
+        final long hi = ringBuffer.tryNext(3);
+        ringBuffer.publish(hi - 2, hi);
+        assertThat(ringBuffer.get(3).getValue(), is(-1));
+        assertThat(ringBuffer.get(4), nullValue());
+
+        final StubEvent first = ringBuffer.get(0);
+        ringBuffer.resetTo(8);
+        assertThat(ringBuffer.get(7).getValue(), is(-1));
+        assertThat(ringBuffer.get(0), sameInstance(first));
+    }
+
     @SuppressWarnings("deprecation")
     private void assertHandleResetAndNotWrap(final RingBuffer<StubEvent> rb)
     {
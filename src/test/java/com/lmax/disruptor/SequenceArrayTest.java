@@ -0,0 +1,99 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SequenceArrayTest
+{
+    @ParameterizedTest
+    @ValueSource(ints = {SequenceArray.DENSE, SequenceArray.CACHE_LINE_PADDED, SequenceArray.DOUBLE_CACHE_LINE_PADDED, 3})
+    public void shouldKeepValuesIndependent(final int stride)
+    {
+        final SequenceArray array = new SequenceArray(4, stride);
+
+        array.set(0, 10L);
+        array.setVolatile(1, 20L);
+        assertTrue(array.compareAndSet(2, -1L, 30L));
+        assertFalse(array.compareAndSet(2, -1L, 31L));
+        assertThat(array.incrementAndGet(3), is(0L));
+        assertThat(array.addAndGet(3, 5L), is(5L));
+        assertThat(array.getAndAdd(3, 1L), is(5L));
+
+        assertThat(array.get(0), is(10L));
+        assertThat(array.get(1), is(20L));
+        assertThat(array.get(2), is(30L));
+        assertThat(array.get(3), is(6L));
+        assertThat(array.getMinimum(Long.MAX_VALUE), is(6L));
+    }
+
+    @Test
+    public void shouldExposeValuesThroughSequenceViews()
+    {
+        final SequenceArray array = new SequenceArray(2, SequenceArray.DENSE, 7L);
+        final AbstractSequence sequence = array.sequence(1);
+
+        assertThat(sequence.get(), is(7L));
+        sequence.set(9L);
+        assertThat(array.get(1), is(9L));
+        assertThat(sequence.incrementAndGet(), is(10L));
+        assertTrue(sequence.compareAndSet(10L, 12L));
+        assertThat(array.get(1), is(12L));
+        assertThat(array.get(0), is(7L));
+        assertThat(sequence.toString(), is("12"));
+    }
+
+    @Test
+    public void shouldGateRingBufferOnSequenceViews()
+    {
+        final RingBuffer<StubEvent> ringBuffer = RingBuffer.createSingleProducer(StubEvent.EVENT_FACTORY, 4);
+        final SequenceArray array = new SequenceArray(2, SequenceArray.DENSE);
+        final SequenceGroup gating = new SequenceGroup();
+        gating.add(array.sequence(0));
+        gating.add(array.sequence(1));
+        ringBuffer.addGatingSequences(gating);
+
+        for (int i = 0; i < 4; i++)
+        {
+            ringBuffer.publish(ringBuffer.next());
+        }
+        assertFalse(ringBuffer.hasAvailableCapacity(1));
+
+        array.set(0, 0L);
+        assertFalse(ringBuffer.hasAvailableCapacity(1));
+
+        array.set(1, 1L);
+        assertTrue(ringBuffer.hasAvailableCapacity(1));
+    }
+
+    @Test
+    public void shouldRejectInvalidArguments()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new SequenceArray(-1, SequenceArray.DENSE));
+        assertThrows(IllegalArgumentException.class, () -> new SequenceArray(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new SequenceArray(Integer.MAX_VALUE, SequenceArray.CACHE_LINE_PADDED));
+        assertThrows(IndexOutOfBoundsException.class, () -> new SequenceArray(2, SequenceArray.DENSE).get(2));
+    }
+}
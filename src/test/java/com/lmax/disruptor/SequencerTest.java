@@ -11,6 +11,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import static org.hamcrest.CoreMatchers.is;
@@ -221,6 +222,70 @@ public class SequencerTest
         assertThat(waitStrategy.signalAllWhenBlockingCalls, is(1));
     }
 
+    @ParameterizedTest
+    @MethodSource("producerTypeGenerator")
+    public void shouldNotifyBarrierWaitStrategiesOnPublish(final ProducerType producerType) throws Exception
+    {
+        final DummyWaitStrategy waitStrategy = new DummyWaitStrategy();
+        final DummyWaitStrategy barrierWaitStrategy = new DummyWaitStrategy();
+        final Sequencer sequencer = newProducer(producerType, waitStrategy);
+        sequencer.newBarrier(barrierWaitStrategy);
+        sequencer.newBarrier(barrierWaitStrategy);
+
+        sequencer.publish(sequencer.next());
+
+        assertThat(waitStrategy.signalAllWhenBlockingCalls, is(1));
+        assertThat(barrierWaitStrategy.signalAllWhenBlockingCalls, is(1));
+    }
+
+    @ParameterizedTest
+    @MethodSource("producerTypeGenerator")
+    public void shouldStopNotifyingBarrierWaitStrategyOnceEveryBarrierIsReleased(final ProducerType producerType)
+    {
+        final DummyWaitStrategy barrierWaitStrategy = new DummyWaitStrategy();
+        final Sequencer sequencer = newProducer(producerType, new DummyWaitStrategy());
+        final SequenceBarrier first = sequencer.newBarrier(barrierWaitStrategy);
+        final SequenceBarrier second = sequencer.newBarrier(barrierWaitStrategy);
+
+        sequencer.releaseBarrier(first);
+        sequencer.publish(sequencer.next());
+        assertThat(barrierWaitStrategy.signalAllWhenBlockingCalls, is(1));
+
+        sequencer.releaseBarrier(second);
+        sequencer.publish(sequencer.next());
+        assertThat(barrierWaitStrategy.signalAllWhenBlockingCalls, is(1));
+    }
+
+    @ParameterizedTest
+    @MethodSource("producerTypeGenerator")
+    public void shouldWaitWithBarrierWaitStrategy(final ProducerType producerType) throws Exception
+    {
+        final Sequencer sequencer = newProducer(producerType, new BusySpinWaitStrategy());
+        final SequenceBarrier barrier = sequencer.newBarrier(new BlockingWaitStrategy());
+        final CountDownLatch waitingLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch = new CountDownLatch(1);
+
+        executor.submit(() ->
+        {
+            try
+            {
+                waitingLatch.countDown();
+                barrier.waitFor(0);
+                doneLatch.countDown();
+            }
+            catch (final Exception e)
+            {
+                throw new RuntimeException(e);
+            }
+        });
+
+        waitingLatch.await();
+        Thread.sleep(10);
+        sequencer.publish(sequencer.next());
+
+        assertTrue(doneLatch.await(5, TimeUnit.SECONDS));
+    }
+
 
     @ParameterizedTest
     @MethodSource("sequencerGenerator")
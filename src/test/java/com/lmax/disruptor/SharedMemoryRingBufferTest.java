@@ -0,0 +1,205 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SharedMemoryRingBufferTest
+{
+    private static final int BUFFER_SIZE = 8;
+    private static final int ENTRY_SIZE = 16;
+
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException
+    {
+        file = Files.createTempFile("disruptor", ".shm");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException
+    {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void shouldConsumeEntriesPublishedThroughAnotherMapping() throws Exception
+    {
+        final SharedMemoryRingBuffer producer = open(1);
+        final SharedMemoryRingBuffer consumer = open(1);
+        final int count = BUFFER_SIZE * 4;
+        final CountDownLatch latch = new CountDownLatch(count);
+        final List<Long> values = new ArrayList<>();
+
+        final BatchEventProcessor<ByteBuffer> processor = consumer.newEventProcessor(0, (entry, sequence, endOfBatch) ->
+        {
+            values.add(entry.getLong());
+            latch.countDown();
+        });
+        final Thread thread = DaemonThreadFactory.INSTANCE.newThread(processor);
+        thread.start();
+
+        for (long i = 0; i < count; i++)
+        {
+            producer.publishEvent((entry, sequence, value) -> entry.putLong(value), i);
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join(5000);
+
+        for (int i = 0; i < count; i++)
+        {
+            assertThat(values.get(i), is((long) i));
+        }
+        assertThat(producer.getConsumerSequence(0).get(), is((long) count - 1));
+    }
+
+    @Test
+    public void shouldGateProducerOnConsumerSequenceInAnotherMapping() throws Exception
+    {
+        final SharedMemoryRingBuffer producer = open(1);
+        final SharedMemoryRingBuffer consumer = open(1);
+        for (int i = 0; i < BUFFER_SIZE; i++)
+        {
+            assertTrue(producer.tryPublishEvent((entry, sequence) -> entry.putLong(sequence)));
+        }
+
+        assertFalse(producer.tryPublishEvent((entry, sequence) -> entry.putLong(sequence)));
+
+        consumer.getConsumerSequence(0).set(0L);
+
+        assertTrue(producer.tryPublishEvent((entry, sequence) -> entry.putLong(sequence)));
+        assertThat(consumer.getCursor(), is((long) BUFFER_SIZE));
+    }
+
+    @Test
+    public void shouldResumeConsumerFromItsSharedSequence() throws Exception
+    {
+        final SharedMemoryRingBuffer producer = open(1);
+        for (long i = 0; i < 5; i++)
+        {
+            producer.publishEvent((entry, sequence, value) -> entry.putLong(value), i);
+        }
+        producer.getConsumerSequence(0).set(2L);
+
+        final CountDownLatch latch = new CountDownLatch(2);
+        final List<Long> values = new ArrayList<>();
+        final BatchEventProcessor<ByteBuffer> processor = open(1).newEventProcessor(0, (entry, sequence, endOfBatch) ->
+        {
+            values.add(entry.getLong());
+            latch.countDown();
+        });
+        final Thread thread = DaemonThreadFactory.INSTANCE.newThread(processor);
+        thread.start();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join(5000);
+
+        assertThat(values, is(List.of(3L, 4L)));
+    }
+
+    @Test
+    public void shouldConsumeEntriesPublishedByAnotherProcess() throws Exception
+    {
+        final SharedMemoryRingBuffer consumer = open(1);
+        final int count = BUFFER_SIZE * 16;
+        final long[] total = new long[1];
+        final CountDownLatch latch = new CountDownLatch(count);
+        final BatchEventProcessor<ByteBuffer> processor = consumer.newEventProcessor(0, (entry, sequence, endOfBatch) ->
+        {
+            total[0] += entry.getLong();
+            latch.countDown();
+        });
+        final Thread thread = DaemonThreadFactory.INSTANCE.newThread(processor);
+        thread.start();
+
+        final Process process = new ProcessBuilder(
+            Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+            "-cp", System.getProperty("java.class.path"),
+            Producer.class.getName(), file.toString(), Integer.toString(count))
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+
+        assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+        assertThat(process.exitValue(), is(0));
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        processor.halt();
+        thread.join(5000);
+
+        assertThat(total[0], is((long) count * (count - 1) / 2));
+    }
+
+    @Test
+    public void shouldRejectFileCreatedWithDifferentSizes() throws Exception
+    {
+        open(1);
+
+        assertThrows(IllegalArgumentException.class, () -> SharedMemoryRingBuffer.open(file, BUFFER_SIZE, ENTRY_SIZE, 2, new YieldingWaitStrategy()));
+        assertThrows(IllegalArgumentException.class, () -> SharedMemoryRingBuffer.open(file, BUFFER_SIZE * 2, ENTRY_SIZE, 1, new YieldingWaitStrategy()));
+    }
+
+    @Test
+    public void shouldRejectBlockingWaitStrategies()
+    {
+        assertThrows(IllegalArgumentException.class, () -> SharedMemoryRingBuffer.open(file, BUFFER_SIZE, ENTRY_SIZE, 1, new BlockingWaitStrategy()));
+        assertThrows(IllegalArgumentException.class, () -> SharedMemoryRingBuffer.open(file, BUFFER_SIZE, ENTRY_SIZE, 1, new LiteBlockingWaitStrategy()));
+    }
+
+    private SharedMemoryRingBuffer open(final int consumers) throws IOException
+    {
+        return SharedMemoryRingBuffer.open(file, BUFFER_SIZE, ENTRY_SIZE, consumers, new YieldingWaitStrategy());
+    }
+
+    /**
+     * Publishes 0 to count - 1 to the ring buffer in the given file, run in a separate JVM.
+     */
+    public static final class Producer
+    {
+        public static void main(final String[] args) throws IOException
+        {
+            final SharedMemoryRingBuffer ringBuffer =
+                SharedMemoryRingBuffer.open(Paths.get(args[0]), BUFFER_SIZE, ENTRY_SIZE, 1, new YieldingWaitStrategy());
+            final int count = Integer.parseInt(args[1]);
+            for (long i = 0; i < count; i++)
+            {
+                ringBuffer.publishEvent((entry, sequence, value) -> entry.putLong(value), i);
+            }
+        }
+    }
+}
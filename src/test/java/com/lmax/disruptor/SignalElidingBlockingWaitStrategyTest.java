@@ -0,0 +1,77 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.DummySequenceBarrier;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.lmax.disruptor.support.WaitStrategyTestUtil.assertWaitForWithDelayOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class SignalElidingBlockingWaitStrategyTest
+{
+    @Test
+    public void shouldWaitForValue() throws Exception
+    {
+        assertWaitForWithDelayOf(50, new SignalElidingBlockingWaitStrategy());
+    }
+
+    @Test
+    public void shouldWakeParkedWaiterWhenCursorAdvances() throws Exception
+    {
+        final SignalElidingBlockingWaitStrategy waitStrategy = new SignalElidingBlockingWaitStrategy();
+        final Sequence cursor = new Sequence();
+        final AtomicLong result = new AtomicLong(Long.MIN_VALUE);
+
+        final Thread waiter = new Thread(() ->
+        {
+            try
+            {
+                result.set(waitStrategy.waitFor(0, cursor, cursor, new DummySequenceBarrier()));
+            }
+            catch (final Exception e)
+            {
+                e.printStackTrace();
+            }
+        });
+        waiter.start();
+
+        while (!waitStrategy.hasSleepers())
+        {
+            Thread.yield();
+        }
+
+        cursor.set(0);
+        waitStrategy.signalAllWhenBlocking();
+        waiter.join(5000);
+
+        assertThat(result.get(), is(0L));
+        assertThat(waitStrategy.hasSleepers(), is(false));
+    }
+
+    @Test
+    public void shouldNotReportSleepersWhenNobodyHasWaited()
+    {
+        final SignalElidingBlockingWaitStrategy waitStrategy = new SignalElidingBlockingWaitStrategy();
+
+        waitStrategy.signalAllWhenBlocking();
+
+        assertThat(waitStrategy.hasSleepers(), is(false));
+    }
+}
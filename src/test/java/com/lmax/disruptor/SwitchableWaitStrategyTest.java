@@ -0,0 +1,185 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.DummySequenceBarrier;
+import com.lmax.disruptor.support.StubEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.lmax.disruptor.support.WaitStrategyTestUtil.assertWaitForWithDelayOf;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SwitchableWaitStrategyTest
+{
+    @Test
+    public void shouldWaitForValue() throws Exception
+    {
+        assertWaitForWithDelayOf(50, new SwitchableWaitStrategy(new YieldingWaitStrategy()));
+    }
+
+    @Test
+    public void shouldMoveBlockedWaiterToSpinningStrategy() throws Exception
+    {
+        final SignalElidingBlockingWaitStrategy blocking = new SignalElidingBlockingWaitStrategy();
+        final SwitchableWaitStrategy waitStrategy = new SwitchableWaitStrategy(blocking);
+        final SequenceBarrier barrier = new DummySequenceBarrier();
+        final Sequence cursor = new Sequence();
+        final AtomicLong result = new AtomicLong(Long.MIN_VALUE);
+
+        final Thread waiter = startWaiter(waitStrategy, barrier, cursor, result);
+        while (!blocking.hasSleepers())
+        {
+            Thread.yield();
+        }
+
+        waitStrategy.switchTo(new YieldingWaitStrategy());
+
+        // No signal: only a spinning waiter will notice this
+        cursor.set(0);
+        waiter.join(5000);
+
+        assertThat(result.get(), is(0L));
+    }
+
+    @Test
+    public void shouldMoveSpinningWaiterToBlockingStrategy() throws Exception
+    {
+        final SignalElidingBlockingWaitStrategy blocking = new SignalElidingBlockingWaitStrategy();
+        final SwitchableWaitStrategy waitStrategy = new SwitchableWaitStrategy(new YieldingWaitStrategy());
+        final SequenceBarrier barrier = new DummySequenceBarrier();
+        final Sequence cursor = new Sequence();
+        final AtomicLong result = new AtomicLong(Long.MIN_VALUE);
+
+        final Thread waiter = startWaiter(waitStrategy, barrier, cursor, result);
+        waitStrategy.switchTo(blocking);
+        while (!blocking.hasSleepers())
+        {
+            Thread.yield();
+        }
+
+        cursor.set(0);
+        waitStrategy.signalAllWhenBlocking();
+        waiter.join(5000);
+
+        assertThat(result.get(), is(0L));
+        assertThat(waitStrategy.getCurrentStrategy(), is(sameInstance((WaitStrategy) blocking)));
+    }
+
+    @Test
+    public void shouldNotLoseWakeUpWhenSwitchingWhilePublishing() throws Exception
+    {
+        final SwitchableWaitStrategy waitStrategy = new SwitchableWaitStrategy(new BlockingWaitStrategy());
+        final RingBuffer<StubEvent> ringBuffer = RingBuffer.createSingleProducer(StubEvent.EVENT_FACTORY, 4, waitStrategy);
+        final BatchEventProcessor<StubEvent> processor = new BatchEventProcessor<>(
+            ringBuffer, ringBuffer.newBarrier(), (event, sequence, endOfBatch) ->
+            {
+            });
+        ringBuffer.addGatingSequences(processor.getSequence());
+        final AtomicBoolean running = new AtomicBoolean(true);
+
+        final Thread consumer = new Thread(processor);
+        final Thread switcher = new Thread(() ->
+        {
+            while (running.get())
+            {
+                waitStrategy.switchTo(new YieldingWaitStrategy());
+                Thread.yield();
+                waitStrategy.switchTo(new BlockingWaitStrategy());
+                Thread.yield();
+            }
+        });
+        consumer.start();
+        switcher.start();
+
+        try
+        {
+            for (long sequence = 0; sequence < 2000; sequence++)
+            {
+                ringBuffer.publish(ringBuffer.next());
+
+                // wait for the consumer to go quiet, so every event relies on its own wake up
+                final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (processor.getSequence().get() < sequence)
+                {
+                    assertTrue(System.nanoTime() < deadline, "Wake up lost for sequence " + sequence);
+                    Thread.yield();
+                }
+            }
+        }
+        finally
+        {
+            running.set(false);
+            switcher.join(5000);
+            processor.halt();
+            consumer.join(5000);
+        }
+    }
+
+    @Test
+    public void shouldStillPropagateAlerts() throws Exception
+    {
+        final SwitchableWaitStrategy waitStrategy = new SwitchableWaitStrategy(new BlockingWaitStrategy());
+        final RingBuffer<StubEvent> ringBuffer = RingBuffer.createSingleProducer(StubEvent.EVENT_FACTORY, 4, waitStrategy);
+        final SequenceBarrier barrier = ringBuffer.newBarrier();
+        final AtomicReference<Throwable> thrown = new AtomicReference<>();
+
+        final Thread waiter = new Thread(() ->
+        {
+            try
+            {
+                barrier.waitFor(0);
+            }
+            catch (final Throwable t)
+            {
+                thrown.set(t);
+            }
+        });
+        waiter.start();
+
+        waitStrategy.switchTo(new SleepingWaitStrategy());
+        barrier.alert();
+        waiter.join(5000);
+
+        assertThat(thrown.get(), instanceOf(AlertException.class));
+    }
+
+    private static Thread startWaiter(
+        final WaitStrategy waitStrategy, final SequenceBarrier barrier, final Sequence cursor, final AtomicLong result)
+    {
+        final Thread waiter = new Thread(() ->
+        {
+            try
+            {
+                result.set(waitStrategy.waitFor(0, cursor, cursor, barrier));
+            }
+            catch (final Exception e)
+            {
+                e.printStackTrace();
+            }
+        });
+        waiter.start();
+        return waiter;
+    }
+}
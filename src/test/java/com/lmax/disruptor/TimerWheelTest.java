@@ -0,0 +1,153 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor;
+
+import com.lmax.disruptor.support.LongEvent;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimerWheelTest
+{
+    private final RingBuffer<LongEvent> expiries = RingBuffer.createSingleProducer(LongEvent.FACTORY, 64);
+    private final TimerWheel<LongEvent> wheel = new TimerWheel<>(
+        expiries, (event, sequence, timerId, deadline) -> event.set(timerId), 10, TimeUnit.NANOSECONDS, 8, 16, () -> 0L);
+
+    @Test
+    public void shouldExpireOnFirstTickAtOrAfterDeadline()
+    {
+        wheel.schedule(1L, 25L);
+
+        assertThat(wheel.expireTimers(29L), is(0));
+        assertThat(wheel.expireTimers(30L), is(1));
+        assertThat(expiries.getCursor(), is(0L));
+        assertThat(expiries.get(0).get(), is(1L));
+        assertThat(wheel.getTimerCount(), is(0));
+    }
+
+    @Test
+    public void shouldNotExpireCancelledOrReplacedTimers()
+    {
+        wheel.schedule(1L, 15L);
+        wheel.schedule(2L, 15L);
+        wheel.schedule(2L, 45L);
+        assertTrue(wheel.cancel(1L));
+        assertFalse(wheel.cancel(3L));
+
+        assertThat(wheel.expireTimers(40L), is(0));
+        assertThat(wheel.expireTimers(50L), is(1));
+        assertThat(expiries.get(0).get(), is(2L));
+        assertThat(expiries.getCursor(), is(0L));
+    }
+
+    @Test
+    public void shouldKeepTimersDueInLaterRotations()
+    {
+        wheel.schedule(1L, 165L);
+        wheel.schedule(2L, 1_000L);
+
+        assertThat(wheel.expireTimers(20L), is(0));
+        assertThat(wheel.expireTimers(160L), is(0));
+        assertThat(wheel.expireTimers(170L), is(1));
+        assertThat(wheel.expireTimers(5_000L), is(1));
+        assertThat(expiries.get(1).get(), is(2L));
+    }
+
+    @Test
+    public void shouldExpireTimersScheduledInThePastOnNextTick()
+    {
+        wheel.expireTimers(100L);
+        wheel.schedule(1L, 50L);
+
+        assertThat(wheel.expireTimers(105L), is(0));
+        assertThat(wheel.expireTimers(110L), is(1));
+    }
+
+    @Test
+    public void shouldTrackManyTimersThroughScheduleAndCancel()
+    {
+        final TimerWheel<LongEvent> large = new TimerWheel<>(
+            expiries, (event, sequence, timerId, deadline) -> event.set(timerId), 10, TimeUnit.NANOSECONDS, 8, 1024, () -> 0L);
+        final Random random = new Random(7);
+        final long[] ids = new long[1024];
+        for (int i = 0; i < ids.length; i++)
+        {
+            ids[i] = random.nextLong();
+            large.schedule(ids[i], 1_000_000L + i);
+        }
+        assertThrows(IllegalStateException.class, () -> large.schedule(42L, 10L));
+
+        for (int i = 0; i < ids.length; i += 2)
+        {
+            assertTrue(large.cancel(ids[i]));
+        }
+        for (int i = 0; i < ids.length; i++)
+        {
+            assertThat(large.cancel(ids[i]), is(i % 2 == 1));
+        }
+        assertThat(large.getTimerCount(), is(0));
+    }
+
+    @Test
+    public void shouldScheduleThroughRequestRingBuffer() throws Exception
+    {
+        final RingBuffer<TimerRequest> requests = RingBuffer.createMultiProducer(
+            TimerRequest.FACTORY, 16, new LiteTimeoutBlockingWaitStrategy(1, TimeUnit.MILLISECONDS));
+        final TimerWheel<LongEvent> realTimeWheel = new TimerWheel<>(
+            expiries, (event, sequence, timerId, deadline) -> event.set(timerId), 1, TimeUnit.MILLISECONDS, 64, 16);
+        final BatchEventProcessor<TimerRequest> wheelProcessor = new BatchEventProcessor<>(requests, requests.newBarrier(), realTimeWheel);
+        final CountDownLatch expired = new CountDownLatch(1);
+        final BatchEventProcessor<LongEvent> expiryProcessor = new BatchEventProcessor<>(
+            expiries, expiries.newBarrier(), (event, sequence, endOfBatch) ->
+            {
+                if (event.get() == 2L)
+                {
+                    expired.countDown();
+                }
+            });
+        requests.addGatingSequences(wheelProcessor.getSequence());
+        expiries.addGatingSequences(expiryProcessor.getSequence());
+        DaemonThreadFactory.INSTANCE.newThread(wheelProcessor).start();
+        DaemonThreadFactory.INSTANCE.newThread(expiryProcessor).start();
+
+        TimerRequest.schedule(requests, 1L, 1, TimeUnit.HOURS);
+        TimerRequest.schedule(requests, 2L, 5, TimeUnit.MILLISECONDS);
+        TimerRequest.cancel(requests, 1L);
+
+        assertTrue(expired.await(5, TimeUnit.SECONDS));
+        assertThat(expiries.getCursor(), is(0L));
+        wheelProcessor.halt();
+        expiryProcessor.halt();
+    }
+
+    @Test
+    public void shouldRejectInvalidConfiguration()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new TimerWheel<>(
+            expiries, (event, sequence, timerId, deadline) -> event.set(timerId), 1, TimeUnit.MILLISECONDS, 6, 16));
+        assertThrows(IllegalArgumentException.class, () -> new TimerWheel<>(
+            expiries, (event, sequence, timerId, deadline) -> event.set(timerId), 1, TimeUnit.MILLISECONDS, 8, 0));
+    }
+}
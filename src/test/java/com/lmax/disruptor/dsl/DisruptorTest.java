@@ -21,8 +21,12 @@ import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.ExceptionHandler;
 import com.lmax.disruptor.FatalExceptionHandler;
 import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
 import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.SequenceCheckpointer;
 import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.lmax.disruptor.dsl.stubs.DeferredSequenceHandler;
 import com.lmax.disruptor.dsl.stubs.DelayedEventHandler;
 import com.lmax.disruptor.dsl.stubs.EventHandlerStub;
 import com.lmax.disruptor.dsl.stubs.EvilEqualsEventHandler;
@@ -31,6 +35,7 @@ import com.lmax.disruptor.dsl.stubs.SleepingEventHandler;
 import com.lmax.disruptor.dsl.stubs.StubExceptionHandler;
 import com.lmax.disruptor.dsl.stubs.StubPublisher;
 import com.lmax.disruptor.dsl.stubs.StubThreadFactory;
+import com.lmax.disruptor.support.LongEvent;
 import com.lmax.disruptor.support.TestEvent;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -39,9 +44,12 @@ import org.junit.jupiter.api.Timeout;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -209,6 +217,20 @@ public class DisruptorTest
         ensureTwoEventsProcessedAccordingToDependencies(countDownLatch);
     }
 
+    @Test
+    public void shouldProcessEventsWithPerGroupWaitStrategies() throws Exception
+    {
+        DelayedEventHandler eventHandler1 = createDelayedEventHandler();
+
+        CountDownLatch countDownLatch = new CountDownLatch(2);
+        EventHandler<TestEvent> eventHandler2 = new EventHandlerStub<>(countDownLatch);
+
+        disruptor.handleEventsWith(new YieldingWaitStrategy(), eventHandler1)
+            .then(new BlockingWaitStrategy(), eventHandler2);
+
+        ensureTwoEventsProcessedAccordingToDependencies(countDownLatch, eventHandler1);
+    }
+
     @Test
     public void shouldWaitUntilAllFirstEventProcessorsProcessEventBeforeMakingItAvailableToDependentEventProcessors()
         throws Exception
@@ -553,6 +575,191 @@ public class DisruptorTest
         });
     }
 
+    @Test
+    public void shouldStartCheckpointedHandlersFromRestoredSequenceWithCursorAligned() throws Exception
+    {
+        final AtomicLong checkpointed = new AtomicLong(5L);
+        final List<Long> firstSequences = new CopyOnWriteArrayList<>();
+        final List<Long> secondSequences = new CopyOnWriteArrayList<>();
+        final List<Long> dependentSequences = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(4);
+
+        disruptor.handleEventsWithCheckpointed(checkpointer(checkpointed), 1, (event, sequence, endOfBatch) -> firstSequences.add(sequence))
+            .then((event, sequence, endOfBatch) ->
+            {
+                dependentSequences.add(sequence);
+                latch.countDown();
+            });
+        disruptor.handleEventsWithCheckpointed(checkpointer(new AtomicLong(7L)), 1, (event, sequence, endOfBatch) ->
+        {
+            secondSequences.add(sequence);
+            latch.countDown();
+        });
+
+        final RingBuffer<TestEvent> ringBuffer = disruptor.start();
+        assertThat(ringBuffer.getCursor(), is(5L));
+
+        for (int i = 0; i < 3; i++)
+        {
+            ringBuffer.publishEvent((event, sequence) -> lastPublishedEvent = event);
+        }
+        assertTrue(latch.await(TIMEOUT_IN_SECONDS, SECONDS));
+        disruptor.shutdown(TIMEOUT_IN_SECONDS, SECONDS);
+
+        assertThat(firstSequences, is(List.of(6L, 7L, 8L)));
+        assertThat(dependentSequences, is(List.of(6L, 7L, 8L)));
+        assertThat(secondSequences, is(List.of(8L)));
+        assertThat(checkpointed.get(), is(8L));
+    }
+
+    @Test
+    public void shouldAlignHandlersAfterCheckpointedHandlerToItsRestoredSequence() throws Exception
+    {
+        final List<Long> dependentSequences = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(2);
+        disruptor.handleEventsWithCheckpointed(checkpointer(new AtomicLong(5L)), 1, (event, sequence, endOfBatch) ->
+        {
+        });
+        disruptor.handleEventsWithCheckpointed(checkpointer(new AtomicLong(7L)), 1, (event, sequence, endOfBatch) ->
+        {
+        })
+            .then((event, sequence, endOfBatch) ->
+            {
+            })
+            .then((event, sequence, endOfBatch) ->
+            {
+                dependentSequences.add(sequence);
+                latch.countDown();
+            });
+
+        final RingBuffer<TestEvent> ringBuffer = disruptor.start();
+        assertThat(ringBuffer.getCursor(), is(5L));
+
+        for (int i = 0; i < 4; i++)
+        {
+            ringBuffer.publishEvent((event, sequence) -> lastPublishedEvent = event);
+        }
+        assertTrue(latch.await(TIMEOUT_IN_SECONDS, SECONDS));
+        disruptor.halt();
+
+        assertThat(dependentSequences, is(List.of(8L, 9L)));
+    }
+
+    @Test
+    public void shouldNotWarmUpCheckpointedHandlers()
+    {
+        disruptor.handleEventsWithCheckpointed(checkpointer(new AtomicLong(7L)), 1, new SleepingEventHandler());
+
+        assertThrows(IllegalStateException.class, () -> disruptor.warmUp((event, sequence) -> lastPublishedEvent = event));
+    }
+
+    @Test
+    public void shouldBlockUntilDrainedAndFlushHandlersOnShutdown() throws Exception
+    {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicLong flushedSequence = new AtomicLong(-1L);
+        disruptor.handleEventsWith(new EventHandler<TestEvent>()
+        {
+            @Override
+            public void onEvent(final TestEvent event, final long sequence, final boolean endOfBatch) throws Exception
+            {
+                release.await();
+            }
+
+            @Override
+            public void onFlush(final long sequence)
+            {
+                flushedSequence.set(sequence);
+            }
+        });
+        for (int i = 0; i < 3; i++)
+        {
+            publishEvent();
+        }
+
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Thread shutdownThread = new Thread(() ->
+        {
+            try
+            {
+                disruptor.shutdown(TIMEOUT_IN_SECONDS, SECONDS);
+            }
+            catch (final Throwable e)
+            {
+                failure.set(e);
+            }
+        });
+        shutdownThread.start();
+        while (shutdownThread.getState() != Thread.State.TIMED_WAITING)
+        {
+            Thread.yield();
+        }
+
+        release.countDown();
+        shutdownThread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_IN_SECONDS));
+
+        assertFalse(shutdownThread.isAlive());
+        assertThat(failure.get(), is((Throwable) null));
+        assertThat(flushedSequence.get(), is(2L));
+    }
+
+    @Test
+    public void shouldFlushEveryHandlerOnShutdown() throws Exception
+    {
+        final List<Long> flushed = new CopyOnWriteArrayList<>();
+        disruptor.handleEventsWith(new FlushRecordingHandler(flushed), new FlushRecordingHandler(flushed));
+        for (int i = 0; i < 3; i++)
+        {
+            publishEvent();
+        }
+
+        disruptor.shutdown(TIMEOUT_IN_SECONDS, SECONDS);
+
+        assertThat(flushed, is(List.of(2L, 2L)));
+    }
+
+    @Test
+    public void shouldFlushHandlerOnShutdownWithoutBacklog() throws Exception
+    {
+        final List<Long> flushed = new CopyOnWriteArrayList<>();
+        final List<Long> handled = new CopyOnWriteArrayList<>();
+        disruptor.handleEventsWith(new FlushRecordingHandler(flushed)
+        {
+            @Override
+            public void onEvent(final TestEvent event, final long sequence, final boolean endOfBatch)
+            {
+                handled.add(sequence);
+            }
+        });
+        publishEvent();
+        waitForSize(handled, 1);
+
+        disruptor.shutdown(TIMEOUT_IN_SECONDS, SECONDS);
+
+        assertThat(flushed, is(List.of(0L)));
+    }
+
+    private static class FlushRecordingHandler implements EventHandler<TestEvent>
+    {
+        private final List<Long> flushed;
+
+        FlushRecordingHandler(final List<Long> flushed)
+        {
+            this.flushed = flushed;
+        }
+
+        @Override
+        public void onEvent(final TestEvent event, final long sequence, final boolean endOfBatch)
+        {
+        }
+
+        @Override
+        public void onFlush(final long sequence)
+        {
+            flushed.add(sequence);
+        }
+    }
+
     @Test
     @Timeout(value = 1000, unit = TimeUnit.MILLISECONDS)
     public void shouldTrackRemainingCapacity() throws Exception
@@ -637,6 +844,279 @@ public class DisruptorTest
         ensureTwoEventsProcessedAccordingToDependencies(countDownLatch, delayedEventHandler);
     }
 
+    @Test
+    public void shouldRunFusedHandlersInOrderOnOneThread() throws Exception
+    {
+        final Disruptor<LongEvent> fused = new Disruptor<>(LongEvent.FACTORY, 8, executor, ProducerType.SINGLE, new BlockingWaitStrategy());
+        final List<String> calls = new CopyOnWriteArrayList<>();
+        final CountDownLatch afterFirst = new CountDownLatch(3);
+
+        final EventHandler<LongEvent> first = (event, sequence, endOfBatch) -> calls.add("first-" + sequence);
+        final EventHandler<LongEvent> second = (event, sequence, endOfBatch) -> calls.add("second-" + sequence);
+        final EventHandler<LongEvent> third = (event, sequence, endOfBatch) -> calls.add("third-" + sequence);
+        fused.handleEventsWithFused(first, second, third);
+        fused.after(first).handleEventsWith((event, sequence, endOfBatch) -> afterFirst.countDown());
+
+        final int threadsBefore = executor.getExecutionCount();
+        fused.start();
+        assertThat(executor.getExecutionCount() - threadsBefore, is(2));
+
+        for (int i = 0; i < 3; i++)
+        {
+            fused.publishEvent((event, sequence) -> event.set(sequence));
+        }
+
+        assertTrue(afterFirst.await(TIMEOUT_IN_SECONDS, SECONDS));
+        fused.shutdown(TIMEOUT_IN_SECONDS, SECONDS);
+
+        assertThat(calls, is(List.of(
+            "first-0", "second-0", "third-0", "first-1", "second-1", "third-1", "first-2", "second-2", "third-2")));
+        assertThat(fused.getSequenceValueFor(first), is(2L));
+        assertThat(fused.getSequenceValueFor(second), is(2L));
+        assertThat(fused.getSequenceValueFor(third), is(2L));
+    }
+
+    @Test
+    public void shouldLeaveFusedStageThatAdvancesItsOwnSequenceToDoSo() throws Exception
+    {
+        final DeferredSequenceHandler<LongEvent> deferred = new DeferredSequenceHandler<>();
+        final EventHandler<LongEvent> plain = (event, sequence, endOfBatch) ->
+        {
+        };
+        final Sequence processorSequence = new Sequence();
+        final FusedEventHandler<LongEvent> fusedEventHandler = new FusedEventHandler<>(new EventHandler[]{deferred, plain});
+        fusedEventHandler.setSequenceCallback(processorSequence);
+
+        assertFalse(fusedEventHandler.advancesOwnSequence());
+        assertTrue(new FusedEventHandler<LongEvent>(new EventHandler[]{plain, deferred}).advancesOwnSequence());
+
+        fusedEventHandler.onEvent(new LongEvent(), 0, false);
+        fusedEventHandler.onEvent(new LongEvent(), 1, true);
+        assertThat(fusedEventHandler.getStageSequence(0).get(), is(-1L));
+
+        fusedEventHandler.onFlush(1);
+        assertThat(fusedEventHandler.getStageSequence(0).get(), is(1L));
+    }
+
+    @Test
+    public void shouldAttachAndDetachHandlersAtRuntime() throws Exception
+    {
+        final CountDownLatch released = new CountDownLatch(1);
+        final EventHandler<TestEvent> slow = (event, sequence, endOfBatch) -> released.await();
+        disruptor.handleEventsWith(slow);
+        disruptor.start();
+
+        disruptor.publishEvent((event, sequence) -> lastPublishedEvent = event);
+        disruptor.publishEvent((event, sequence) -> lastPublishedEvent = event);
+
+        final List<Long> caughtUp = new CopyOnWriteArrayList<>();
+        final List<Long> live = new CopyOnWriteArrayList<>();
+        final List<Long> dependent = new CopyOnWriteArrayList<>();
+        final EventHandler<TestEvent> catchingUp = (event, sequence, endOfBatch) -> caughtUp.add(sequence);
+        final EventHandler<TestEvent> liveHandler = (event, sequence, endOfBatch) -> live.add(sequence);
+        final EventHandler<TestEvent> dependentHandler = (event, sequence, endOfBatch) -> dependent.add(sequence);
+
+        disruptor.attachFrom(0, catchingUp).attach(dependentHandler);
+        disruptor.attach(liveHandler);
+        disruptor.publishEvent((event, sequence) -> lastPublishedEvent = event);
+
+        waitForSize(caughtUp, 3);
+        waitForSize(live, 1);
+        while (!dependent.contains(2L))
+        {
+            Thread.yield();
+        }
+        assertThat(caughtUp, is(List.of(0L, 1L, 2L)));
+        assertThat(live, is(List.of(2L)));
+        assertThat(caughtUp.subList(3 - dependent.size(), 3), is(dependent));
+
+        assertThrows(IllegalStateException.class, () -> disruptor.detach(catchingUp));
+        assertThrows(IllegalArgumentException.class, () -> disruptor.detach(slow));
+        disruptor.detach(dependentHandler);
+        disruptor.detach(catchingUp);
+        disruptor.detach(liveHandler);
+
+        assertThat(disruptor.getRingBuffer().getMinimumGatingSequence(), is(-1L));
+        released.countDown();
+        disruptor.shutdown(TIMEOUT_IN_SECONDS, SECONDS);
+        assertThat(disruptor.getRingBuffer().getMinimumGatingSequence(), is(2L));
+    }
+
+    @Test
+    public void shouldKeepConsumingWithHandlerAttachedAlongsideDetachedOne() throws Exception
+    {
+        disruptor.handleEventsWith((event, sequence, endOfBatch) ->
+        {
+        });
+        disruptor.start();
+
+        final List<Long> detached = new CopyOnWriteArrayList<>();
+        final List<Long> remaining = new CopyOnWriteArrayList<>();
+        final EventHandler<TestEvent> detachedHandler = (event, sequence, endOfBatch) -> detached.add(sequence);
+        final EventHandler<TestEvent> remainingHandler = (event, sequence, endOfBatch) -> remaining.add(sequence);
+        disruptor.attach(detachedHandler, remainingHandler);
+
+        disruptor.publishEvent((event, sequence) -> lastPublishedEvent = event);
+        waitForSize(detached, 1);
+        waitForSize(remaining, 1);
+
+        disruptor.detach(detachedHandler);
+        for (int i = 0; i < 8; i++)
+        {
+            disruptor.publishEvent((event, sequence) -> lastPublishedEvent = event);
+        }
+
+        waitForSize(remaining, 9);
+        assertThat(detached, is(List.of(0L)));
+        disruptor.shutdown(TIMEOUT_IN_SECONDS, SECONDS);
+    }
+
+    @Test
+    public void shouldNotAttachFromOverwrittenSequence() throws Exception
+    {
+        final EventHandler<TestEvent> handler = (event, sequence, endOfBatch) ->
+        {
+        };
+        assertThrows(IllegalStateException.class, () -> disruptor.attach(handler));
+
+        disruptor.handleEventsWith(handler);
+        disruptor.start();
+        for (int i = 0; i < 6; i++)
+        {
+            disruptor.publishEvent((event, sequence) -> lastPublishedEvent = event);
+        }
+        disruptor.shutdown(TIMEOUT_IN_SECONDS, SECONDS);
+
+        assertThrows(IllegalArgumentException.class, () -> disruptor.attachFrom(1, (event, sequence, endOfBatch) -> fail()));
+        assertThat(disruptor.getRingBuffer().getMinimumGatingSequence(), is(5L));
+    }
+
+    private static SequenceCheckpointer checkpointer(final AtomicLong checkpointed)
+    {
+        return new SequenceCheckpointer()
+        {
+            @Override
+            public void checkpoint(final long sequence)
+            {
+                checkpointed.set(sequence);
+            }
+
+            @Override
+            public long restore()
+            {
+                return checkpointed.get();
+            }
+        };
+    }
+
+    private static void waitForSize(final List<?> list, final int size)
+    {
+        while (list.size() < size)
+        {
+            Thread.yield();
+        }
+    }
+
+    @Test
+    public void shouldResetToCleanCursorAfterWarmUpSingleProducer() throws Exception
+    {
+        assertWarmUpResetsToCleanCursor(ProducerType.SINGLE);
+    }
+
+    @Test
+    public void shouldResetToCleanCursorAfterWarmUpMultiProducer() throws Exception
+    {
+        assertWarmUpResetsToCleanCursor(ProducerType.MULTI);
+    }
+
+    @Test
+    public void shouldResetFusedStagesAfterWarmUp() throws Exception
+    {
+        final Disruptor<LongEvent> warmed = new Disruptor<>(LongEvent.FACTORY, 8, executor, ProducerType.MULTI, new BlockingWaitStrategy());
+        final CountDownLatch released = new CountDownLatch(1);
+        final List<Long> realSequences = new CopyOnWriteArrayList<>();
+        final CountDownLatch realEvents = new CountDownLatch(2);
+
+        final EventHandler<LongEvent> first = (event, sequence, endOfBatch) ->
+        {
+            if (event.get() >= 0)
+            {
+                released.await();
+            }
+        };
+        final EventHandler<LongEvent> second = (event, sequence, endOfBatch) ->
+        {
+        };
+        warmed.handleEventsWithFused(first, second);
+        warmed.after(first).handleEventsWith((event, sequence, endOfBatch) ->
+        {
+            if (event.get() >= 0)
+            {
+                realSequences.add(sequence);
+                realEvents.countDown();
+            }
+        });
+
+        warmed.warmUp((event, sequence) -> event.set(-1L), 100);
+
+        assertThat(warmed.getSequenceValueFor(first), is(-1L));
+        assertThat(warmed.getSequenceValueFor(second), is(-1L));
+
+        warmed.start();
+        warmed.publishEvent((event, sequence) -> event.set(sequence));
+        warmed.publishEvent((event, sequence) -> event.set(sequence));
+
+        // the consumer after the first stage must wait for it, not run ahead on a stage sequence left by the warm up
+        assertFalse(realEvents.await(50, TimeUnit.MILLISECONDS));
+        assertThat(realSequences.size(), is(0));
+
+        released.countDown();
+        assertTrue(realEvents.await(TIMEOUT_IN_SECONDS, SECONDS));
+        assertThat(realSequences, is(List.of(0L, 1L)));
+        warmed.halt();
+    }
+
+    private void assertWarmUpResetsToCleanCursor(final ProducerType producerType) throws Exception
+    {
+        final Disruptor<LongEvent> warmed = new Disruptor<>(LongEvent.FACTORY, 8, executor, producerType, new BlockingWaitStrategy());
+        final AtomicLong warmUpEvents = new AtomicLong();
+        final List<Long> realSequences = new CopyOnWriteArrayList<>();
+        final CountDownLatch realEvents = new CountDownLatch(2);
+
+        final EventHandler<LongEvent> first = (event, sequence, endOfBatch) ->
+        {
+            if (event.get() < 0)
+            {
+                warmUpEvents.incrementAndGet();
+            }
+        };
+        final EventHandler<LongEvent> second = (event, sequence, endOfBatch) ->
+        {
+            if (event.get() >= 0)
+            {
+                realSequences.add(sequence);
+                realEvents.countDown();
+            }
+        };
+        warmed.handleEventsWith(first).then(second);
+
+        warmed.warmUp((event, sequence) -> event.set(-1L), 100);
+
+        assertThat(warmUpEvents.get(), is(100L));
+        assertThat(warmed.getCursor(), is(-1L));
+        assertThat(warmed.getSequenceValueFor(first), is(-1L));
+        assertThat(warmed.getSequenceValueFor(second), is(-1L));
+        assertFalse(warmed.getRingBuffer().isAvailable(0));
+
+        warmed.start();
+        warmed.publishEvent((event, sequence) -> event.set(sequence));
+        warmed.publishEvent((event, sequence) -> event.set(sequence));
+
+        assertTrue(realEvents.await(TIMEOUT_IN_SECONDS, SECONDS));
+        assertThat(realSequences, is(List.of(0L, 1L)));
+        warmed.halt();
+    }
+
     private void ensureTwoEventsProcessedAccordingToDependencies(
         final CountDownLatch countDownLatch,
         final DelayedEventHandler... dependencies)
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.dsl;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.LongEventHandler;
+import com.lmax.disruptor.LongRingBuffer;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrimitiveDisruptorTest
+{
+    @Test
+    public void shouldProcessValuesInDependencyOrder() throws Exception
+    {
+        final LongRingBuffer ringBuffer = LongRingBuffer.createMultiProducer(8, new BlockingWaitStrategy());
+        final PrimitiveDisruptor<LongRingBuffer, LongEventHandler> disruptor =
+            new PrimitiveDisruptor<>(ringBuffer, DaemonThreadFactory.INSTANCE);
+
+        final AtomicLong first = new AtomicLong(-1);
+        final AtomicLong second = new AtomicLong(-1);
+        final AtomicLong orderingViolations = new AtomicLong();
+        final CountDownLatch done = new CountDownLatch(100);
+
+        disruptor
+            .handleEventsWith((value, sequence, endOfBatch) -> first.set(value))
+            .then((value, sequence, endOfBatch) ->
+            {
+                if (first.get() < value)
+                {
+                    orderingViolations.incrementAndGet();
+                }
+                second.set(value);
+                done.countDown();
+            });
+
+        disruptor.start();
+        for (long i = 0; i < 100; i++)
+        {
+            ringBuffer.put(i);
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        disruptor.shutdown(5, TimeUnit.SECONDS);
+
+        assertThat(second.get(), is(99L));
+        assertThat(orderingViolations.get(), is(0L));
+    }
+
+    @Test
+    public void shouldGateProducerOnLastHandlerInChain()
+    {
+        final LongRingBuffer ringBuffer = LongRingBuffer.createSingleProducer(4, new BlockingWaitStrategy());
+        final PrimitiveDisruptor<LongRingBuffer, LongEventHandler> disruptor =
+            new PrimitiveDisruptor<>(ringBuffer, DaemonThreadFactory.INSTANCE);
+
+        disruptor.handleEventsWith(PrimitiveDisruptorTest::ignore).then(PrimitiveDisruptorTest::ignore);
+
+        for (long i = 0; i < 4; i++)
+        {
+            assertTrue(ringBuffer.tryPut(i));
+        }
+        assertThat(ringBuffer.tryPut(4L), is(false));
+    }
+
+    @Test
+    public void shouldNotAllowHandlersAfterStart()
+    {
+        final LongRingBuffer ringBuffer = LongRingBuffer.createSingleProducer(4, new BlockingWaitStrategy());
+        final PrimitiveDisruptor<LongRingBuffer, LongEventHandler> disruptor =
+            new PrimitiveDisruptor<>(ringBuffer, DaemonThreadFactory.INSTANCE);
+        disruptor.start();
+
+        assertThrows(IllegalStateException.class, () -> disruptor.handleEventsWith(PrimitiveDisruptorTest::ignore));
+        disruptor.halt();
+    }
+
+    private static void ignore(final long value, final long sequence, final boolean endOfBatch)
+    {
+    }
+}
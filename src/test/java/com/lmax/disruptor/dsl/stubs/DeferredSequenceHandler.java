@@ -0,0 +1,49 @@
+/*
+ * Copyright 2011 LMAX Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.lmax.disruptor.dsl.stubs;
+
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.Sequence;
+
+public class DeferredSequenceHandler<T> implements EventHandler<T>
+{
+    private Sequence sequenceCallback;
+    private long lastSequence = -1L;
+
+    @Override
+    public void onEvent(final T entry, final long sequence, final boolean endOfBatch) throws Exception
+    {
+        lastSequence = sequence;
+    }
+
+    @Override
+    public void onFlush(final long sequence)
+    {
+        sequenceCallback.set(lastSequence);
+    }
+
+    @Override
+    public void setSequenceCallback(final Sequence sequenceCallback)
+    {
+        this.sequenceCallback = sequenceCallback;
+    }
+
+    @Override
+    public boolean advancesOwnSequence()
+    {
+        return true;
+    }
+}